@@ -10,6 +10,7 @@
 package org.openmrs;
 
 import org.apache.commons.lang3.StringUtils;
+import org.openmrs.util.IdBitmap;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -135,6 +136,13 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		return StringUtils.join(getMemberIds(), ',');
 	}
 	
+	/**
+	 * Checks whether the patient has an unvoided membership, going through the memberships. To check
+	 * many ids, check them against {@link #getActiveMemberIds()} instead.
+	 * 
+	 * @param patientId the id of the patient
+	 * @return true if the patient has an unvoided membership
+	 */
 	public boolean contains(Integer patientId) {
 		return getMemberships() != null
 		        && getMemberships().stream().anyMatch(m -> m.getPatientId().equals(patientId) && !m.getVoided());
@@ -209,6 +217,29 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		return getActiveMemberships(new Date());
 	}
 	
+	/**
+	 * Gets the ids of the patients with an active membership as of the given date, as a bitmap which
+	 * is cheap to check ids against and to combine with the ids of other cohorts
+	 * 
+	 * @since 2.5.0
+	 * @param asOfDate date used to work out the active memberships
+	 * @return the ids of the active members
+	 * <strong>Should</strong> get the ids of the active members only
+	 */
+	public IdBitmap getActiveMemberIds(Date asOfDate) {
+		IdBitmap ids = new IdBitmap();
+		getMemberships().stream().filter(m -> m.isActive(asOfDate)).forEach(m -> ids.add(m.getPatientId()));
+		return ids;
+	}
+	
+	/**
+	 * @since 2.5.0
+	 * @see #getActiveMemberIds(Date)
+	 */
+	public IdBitmap getActiveMemberIds() {
+		return getActiveMemberIds(new Date());
+	}
+	
 	/**
 	 * @since 2.1.0
 	 */
@@ -217,8 +248,7 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public int size() {
-		return getMemberships().stream().filter(m -> !m.getVoided()).collect(Collectors.toList())
-		        .size();
+		return (int) getMemberships().stream().filter(m -> !m.getVoided()).count();
 	}
 	
 	/**
@@ -236,7 +266,8 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	// static utility methods
 	
 	/**
-	 * Returns the union of two cohorts
+	 * Returns the union of two cohorts. The memberships themselves are combined, so that their dates
+	 * are kept; {@link IdBitmap#union(IdBitmap, IdBitmap)} combines the ids of the active members only.
 	 *
 	 * @param a The first Cohort
 	 * @param b The second Cohort
@@ -257,7 +288,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	/**
-	 * Returns the intersection of two cohorts, treating null as an empty cohort
+	 * Returns the intersection of two cohorts, treating null as an empty cohort. The memberships of
+	 * the first cohort which the second one has are kept, without copying the first cohort;
+	 * {@link IdBitmap#intersect(IdBitmap, IdBitmap)} intersects the ids of the active members only.
 	 *
 	 * @param a The first Cohort
 	 * @param b The second Cohort
@@ -267,14 +300,20 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		Cohort ret = new Cohort();
 		ret.setName("(" + (a == null ? "NULL" : a.getName()) + " * " + (b == null ? "NULL" : b.getName()) + ")");
 		if (a != null && b != null) {
-			ret.getMemberships().addAll(a.getMemberships());
-			ret.getMemberships().retainAll(b.getMemberships());
+			Collection<CohortMembership> others = b.getMemberships();
+			for (CohortMembership membership : a.getMemberships()) {
+				if (others.contains(membership)) {
+					ret.getMemberships().add(membership);
+				}
+			}
 		}
 		return ret;
 	}
 	
 	/**
-	 * Subtracts a cohort from a cohort
+	 * Subtracts a cohort from a cohort. The memberships of the first cohort which the second one does
+	 * not have are kept, without copying the first cohort; {@link IdBitmap#subtract(IdBitmap, IdBitmap)}
+	 * subtracts the ids of the active members only.
 	 *
 	 * @param a the original Cohort
 	 * @param b the Cohort to subtract
@@ -283,9 +322,15 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	public static Cohort subtract(Cohort a, Cohort b) {
 		Cohort ret = new Cohort();
 		if (a != null) {
-			ret.getMemberships().addAll(a.getMemberships());
-			if (b != null) {
-				ret.getMemberships().removeAll(b.getMemberships());
+			if (b == null) {
+				ret.getMemberships().addAll(a.getMemberships());
+			} else {
+				Collection<CohortMembership> others = b.getMemberships();
+				for (CohortMembership membership : a.getMemberships()) {
+					if (!others.contains(membership)) {
+						ret.getMemberships().add(membership);
+					}
+				}
 				ret.setName("(" + a.getName() + " - " + b.getName() + ")");
 			}
 		}
@@ -1197,6 +1197,14 @@ public class Obs extends BaseFormRecordableOpenmrsData {
 		return dirty;
 	}
 	
+	/**
+	 * Marks this obs as not dirty, this is called by {@link ObsPostLoadEventListener} once the obs
+	 * has been loaded from the database since hibernate calls the setters while loading it
+	 */
+	void clearDirty() {
+		dirty = false;
+	}
+	
 	protected void markAsDirty(Object oldValue, Object newValue) {
 		//Should we ignore the case for Strings?
 		if (!isDirty() && obsId != null && !OpenmrsUtil.nullSafeEquals(oldValue, newValue)) {
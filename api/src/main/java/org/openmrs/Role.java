@@ -14,6 +14,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.openmrs.util.RoleConstants;
+import org.openmrs.util.RoleGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,11 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	
 	private Set<Role> childRoles;
 	
+	/**
+	 * The ancestors of this role and their privileges, see {@link #getParentClosure()}
+	 */
+	private transient volatile RoleGraph.Closure parentClosure;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -70,6 +76,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setPrivileges(Set<Privilege> privileges) {
 		this.privileges = privileges;
+		this.parentClosure = null;
 	}
 	
 	@Override
@@ -88,6 +95,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		}
 		if (privilege != null && !containsPrivilege(privileges, privilege.getPrivilege())) {
 			privileges.add(privilege);
+			RoleGraph.invalidate();
 		}
 	}
 	
@@ -106,8 +114,8 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 * @param privilege Privilege to remove
 	 */
 	public void removePrivilege(Privilege privilege) {
-		if (privileges != null) {
-			privileges.remove(privilege);
+		if (privileges != null && privileges.remove(privilege)) {
+			RoleGraph.invalidate();
 		}
 	}
 	
@@ -176,6 +184,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setInheritedRoles(Set<Role> inheritedRoles) {
 		this.inheritedRoles = inheritedRoles;
+		this.parentClosure = null;
 	}
 	
 	/**
@@ -194,11 +203,37 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 * @return Return this role's parents
 	 */
 	public Set<Role> getAllParentRoles() {
-		Set<Role> parents = new HashSet<>();
-		if (inheritsRoles()) {
-			parents.addAll(this.recurseOverParents(parents));
+		return new HashSet<>(getParentClosure().getRoles());
+	}
+	
+	/**
+	 * Gets all the ancestors of this role and the privileges granted by them. The closure is
+	 * computed once and then reused until the {@link RoleGraph} is invalidated or the inherited
+	 * roles of this role are replaced.
+	 *
+	 * @return the closure of the parent roles of this role
+	 * @since 2.5.0
+	 */
+	public RoleGraph.Closure getParentClosure() {
+		RoleGraph.Closure closure = parentClosure;
+		if (closure == null || !closure.isCurrent()) {
+			Set<Role> parents = new HashSet<>(getInheritedRoles());
+			// prevent an obvious looping problem
+			parents.remove(this);
+			closure = RoleGraph.closureOf(parents);
+			parentClosure = closure;
 		}
-		return parents;
+		return closure;
+	}
+	
+	/**
+	 * Discards the closure of the parent roles of this role, so that it is computed again the next
+	 * time it is needed, e.g. because the inherited roles have been changed in memory
+	 *
+	 * @since 2.5.0
+	 */
+	public void resetParentClosure() {
+		parentClosure = null;
 	}
 	
 	/**
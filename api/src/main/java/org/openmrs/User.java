@@ -26,6 +26,7 @@ import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.RoleConstants;
+import org.openmrs.util.RoleGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +56,11 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	
 	private Set<Role> roles;
 	
+	/**
+	 * The roles of this user, their ancestors and their privileges, see {@link #getRoleClosure()}
+	 */
+	private transient volatile RoleGraph.Closure roleClosure;
+	
 	private Map<String, String> userProperties;
 	
 	private List<Locale> proficientLocales = null;
@@ -121,16 +127,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 			return true;
 		}
 		
-		Set<Role> tmproles = getAllRoles();
-		
-		// loop over the roles and check each for the privilege
-		for (Role tmprole : tmproles) {
-			if (tmprole.hasPrivilege(privilege)) {
-				return true;
-			}
-		}
-		
-		return false;
+		return getRoleClosure().hasPrivilege(privilege);
 	}
 	
 	/**
@@ -161,9 +158,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 			return false;
 		}
 		
-		Set<Role> tmproles = getAllRoles();
-		
-		log.debug("User # {} has roles: {}", userId, tmproles);
+		log.debug("User # {} has roles: {}", userId, getRoleClosure().getRoles());
 		
 		return containsRole(r);
 	}
@@ -178,12 +173,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * <strong>Should</strong> be case insensitive
 	 */
 	public boolean containsRole(String roleName) {
-		for (Role role : getAllRoles()) {
-			if (role.getRole().equalsIgnoreCase(roleName)) {
-				return true;
-			}
-		}
-		return false;
+		return getRoleClosure().containsRole(roleName);
 	}
 	
 	/**
@@ -194,7 +184,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 */
 	public Collection<Privilege> getPrivileges() {
 		Set<Privilege> privileges = new HashSet<>();
-		Set<Role> tmproles = getAllRoles();
+		Set<Role> tmproles = getRoleClosure().getRoles();
 		
 		Role role;
 		for (Role tmprole : tmproles) {
@@ -217,33 +207,27 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * @return all roles (inherited from parents and given) for this user
 	 */
 	public Set<Role> getAllRoles() {
-		// the user's immediate roles
-		Set<Role> baseRoles = new HashSet<>();
-		
 		// the user's complete list of roles including
 		// the parent roles of their immediate roles
-		Set<Role> totalRoles = new HashSet<>();
-		if (getRoles() != null) {
-			baseRoles.addAll(getRoles());
-			totalRoles.addAll(getRoles());
-		}
-		
-		log.debug("User's base roles: {}", baseRoles);
-		
-		try {
-			for (Role r : baseRoles) {
-				totalRoles.addAll(r.getAllParentRoles());
-			}
-		}
-		catch (ClassCastException e) {
-			log.error("Error converting roles for user: " + this);
-			log.error("baseRoles.class: " + baseRoles.getClass().getName());
-			log.error("baseRoles: " + baseRoles.toString());
-			for (Role baseRole : baseRoles) {
-				log.error("baseRole: '" + baseRole + "'");
-			}
+		return new HashSet<>(getRoleClosure().getRoles());
+	}
+	
+	/**
+	 * Gets the immediate roles of this user together with all their parent roles and the privileges
+	 * granted by them. The closure is computed once and then reused until the {@link RoleGraph} is
+	 * invalidated or the roles of this user are changed.
+	 *
+	 * @return the closure of the roles of this user
+	 * @since 2.5.0
+	 */
+	public RoleGraph.Closure getRoleClosure() {
+		RoleGraph.Closure closure = roleClosure;
+		if (closure == null || !closure.isCurrent()) {
+			closure = RoleGraph.closureOf(getRoles());
+			log.debug("User's roles: {}", closure.getRoles());
+			roleClosure = closure;
 		}
-		return totalRoles;
+		return closure;
 	}
 	
 	/**
@@ -258,6 +242,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 */
 	public void setRoles(Set<Role> roles) {
 		this.roles = roles;
+		this.roleClosure = null;
 	}
 	
 	/**
@@ -272,6 +257,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 		}
 		if (!roles.contains(role) && role != null) {
 			roles.add(role);
+			roleClosure = null;
 		}
 		
 		return this;
@@ -284,8 +270,8 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * @return this user with the given role removed
 	 */
 	public User removeRole(Role role) {
-		if (roles != null) {
-			roles.remove(role);
+		if (roles != null && roles.remove(role)) {
+			roleClosure = null;
 		}
 		
 		return this;
@@ -11,6 +11,8 @@ package org.openmrs.aop;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.User;
@@ -33,6 +35,12 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 	private static final Logger log = LoggerFactory.getLogger(AuthorizationAdvice.class);
         private static final String USER_IS_NOT_AUTHORIZED_TO_ACCESS = "User {} is not authorized to access {}";
 	
+	/**
+	 * The resolved {@link org.openmrs.annotation.Authorized} metadata of every method this advice has
+	 * seen, annotations never change at runtime so they only need to be read once per method
+	 */
+	private final Map<Method, AuthorizedMethod> authorizedMethods = new ConcurrentHashMap<>();
+	
 	/**
 	 * Allows us to check whether a user is authorized to access a particular method.
 	 * 
@@ -55,14 +63,14 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 			}
 		}
 		
-		AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
-		Collection<String> privileges = attributes.getAttributes(method);
-		boolean requireAll = attributes.getRequireAll(method);
+		AuthorizedMethod authorizedMethod = authorizedMethods.computeIfAbsent(method, AuthorizedMethod::new);
+		String[] privileges = authorizedMethod.privileges;
+		boolean requireAll = authorizedMethod.requireAll;
 		
 		// Only execute if the "secure" method has authorization attributes
 		// Iterate through required privileges and return only if the user has
 		// one of them
-		if (!privileges.isEmpty()) {
+		if (privileges.length > 0) {
 			for (String privilege : privileges) {
 				
 				// skip null privileges
@@ -70,9 +78,10 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 					return;
 				}
 				
-				log.debug("User has privilege {}? {}", privilege, Context.hasPrivilege(privilege));
+				boolean hasPrivilege = Context.hasPrivilege(privilege);
+				log.debug("User has privilege {}? {}", privilege, hasPrivilege);
 				
-				if (Context.hasPrivilege(privilege)) {
+				if (hasPrivilege) {
 					if (!requireAll) {
 						// if not all required, the first one that they have
 						// causes them to "pass"
@@ -94,7 +103,7 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 				throwUnauthorized(Context.getAuthenticatedUser(), method, privileges);
 			}
 			
-		} else if (attributes.hasAuthorizedAnnotation(method) && !Context.isAuthenticated()) {
+		} else if (authorizedMethod.annotated && !Context.isAuthenticated()) {
 			throwUnauthorized(Context.getAuthenticatedUser(), method);
 		}
 	}
@@ -104,9 +113,9 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 	 * 
 	 * @param user authenticated user
 	 * @param method acting method
-	 * @param attrs Collection of String privilege names that the user must have
+	 * @param attrs privilege names that the user must have
 	 */
-	private void throwUnauthorized(User user, Method method, Collection<String> attrs) {
+	private void throwUnauthorized(User user, Method method, String[] attrs) {
 		log.debug(USER_IS_NOT_AUTHORIZED_TO_ACCESS, user, method.getName());
 		throw new APIAuthenticationException(Context.getMessageSourceService().getMessage("error.privilegesRequired",
 		    new Object[] { StringUtils.join(attrs, ",") }, null));
@@ -135,4 +144,25 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 		log.debug(USER_IS_NOT_AUTHORIZED_TO_ACCESS, user, method.getName());
 		throw new APIAuthenticationException(Context.getMessageSourceService().getMessage("error.aunthenticationRequired"));
 	}
+	
+	/**
+	 * The {@link org.openmrs.annotation.Authorized} metadata of a single method, resolved once and
+	 * then shared by every invocation of that method
+	 */
+	private static final class AuthorizedMethod {
+		
+		private final String[] privileges;
+		
+		private final boolean requireAll;
+		
+		private final boolean annotated;
+		
+		private AuthorizedMethod(Method method) {
+			AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
+			Collection<String> attrs = attributes.getAttributes(method);
+			this.privileges = attrs.toArray(new String[0]);
+			this.requireAll = attributes.getRequireAll(method);
+			this.annotated = attributes.hasAuthorizedAnnotation(method);
+		}
+	}
 }
@@ -9,12 +9,16 @@
  */
 package org.openmrs.aop;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -80,6 +84,26 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	
 	private static final String UNABLE_GETTER_METHOD = "unable.getter.method";
 	
+	/**
+	 * The child collections to recurse into for each class, worked out the first time an instance
+	 * of the class is handled
+	 */
+	private static final ClassValue<List<ChildCollection>> CHILD_COLLECTIONS = new ClassValue<List<ChildCollection>>() {
+		
+		@Override
+		protected List<ChildCollection> computeValue(Class<?> type) {
+			Reflect reflect = new Reflect(OpenmrsObject.class);
+			List<ChildCollection> childCollections = new ArrayList<>();
+			for (Field field : reflect.getInheritedFields(type)) {
+				// skip fields declared independent
+				if (reflect.isCollectionField(field) && !Reflect.isAnnotationPresent(type, field.getName(), Independent.class)) {
+					childCollections.add(new ChildCollection(type, field));
+				}
+			}
+			return Collections.unmodifiableList(childCollections);
+		}
+	};
+	
 	/**
 	 * @see org.springframework.aop.MethodBeforeAdvice#before(java.lang.reflect.Method,
 	 *      java.lang.Object[], java.lang.Object)
@@ -239,22 +263,30 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 *            void/retire reason)
 	 * @param alreadyHandled an optional list of objects that have already been handled and should
 	 *            not be processed again. this is intended to prevent infinite recursion when
-	 *            handling collection properties.
+	 *            handling collection properties. The objects handled by this call are added to it.
 	 * @see HandlerUtil#getHandlersForType(Class, Class)
+	 * <strong>Should</strong> handle each object of the graph only once
 	 */
-	@SuppressWarnings("unchecked")
 	public static <H extends RequiredDataHandler> void recursivelyHandle(Class<H> handlerType, OpenmrsObject openmrsObject,
 	        User currentUser, Date currentDate, String other, List<OpenmrsObject> alreadyHandled) {
 		if (openmrsObject == null) {
 			return;
 		}
 		
-		Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
-		
-		if (alreadyHandled == null) {
-			alreadyHandled = new ArrayList<>();
+		// a hashed copy of the handled objects, matched by equals like the list is
+		Set<OpenmrsObject> handled = new HashSet<>();
+		if (alreadyHandled != null) {
+			handled.addAll(alreadyHandled);
 		}
 		
+		recursivelyHandle(handlerType, openmrsObject, currentUser, currentDate, other, handled, alreadyHandled);
+	}
+	
+	private static <H extends RequiredDataHandler> void recursivelyHandle(Class<H> handlerType,
+	        OpenmrsObject openmrsObject, User currentUser, Date currentDate, String other, Set<OpenmrsObject> handled,
+	        List<OpenmrsObject> alreadyHandled) {
+		Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
+		
 		// fetch all handlers for the object being saved
 		List<H> handlers = HandlerUtil.getHandlersForType(handlerType, openmrsObjectClass);
 		
@@ -262,35 +294,27 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		for (H handler : handlers) {
 			handler.handle(openmrsObject, currentUser, currentDate, other);
 		}
-		alreadyHandled.add(openmrsObject);
-		
-		Reflect reflect = new Reflect(OpenmrsObject.class);
-		List<Field> allInheritedFields = reflect.getInheritedFields(openmrsObjectClass);
+		handled.add(openmrsObject);
+		if (alreadyHandled != null) {
+			alreadyHandled.add(openmrsObject);
+		}
 		
 		// loop over all child collections of OpenmrsObjects and recursively save on those
-		for (Field field : allInheritedFields) {
-			
-			// skip field if it's declared independent
-			if (Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
+		for (ChildCollection childCollection : CHILD_COLLECTIONS.get(openmrsObjectClass)) {
+			if (isHandlerMarkedAsDisabled(handlerType, childCollection.field)) {
 				continue;
 			}
 			
-			if (reflect.isCollectionField(field) && !isHandlerMarkedAsDisabled(handlerType, field)) {
-				
-				// the collection we'll be looping over
-				Collection<OpenmrsObject> childCollection = getChildCollection(openmrsObject, field);
-				
-				if (childCollection != null) {
-					for (Object collectionElement : childCollection) {
-						if (!alreadyHandled.contains(collectionElement)) {
-							recursivelyHandle(handlerType, (OpenmrsObject) collectionElement, currentUser, currentDate,
-							    other, alreadyHandled);
-						}
+			Collection<OpenmrsObject> children = childCollection.get(openmrsObject);
+			if (children != null) {
+				for (Object child : children) {
+					if (child != null && !handled.contains(child)) {
+						recursivelyHandle(handlerType, (OpenmrsObject) child, currentUser, currentDate, other, handled,
+						    alreadyHandled);
 					}
 				}
 			}
 		}
-		
 	}
 	
 	/**
@@ -305,47 +329,8 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 * <strong>Should</strong> should be able to get annotated private fields
 	 * <strong>Should</strong> throw APIException if getter method not found
 	 */
-	@SuppressWarnings("unchecked")
 	protected static Collection<OpenmrsObject> getChildCollection(OpenmrsObject openmrsObject, Field field) {
-		String fieldName = field.getName();
-		String getterName = "get" + StringUtils.capitalize(fieldName);
-		
-		try {
-			
-			// checks if direct access is allowed
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				
-				boolean previousFieldAccessibility = field.isAccessible();
-				field.setAccessible(true);
-				Collection<OpenmrsObject> childCollection = (Collection<OpenmrsObject>) field.get(openmrsObject);
-				field.setAccessible(previousFieldAccessibility);
-				return childCollection;
-				
-			} else {
-				// access the field via its getter method
-				Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
-				
-				Method getterMethod = openmrsObjectClass.getMethod(getterName, (Class[]) null);
-				return (Collection<OpenmrsObject>) getterMethod.invoke(openmrsObject, new Object[] {});
-				
-			}
-		}
-		catch (IllegalAccessException e) {
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				throw new APIException("unable.get.field", new Object[] { fieldName, openmrsObject.getClass() });
-			} else {
-				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "use", getterName, fieldName,
-				        openmrsObject.getClass() });
-			}
-		}
-		catch (InvocationTargetException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "run", getterName, fieldName,
-			        openmrsObject.getClass() });
-		}
-		catch (NoSuchMethodException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "find", getterName, fieldName,
-			        openmrsObject.getClass() });
-		}
+		return new ChildCollection(openmrsObject.getClass(), field).get(openmrsObject);
 	}
 	
 	/**
@@ -391,4 +376,79 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		
 		return false;
 	}
+	
+	/**
+	 * A collection field of a class whose elements are handled along with the instances of the
+	 * class, with the means to read it
+	 */
+	private static final class ChildCollection {
+		
+		private final Class<?> type;
+		
+		private final Field field;
+		
+		private final String getterName;
+		
+		/**
+		 * Reads the collection off an instance, null if it cannot be read
+		 */
+		private final MethodHandle reader;
+		
+		/**
+		 * Why the collection cannot be read, null if it can
+		 */
+		private final String readError;
+		
+		ChildCollection(Class<?> type, Field field) {
+			this.type = type;
+			this.field = field;
+			this.getterName = "get" + StringUtils.capitalize(field.getName());
+			
+			MethodHandle handle = null;
+			String error = null;
+			try {
+				// checks if direct access is allowed
+				if (field.isAnnotationPresent(AllowDirectAccess.class)) {
+					boolean previousFieldAccessibility = field.isAccessible();
+					field.setAccessible(true);
+					try {
+						handle = MethodHandles.lookup().unreflectGetter(field);
+					}
+					finally {
+						field.setAccessible(previousFieldAccessibility);
+					}
+				} else {
+					// access the field via its getter method
+					handle = MethodHandles.lookup().unreflect(type.getMethod(getterName));
+				}
+				handle = handle.asType(MethodType.methodType(Object.class, Object.class));
+			}
+			catch (IllegalAccessException e) {
+				error = "use";
+			}
+			catch (NoSuchMethodException e) {
+				error = "find";
+			}
+			this.reader = handle;
+			this.readError = error;
+		}
+		
+		@SuppressWarnings("unchecked")
+		Collection<OpenmrsObject> get(OpenmrsObject openmrsObject) {
+			String fieldName = field.getName();
+			if (reader == null) {
+				if (field.isAnnotationPresent(AllowDirectAccess.class)) {
+					throw new APIException("unable.get.field", new Object[] { fieldName, type });
+				}
+				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { readError, getterName, fieldName, type });
+			}
+			
+			try {
+				return (Collection<OpenmrsObject>) (Object) reader.invokeExact((Object) openmrsObject);
+			}
+			catch (Throwable e) {
+				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "run", getterName, fieldName, type }, e);
+			}
+		}
+	}
 }
@@ -47,7 +47,7 @@ public interface AdministrationService extends OpenmrsService {
 	 * @param dao The dao implementation to use
 	 */
 	public void setAdministrationDAO(AdministrationDAO dao);
-										
+	
 	/**
 	 * Get a global property by its uuid. There should be only one of these in the database (well,
 	 * in the world actually). If multiple are found, an error is thrown.
@@ -235,6 +235,27 @@ public interface AdministrationService extends OpenmrsService {
 	 */
 	public void removeGlobalPropertyListener(GlobalPropertyListener listener);
 	
+	/**
+	 * Clears the in-memory cache of global property values so that they are read again from the
+	 * database. Changes made through this service are applied to the cache automatically, this only
+	 * needs to be called when global properties were changed some other way, e.g. directly in the
+	 * database or by another node of a cluster sharing the same database.
+	 *
+	 * @since 2.5.0
+	 * <strong>Should</strong> make changes made directly in the database visible
+	 */
+	public void clearGlobalPropertyCache();
+	
+	/**
+	 * Evicts the given global property from the in-memory cache of global property values, see
+	 * {@link #clearGlobalPropertyCache()}. If there is a transaction, the property is evicted once it
+	 * has completed.
+	 *
+	 * @param propertyName the name of the global property which was changed some other way
+	 * @since 2.5.0
+	 */
+	public void clearGlobalPropertyCache(String propertyName);
+	
 	/**
 	 * Runs the <code>sql</code> on the database. If <code>selectOnly</code> is flagged then any
 	 * non-select sql statements will be rejected.
@@ -335,7 +356,7 @@ public interface AdministrationService extends OpenmrsService {
 	 * <strong>Should</strong> throw throw APIException if the input is null
 	 */
 	public void validate(Object object, Errors errors);
-
+	
 	/**
 	 * Returns a list of locales used by the user when searching.
 	 *
@@ -345,7 +366,7 @@ public interface AdministrationService extends OpenmrsService {
 	 * @throws APIException
      */
 	public List<Locale> getSearchLocales(Locale currentLocale, User user);
-
+	
 	/**
 	 * Returns a list of locales used by the user when searching.
 	 * <p>
@@ -18,6 +18,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.util.IdBitmap;
 import org.openmrs.util.PrivilegeConstants;
 
 /**
@@ -290,4 +291,19 @@ public interface CohortService extends OpenmrsService {
 	 */
 	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
 	List<CohortMembership> getCohortMemberships(Integer patientId, Date activeOnDate, boolean includeVoided);
+	
+	/**
+	 * Gets the ids of the patients with a membership of the given cohort active on the given date, as
+	 * a bitmap which is cheap to check ids against and to combine with the ids of other cohorts. The
+	 * memberships of a saved cohort are not loaded to do so, unless they already are.
+	 *
+	 * @since 2.5.0
+	 * @param cohort the cohort whose members to get
+	 * @param activeOnDate the date on which the memberships are active, defaults to now
+	 * @return the ids of the active members
+	 * <strong>Should</strong> get the ids of the active members without loading the memberships
+	 * <strong>Should</strong> get the ids of the active members of an unsaved cohort
+	 */
+	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
+	IdBitmap getActiveMemberIds(Cohort cohort, Date activeOnDate);
 }
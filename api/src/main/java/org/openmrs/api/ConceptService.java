@@ -14,6 +14,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.Spliterator;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
@@ -616,6 +617,8 @@ public interface ConceptService extends OpenmrsService {
 	 * @param concept The concept representing the concept set
 	 * @return A List&lt;Concept&gt; object containing all objects within the ConceptSet
 	 * @throws APIException
+	 * <strong>Should</strong> see the concept set changes of the current transaction
+	 * <strong>Should</strong> skip the members which no longer exist
 	 */
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public List<Concept> getConceptsByConceptSet(Concept concept) throws APIException;
@@ -633,6 +636,32 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public List<ConceptSet> getSetsContainingConcept(Concept concept) throws APIException;
 	
+	/**
+	 * Checks whether the given concept is a member of the given concept set or of one of the sets
+	 * nested in it, which are expanded like {@link #getConceptsByConceptSet(Concept)} does
+	 * 
+	 * @param concept the concept to look for
+	 * @param conceptSet the concept representing the set
+	 * @return true if the concept is in the set, else false
+	 * @since 2.5.0
+	 * <strong>Should</strong> return true for a member of a nested set
+	 * <strong>Should</strong> return false for a concept which is not in the set
+	 * <strong>Should</strong> see the concept set changes of the current transaction
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public boolean isConceptInSet(Concept concept, Concept conceptSet) throws APIException;
+	
+	/**
+	 * Discards the in-memory index of the concept sets so that it is loaded again from the database.
+	 * Changes made through this service are applied to the index automatically, this only needs to
+	 * be called when concept sets were changed some other way, e.g. directly in the database or by
+	 * another node of a cluster sharing the same database.
+	 * 
+	 * @since 2.5.0
+	 * <strong>Should</strong> make changes made directly in the database visible
+	 */
+	public void refreshConceptSetIndex();
+	
 	/**
 	 * Get a List of all concept proposals
 	 * 
@@ -928,15 +957,37 @@ public interface ConceptService extends OpenmrsService {
 	public Integer getMaxConceptId();
 	
 	/**
-	 * Returns an iterator for all concepts, including retired and expired.
+	 * Returns an iterator for all concepts, including retired and expired. Concepts are loaded in
+	 * pages, ordered by concept id, with their names, mappings and set members. The concepts of a
+	 * page are evicted from the current session, after flushing the changes of the current
+	 * transaction, when the next page is loaded, so concepts returned earlier are detached by then.
+	 * Other objects in the session are left alone.
 	 * 
 	 * @return the Iterator
 	 * <strong>Should</strong> start with the smallest concept id
 	 * <strong>Should</strong> iterate over all concepts
+	 * <strong>Should</strong> fetch the names mappings and set members of the concepts
+	 * <strong>Should</strong> not detach objects which the caller loaded
 	 */
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public Iterator<Concept> conceptIterator();
 	
+	/**
+	 * Returns a spliterator for all concepts, including retired and expired, which splits the
+	 * dictionary into ranges of concept ids so that it can be processed by a parallel stream.
+	 * Concepts are loaded like {@link #conceptIterator()} does. A worker thread without a session
+	 * opens its own session, with its own copy of the current user context, when it traverses its
+	 * part with {@link Spliterator#forEachRemaining(java.util.function.Consumer)}, which is what
+	 * streams do unless the operation is short-circuiting.
+	 * 
+	 * @return the Spliterator
+	 * @since 2.5.0
+	 * <strong>Should</strong> return all concepts when processed in parallel
+	 * <strong>Should</strong> give worker threads their own user context
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public Spliterator<Concept> conceptSpliterator();
+	
 	/**
 	 * Looks up a concept via {@link ConceptMap} This will return the {@link Concept} which contains
 	 * a {@link ConceptMap} entry whose <code>sourceCode</code> is equal to the passed
@@ -1026,6 +1077,25 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public List<Concept> getConceptsByMapping(String code, String sourceName, boolean includeRetired) throws APIException;
 	
+	/**
+	 * Gets the ids of the concepts returned by
+	 * {@link #getConceptsByMapping(String, String, boolean)}, in the same order. The ids are cached
+	 * in the "conceptIdsByMapping" cache by code, source and includeRetired, and the cache is
+	 * cleared when a concept, a concept reference term or a concept source is saved, retired or
+	 * purged. Hits and misses are counted by the statistics of the cache.
+	 * 
+	 * @param code the code associated with a concept within a given {@link ConceptSource}
+	 * @param sourceName the name or hl7Code of the {@link ConceptSource} to check
+	 * @param includeRetired whether or not to include retired concepts
+	 * @return the ids of the concepts that have the given mapping, never null
+	 * @since 2.5.0
+	 * <strong>Should</strong> get the ids of the concepts with the given mapping
+	 * <strong>Should</strong> cache the ids until a concept reference term is saved
+	 * <strong>Should</strong> cache the ids until a concept source is saved
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public List<Integer> getConceptIdsByMapping(String code, String sourceName, boolean includeRetired) throws APIException;
+	
 	/**
 	 * Get all the concept name tags defined in the database, included voided ones
 	 * 
@@ -1787,6 +1857,44 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public Drug getDrugByMapping(String code, ConceptSource conceptSource,
 	        Collection<ConceptMapType> withAnyOfTheseTypesOrOrderOfPreference) throws APIException;
+	
+	/**
+	 * Gets the ids of the drugs returned by
+	 * {@link #getDrugsByMapping(String, ConceptSource, Collection, boolean)}, in the same order. The
+	 * ids are cached in the "drugIdsByMapping" cache by code, source, map types and includeRetired,
+	 * and the cache is cleared when a drug, a concept reference term or a concept source is saved,
+	 * retired or purged. Hits and misses are counted by the statistics of the cache.
+	 * 
+	 * @param code the code the reference term code to match on
+	 * @param conceptSource the concept source on which to match on
+	 * @param withAnyOfTheseTypes the ConceptMapTypes to match on
+	 * @param includeRetired specifies if retired drugs should be included or not
+	 * @return the ids of the matching drugs, never null
+	 * @throws APIException
+	 * @since 2.5.0
+	 * <strong>Should</strong> get the ids of the drugs with the given mapping
+	 * <strong>Should</strong> cache the ids until a drug is saved
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public List<Integer> getDrugIdsByMapping(String code, ConceptSource conceptSource,
+	        Collection<ConceptMapType> withAnyOfTheseTypes, boolean includeRetired) throws APIException;
+	
+	/**
+	 * Gets the id of the drug returned by {@link #getDrugByMapping(String, ConceptSource, Collection)}.
+	 * The id is cached in the "drugIdsByMapping" cache like the ones of
+	 * {@link #getDrugIdsByMapping(String, ConceptSource, Collection, boolean)}.
+	 * 
+	 * @param code the code the reference term code to match on
+	 * @param conceptSource the concept source to match on
+	 * @param withAnyOfTheseTypesOrOrderOfPreference the ConceptMapTypes to match on
+	 * @return the id of the matching drug, or null if there is none
+	 * @throws APIException if there are multiple matches for the highest-priority ConceptMapType
+	 * @since 2.5.0
+	 * <strong>Should</strong> get the id of the drug that matches the best map type
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public Integer getDrugIdByMapping(String code, ConceptSource conceptSource,
+	        Collection<ConceptMapType> withAnyOfTheseTypesOrOrderOfPreference) throws APIException;
 			
 	/**
 	 * An Orderable concept is one where its conceptClass has a mapping in the order_type_class_map
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -443,6 +444,25 @@ public interface EncounterService extends OpenmrsService {
 	 */
 	public Map<Integer, List<Encounter>> getAllEncounters(Cohort patients);
 	
+	/**
+	 * Passes the unvoided encounters of each patient of a cohort to the given consumer, one patient
+	 * at a time and in ascending order of patient id, instead of returning them all at once like
+	 * {@link #getAllEncounters(Cohort)} does. The patients are queried in chunks and the encounters
+	 * of each chunk and their patients are evicted from the session once the consumer has seen them,
+	 * so the memory used stays bounded however large the cohort is. The session is neither flushed
+	 * nor cleared, so changes made to the encounters passed to the consumer are not saved. The
+	 * objects which were already in the session before the call are left in it.
+	 * 
+	 * @param patients Cohort of patients to search, all the patients if null
+	 * @param consumer receives the id of each patient and their encounters, latest first
+	 * <strong>Should</strong> pass the encounters of each patient of the cohort in patient order
+	 * <strong>Should</strong> query the patients of the cohort in chunks
+	 * <strong>Should</strong> leave the encounters already in the session in it
+	 * @since 2.5.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
+	public void streamAllEncounters(Cohort patients, BiConsumer<Integer, List<Encounter>> consumer);
+	
 	/**
 	 * Return the number of encounters matching a patient name or patient identifier
 	 * 
@@ -0,0 +1,90 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+/**
+ * The outcome of importing one obs with {@link ObsService#importObs(java.util.Collection)}. It
+ * keeps the uuid and id of the obs rather than the obs itself, so that importing a long stream of
+ * obs does not keep all of them in memory.
+ *
+ * @since 2.5.0
+ */
+public class ObsImportResult {
+	
+	private final int index;
+	
+	private final String uuid;
+	
+	private final Integer obsId;
+	
+	private final Exception error;
+	
+	private ObsImportResult(int index, String uuid, Integer obsId, Exception error) {
+		this.index = index;
+		this.uuid = uuid;
+		this.obsId = obsId;
+		this.error = error;
+	}
+	
+	/**
+	 * @param index the position of the obs among the imported obs
+	 * @param uuid the uuid of the saved obs
+	 * @param obsId the id of the saved obs
+	 * @return the result of an obs which was saved
+	 */
+	public static ObsImportResult saved(int index, String uuid, Integer obsId) {
+		return new ObsImportResult(index, uuid, obsId, null);
+	}
+	
+	/**
+	 * @param index the position of the obs among the imported obs
+	 * @param uuid the uuid of the obs, may be null
+	 * @param error why the obs was not saved
+	 * @return the result of an obs which was not saved
+	 */
+	public static ObsImportResult failed(int index, String uuid, Exception error) {
+		return new ObsImportResult(index, uuid, null, error);
+	}
+	
+	/**
+	 * @return the position of the obs among the imported obs, starting at 0
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return the uuid of the obs
+	 */
+	public String getUuid() {
+		return uuid;
+	}
+	
+	/**
+	 * @return the id of the saved obs, or null if it was not saved
+	 */
+	public Integer getObsId() {
+		return obsId;
+	}
+	
+	/**
+	 * @return why the obs was not saved, or null if it was saved
+	 */
+	public Exception getError() {
+		return error;
+	}
+	
+	/**
+	 * @return true if the obs was saved
+	 */
+	public boolean isSaved() {
+		return error == null;
+	}
+}
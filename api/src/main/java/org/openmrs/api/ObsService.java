@@ -9,7 +9,9 @@
  */
 package org.openmrs.api;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -127,6 +129,59 @@ public interface ObsService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException;
 	
+	/**
+	 * Saves the new top level obs of the given encounter and their group members in one pass, as
+	 * {@link #saveObs(Obs, String)} would save each of them. Saving the encounter has already run
+	 * the save handlers on all of its obs, so they are not run again, and each obs is validated
+	 * once. This is meant to be called by {@link EncounterService#saveEncounter(Encounter)}.
+	 *
+	 * @param encounter the encounter being saved
+	 * @return the new top level obs which were saved
+	 * @throws APIException
+	 * @since 2.5.0
+	 * <strong>Should</strong> save the new obs and their group members
+	 * <strong>Should</strong> not save the obs which were already saved
+	 * <strong>Should</strong> fail if a new obs is not valid
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS })
+	public List<Obs> saveNewEncounterObs(Encounter encounter) throws APIException;
+	
+	/**
+	 * Saves many new obs, as sent by devices or lab interfaces, as {@link #saveObs(Obs, String)}
+	 * would save each of them. An obs which is not valid, is not new or has group members which are
+	 * not new is not saved, and its failure is reported in its result. Each obs group is validated
+	 * as a whole before any of it is inserted. The other obs are still saved. Each concept is looked
+	 * up once for all the obs it is used by. The obs are flushed to the database in batches and the
+	 * session is cleared after each batch, so objects loaded before this call are detached from the
+	 * session afterwards. A failure of the database while inserting or flushing the obs is thrown
+	 * and rolls back the whole import, so that no obs group is saved in part.
+	 *
+	 * @param obs the new obs to save
+	 * @return one result per obs, in the order of the given obs
+	 * @throws APIException
+	 * @since 2.5.0
+	 * <strong>Should</strong> save the new obs
+	 * <strong>Should</strong> report the obs which are not valid and save the others
+	 * <strong>Should</strong> report the obs which are not new
+	 * <strong>Should</strong> report the obs groups with members which are not new without saving them
+	 * <strong>Should</strong> throw a database failure and not report the obs group as saved
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS })
+	public List<ObsImportResult> importObs(Collection<Obs> obs) throws APIException;
+	
+	/**
+	 * Saves the new obs returned by the given iterator, as {@link #importObs(Collection)} does,
+	 * without the need to hold all of them in memory.
+	 *
+	 * @param obs an iterator over the new obs to save
+	 * @return one result per obs, in the order returned by the iterator
+	 * @throws APIException
+	 * @since 2.5.0
+	 * <strong>Should</strong> save the obs returned by the iterator
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS })
+	public List<ObsImportResult> importObs(Iterator<Obs> obs) throws APIException;
+	
 	/**
 	 * Equivalent to deleting an observation
 	 * 
@@ -0,0 +1,96 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.util.function.IntToLongFunction;
+
+import org.openmrs.api.context.Context;
+
+/**
+ * Hands out order number seeds from blocks reserved through
+ * {@link OrderService#getNextOrderNumberSeed(OrderNumberSeedAllocator)} (hi/lo style), so that the
+ * {@link org.openmrs.util.OpenmrsConstants#GP_NEXT_ORDER_NUMBER_SEED} row is only locked once per
+ * block instead of once per order. Each node of a cluster reserves its own blocks, therefore seeds
+ * are unique but not necessarily assigned in order, and the unused seeds of a block are skipped when
+ * the allocator is discarded. {@link OrderNumberGenerator} implementations can use an instance of
+ * this class to get their seeds.
+ *
+ * @since 2.5.0
+ */
+public class OrderNumberSeedAllocator {
+	
+	private final int blockSize;
+	
+	private long next;
+	
+	private long end;
+	
+	/**
+	 * @param blockSize the number of seeds to reserve at once, must be at least 1
+	 */
+	public OrderNumberSeedAllocator(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("The block size must be at least 1");
+		}
+		this.blockSize = blockSize;
+	}
+	
+	/**
+	 * @return the number of seeds reserved at once
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+	
+	/**
+	 * Gets the next seed of the current block. Once the current block is used up the seed is got
+	 * through {@link OrderService#getNextOrderNumberSeed(OrderNumberSeedAllocator)}, which opens a
+	 * transaction of its own before locking the allocator. The thread reserving a new block therefore
+	 * already holds its database connection, and the threads waiting for it cannot take the last
+	 * connections of the pool away from it.
+	 *
+	 * @return the next order number seed
+	 * <strong>Should</strong> reserve a new block only when the current one is used up
+	 * <strong>Should</strong> always return unique seeds when called concurrently
+	 * <strong>Should</strong> reserve one block per block size seeds when called concurrently
+	 */
+	public long nextSeed() {
+		synchronized (this) {
+			if (next < end) {
+				return next++;
+			}
+		}
+		return nextSeedInNewTransaction();
+	}
+	
+	/**
+	 * Gets the next seed of the current block, reserving a new block with the given function if the
+	 * current one is used up. It is meant to be called in the transaction the new block is reserved in.
+	 *
+	 * @param reserveBlock reserves the given number of consecutive seeds and returns the first one
+	 * @return the next order number seed
+	 */
+	public synchronized long nextSeed(IntToLongFunction reserveBlock) {
+		if (next >= end) {
+			next = reserveBlock.applyAsLong(blockSize);
+			end = next + blockSize;
+		}
+		return next++;
+	}
+	
+	/**
+	 * Gets the next seed in a transaction of its own, reserving a new block if needed
+	 *
+	 * @return the next order number seed
+	 */
+	protected long nextSeedInNewTransaction() {
+		return Context.getOrderService().getNextOrderNumberSeed(this);
+	}
+}
@@ -345,6 +345,32 @@ public interface OrderService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.ADD_ORDERS)
 	public Long getNextOrderNumberSeedSequenceValue();
 	
+	/**
+	 * Reserves a block of consecutive order number seeds in a separate transaction, the seeds in the
+	 * block will never be handed out by another call to this method or to
+	 * {@link #getNextOrderNumberSeedSequenceValue()} even on other nodes of a cluster.
+	 * 
+	 * @param count the number of seeds to reserve
+	 * @return the first seed of the reserved block
+	 * @since 2.5.0
+	 * <strong>Should</strong> reserve the given number of consecutive seeds
+	 */
+	@Authorized(PrivilegeConstants.ADD_ORDERS)
+	public Long reserveOrderNumberSeedSequenceValues(int count);
+	
+	/**
+	 * Gets the next seed of the given allocator in a separate transaction, the block of seeds of the
+	 * allocator is only locked once the transaction is open and a new block is reserved in that
+	 * transaction if the current one is used up.
+	 * 
+	 * @param allocator the allocator to get the seed from
+	 * @return the next order number seed
+	 * @since 2.5.0
+	 * <strong>Should</strong> reserve a new block only when the block of the allocator is used up
+	 */
+	@Authorized(PrivilegeConstants.ADD_ORDERS)
+	public Long getNextOrderNumberSeed(OrderNumberSeedAllocator allocator);
+	
 	/**
 	 * Gets the order matching the specified order number and its previous orders in the ordering
 	 * they occurred, i.e if this order has a previous order, fetch it and if it also has a previous
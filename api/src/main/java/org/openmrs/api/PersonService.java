@@ -91,6 +91,7 @@ public interface PersonService extends OpenmrsService {
 	 * <strong>Should</strong> match two word search to any name part
 	 * <strong>Should</strong> match three word search to any name part
 	 * <strong>Should</strong> match search to familyName2
+	 * <strong>Should</strong> return no one if more names must match than a person name has
 	 */
 	// TODO: make gender a (definable?) constant
 	@Authorized( { PrivilegeConstants.GET_PERSONS })
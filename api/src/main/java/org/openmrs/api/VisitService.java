@@ -379,4 +379,25 @@ public interface VisitService extends OpenmrsService {
 	 */
 	@Authorized(PrivilegeConstants.EDIT_VISITS)
 	public void stopVisits(Date maximumStartDate);
+	
+	/**
+	 * Stops all active visits started before or on the specified date which match any of the visit
+	 * types specified by the {@link OpenmrsConstants#GP_VISIT_TYPES_TO_AUTO_CLOSE} global property.
+	 * The visits are stopped batchSize at a time with one bulk update per batch, which sets their
+	 * stop date time and audit fields without loading them. The update bypasses the save handlers of
+	 * this service as well as hibernate interceptors and event listeners, so they are not told about
+	 * the stopped visits. The session is flushed before the updates and cleared after them, since
+	 * the visits it holds are out of date. Visits stopped at the same time by another node are left
+	 * alone.
+	 * 
+	 * @param maximumStartDate Visits started on or before this date time value will get stopped
+	 * @param batchSize the maximum number of visits to stop with one update
+	 * @return the number of visits which were stopped
+	 * @since 2.5.0
+	 * <strong>Should</strong> close all unvoided active visit matching the specified visit types
+	 * <strong>Should</strong> set the audit fields of the stopped visits
+	 * <strong>Should</strong> return the number of visits which were stopped
+	 */
+	@Authorized(PrivilegeConstants.EDIT_VISITS)
+	public int stopVisits(Date maximumStartDate, int batchSize);
 }
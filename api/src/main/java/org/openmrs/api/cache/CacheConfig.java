@@ -9,6 +9,11 @@
  */
 package org.openmrs.api.cache;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
 import org.springframework.cache.ehcache.EhCacheManagerFactoryBean;
@@ -24,6 +29,12 @@ import org.springframework.core.io.ClassPathResource;
 @Configuration
 public class CacheConfig {
 
+    /**
+     * The caches of entity ids looked up by name or mapping, see {@link EvictAfterCompletionCacheDecorator}
+     */
+    private static final Set<String> ID_CACHES = new HashSet<>(Arrays.asList("hl7LocationIds", "hl7ProviderIds",
+            "hl7FormIds", "conceptIdsByMapping", "drugIdsByMapping"));
+
     @Bean(name = "apiCacheManagerFactoryBean")
     public EhCacheManagerFactoryBean apiCacheManagerFactoryBean(){
         OpenmrsCacheManagerFactoryBean cacheManagerFactoryBean = new OpenmrsCacheManagerFactoryBean();
@@ -36,7 +47,15 @@ public class CacheConfig {
 
     @Bean(name = "apiCacheManager")
     public CacheManager cacheManager() {
-        return new EhCacheCacheManager(apiCacheManagerFactoryBean().getObject());
+        return new EhCacheCacheManager(apiCacheManagerFactoryBean().getObject()) {
+
+            @Override
+            protected Cache decorateCache(Cache cache) {
+                // an id cached by another transaction before the change which made it stale is committed is
+                // evicted again once the change is committed
+                return ID_CACHES.contains(cache.getName()) ? new EvictAfterCompletionCacheDecorator(cache) : cache;
+            }
+        };
     }
 
 
@@ -0,0 +1,126 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.cache;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A cache decorator which applies evictions right away and once more after the surrounding
+ * transaction has completed, whether it was committed or rolled back. Unlike
+ * {@link org.springframework.cache.transaction.TransactionAwareCacheDecorator} values are put right
+ * away, so that they are found by the rest of the transaction which loaded them.
+ * <p>
+ * The second eviction drops values which other threads loaded before the change was committed, and
+ * values which the transaction itself loaded from changes that were rolled back.
+ *
+ * @since 2.5.0
+ */
+public class EvictAfterCompletionCacheDecorator implements Cache {
+
+	private final Cache targetCache;
+
+	/**
+	 * @param targetCache the cache to decorate
+	 */
+	public EvictAfterCompletionCacheDecorator(Cache targetCache) {
+		this.targetCache = targetCache;
+	}
+
+	/**
+	 * @return the decorated cache
+	 */
+	public Cache getTargetCache() {
+		return targetCache;
+	}
+
+	@Override
+	public String getName() {
+		return targetCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return targetCache.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		return targetCache.get(key);
+	}
+
+	@Override
+	public <T> T get(Object key, Class<T> type) {
+		return targetCache.get(key, type);
+	}
+
+	@Override
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		return targetCache.get(key, valueLoader);
+	}
+
+	/**
+	 * <strong>Should</strong> put values right away
+	 */
+	@Override
+	public void put(Object key, Object value) {
+		targetCache.put(key, value);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		return targetCache.putIfAbsent(key, value);
+	}
+
+	/**
+	 * <strong>Should</strong> evict the entry right away and again once the transaction has completed
+	 */
+	@Override
+	public void evict(Object key) {
+		targetCache.evict(key);
+		afterCompletion(() -> targetCache.evict(key));
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean present = targetCache.evictIfPresent(key);
+		afterCompletion(() -> targetCache.evict(key));
+		return present;
+	}
+
+	/**
+	 * <strong>Should</strong> clear the cache right away and again once the transaction has completed
+	 */
+	@Override
+	public void clear() {
+		targetCache.clear();
+		afterCompletion(targetCache::clear);
+	}
+
+	@Override
+	public boolean invalidate() {
+		return targetCache.invalidate();
+	}
+
+	private static void afterCompletion(Runnable eviction) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					eviction.run();
+				}
+			});
+		}
+	}
+}
@@ -11,6 +11,7 @@ package org.openmrs.api.context;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -1339,12 +1340,26 @@ public class Context {
 		getContextDAO().updateSearchIndex();
 	}
 
+	/**
+	 * Updates the search index for the rows created, changed, voided or retired since the given date,
+	 * keeping the rest of the index as it is. It is a blocking operation.
+	 *
+	 * @see #updateSearchIndex()
+	 * @param changedSince the date from which to index the rows again
+	 * @since 2.5.0
+	 */
+	public static void updateSearchIndex(Date changedSince) {
+		getContextDAO().updateSearchIndex(changedSince);
+	}
+
 	/**
 	 * Updates the search index. It is an asynchronous operation.
 	 * <p>
 	 * There is no need to call this method in normal usage since the index is automatically updated
 	 * whenever DB transactions are committed.
 	 * <p>
+	 * The returned object is a {@link org.openmrs.api.db.hibernate.search.SearchIndexUpdateFuture}
+	 * since 2.5.0, which gives access to the progress of the update.
 	 *
 	 * @return object representing the result of the started asynchronous operation
 	 */
@@ -1352,6 +1367,19 @@ public class Context {
 		return getContextDAO().updateSearchIndexAsync();
 	}
 
+	/**
+	 * Updates the search index for the rows created, changed, voided or retired since the given date,
+	 * keeping the rest of the index as it is. It is an asynchronous operation.
+	 *
+	 * @see #updateSearchIndexAsync()
+	 * @param changedSince the date from which to index the rows again
+	 * @return object representing the result of the started asynchronous operation
+	 * @since 2.5.0
+	 */
+	public static Future<?> updateSearchIndexAsync(Date changedSince) {
+		return getContextDAO().updateSearchIndexAsync(changedSince);
+	}
+
 	/**
 	 * Updates the search index for objects of the given type.
 	 *
@@ -1374,6 +1402,20 @@ public class Context {
 		getContextDAO().updateSearchIndexForObject(object);
 	}
 
+	/**
+	 * Waits until the changes to the search index made by the current thread have been applied, so
+	 * that a search done next finds the objects it has just saved. Changes to the search index are
+	 * applied in the background and become searchable within the refresh interval of the index
+	 * otherwise.
+	 *
+	 * @see org.openmrs.api.db.hibernate.search.AsyncIndexManager
+	 * @since 2.5.0
+	 * <strong>Should</strong> make the objects the current thread has just indexed searchable
+	 */
+	public static void awaitSearchIndexUpdates() {
+		getContextDAO().awaitSearchIndexUpdates();
+	}
+
 	/**
 	 * @see org.openmrs.api.context.ServiceContext#setUseSystemClassLoader(boolean)
 	 * @since 1.10
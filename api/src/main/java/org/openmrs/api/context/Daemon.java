@@ -10,6 +10,10 @@
 package org.openmrs.api.context;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -275,6 +279,45 @@ public class Daemon {
 		return thread;
 	}
 	
+	/**
+	 * Call this method if you are inside a Daemon thread and you want to run many tasks in parallel
+	 * Daemon threads without starting a new thread for each of them. Every task is run in a session
+	 * of its own. The caller must shut the returned pool down once it is done with it. You may only
+	 * call this method from a Daemon thread.
+	 *
+	 * @param threadCount the number of threads of the pool
+	 * @return a pool of the given number of Daemon threads
+	 * @since 2.5.0
+	 * <strong>Should</strong> throw error if called from a non daemon thread
+	 * <strong>Should</strong> run the tasks in daemon threads
+	 */
+	public static ExecutorService newDaemonThreadPool(int threadCount) {
+		if (!isDaemonThread()) {
+			throw new APIAuthenticationException("Only daemon threads can spawn new daemon threads");
+		}
+		
+		return new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+		        runnable -> {
+			        Thread thread = new Thread(() -> {
+				        isDaemonThread.set(true);
+				        runnable.run();
+			        });
+			        thread.setDaemon(true);
+			        return thread;
+		        }) {
+			
+			@Override
+			protected void beforeExecute(Thread thread, Runnable task) {
+				Context.openSession();
+			}
+			
+			@Override
+			protected void afterExecute(Runnable task, Throwable thrown) {
+				Context.closeSession();
+			}
+		};
+	}
+	
 	/**
 	 * @return true if the current thread was started by this class and so is a daemon thread that
 	 *         has all privileges
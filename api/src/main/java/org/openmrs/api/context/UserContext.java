@@ -15,9 +15,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Location;
+import org.openmrs.Privilege;
 import org.openmrs.PrivilegeListener;
 import org.openmrs.Role;
 import org.openmrs.User;
@@ -28,6 +30,7 @@ import org.openmrs.api.APIAuthenticationException;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.RoleConstants;
+import org.openmrs.util.RoleGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,6 +87,11 @@ public class UserContext implements Serializable {
 	 */
 	private AuthenticationScheme authenticationScheme;
 	
+	/**
+	 * The flattened privileges of the authenticated user, built on the first check
+	 */
+	private transient volatile PrivilegeCache privilegeCache;
+	
 	/**
 	 * Creates a user context based on the provided auth. scheme.
 	 * 
@@ -95,6 +103,23 @@ public class UserContext implements Serializable {
 		this.authenticationScheme = authenticationScheme; 
 	}
 	
+	/**
+	 * Creates a user context for the same authenticated user, locale, location and proxy privileges
+	 * as the given one, e.g. for a worker thread which acts on behalf of the user. Later changes to
+	 * either context do not affect the other.
+	 *
+	 * @param userContext the user context to copy
+	 *
+	 * @since 2.5.0
+	 */
+	public UserContext(UserContext userContext) {
+		this.authenticationScheme = userContext.authenticationScheme;
+		this.user = userContext.user;
+		this.proxies.addAll(userContext.proxies);
+		this.locale = userContext.locale;
+		this.locationId = userContext.locationId;
+	}
+	
 	/**
 	 * Authenticate user with the provided credentials. The authentication scheme must be Spring wired, see {@link Context#getAuthenticationScheme()}.
 	 * 
@@ -315,14 +340,16 @@ public class UserContext implements Serializable {
 	 */
 	public boolean hasPrivilege(String privilege) {
 		
-		// if a user has logged in, check their privileges
-		if (isAuthenticated()
-		        && (getAuthenticatedUser().hasPrivilege(privilege) || getAuthenticatedRole().hasPrivilege(privilege))) {
-			
-			// check user's privileges
+		// All authenticated users have the "" (empty) privilege
+		if (isAuthenticated() && StringUtils.isEmpty(privilege)) {
+			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
+			return true;
+		}
+		
+		// check the privileges of the user's roles, the authenticated role and the anonymous role
+		if (getPrivilegeCache().hasPrivilege(privilege)) {
 			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
 			return true;
-			
 		}
 		
 		log.debug("Checking '{}' against proxies: {}", privilege, proxies);
@@ -335,16 +362,27 @@ public class UserContext implements Serializable {
 			}
 		}
 		
-		if (getAnonymousRole().hasPrivilege(privilege)) {
-			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
-			return true;
-		}
-		
 		// default return value
 		notifyPrivilegeListeners(getAuthenticatedUser(), privilege, false);
 		return false;
 	}
 	
+	/**
+	 * Gets the cached privileges of the authenticated user, rebuilding them if the authenticated user
+	 * changed or the {@link RoleGraph} was invalidated since they were built
+	 *
+	 * @return the current privilege cache
+	 */
+	private PrivilegeCache getPrivilegeCache() {
+		long version = RoleGraph.getVersion();
+		PrivilegeCache cache = privilegeCache;
+		if (cache == null || cache.user != user || cache.version != version) {
+			cache = new PrivilegeCache(user, version);
+			privilegeCache = cache;
+		}
+		return cache;
+	}
+	
 	/**
 	 * Convenience method to get the Role in the system designed to be given to all users
 	 *
@@ -481,4 +519,55 @@ public class UserContext implements Serializable {
 		    userSessionListener.loggedInOrOut(user, event, status);
 	    }
     }
+	
+	/**
+	 * Immutable snapshot of all privileges granted to a user through their roles, the authenticated
+	 * role and the anonymous role. Privilege names are matched case insensitively like
+	 * {@link Role#hasPrivilege(String)} does, with an exact match tried first.
+	 */
+	private final class PrivilegeCache {
+		
+		private final User user;
+		
+		private final long version;
+		
+		private final boolean superUser;
+		
+		private final Set<String> privileges = new HashSet<>();
+		
+		private final Set<String> privilegesIgnoreCase = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		
+		private PrivilegeCache(User user, long version) {
+			this.user = user;
+			this.version = version;
+			
+			Set<Role> roles = new HashSet<>();
+			if (user != null) {
+				roles.addAll(user.getRoleClosure().getRoles());
+				roles.add(getAuthenticatedRole());
+			}
+			roles.add(getAnonymousRole());
+			
+			boolean isSuperUser = user != null && user.isSuperUser();
+			for (Role role : roles) {
+				if (RoleConstants.SUPERUSER.equals(role.getRole())) {
+					isSuperUser = true;
+				}
+				if (role.getPrivileges() != null) {
+					for (Privilege p : role.getPrivileges()) {
+						privileges.add(p.getPrivilege());
+					}
+				}
+			}
+			this.superUser = isSuperUser;
+			privilegesIgnoreCase.addAll(privileges);
+		}
+		
+		private boolean hasPrivilege(String privilege) {
+			if (superUser) {
+				return true;
+			}
+			return privilege != null && (privileges.contains(privilege) || privilegesIgnoreCase.contains(privilege));
+		}
+	}
 }
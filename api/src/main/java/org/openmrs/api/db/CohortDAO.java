@@ -113,4 +113,13 @@ public interface CohortDAO {
 	 * @since 2.1.0
 	 */
 	CohortMembership saveCohortMembership(CohortMembership cohortMembership);
+	
+	/**
+	 * @param cohort the cohort whose members to get
+	 * @param activeOnDate the date on which the memberships are active
+	 * @return the patient ids of the memberships of the cohort active on the given date, without
+	 *         loading the memberships
+	 * @since 2.5.0
+	 */
+	List<Integer> getActiveMemberIds(Cohort cohort, Date activeOnDate);
 }
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
@@ -134,6 +135,15 @@ public interface ConceptDAO {
 	 */
 	public Drug getDrug(Integer drugId) throws DAOException;
 	
+	/**
+	 * Gets the drugs with the given ids
+	 * 
+	 * @param drugIds the ids of the drugs
+	 * @return the drugs found, in no particular order
+	 * @since 2.5.0
+	 */
+	public List<Drug> getDrugsByIds(Collection<Integer> drugIds) throws DAOException;
+	
 	/**
 	 * DAO for retrieving a list of drugs based on the following criteria
 	 * 
@@ -218,6 +228,24 @@ public interface ConceptDAO {
 	 */
 	public List<ConceptSet> getSetsContainingConcept(Concept concept) throws DAOException;
 	
+	/**
+	 * Gets all the rows of the concept_set table, ordered by set and then by sort weight
+	 * 
+	 * @return for each row the id of the concept representing the set, the id of the member concept
+	 *         and whether the member is marked as a set
+	 * @since 2.5.0
+	 */
+	public List<Object[]> getAllConceptSetMembers() throws DAOException;
+	
+	/**
+	 * Gets the concepts with the given ids
+	 * 
+	 * @param conceptIds the ids of the concepts
+	 * @return the concepts found, in no particular order
+	 * @since 2.5.0
+	 */
+	public List<Concept> getConceptsByIds(Collection<Integer> conceptIds) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptNumeric(java.lang.Integer)
 	 */
@@ -320,6 +348,11 @@ public interface ConceptDAO {
 	 */
 	public Iterator<Concept> conceptIterator();
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#conceptSpliterator()
+	 */
+	public Spliterator<Concept> conceptSpliterator();
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptsByMapping(java.lang.String, java.lang.String)
 	 */
@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Future;
@@ -163,11 +164,23 @@ public interface ContextDAO {
 	 */
 	public void updateSearchIndex();
 
+	/**
+	 * @see Context#updateSearchIndex(Date)
+	 * @since 2.5.0
+	 */
+	public void updateSearchIndex(Date changedSince);
+
 	/**
 	 * @see Context#updateSearchIndexAsync()
 	 */
 	public Future<?> updateSearchIndexAsync();
 	
+	/**
+	 * @see Context#updateSearchIndexAsync(Date)
+	 * @since 2.5.0
+	 */
+	public Future<?> updateSearchIndexAsync(Date changedSince);
+	
 	/**
 	 * @see Context#updateSearchIndexForObject(Object)
 	 */
@@ -177,4 +190,9 @@ public interface ContextDAO {
 	 * @see Context#updateSearchIndexForType(Class)
 	 */
 	public void updateSearchIndexForType(Class<?> type);
+	
+	/**
+	 * @see Context#awaitSearchIndexUpdates()
+	 */
+	public void awaitSearchIndexUpdates();
 }
@@ -12,6 +12,7 @@ package org.openmrs.api.db;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -168,6 +169,22 @@ public interface EncounterDAO {
 	 */
 	public Map<Integer, List<Encounter>> getAllEncounters(Cohort patients);
 	
+	/**
+	 * Passes the unvoided encounters of each patient of the cohort to the consumer, in ascending order
+	 * of patient id. The patients are queried chunkSize at a time, paged by patient id when there is
+	 * no cohort, and the encounters of each chunk and their patients are evicted from the session
+	 * afterwards, except for the objects which were already in it.
+	 * 
+	 * @param patients the patients to get the encounters of, all of them if null
+	 * @param chunkSize the number of patients to query at once
+	 * @param consumer receives the id of each patient and their encounters, latest first
+	 * @see EncounterService#streamAllEncounters(Cohort, BiConsumer)
+	 * @since 2.5.0
+	 * <strong>Should</strong> pass the encounters of each patient in chunks of patients
+	 * <strong>Should</strong> page all the patients by id without a cohort
+	 */
+	public void streamAllEncounters(Cohort patients, int chunkSize, BiConsumer<Integer, List<Encounter>> consumer);
+	
 	/**
 	 * Return the number of encounters matching a patient name or patient identifier
 	 * 
@@ -102,6 +102,16 @@ public interface OrderDAO {
 	 */
 	public Long getNextOrderNumberSeedSequenceValue();
 	
+	/**
+	 * Reserves a block of consecutive order number seeds by advancing the next available seed by the
+	 * given count
+	 * 
+	 * @param count the number of seeds to reserve
+	 * @return the first seed of the reserved block
+	 * @since 2.5.0
+	 */
+	public Long reserveOrderNumberSeedSequenceValues(int count);
+	
 	/**
 	 * @see org.openmrs.api.OrderService#getActiveOrders(org.openmrs.Patient, org.openmrs.OrderType,
 	 *      org.openmrs.CareSetting, java.util.Date)
@@ -17,6 +17,7 @@ import java.util.Map;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.VisitAttribute;
 import org.openmrs.VisitAttributeType;
@@ -156,4 +157,35 @@ public interface VisitDAO {
 	 */
 	public Visit getNextVisit(Visit previousVisit, Collection<VisitType> visitTypes, Date maximumStartDate);
 	
+	/**
+	 * Gets the ids of the active visits which match the specified visit types, in ascending order
+	 * 
+	 * @param previousVisitId the id of the visit that precedes the ones we are fetching, or null to
+	 *            start from the first one
+	 * @param visitTypes a collection of visit types to match against
+	 * @param maximumStartDate the visits should have been started before or at this date time
+	 * @param maxResults the maximum number of ids to return
+	 * @return the ids of the visits
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the ids of the unvoided active visits matching the specified types and startDate
+	 */
+	public List<Integer> getActiveVisitIds(Integer previousVisitId, Collection<VisitType> visitTypes,
+	        Date maximumStartDate, int maxResults);
+	
+	/**
+	 * Stops the visits with the given ids with a single bulk update, setting their audit fields.
+	 * The update bypasses hibernate interceptors and event listeners, and the visits already loaded
+	 * in the session are not updated. Visits which have been stopped or voided in the meantime are
+	 * left alone.
+	 * 
+	 * @param visitIds the ids of the visits to stop
+	 * @param stopDatetime the date time to stop the visits at
+	 * @param changedBy the user stopping the visits
+	 * @param dateChanged the date time the visits are changed at
+	 * @return the number of visits which were stopped
+	 * @since 2.5.0
+	 * <strong>Should</strong> stop only the visits which are still active
+	 */
+	public int stopVisits(Collection<Integer> visitIds, Date stopDatetime, User changedBy, Date dateChanged);
+	
 }
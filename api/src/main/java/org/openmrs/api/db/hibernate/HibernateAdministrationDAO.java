@@ -14,6 +14,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
@@ -45,6 +47,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
@@ -55,7 +59,8 @@ import org.springframework.validation.Validator;
  * @see org.openmrs.api.db.AdministrationDAO
  * @see org.openmrs.api.AdministrationService
  */
-public class HibernateAdministrationDAO implements AdministrationDAO, ApplicationContextAware {
+public class HibernateAdministrationDAO implements AdministrationDAO, ApplicationContextAware,
+        ApplicationListener<ContextRefreshedEvent> {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateAdministrationDAO.class);
 	private static final String PROPERTY = "property";
@@ -67,6 +72,18 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 
 	private Metadata metadata;
 	
+	/**
+	 * The maximum lengths of the properties of each class, by property name
+	 */
+	private final Map<Class<?>, Map<String, Integer>> maximumPropertyLengths = new ConcurrentHashMap<>();
+	
+	/**
+	 * What validating the objects of each class involves, worked out the first time one is validated,
+	 * and forgotten when the application context is refreshed, e.g. when a module is started or
+	 * stopped, since the validators and classes may have changed
+	 */
+	private final Map<Class<?>, ValidationPlan> validationPlans = new ConcurrentHashMap<>();
+	
 	public HibernateAdministrationDAO() {
 	}
 	
@@ -187,6 +204,16 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	
 	@Override
 	public int getMaximumPropertyLength(Class<? extends OpenmrsObject> aClass, String fieldName) {
+		Map<String, Integer> lengths = maximumPropertyLengths.computeIfAbsent(aClass, c -> new ConcurrentHashMap<>());
+		Integer length = lengths.get(fieldName);
+		if (length == null) {
+			length = lookUpMaximumPropertyLength(aClass, fieldName);
+			lengths.put(fieldName, length);
+		}
+		return length;
+	}
+	
+	private int lookUpMaximumPropertyLength(Class<?> aClass, String fieldName) {
 		PersistentClass persistentClass = metadata.getEntityBinding(aClass.getName().split("_")[0]);
 		if (persistentClass == null) {
 			throw new APIException("Couldn't find a class in the hibernate configuration named: " + aClass.getName());
@@ -210,6 +237,19 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		metadata = sessionFactoryBean.getMetadata();
 	}
 	
+	/**
+	 * Forgets the validation plans, which refer to the validators and classes of the previous
+	 * application context
+	 *
+	 * <strong>Should</strong> work out the validators again once the context is refreshed
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		validationPlans.clear();
+		maximumPropertyLengths.clear();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.AdministrationDAO#validate(java.lang.Object, Errors)
 	 * <strong>Should</strong> Pass validation if field lengths are correct
@@ -218,62 +258,81 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	 * <strong>Should</strong> Pass validation for location class if field lengths are correct
 	 */
 	
-	//@SuppressWarnings({ "deprecation", "unchecked", "rawtypes" })
 	@Override
 	public void validate(Object object, Errors errors) throws DAOException {
-		Class entityClass = object.getClass();
-		ClassMetadata metadata = null;
-		try {
-			metadata = sessionFactory.getClassMetadata(entityClass);
-		}
-		catch (MappingException ex) {
-			log.debug(entityClass + " is not a hibernate mapped entity", ex);
-		}
-		if (metadata != null) {
-			String[] propNames = metadata.getPropertyNames();
-			Object identifierType = metadata.getIdentifierType();
-			String identifierName = metadata.getIdentifierPropertyName();
-			if (identifierType instanceof StringType || identifierType instanceof TextType) {
-				int maxLength = getMaximumPropertyLength(entityClass, identifierName);
-				String identifierValue = (String) metadata.getIdentifier(object,
-				    (SessionImplementor) sessionFactory.getCurrentSession());
-				if (identifierValue != null) {
-					int identifierLength = identifierValue.length();
-					if (identifierLength > maxLength) {
-						
-						errors.rejectValue(identifierName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-						    null);
-					}
-				}
+		ValidationPlan plan = getValidationPlan(object);
+		if (plan.identifierName != null) {
+			String identifierValue = (String) plan.metadata.getIdentifier(object,
+			    (SessionImplementor) sessionFactory.getCurrentSession());
+			if (identifierValue != null && identifierValue.length() > plan.identifierMaxLength) {
+				errors.rejectValue(plan.identifierName, "error.exceededMaxLengthOfField",
+				    new Object[] { plan.identifierMaxLength }, null);
 			}
-			for (String propName : propNames) {
-				Type propType = metadata.getPropertyType(propName);
-				if (propType instanceof StringType || propType instanceof TextType) {
-					String propertyValue = (String) metadata.getPropertyValue(object, propName);
-					if (propertyValue != null) {
-						int maxLength = getMaximumPropertyLength(entityClass, propName);
-						int propertyValueLength = propertyValue.length();
-						if (propertyValueLength > maxLength) {
-							errors.rejectValue(propName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-									null);
-						}
-					}
-				}
+		}
+		for (int i = 0; i < plan.propertyNames.length; i++) {
+			String propertyValue = (String) plan.metadata.getPropertyValue(object, plan.propertyNames[i]);
+			if (propertyValue != null && propertyValue.length() > plan.propertyMaxLengths[i]) {
+				errors.rejectValue(plan.propertyNames[i], "error.exceededMaxLengthOfField",
+				    new Object[] { plan.propertyMaxLengths[i] }, null);
 			}
 		}
+		
 		FlushMode previousFlushMode = sessionFactory.getCurrentSession().getHibernateFlushMode();
 		sessionFactory.getCurrentSession().setHibernateFlushMode(FlushMode.MANUAL);
 		try {
-			for (Validator validator : getValidators(object)) {
+			for (Validator validator : plan.validators) {
 				validator.validate(object, errors);
 			}
-			
 		}
-		
 		finally {
 			sessionFactory.getCurrentSession().setHibernateFlushMode(previousFlushMode);
 		}
+	}
+	
+	/**
+	 * Gets what validating objects of the class of the given object involves, working it out the
+	 * first time an object of the class is validated
+	 *
+	 * @param object the object to validate
+	 * @return the validation plan of the class of the object
+	 */
+	private ValidationPlan getValidationPlan(Object object) {
+		return validationPlans.computeIfAbsent(object.getClass(), type -> createValidationPlan(object));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ValidationPlan createValidationPlan(Object object) {
+		Class<? extends OpenmrsObject> entityClass = (Class<? extends OpenmrsObject>) object.getClass();
+		ClassMetadata classMetadata = null;
+		try {
+			classMetadata = sessionFactory.getClassMetadata(entityClass);
+		}
+		catch (MappingException ex) {
+			log.debug(entityClass + " is not a hibernate mapped entity", ex);
+		}
 		
+		String identifierName = null;
+		int identifierMaxLength = -1;
+		List<String> propertyNames = new ArrayList<>();
+		List<Integer> propertyMaxLengths = new ArrayList<>();
+		if (classMetadata != null) {
+			if (isString(classMetadata.getIdentifierType())) {
+				identifierName = classMetadata.getIdentifierPropertyName();
+				identifierMaxLength = getMaximumPropertyLength(entityClass, identifierName);
+			}
+			for (String propName : classMetadata.getPropertyNames()) {
+				if (isString(classMetadata.getPropertyType(propName))) {
+					propertyNames.add(propName);
+					propertyMaxLengths.add(getMaximumPropertyLength(entityClass, propName));
+				}
+			}
+		}
+		return new ValidationPlan(classMetadata, identifierName, identifierMaxLength, propertyNames, propertyMaxLengths,
+		        getValidators(object));
+	}
+	
+	private static boolean isString(Type type) {
+		return type instanceof StringType || type instanceof TextType;
 	}
 	
 	/**
@@ -353,4 +412,33 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 			});
 		}
 	}
+	
+	/**
+	 * What validating the objects of a class involves: the string properties whose length to check
+	 * and the validators which support the class
+	 */
+	private static final class ValidationPlan {
+		
+		private final ClassMetadata metadata;
+		
+		private final String identifierName;
+		
+		private final int identifierMaxLength;
+		
+		private final String[] propertyNames;
+		
+		private final int[] propertyMaxLengths;
+		
+		private final List<Validator> validators;
+		
+		private ValidationPlan(ClassMetadata metadata, String identifierName, int identifierMaxLength,
+		    List<String> propertyNames, List<Integer> propertyMaxLengths, List<Validator> validators) {
+			this.metadata = metadata;
+			this.identifierName = identifierName;
+			this.identifierMaxLength = identifierMaxLength;
+			this.propertyNames = propertyNames.toArray(new String[0]);
+			this.propertyMaxLengths = propertyMaxLengths.stream().mapToInt(Integer::intValue).toArray();
+			this.validators = validators;
+		}
+	}
 }
@@ -18,6 +18,7 @@ import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
@@ -180,4 +181,15 @@ public class HibernateCohortDAO implements CohortDAO {
 		sessionFactory.getCurrentSession().saveOrUpdate(cohortMembership);
 		return cohortMembership;
 	}
+	
+	@Override
+	public List<Integer> getActiveMemberIds(Cohort cohort, Date activeOnDate) {
+		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(CohortMembership.class);
+		criteria.add(Restrictions.eq("cohort", cohort));
+		criteria.add(Restrictions.eq(VOIDED, false));
+		criteria.add(Restrictions.le("startDate", activeOnDate));
+		criteria.add(Restrictions.or(Restrictions.isNull("endDate"), Restrictions.ge("endDate", activeOnDate)));
+		criteria.setProjection(Projections.property("patientId"));
+		return criteria.list();
+	}
 }
@@ -20,7 +20,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -28,6 +32,7 @@ import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.MatchMode;
@@ -62,6 +67,7 @@ import org.openmrs.OpenmrsObject;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
@@ -70,6 +76,7 @@ import org.openmrs.util.ConceptMapTypeComparator;
 import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * The Hibernate class for Concepts, Drugs, and related classes. <br>
@@ -82,6 +89,11 @@ public class HibernateConceptDAO implements ConceptDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateConceptDAO.class);
 	
+	/**
+	 * The number of concepts loaded at once by {@link #conceptIterator()}
+	 */
+	private static final int CONCEPT_PAGE_SIZE = 100;
+	
 	private SessionFactory sessionFactory;
 	
 	/**
@@ -333,6 +345,19 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return (Drug) sessionFactory.getCurrentSession().get(Drug.class, drugId);
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getDrugsByIds(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Drug> getDrugsByIds(Collection<Integer> drugIds) throws DAOException {
+		if (drugIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return sessionFactory.getCurrentSession().createCriteria(Drug.class).add(Restrictions.in("drugId", drugIds))
+		        .list();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.ConceptDAO#getDrugs(java.lang.String, org.openmrs.Concept, boolean)
 	 */
@@ -814,6 +839,33 @@ public class HibernateConceptDAO implements ConceptDAO {
 		        .list();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getAllConceptSetMembers()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Object[]> getAllConceptSetMembers() {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select cs.conceptSet.conceptId, c.conceptId, c.set from ConceptSet cs join cs.concept c"
+		            + " order by cs.conceptSet.conceptId, cs.sortWeight, cs.conceptSetId").list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptsByIds(java.util.Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Concept> getConceptsByIds(Collection<Integer> conceptIds) {
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(conceptIds));
+		List<Concept> concepts = new ArrayList<>(ids.size());
+		for (int from = 0; from < ids.size(); from += CONCEPT_PAGE_SIZE) {
+			List<Integer> page = ids.subList(from, Math.min(from + CONCEPT_PAGE_SIZE, ids.size()));
+			concepts.addAll(sessionFactory.getCurrentSession().createCriteria(Concept.class)
+			        .add(Restrictions.in("conceptId", page)).list());
+		}
+		return concepts;
+	}
+	
 	/**
 	 * returns a list of n-generations of parents of a concept in a concept set
 	 * 
@@ -967,21 +1019,77 @@ public class HibernateConceptDAO implements ConceptDAO {
 	 */
 	@Override
 	public Iterator<Concept> conceptIterator() {
-		return new ConceptIterator();
+		return new ConceptIterator(null, null);
 	}
 	
 	/**
-	 * An iterator that loops over all concepts in the dictionary one at a time
+	 * @see org.openmrs.api.db.ConceptDAO#conceptSpliterator()
+	 */
+	@Override
+	public Spliterator<Concept> conceptSpliterator() {
+		Integer minConceptId = getMinConceptId();
+		if (minConceptId == null) {
+			return Spliterators.emptySpliterator();
+		}
+		return new ConceptSpliterator(minConceptId, getMaxConceptId(), new UserContext(Context.getUserContext()));
+	}
+	
+	/**
+	 * Gets the page of concepts which follows the given concept id, ordered by concept id, with their
+	 * names, mappings and set members fetched up front
+	 *
+	 * @param afterConceptId the concept id the page starts after, null to start at the first concept
+	 * @param maxConceptId the highest concept id to include, null for no limit
+	 * @return the concepts of the page
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Concept> getConceptPage(Integer afterConceptId, Integer maxConceptId) {
+		Session session = sessionFactory.getCurrentSession();
+		Criteria criteria = session.createCriteria(Concept.class);
+		if (afterConceptId != null) {
+			criteria.add(Restrictions.gt("conceptId", afterConceptId));
+		}
+		if (maxConceptId != null) {
+			criteria.add(Restrictions.le("conceptId", maxConceptId));
+		}
+		List<Concept> concepts = criteria.addOrder(Order.asc("conceptId")).setMaxResults(CONCEPT_PAGE_SIZE).list();
+		
+		if (!concepts.isEmpty()) {
+			// one query per collection for the whole page, fetching them in a single query would
+			// return the cartesian product of the collections
+			for (String collection : new String[] { "names", "conceptMappings", "conceptSets" }) {
+				session.createQuery("select distinct c from Concept c left join fetch c." + collection
+				        + " where c in (:concepts)").setParameterList("concepts", concepts).list();
+			}
+		}
+		return concepts;
+	}
+	
+	/**
+	 * An iterator that loops over the concepts in the dictionary, or a range of it, loading them in
+	 * pages ordered by concept id. The concepts of a page are evicted from the session, after
+	 * flushing it if there is a transaction, before the next page is loaded, therefore the concepts of
+	 * the previous pages are detached.
 	 */
 	private class ConceptIterator implements Iterator<Concept> {
 		
-		Concept currentConcept = null;
+		private final Integer maxConceptId;
 		
-		Concept nextConcept;
+		private Integer lastConceptId;
 		
-		public ConceptIterator() {
-			final int firstConceptId = getMinConceptId();
-			nextConcept = getConcept(firstConceptId);
+		private List<Concept> concepts = Collections.emptyList();
+		
+		private Iterator<Concept> page = Collections.emptyIterator();
+		
+		private boolean lastPage = false;
+		
+		/**
+		 * @param afterConceptId the concept id to start after, null to start at the first concept
+		 * @param maxConceptId the highest concept id to return, null for no limit
+		 */
+		public ConceptIterator(Integer afterConceptId, Integer maxConceptId) {
+			this.lastConceptId = afterConceptId;
+			this.maxConceptId = maxConceptId;
 		}
 		
 		/**
@@ -989,7 +1097,10 @@ public class HibernateConceptDAO implements ConceptDAO {
 		 */
 		@Override
 		public boolean hasNext() {
-			return nextConcept != null;
+			if (!page.hasNext() && !lastPage) {
+				loadNextPage();
+			}
+			return page.hasNext();
 		}
 		
 		/**
@@ -997,14 +1108,12 @@ public class HibernateConceptDAO implements ConceptDAO {
 		 */
 		@Override
 		public Concept next() {
-			if (currentConcept != null) {
-				sessionFactory.getCurrentSession().evict(currentConcept);
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
-			
-			currentConcept = nextConcept;
-			nextConcept = getNextConcept(currentConcept);
-			
-			return currentConcept;
+			Concept concept = page.next();
+			lastConceptId = concept.getConceptId();
+			return concept;
 		}
 		
 		/**
@@ -1015,6 +1124,118 @@ public class HibernateConceptDAO implements ConceptDAO {
 			throw new UnsupportedOperationException();
 		}
 		
+		private void loadNextPage() {
+			if (!concepts.isEmpty()) {
+				Session session = sessionFactory.getCurrentSession();
+				if (TransactionSynchronizationManager.isActualTransactionActive()) {
+					session.flush();
+				}
+				// only the concepts of the previous page, the rest of the session belongs to the caller
+				for (Concept concept : concepts) {
+					session.evict(concept);
+				}
+			}
+			
+			concepts = getConceptPage(lastConceptId, maxConceptId);
+			lastPage = concepts.size() < CONCEPT_PAGE_SIZE;
+			page = concepts.iterator();
+		}
+	}
+	
+	/**
+	 * A spliterator over a range of concept ids which splits the range in halves. A worker thread
+	 * without a session which traverses it through {@link #forEachRemaining(Consumer)} opens its own
+	 * session for the traversal, with its own copy of the user context of the user who created the
+	 * spliterator.
+	 */
+	private class ConceptSpliterator implements Spliterator<Concept> {
+		
+		private int fromConceptId;
+		
+		private final int toConceptId;
+		
+		private final UserContext userContext;
+		
+		private ConceptIterator iterator;
+		
+		/**
+		 * @param fromConceptId the lowest concept id of the range
+		 * @param toConceptId the highest concept id of the range
+		 * @param userContext the user context which worker sessions copy, never changed itself
+		 */
+		public ConceptSpliterator(int fromConceptId, int toConceptId, UserContext userContext) {
+			this.fromConceptId = fromConceptId;
+			this.toConceptId = toConceptId;
+			this.userContext = userContext;
+		}
+		
+		/**
+		 * @see java.util.Spliterator#tryAdvance(Consumer)
+		 */
+		@Override
+		public boolean tryAdvance(Consumer<? super Concept> action) {
+			if (iterator == null) {
+				iterator = new ConceptIterator(fromConceptId - 1, toConceptId);
+			}
+			if (!iterator.hasNext()) {
+				return false;
+			}
+			action.accept(iterator.next());
+			return true;
+		}
+		
+		/**
+		 * @see java.util.Spliterator#forEachRemaining(Consumer)
+		 */
+		@Override
+		public void forEachRemaining(Consumer<? super Concept> action) {
+			boolean openSession = !Context.isSessionOpen();
+			if (openSession) {
+				Context.openSession();
+				Context.setUserContext(new UserContext(userContext));
+			}
+			try {
+				while (tryAdvance(action)) {
+					// the action does the work
+				}
+			}
+			finally {
+				if (openSession) {
+					Context.closeSession();
+				}
+			}
+		}
+		
+		/**
+		 * @see java.util.Spliterator#trySplit()
+		 */
+		@Override
+		public Spliterator<Concept> trySplit() {
+			if (iterator != null || estimateSize() < 2L * CONCEPT_PAGE_SIZE) {
+				return null;
+			}
+			
+			int middle = fromConceptId + (toConceptId - fromConceptId) / 2;
+			ConceptSpliterator prefix = new ConceptSpliterator(fromConceptId, middle, userContext);
+			fromConceptId = middle + 1;
+			return prefix;
+		}
+		
+		/**
+		 * @see java.util.Spliterator#estimateSize()
+		 */
+		@Override
+		public long estimateSize() {
+			return (long) toConceptId - fromConceptId + 1;
+		}
+		
+		/**
+		 * @see java.util.Spliterator#characteristics()
+		 */
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL;
+		}
 	}
 	
 	/**
@@ -11,6 +11,7 @@ package org.openmrs.api.db.hibernate;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,9 @@ import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.ContextDAO;
 import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.search.AsyncIndexManager;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdateProgress;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdater;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.Security;
@@ -277,18 +281,23 @@ public class HibernateContextDAO implements ContextDAO {
 	}
 	
 	/**
-	 * @see org.openmrs.api.context.Context#openSession()
+	 * Whether the session of the current thread was bound by someone else, in which case
+	 * {@link #closeSession()} leaves it alone
 	 */
-	private boolean participate = false;
+	private final ThreadLocal<Boolean> participate = ThreadLocal.withInitial(() -> false);
 	
+	/**
+	 * @see org.openmrs.api.context.Context#openSession()
+	 */
 	@Override
 	public void openSession() {
 		log.debug("HibernateContext: Opening Hibernate Session");
 		if (TransactionSynchronizationManager.hasResource(sessionFactory)) {
 			log.debug("Participating in existing session ({})", sessionFactory.hashCode());
-			participate = true;
+			participate.set(true);
 		} else {
 			log.debug("Registering session with synchronization manager ({})", sessionFactory.hashCode());
+			participate.set(false);
 			Session session = sessionFactory.openSession();
 			session.setHibernateFlushMode(FlushMode.MANUAL);
 			TransactionSynchronizationManager.bindResource(sessionFactory, new SessionHolder(session));
@@ -301,7 +310,7 @@ public class HibernateContextDAO implements ContextDAO {
 	@Override
 	public void closeSession() {
 		log.debug("HibernateContext: closing Hibernate Session");
-		if (!participate) {
+		if (!participate.get()) {
 			log.debug("Unbinding session from synchronization manager (" + sessionFactory.hashCode() + ")");
 			
 			if (TransactionSynchronizationManager.hasResource(sessionFactory)) {
@@ -482,6 +491,7 @@ public class HibernateContextDAO implements ContextDAO {
 			}
 			session.flushToIndexes();
 			session.clear();
+			AsyncIndexManager.awaitChangesOfCurrentThread(session);
 		}
 		finally {
 			session.setHibernateFlushMode(flushMode);
@@ -500,6 +510,14 @@ public class HibernateContextDAO implements ContextDAO {
 		session.flushToIndexes();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ContextDAO#awaitSearchIndexUpdates()
+	 */
+	@Override
+	public void awaitSearchIndexUpdates() {
+		AsyncIndexManager.awaitChangesOfCurrentThread(fullTextSessionFactory.getFullTextSession());
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.ContextDAO#setupSearchIndex()
 	 */
@@ -519,7 +537,7 @@ public class HibernateContextDAO implements ContextDAO {
 	public void updateSearchIndex() {
 		try {
 			log.info("Updating the search index... It may take a few minutes.");
-			fullTextSessionFactory.getFullTextSession().createIndexer().startAndWait();
+			createSearchIndexUpdater().update(new SearchIndexUpdateProgress(getIndexedTypes()), null);
 			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
 			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
 			if (gp == null) {
@@ -533,18 +551,77 @@ public class HibernateContextDAO implements ContextDAO {
 			throw new RuntimeException("Failed to update the search index", e);
 		}
 	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndex(Date)
+	 */
+	@Override
+	public void updateSearchIndex(Date changedSince) {
+		try {
+			log.info("Updating the search index for the rows changed since {}...", changedSince);
+			createSearchIndexUpdater().update(new SearchIndexUpdateProgress(getIndexedTypes()), changedSince);
+			log.info("Finished updating the search index");
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Failed to update the search index", e);
+		}
+	}
 
 	/**
 	 * @see ContextDAO#updateSearchIndexAsync()
 	 */
 	@Override
 	public Future<?> updateSearchIndexAsync() {
+		return updateSearchIndexAsync(null);
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndexAsync(Date)
+	 */
+	@Override
+	public Future<?> updateSearchIndexAsync(Date changedSince) {
 		try {
 			log.info("Started asynchronously updating the search index...");
-			return fullTextSessionFactory.getFullTextSession().createIndexer().start();
+			return createSearchIndexUpdater().start(getIndexedTypes(), changedSince);
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to start asynchronous search index update", e);
 		}
 	}
+	
+	/**
+	 * Creates the updater of the search index with the number of threads of each type read from the
+	 * global properties, since they are not accessible from the threads of the updater.
+	 */
+	private SearchIndexUpdater createSearchIndexUpdater() {
+		Map<Class<?>, Integer> threadCounts = new HashMap<>();
+		for (Class<?> type : getIndexedTypes()) {
+			int threads = getPositiveGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS + "."
+			        + type.getSimpleName(), getPositiveGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS, 2));
+			threadCounts.put(type, threads);
+		}
+		File checkpointDirectory = new File(OpenmrsUtil.getDirectoryInApplicationDataDirectory("lucene"), "checkpoints");
+		return new SearchIndexUpdater(sessionFactory, checkpointDirectory, threadCounts::get);
+	}
+	
+	private List<Class<?>> getIndexedTypes() {
+		return SearchIndexUpdater.getRootTypes(fullTextSessionFactory.getFullTextSession().getSearchFactory()
+		        .getIndexedTypes());
+	}
+	
+	private int getPositiveGlobalProperty(String name, int defaultValue) {
+		String value = Context.getAdministrationService().getGlobalProperty(name);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int number = Integer.parseInt(value.trim());
+				if (number > 0) {
+					return number;
+				}
+			}
+			catch (NumberFormatException e) {
+				log.warn("The global property {} is not a number: {}", name, value);
+			}
+		}
+		return defaultValue;
+	}
 }
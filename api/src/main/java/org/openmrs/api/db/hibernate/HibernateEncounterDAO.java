@@ -13,13 +13,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Conjunction;
@@ -28,6 +34,7 @@ import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.sql.JoinType;
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -51,6 +58,12 @@ import org.openmrs.parameter.EncounterSearchCriteria;
  */
 public class HibernateEncounterDAO implements EncounterDAO {
 
+	/**
+	 * The number of patients whose encounters are queried at once, so that the IN-lists stay within
+	 * the limits of the database
+	 */
+	private static final int PATIENT_CHUNK_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -311,49 +324,144 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public Map<Integer, List<Encounter>> getAllEncounters(Cohort patients) {
 		Map<Integer, List<Encounter>> encountersBypatient = new HashMap<>();
-		
-		@SuppressWarnings("unchecked")
-		List<Encounter> allEncounters = createEncounterCriteria(patients).list();
-		
-		// set up the return map
-		for (Encounter encounter : allEncounters) {
-			Integer patientId = encounter.getPatient().getPersonId();
-			List<Encounter> encounters = encountersBypatient.get(patientId);
-			
-			if (encounters == null) {
-				encounters = new ArrayList<>();
+		forEachPatientEncounters(patients, PATIENT_CHUNK_SIZE, null, encountersBypatient::put);
+		return encountersBypatient;
+	}
+	
+	/**
+	 * @see EncounterDAO#streamAllEncounters(Cohort, int, BiConsumer)
+	 */
+	@Override
+	public void streamAllEncounters(Cohort patients, int chunkSize, BiConsumer<Integer, List<Encounter>> consumer) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least 1");
+		}
+		// the objects the caller already has in the session are left in it
+		Set<Object> keptEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+		SessionImplementor session = sessionFactory.getCurrentSession().unwrap(SessionImplementor.class);
+		keptEntities.addAll(session.getPersistenceContext().getEntitiesByKey().values());
+		forEachPatientEncounters(patients, chunkSize, keptEntities, consumer);
+	}
+	
+	/**
+	 * Passes the unvoided encounters of each patient to the consumer, in ascending order of patient
+	 * id. The patients of the cohort are queried chunkSize at a time, so that the IN-lists stay within
+	 * the limits of the database. Without a cohort, the patients having encounters are paged by id
+	 * chunkSize at a time, so that no single result set spans the whole table.
+	 *
+	 * @param patients the patients to get the encounters of, all of them if null
+	 * @param chunkSize the number of patients to query at once
+	 * @param keptEntities if not null, the encounters passed to the consumer and their patients are
+	 *            evicted from the session after each chunkSize patients so that they do not pile up
+	 *            in it, except for these objects
+	 * @param consumer receives the id of each patient and their encounters, latest first
+	 */
+	private void forEachPatientEncounters(Cohort patients, int chunkSize, Set<Object> keptEntities,
+	        BiConsumer<Integer, List<Encounter>> consumer) {
+		if (patients == null) {
+			List<Integer> chunk = getPatientIdsWithEncounters(0, chunkSize);
+			while (!chunk.isEmpty()) {
+				scrollPatientEncounters(chunk, chunkSize, keptEntities, consumer);
+				chunk = getPatientIdsWithEncounters(chunk.get(chunk.size() - 1), chunkSize);
 			}
-			
-			encounters.add(encounter);
-			if (!encountersBypatient.containsKey(patientId)) {
-				encountersBypatient.put(patientId, encounters);
+			return;
+		}
+		
+		Set<Integer> patientIds = new TreeSet<>();
+		patients.getMemberships().forEach(m -> patientIds.add(m.getPatientId()));
+		List<Integer> chunk = new ArrayList<>(Math.min(chunkSize, patientIds.size()));
+		for (Integer patientId : patientIds) {
+			chunk.add(patientId);
+			if (chunk.size() == chunkSize) {
+				scrollPatientEncounters(chunk, chunkSize, keptEntities, consumer);
+				chunk.clear();
 			}
 		}
-		return encountersBypatient;
+		if (!chunk.isEmpty()) {
+			scrollPatientEncounters(chunk, chunkSize, keptEntities, consumer);
+		}
 	}
 	
 	/**
-	 * Create the criteria for fetching all encounters based on cohort
+	 * Gets the ids of the patients having unvoided encounters, in ascending order
 	 *
-	 * @param patients
-	 * @return a map of patient with their encounters
+	 * @param previousPatientId the id of the patient preceding the ones to get
+	 * @param maxResults the maximum number of ids to get
+	 * @return the patient ids
 	 */
-	private Criteria createEncounterCriteria(Cohort patients) {
+	@SuppressWarnings("unchecked")
+	private List<Integer> getPatientIdsWithEncounters(Integer previousPatientId, int maxResults) {
 		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
+		criteria.add(Restrictions.eq("voided", false));
+		criteria.add(Restrictions.gt("patient.personId", previousPatientId));
+		criteria.setProjection(Projections.distinct(Projections.property("patient.personId")));
+		criteria.addOrder(Order.asc("patient.personId"));
+		criteria.setMaxResults(maxResults);
+		return criteria.list();
+	}
+	
+	private void scrollPatientEncounters(List<Integer> patientIds, int chunkSize, Set<Object> keptEntities,
+	        BiConsumer<Integer, List<Encounter>> consumer) {
+		Session session = sessionFactory.getCurrentSession();
+		Criteria criteria = session.createCriteria(Encounter.class);
 		criteria.setCacheMode(org.hibernate.CacheMode.IGNORE);
+		criteria.add(Restrictions.in("patient.personId", patientIds));
+		criteria.add(Restrictions.eq("voided", false));
+		criteria.addOrder(Order.asc("patient.personId"));
+		criteria.addOrder(Order.desc("encounterDatetime"));
+		criteria.setFetchSize(1000);
 		
-		// only include this where clause if patients were passed in
-		if (patients != null) {
-            ArrayList<Integer> patientIds = new ArrayList<>();
-			patients.getMemberships().forEach(m -> patientIds.add(m.getPatientId()));
-			criteria.add(Restrictions.in("patient.personId", patientIds));
+		List<Encounter> passed = new ArrayList<>();
+		ScrollableResults results = criteria.scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			Integer currentPatientId = null;
+			List<Encounter> encounters = new ArrayList<>();
+			int patientCount = 0;
+			while (results.next()) {
+				Encounter encounter = (Encounter) results.get(0);
+				Integer patientId = encounter.getPatient().getPersonId();
+				if (!patientId.equals(currentPatientId)) {
+					if (currentPatientId != null) {
+						consumer.accept(currentPatientId, encounters);
+						passed.addAll(encounters);
+						encounters = new ArrayList<>();
+						if (keptEntities != null && ++patientCount % chunkSize == 0) {
+							evict(passed, keptEntities);
+						}
+					}
+					currentPatientId = patientId;
+				}
+				encounters.add(encounter);
+			}
+			if (currentPatientId != null) {
+				consumer.accept(currentPatientId, encounters);
+				passed.addAll(encounters);
+			}
+		}
+		finally {
+			results.close();
 		}
 		
-		criteria.add(Restrictions.eq("voided", false));
-		
-		criteria.addOrder(Order.desc("patient.personId"));
-		criteria.addOrder(Order.desc("encounterDatetime"));
-		return criteria;
+		if (keptEntities != null) {
+			evict(passed, keptEntities);
+		}
+	}
+	
+	/**
+	 * Evicts the given encounters and their patients from the session, except for the kept objects,
+	 * and empties the list
+	 */
+	private void evict(List<Encounter> encounters, Set<Object> keptEntities) {
+		Session session = sessionFactory.getCurrentSession();
+		for (Encounter encounter : encounters) {
+			if (!keptEntities.contains(encounter)) {
+				session.evict(encounter);
+			}
+			if (!keptEntities.contains(encounter.getPatient()) && session.contains(encounter.getPatient())) {
+				session.evict(encounter.getPatient());
+			}
+		}
+		encounters.clear();
 	}
 	
 	/**
@@ -372,6 +372,14 @@ public class HibernateOrderDAO implements OrderDAO {
 	 */
 	@Override
 	public Long getNextOrderNumberSeedSequenceValue() {
+		return reserveOrderNumberSeedSequenceValues(1);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.OrderDAO#reserveOrderNumberSeedSequenceValues(int)
+	 */
+	@Override
+	public Long reserveOrderNumberSeedSequenceValues(int count) {
 		GlobalProperty globalProperty = (GlobalProperty) sessionFactory.getCurrentSession().get(GlobalProperty.class,
 		    OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED, LockOptions.UPGRADE);
 		
@@ -394,7 +402,7 @@ public class HibernateOrderDAO implements OrderDAO {
 			        new Object[] { OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED });
 		}
 		
-		globalProperty.setPropertyValue(String.valueOf(gpNumericValue + 1));
+		globalProperty.setPropertyValue(String.valueOf(gpNumericValue + count));
 		
 		sessionFactory.getCurrentSession().save(globalProperty);
 		
@@ -14,7 +14,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -60,6 +59,11 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * The maximum number of patient ids bound to one query when loading search hits
+	 */
+	private static final int LOAD_PATIENTS_CHUNK_SIZE = 500;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -715,33 +719,21 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 		tmpQuery = LuceneQuery.escapeQuery(tmpQuery);
 		
-		List<Patient> patients = new LinkedList<>();
-		
 		String minChars = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS);
 		
 		if (minChars == null || !StringUtils.isNumeric(minChars)) {
 			minChars = "" + OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS;
 		}
 		if (tmpQuery.length() < Integer.valueOf(minChars)) {
-			return patients;
+			return new ArrayList<>();
 		}
 		LuceneQuery<PatientIdentifier> identifierQuery = getPatientIdentifierLuceneQuery(tmpQuery, identifierTypes, matchExactly);
 		
-		long identifiersSize = identifierQuery.resultSize();
-		if (identifiersSize > tmpStart) {
-			ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
-			patientIdentifiers.getList().forEach(patientIdentifier -> patients.add(getPatient((Integer) patientIdentifier[0])));
-			
-			tmpLength -= patientIdentifiers.getList().size();
-			tmpStart = 0;
-		} else {
-			tmpStart -= (int) identifiersSize;
-		}
+		List<Integer> patientIds = new ArrayList<>();
+		ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
+		patientIdentifiers.getList().forEach(patientIdentifier -> patientIds.add((Integer) patientIdentifier[0]));
 		
-		if (tmpLength == 0) {
-			return patients;
-		}
-		return patients;
+		return getPatientsInOrder(patientIds);
 	}
 	
 	public List<Patient> findPatients(String query, boolean includeVoided, Integer start, Integer length){
@@ -756,23 +748,25 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 		query = LuceneQuery.escapeQuery(query);
 
-		List<Patient> patients = new LinkedList<>();
-
 		String minChars = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS);
 
 		if (minChars == null || !StringUtils.isNumeric(minChars)) {
 			minChars = "" + OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS;
 		}
 		if (query.length() < Integer.valueOf(minChars)) {
-			return patients;
+			return new ArrayList<>();
 		}
 
+		// the ids of all phases are gathered first and the patients are loaded at once at the end, the
+		// total size of each phase comes with its page so no separate count query is needed
+		List<Integer> patientIds = new ArrayList<>();
+
 		LuceneQuery<PatientIdentifier> identifierQuery = getPatientIdentifierLuceneQuery(query, includeVoided, false);
 
-		long identifiersSize = identifierQuery.resultSize();
+		ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
+		long identifiersSize = patientIdentifiers.getTotalElements();
 		if (identifiersSize > tmpStart) {
-			ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
-			patientIdentifiers.getList().forEach(patientIdentifier -> patients.add(getPatient((Integer) patientIdentifier[0])));
+			patientIdentifiers.getList().forEach(patientIdentifier -> patientIds.add((Integer) patientIdentifier[0]));
 
 			tmpLength -= patientIdentifiers.getList().size();
 			tmpStart = 0;
@@ -781,16 +775,16 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 
 		if (tmpLength == 0) {
-			return patients;
+			return getPatientsInOrder(patientIds);
 		}
 
 		PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
 
 		LuceneQuery<PersonName> nameQuery = personLuceneQuery.getPatientNameQuery(query, includeVoided, identifierQuery);
-		long namesSize = nameQuery.resultSize();
+		ListPart<Object[]> personNames = nameQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
+		long namesSize = personNames.getTotalElements();
 		if (namesSize > tmpStart) {
-			ListPart<Object[]> personNames = nameQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
-			personNames.getList().forEach(personName -> patients.add(getPatient((Integer) personName[0])));
+			personNames.getList().forEach(personName -> patientIds.add((Integer) personName[0]));
 
 			tmpLength -= personNames.getList().size();
 			tmpStart = 0;
@@ -799,18 +793,57 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 
 		if (tmpLength == 0) {
-			return patients;
+			return getPatientsInOrder(patientIds);
 		}
 
 		LuceneQuery<PersonAttribute> attributeQuery = personLuceneQuery.getPatientAttributeQuery(query, includeVoided, nameQuery);
-		long attributesSize = attributeQuery.resultSize();
-		if (attributesSize > tmpStart) {
-			ListPart<Object[]> personAttributes = attributeQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
-			personAttributes.getList().forEach(personAttribute -> patients.add(getPatient((Integer) personAttribute[0])));
+		ListPart<Object[]> personAttributes = attributeQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
+		if (personAttributes.getTotalElements() > tmpStart) {
+			personAttributes.getList().forEach(personAttribute -> patientIds.add((Integer) personAttribute[0]));
 		}
 
+		return getPatientsInOrder(patientIds);
+	}
+	
+	/**
+	 * Loads the patients with the given ids in chunks, fetching the names of each chunk along with the
+	 * patients and their identifiers and identifier types with a second query. Fetching both
+	 * collections in one query would return the product of the names and identifiers of each patient.
+	 * 
+	 * @param patientIds the ids of the patients to load
+	 * @return the patients in the order of the given ids
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Patient> getPatientsInOrder(List<Integer> patientIds) {
+		if (patientIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Map<Integer, Patient> patientsById = new HashMap<>();
+		for (int from = 0; from < patientIds.size(); from += LOAD_PATIENTS_CHUNK_SIZE) {
+			List<Integer> chunk = patientIds.subList(from, Math.min(from + LOAD_PATIENTS_CHUNK_SIZE, patientIds.size()));
+			List<Patient> loadedPatients = sessionFactory.getCurrentSession().createQuery(
+			    "select distinct p from Patient p left join fetch p.names where p.patientId in (:patientIds)")
+			        .setParameterList("patientIds", chunk).list();
+			sessionFactory.getCurrentSession().createQuery(
+			    "select distinct p from Patient p left join fetch p.identifiers i left join fetch i.identifierType"
+			            + " where p.patientId in (:patientIds)")
+			        .setParameterList("patientIds", chunk).list();
+			for (Patient patient : loadedPatients) {
+				patientsById.put(patient.getPatientId(), patient);
+			}
+		}
+		
+		List<Patient> patients = new ArrayList<>(patientIds.size());
+		for (Integer patientId : patientIds) {
+			Patient patient = patientsById.get(patientId);
+			if (patient != null) {
+				patients.add(patient);
+			}
+		}
 		return patients;
 	}
+	
 	private LuceneQuery<PatientIdentifier> getPatientIdentifierLuceneQuery(String query, List<PatientIdentifierType> identifierTypes, boolean matchExactly) {
 		LuceneQuery<PatientIdentifier> patientIdentifierLuceneQuery = getPatientIdentifierLuceneQuery(query, matchExactly);
 		List<Integer> identifierTypeIds = new ArrayList<Integer>();
@@ -11,14 +11,15 @@ package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
-import org.hibernate.Query;
 import org.hibernate.SQLQuery;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
@@ -90,7 +91,7 @@ public class HibernatePersonDAO implements PersonDAO {
 		
 		LuceneQuery<PersonName> luceneQuery = personLuceneQuery.getSoundexPersonNameQuery(query, birthyear, false, gender);
 		ListPart<Object[]> names = luceneQuery.listPartProjection(0, maxResults, "person.personId");
-		names.getList().forEach(x -> people.add(getPerson((Integer) x[0])));
+		people.addAll(getPeopleInOrder(names));
 		
 		return people; 
 	}
@@ -113,7 +114,7 @@ public class HibernatePersonDAO implements PersonDAO {
 		LuceneQuery<PersonName> luceneQuery = personLuceneQuery.getSoundexPersonNameSearchOnAllNames(name1, name2, 0, false, gender);
 		LinkedHashSet<Person> people = new LinkedHashSet<>();
 		ListPart<Object[]> names = luceneQuery.listPartProjection(0, maxResults, "person.personId");
-		names.getList().forEach(x -> people.add(getPerson((Integer) x[0])));
+		people.addAll(getPeopleInOrder(names));
 		
 		Set<Person> firstNamesMatch = new HashSet<>();
 		Set<Person> secondNamesMatch = new HashSet<>();
@@ -167,7 +168,7 @@ public class HibernatePersonDAO implements PersonDAO {
 		
 		LuceneQuery<PersonName> luceneQuery = personLuceneQuery.getSoundexPersonNameSearchOnThreeNames(name1, name2, name3, birthyear, false, gender);;
 		ListPart<Object[]> names = luceneQuery.listPartProjection(0, maxResults, "person.personId");
-		names.getList().forEach(x -> people.add(getPerson((Integer) x[0])));
+		people.addAll(getPeopleInOrder(names));
 		
 		return people;
 	}	
@@ -195,7 +196,7 @@ public class HibernatePersonDAO implements PersonDAO {
 			luceneQuery = personLuceneQuery.getSoundexPersonSecondNameQuery(name, birthyear, includeVoided, gender);
 		}
 		ListPart<Object[]> names = luceneQuery.listPartProjection(0, maxResults, "person.personId");
-		names.getList().forEach(x -> results.add(getPerson((Integer) x[0])));
+		results.addAll(getPeopleInOrder(names));
 		
 		return results;
 	}
@@ -205,7 +206,6 @@ public class HibernatePersonDAO implements PersonDAO {
 	 * @see org.openmrs.api.db.PersonDAO#getSimilarPeople(String name, Integer birthyear, String gender)
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
 	public Set<Person> getSimilarPeople(String name, Integer birthyear, String gender) throws DAOException {
 		if (birthyear == null) {
 			birthyear = 0;
@@ -222,67 +222,66 @@ public class HibernatePersonDAO implements PersonDAO {
 		} else if (names.length == 3) {
 			return executeSoundexThreePersonNamesQuery(names[0], names[1], names[2], birthyear, false, gender);
 		} else {
-			
-			// This is simply an alternative method of name matching which scales better
-			// for large names, although it is hard to imagine getting names with more than
-			// six or so tokens.  This can be easily updated to attain more desirable
-			// results; it is just a working alternative to throwing an exception.
-			
-			StringBuilder q = new StringBuilder(
-				"select p from Person p left join p.names as pname where p.personVoided = false and pname.voided = false and ");
-			
-			q.append("(").append(" case").append("  when pname.givenName is null then 0");
-			for (int i = 0; i < names.length; i++) {
-				q.append("  when soundex(pname.givenName) = soundex(:n").append(i + 1).append(") then 1");
-			}
-			q.append("  else 0").append(" end").append(")").append("+").append("(").append(" case").append(
-				"  when pname.middleName is null then 0");
-			for (int i = 0; i < names.length; i++) {
-				q.append("  when soundex(pname.middleName) = soundex(:n").append(i + 1).append(") then 1");
-			}
-			q.append("  else 0").append(" end").append(")").append("+").append("(").append(" case").append(
-				"  when pname.familyName is null then 0");
-			for (int i = 0; i < names.length; i++) {
-				q.append("  when soundex(pname.familyName) = soundex(:n").append(i + 1).append(") then 1");
-			}
-			q.append("  else 0").append(" end").append(")").append("+").append("(").append(" case").append(
-				"  when pname.familyName2 is null then 0");
-			for (int i = 0; i < names.length; i++) {
-				q.append("  when soundex(pname.familyName2) = soundex(:n").append(i + 1).append(") then 1");
-			}
 			// if most of the names have at least a hit somewhere
-			q.append("  else 0").append(" end").append(") >= ").append((int) (names.length * .75));
-			
-			String birthdayMatch = " (year(p.birthdate) between " + (birthyear - 1) + " and " + (birthyear + 1)
-				+ " or p.birthdate is null) ";
-			
-			String genderMatch = " (p.gender = :gender or p.gender = '') ";
-			
-			if (birthyear != 0 && gender != null) {
-				q.append(" and (").append(birthdayMatch).append("and ").append(genderMatch).append(") ");
-			} else if (birthyear != 0) {
-				q.append(" and ").append(birthdayMatch);
-			} else if (gender != null) {
-				q.append(" and ").append(genderMatch);
-			}
-			
-			q.append(" order by pname.givenName asc,").append(" pname.middleName asc,").append(" pname.familyName asc,")
-				.append(
-					" pname.familyName2 asc");
-			
-			String qStr = q.toString();
-			Query query = sessionFactory.getCurrentSession().createQuery(qStr);
-			
-			for (int nameIndex = 0; nameIndex < names.length; nameIndex++) {
-				query.setString("n" + (nameIndex + 1), names[nameIndex]);
-			}
-			
-			if (qStr.contains(":gender")) {
-				query.setString("gender", gender);
+			return executeSoundexManyPersonNamesQuery(names, (int) (names.length * .75), birthyear, false, gender);
+		}
+	}
+	
+	/**
+	 * This method executes a Lucene search on persons based on the soundex filter with more than three name elements
+	 * given. It is simply an alternative method of name matching which scales better for large names, although it is
+	 * hard to imagine getting names with more than six or so tokens.
+	 *
+	 * @param names the names to be searched for in a person name
+	 * @param minimumMatchingNames how many of the name fields of a person name must match one of the names
+	 * @param birthyear the birthyear the searched person should have 
+	 * @param includeVoided true if voided person should be included 
+	 * @param gender of the person to search for 
+	 * @return the set of Persons that match the search criteria 
+	 */
+	private Set<Person> executeSoundexManyPersonNamesQuery(String[] names, int minimumMatchingNames, Integer birthyear, boolean includeVoided, String gender) {
+		if (minimumMatchingNames > PersonLuceneQuery.SOUNDEX_NAME_FIELDS.size()) {
+			// a person name has not got that many fields
+			return new LinkedHashSet<>();
+		}
+		PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
+		int maxResults = HibernatePersonDAO.getMaximumSearchResults();
+		
+		LuceneQuery<PersonName> luceneQuery = personLuceneQuery.getSoundexPersonNameSearchOnManyNames(names, minimumMatchingNames, birthyear, includeVoided, gender);
+		ListPart<Object[]> personNames = luceneQuery.listPartProjection(0, maxResults, "person.personId");
+		
+		return new LinkedHashSet<>(getPeopleInOrder(personNames));
+	}
+	
+	/**
+	 * Loads the people whose ids are projected by a search with a single query
+	 * 
+	 * @param personIds the projected person ids
+	 * @return the people in the order of the given ids
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Person> getPeopleInOrder(ListPart<Object[]> personIds) {
+		List<Integer> ids = new ArrayList<>();
+		personIds.getList().forEach(x -> ids.add((Integer) x[0]));
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		List<Person> loadedPeople = sessionFactory.getCurrentSession().createQuery(
+		    "from Person p where p.personId in (:personIds)").setParameterList("personIds", ids).list();
+		Map<Integer, Person> peopleById = new HashMap<>();
+		for (Person person : loadedPeople) {
+			peopleById.put(person.getPersonId(), person);
+		}
+		
+		List<Person> people = new ArrayList<>(ids.size());
+		for (Integer id : ids) {
+			Person person = peopleById.get(id);
+			if (person != null) {
+				people.add(person);
 			}
-			
-			return new LinkedHashSet<Person>(query.list());
 		}
+		return people;
 	}
 	
 	/**
@@ -20,10 +20,12 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.VisitAttribute;
 import org.openmrs.VisitAttributeType;
@@ -302,4 +304,43 @@ public class HibernateVisitDAO implements VisitDAO {
 		
 		return (Visit) criteria.uniqueResult();
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#getActiveVisitIds(Integer, Collection, Date, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> getActiveVisitIds(Integer previousVisitId, Collection<VisitType> visitTypes,
+	        Date maximumStartDate, int maxResults) {
+		Criteria criteria = getCurrentSession().createCriteria(Visit.class);
+		criteria.add(Restrictions.eq("voided", false)).add(
+		    Restrictions.gt("visitId", (previousVisitId != null) ? previousVisitId : 0)).addOrder(
+		    Order.asc("visitId")).add(Restrictions.isNull("stopDatetime")).setMaxResults(maxResults);
+		if (maximumStartDate != null) {
+			criteria.add(Restrictions.le("startDatetime", maximumStartDate));
+		}
+		
+		if (CollectionUtils.isNotEmpty(visitTypes)) {
+			criteria.add(Restrictions.in("visitType", visitTypes));
+		}
+		
+		criteria.setProjection(Projections.property("visitId"));
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#stopVisits(Collection, Date, User, Date)
+	 */
+	@Override
+	public int stopVisits(Collection<Integer> visitIds, Date stopDatetime, User changedBy, Date dateChanged) {
+		if (visitIds.isEmpty()) {
+			return 0;
+		}
+		// the conditions on the visit make the update safe when several nodes stop visits at the same time
+		return getCurrentSession().createQuery(
+		    "update Visit set stopDatetime = :stopDatetime, changedBy = :changedBy, dateChanged = :dateChanged "
+		            + "where visitId in (:visitIds) and stopDatetime is null and voided = false")
+		        .setParameter("stopDatetime", stopDatetime).setParameter("changedBy", changedBy)
+		        .setParameter("dateChanged", dateChanged).setParameterList("visitIds", visitIds).executeUpdate();
+	}
 }
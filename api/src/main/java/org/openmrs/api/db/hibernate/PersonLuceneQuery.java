@@ -35,6 +35,8 @@ public class PersonLuceneQuery {
 			"(middleNameSoundex:n1^2 OR middleNameSoundex:n2^6 OR middleNameSoundex:n3^1) OR " +
 			"(familyNameSoundex:n1^1 OR familyNameSoundex:n2^2 OR familyNameSoundex:n3^6) OR " +
 			"(familyName2Soundex:n1^1 OR familyName2Soundex:n2^2 OR familyName2Soundex:n3^6))";
+	static final List<String> SOUNDEX_NAME_FIELDS = Arrays.asList("givenNameSoundex", "middleNameSoundex",
+		"familyNameSoundex", "familyName2Soundex");
 	
 	
 	public PersonLuceneQuery(SessionFactory sessionFactory) {
@@ -126,6 +128,51 @@ public class PersonLuceneQuery {
 		return getSoundexPersonNameQuery(threeNameQuery, birthyear, includeVoided, gender);
 	}		
 		
+	/**
+	 * This method creates a Lucene search query for a Person based on a soundex search of many names, where at least
+	 * the given number of the givenName, middleName, familyName and familyName2 fields must each match one of the names
+	 * 
+	 * @param names the names to be searched
+	 * @param minimumMatchingFields how many of the name fields must match one of the names
+	 * @param birthyear the birthyear the searched person should have
+	 * @param includeVoided is true if voided person should be matched
+	 * @param gender the gender of the person to search
+	 * @return the LuceneQuery that returns Persons with enough name fields matching the soundex representation of the names
+	 */
+	public LuceneQuery<PersonName> getSoundexPersonNameSearchOnManyNames(String[] names, int minimumMatchingFields, Integer birthyear, boolean includeVoided, String gender) {
+		if (minimumMatchingFields < 1 || minimumMatchingFields > SOUNDEX_NAME_FIELDS.size()) {
+			throw new IllegalArgumentException("minimumMatchingFields must be between 1 and " + SOUNDEX_NAME_FIELDS.size());
+		}
+		List<String> escapedNames = new ArrayList<>();
+		for (String name : names) {
+			escapedNames.add(LuceneQuery.escapeQuery(name));
+		}
+		String anyName = ":(" + String.join(" ", escapedNames) + ")";
+		
+		List<String> fieldQueries = new ArrayList<>();
+		for (String field : SOUNDEX_NAME_FIELDS) {
+			fieldQueries.add(field + anyName);
+		}
+		
+		// the query parser has no minimum number of clauses to match, so each combination of enough fields is a clause
+		List<String> combinations = new ArrayList<>();
+		addCombinations(fieldQueries, 0, minimumMatchingFields, new ArrayList<>(), combinations);
+		
+		return getSoundexPersonNameQuery("(" + String.join(" OR ", combinations) + ")", birthyear, includeVoided, gender);
+	}
+	
+	private void addCombinations(List<String> clauses, int start, int size, List<String> combination, List<String> combinations) {
+		if (combination.size() == size) {
+			combinations.add("(" + String.join(" AND ", combination) + ")");
+			return;
+		}
+		for (int i = start; i <= clauses.size() - (size - combination.size()); i++) {
+			combination.add(clauses.get(i));
+			addCombinations(clauses, i + 1, size, combination, combinations);
+			combination.remove(combination.size() - 1);
+		}
+	}
+		
 	/**
 		 * This method creates a Lucene search query for a Person based on a soundex search on the first name
 		 * 
@@ -0,0 +1,156 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.lucene.search.similarities.Similarity;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.engine.spi.EntityIndexBinding;
+import org.hibernate.search.indexes.spi.DirectoryBasedIndexManager;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.spi.SearchIntegrator;
+import org.hibernate.search.spi.WorkerBuildContext;
+
+/**
+ * An index manager which applies the changes to its index through an {@link IndexWorkQueue}, so that
+ * the transactions saving indexed objects do not wait for the index to be written and committed.
+ * Searches find the changes once the queue has applied them, which is within the refresh interval
+ * unless the queue is backed up. Call {@link org.openmrs.api.context.Context#awaitSearchIndexUpdates()}
+ * to search for the objects the current thread has just saved.
+ * <p>
+ * It is set up in the hibernate properties with:
+ *
+ * <pre>
+ * hibernate.search.default.indexmanager=org.openmrs.api.db.hibernate.search.AsyncIndexManager
+ * hibernate.search.default.async.queue_size=1000
+ * hibernate.search.default.async.batch_size=100
+ * hibernate.search.default.async.refresh_interval=1000
+ * </pre>
+ *
+ * A queue size of 0 applies the changes right away, like the default index manager does.
+ *
+ * @since 2.5.0
+ */
+public class AsyncIndexManager extends DirectoryBasedIndexManager {
+	
+	public static final String QUEUE_SIZE = "async.queue_size";
+	
+	public static final String BATCH_SIZE = "async.batch_size";
+	
+	public static final String REFRESH_INTERVAL = "async.refresh_interval";
+	
+	private IndexWorkQueue queue;
+	
+	@Override
+	public void initialize(String indexName, Properties properties, Similarity similarity,
+	        WorkerBuildContext buildContext) {
+		super.initialize(indexName, properties, similarity, buildContext);
+		
+		int queueSize = NumberUtils.toInt(properties.getProperty(QUEUE_SIZE), 1000);
+		if (queueSize > 0) {
+			queue = new IndexWorkQueue(indexName, queueSize, NumberUtils.toInt(properties.getProperty(BATCH_SIZE), 100),
+			        NumberUtils.toLong(properties.getProperty(REFRESH_INTERVAL), 1000), super::performOperations);
+		}
+	}
+	
+	@Override
+	public void performOperations(List<LuceneWork> workList, IndexingMonitor monitor) {
+		if (queue == null) {
+			super.performOperations(workList, monitor);
+		} else {
+			queue.add(workList, monitor);
+		}
+	}
+	
+	@Override
+	public void performStreamOperation(LuceneWork singleOperation, IndexingMonitor monitor, boolean forceAsync) {
+		if (queue == null) {
+			super.performStreamOperation(singleOperation, monitor, forceAsync);
+		} else {
+			// kept in the queue so that it is applied after the changes added before it
+			queue.add(Collections.singletonList(singleOperation), monitor);
+		}
+	}
+	
+	@Override
+	public void awaitAsyncProcessingCompletion() {
+		if (queue != null) {
+			queue.awaitAllChanges();
+		}
+		super.awaitAsyncProcessingCompletion();
+	}
+	
+	@Override
+	public void destroy() {
+		if (queue != null) {
+			queue.close();
+		}
+		super.destroy();
+	}
+	
+	/**
+	 * Waits until the changes made by the current thread to the indexes of the given session have been
+	 * applied, so that a search done next by the thread finds them.
+	 *
+	 * @param session the session whose indexes to wait for
+	 */
+	public static void awaitChangesOfCurrentThread(FullTextSession session) {
+		SearchIntegrator integrator = session.getSearchFactory().unwrap(SearchIntegrator.class);
+		for (EntityIndexBinding binding : integrator.getIndexBindings().values()) {
+			for (IndexManager indexManager : binding.getIndexManagerSelector().all()) {
+				if (indexManager instanceof AsyncIndexManager) {
+					((AsyncIndexManager) indexManager).awaitChangesOfCurrentThread();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Waits until the changes made to the index by the current thread have been applied
+	 */
+	public void awaitChangesOfCurrentThread() {
+		if (queue != null) {
+			queue.awaitChangesOfCurrentThread();
+		}
+	}
+	
+	/**
+	 * @return the number of changes waiting to be applied to the index
+	 */
+	public int getQueueDepth() {
+		return queue == null ? 0 : queue.getQueueDepth();
+	}
+	
+	/**
+	 * @return how many milliseconds the index is behind the changes made to it
+	 */
+	public long getLag() {
+		return queue == null ? 0 : queue.getLag();
+	}
+	
+	/**
+	 * Gets the ids of the entities whose changes could not be applied to the index, so that they can
+	 * be reindexed, and forgets them
+	 *
+	 * @return the ids by entity class, an empty set stands for all the entities of the class
+	 */
+	public Map<Class<?>, Set<Serializable>> getFailedEntityIds() {
+		return queue == null ? Collections.emptyMap() : queue.getFailedEntityIds();
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.BitDocIdSet;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.openmrs.util.IdBitmap;
+
+/**
+ * Matches the documents whose id is in the given set. Unlike a filter on the terms of the ids it
+ * does not look each id up in the index, it checks the id of each document of a segment against
+ * the set.
+ *
+ * @since 2.5.0
+ */
+class IdFilter extends Filter {
+
+	private final String idField;
+
+	private final IdBitmap ids;
+
+	/**
+	 * @param idField the field holding the id of the documents
+	 * @param ids the ids of the documents to match
+	 */
+	IdFilter(String idField, IdBitmap ids) {
+		this.idField = idField;
+		this.ids = ids;
+	}
+
+	@Override
+	public DocIdSet getDocIdSet(LeafReaderContext context, Bits acceptDocs) throws IOException {
+		int[] docIds = SegmentIntValues.get(context.reader(), idField);
+		FixedBitSet matching = new FixedBitSet(docIds.length);
+		boolean any = false;
+		for (int doc = 0; doc < docIds.length; doc++) {
+			int id = docIds[doc];
+			if (id != SegmentIntValues.MISSING && ids.contains(id) && (acceptDocs == null || acceptDocs.get(doc))) {
+				matching.set(doc);
+				any = true;
+			}
+		}
+		return any ? new BitDocIdSet(matching) : null;
+	}
+
+	@Override
+	public String toString(String field) {
+		return "IdFilter(" + idField + ": " + ids.size() + " ids)";
+	}
+
+	/**
+	 * Two filters are only equal if they are the same, so that a query cache never mistakes the
+	 * filter of one search for the one of another
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+}
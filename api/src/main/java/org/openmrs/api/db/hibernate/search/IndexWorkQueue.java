@@ -0,0 +1,397 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded queue of changes to an index, which are applied in the order they were added by a thread
+ * of its own. The changes added within the refresh interval following a change are applied together,
+ * so that the index is committed and its readers refreshed once for all of them. When the queue is
+ * full, adding a change waits until there is room for it.
+ * <p>
+ * If a batch fails, its changes are applied again one at a time, so that one bad change does not
+ * lose the others. The ids of the entities whose changes still fail are kept in
+ * {@link #getFailedEntityIds()} so that they can be reindexed. If the thread applying the changes
+ * dies, e.g. from an Error, the threads adding changes apply them themselves from then on.
+ *
+ * @since 2.5.0
+ */
+public class IndexWorkQueue {
+	
+	private static final Logger log = LoggerFactory.getLogger(IndexWorkQueue.class);
+	
+	/**
+	 * How many milliseconds the thread applying the changes waits for more at a time, before checking
+	 * whether another thread is waiting for the changes it has
+	 */
+	private static final long AWAIT_CHECK_INTERVAL = 10;
+	
+	private final BlockingQueue<Changeset> queue;
+	
+	private final int batchSize;
+	
+	private final long refreshInterval;
+	
+	private final BiConsumer<List<LuceneWork>, IndexingMonitor> applier;
+	
+	private final Thread worker;
+	
+	private final Object addLock = new Object();
+	
+	private final Object appliedLock = new Object();
+	
+	private final ThreadLocal<Long> lastAddedByThread = new ThreadLocal<>();
+	
+	private long lastAdded;
+	
+	private volatile long lastApplied;
+	
+	private volatile long lastAwaited;
+	
+	private volatile long applyingSince;
+	
+	private volatile boolean closed;
+	
+	/**
+	 * The ids of the entities whose changes failed, by entity class, an empty set stands for all the
+	 * entities of the class
+	 */
+	private final Map<Class<?>, Set<Serializable>> failedEntityIds = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param name the name of the index, used to name the thread applying the changes
+	 * @param capacity the number of changes the queue can hold
+	 * @param batchSize the maximum number of changes applied together
+	 * @param refreshInterval how many milliseconds to wait for more changes after a change before
+	 *            applying them
+	 * @param applier applies changes to the index
+	 */
+	public IndexWorkQueue(String name, int capacity, int batchSize, long refreshInterval,
+	    BiConsumer<List<LuceneWork>, IndexingMonitor> applier) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = Math.max(batchSize, 1);
+		this.refreshInterval = Math.max(refreshInterval, 0);
+		this.applier = applier;
+		this.worker = new Thread(this::applyChanges, "Search index updates for " + name);
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+	
+	/**
+	 * Adds a change to the queue, waiting for room in the queue if it is full. The change is applied
+	 * right away if the queue is closed or if the thread applying the changes has died.
+	 *
+	 * @param works the works making up the change
+	 * @param monitor the monitor to notify when the change is applied, may be null
+	 * <strong>Should</strong> apply the changes in the order they were added
+	 * <strong>Should</strong> apply the changes added within the refresh interval together
+	 * <strong>Should</strong> wait for room in the queue when it is full
+	 * <strong>Should</strong> apply the changes itself once the thread applying them has died
+	 */
+	public void add(List<LuceneWork> works, IndexingMonitor monitor) {
+		if (works.isEmpty()) {
+			return;
+		}
+		
+		boolean interrupted = false;
+		while (true) {
+			// the sequence is taken and the change queued together so that the queue stays in sequence order,
+			// but waiting for room happens outside the lock so that it does not hold up the other threads
+			synchronized (addLock) {
+				if (closed) {
+					applier.accept(works, monitor);
+					break;
+				}
+				
+				Changeset changeset = new Changeset(lastAdded + 1, works, monitor);
+				boolean added = true;
+				if (!worker.isAlive()) {
+					// nothing takes changes off the queue anymore, so the ones in it are applied first
+					applyLeftChanges(changeset);
+				} else {
+					added = queue.offer(changeset);
+				}
+				if (added) {
+					lastAdded = changeset.sequence;
+					lastAddedByThread.set(changeset.sequence);
+					break;
+				}
+			}
+			
+			synchronized (appliedLock) {
+				try {
+					if (queue.remainingCapacity() == 0 && worker.isAlive()) {
+						appliedLock.wait(AWAIT_CHECK_INTERVAL);
+					}
+				}
+				catch (InterruptedException e) {
+					// dropping a change would leave the index out of date
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Waits until the changes added by the current thread have been applied, so that a search done
+	 * next by the thread finds them. The changes are applied without waiting for the refresh interval.
+	 * <strong>Should</strong> wait until the changes added by the current thread have been applied
+	 * <strong>Should</strong> apply the changes without waiting for the refresh interval
+	 */
+	public void awaitChangesOfCurrentThread() {
+		Long sequence = lastAddedByThread.get();
+		if (sequence != null) {
+			await(sequence);
+			lastAddedByThread.remove();
+		}
+	}
+	
+	/**
+	 * Waits until all the changes added so far have been applied
+	 */
+	public void awaitAllChanges() {
+		long sequence;
+		synchronized (addLock) {
+			sequence = lastAdded;
+		}
+		await(sequence);
+	}
+	
+	/**
+	 * @return the number of changes waiting to be applied
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+	
+	/**
+	 * @return how many milliseconds ago the oldest change which is not applied yet was added, 0 if
+	 *         all the changes have been applied
+	 */
+	public long getLag() {
+		long oldest = applyingSince;
+		Changeset next = queue.peek();
+		if (oldest == 0 && next != null) {
+			oldest = next.time;
+		}
+		return oldest == 0 ? 0 : Math.max(System.currentTimeMillis() - oldest, 0);
+	}
+	
+	/**
+	 * Gets the ids of the entities whose changes could not be applied to the index, which therefore
+	 * need to be reindexed, and forgets them
+	 *
+	 * @return the ids by entity class, an empty set stands for all the entities of the class
+	 * <strong>Should</strong> retry the changes of a failed batch one at a time
+	 * <strong>Should</strong> keep the ids of the entities whose changes failed
+	 */
+	public Map<Class<?>, Set<Serializable>> getFailedEntityIds() {
+		Map<Class<?>, Set<Serializable>> result = new HashMap<>();
+		for (Class<?> entityClass : failedEntityIds.keySet()) {
+			Set<Serializable> ids = failedEntityIds.remove(entityClass);
+			if (ids != null) {
+				result.put(entityClass, Collections.unmodifiableSet(new HashSet<>(ids)));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Applies the changes left in the queue and stops the thread applying them. The changes added
+	 * afterwards are applied right away.
+	 */
+	public void close() {
+		synchronized (addLock) {
+			closed = true;
+		}
+		try {
+			worker.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void await(long sequence) {
+		synchronized (appliedLock) {
+			// the changes a thread waits for are applied without waiting for the refresh interval
+			lastAwaited = Math.max(lastAwaited, sequence);
+			while (lastApplied < sequence && worker.isAlive()) {
+				try {
+					appliedLock.wait(100);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+		if (lastApplied < sequence && !worker.isAlive()) {
+			synchronized (addLock) {
+				applyLeftChanges(null);
+			}
+		}
+	}
+	
+	/**
+	 * Applies the changes which the thread applying them left in the queue when it died, followed by
+	 * the given one, must be called holding the add lock
+	 */
+	private void applyLeftChanges(Changeset changeset) {
+		List<Changeset> batch = new ArrayList<>();
+		queue.drainTo(batch);
+		if (changeset != null) {
+			batch.add(changeset);
+		}
+		if (!batch.isEmpty()) {
+			apply(batch);
+		}
+	}
+	
+	private void applyChanges() {
+		try {
+			applyQueuedChanges();
+		}
+		catch (Error e) {
+			log.error("The thread applying search index updates died, changes are applied as they are made from now on",
+			    e);
+			throw e;
+		}
+		finally {
+			synchronized (appliedLock) {
+				appliedLock.notifyAll();
+			}
+		}
+	}
+	
+	private void applyQueuedChanges() {
+		while (!closed || !queue.isEmpty()) {
+			try {
+				Changeset first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				
+				List<Changeset> batch = new ArrayList<>();
+				batch.add(first);
+				long deadline = first.time + refreshInterval;
+				while (batch.size() < batchSize) {
+					long wait = closed || lastAwaited >= first.sequence ? 0 : deadline - System.currentTimeMillis();
+					Changeset next = wait > 0 ? queue.poll(Math.min(wait, AWAIT_CHECK_INTERVAL), TimeUnit.MILLISECONDS)
+					        : queue.poll();
+					if (next != null) {
+						batch.add(next);
+					} else if (wait <= AWAIT_CHECK_INTERVAL) {
+						break;
+					}
+				}
+				apply(batch);
+			}
+			catch (InterruptedException e) {
+				log.warn("Interrupted while waiting for search index updates, applying the remaining ones");
+				closed = true;
+			}
+		}
+	}
+	
+	private void apply(List<Changeset> batch) {
+		applyingSince = batch.get(0).time;
+		try {
+			// changes meant for the same monitor are applied together
+			int start = 0;
+			while (start < batch.size()) {
+				IndexingMonitor monitor = batch.get(start).monitor;
+				List<LuceneWork> works = new ArrayList<>();
+				int end = start;
+				while (end < batch.size() && batch.get(end).monitor == monitor) {
+					works.addAll(batch.get(end).works);
+					end++;
+				}
+				try {
+					applier.accept(works, monitor);
+				}
+				catch (RuntimeException e) {
+					log.warn("Failed to apply " + works.size() + " changes to the search index, applying them one at a time",
+					    e);
+					for (int i = start; i < end; i++) {
+						applyAlone(batch.get(i));
+					}
+				}
+				start = end;
+			}
+		}
+		finally {
+			applyingSince = 0;
+			synchronized (appliedLock) {
+				lastApplied = Math.max(lastApplied, batch.get(batch.size() - 1).sequence);
+				appliedLock.notifyAll();
+			}
+		}
+	}
+	
+	private void applyAlone(Changeset changeset) {
+		try {
+			applier.accept(changeset.works, changeset.monitor);
+		}
+		catch (RuntimeException e) {
+			List<String> failed = new ArrayList<>();
+			for (LuceneWork work : changeset.works) {
+				if (work.getEntityClass() == null) {
+					continue;
+				}
+				Set<Serializable> ids = failedEntityIds.computeIfAbsent(work.getEntityClass(),
+				    entityClass -> ConcurrentHashMap.newKeySet());
+				if (work.getId() != null) {
+					ids.add(work.getId());
+				}
+				failed.add(work.getEntityClass().getSimpleName() + "#" + work.getIdInString());
+			}
+			log.error("Failed to apply changes to the search index, these entities need to be reindexed: " + failed, e);
+		}
+	}
+	
+	private static final class Changeset {
+		
+		private final long sequence;
+		
+		private final long time = System.currentTimeMillis();
+		
+		private final List<LuceneWork> works;
+		
+		private final IndexingMonitor monitor;
+		
+		Changeset(long sequence, List<LuceneWork> works, IndexingMonitor monitor) {
+			this.sequence = sequence;
+			this.works = works;
+			this.monitor = monitor;
+		}
+	}
+}
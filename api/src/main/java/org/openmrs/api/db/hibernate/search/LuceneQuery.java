@@ -9,7 +9,7 @@
  */
 package org.openmrs.api.db.hibernate.search;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -17,16 +17,21 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.search.query.dsl.QueryBuilder;
 import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.PatientIdentifier;
@@ -34,6 +39,7 @@ import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
 import org.openmrs.api.context.Context;
 import org.openmrs.collection.ListPart;
+import org.openmrs.util.IdBitmap;
 
 /**
  * Performs Lucene queries.
@@ -46,11 +52,11 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	
 	private Set<Term> excludeTerms = new HashSet<>();
 
-	private TermsFilter termsFilter;
+	private Filter skipSameFilter;
 
 	private boolean noUniqueTerms = false;
 
-	private Set<Object> skipSameValues;
+	private IdBitmap skipSameValues;
 
 	boolean useOrQueryParser = false;
 	
@@ -287,7 +293,8 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	 * Only first elements will be included in the results.
 	 * <p>
 	 * <b>Note:</b> This method must be called as last when constructing a query. When called it
-	 * will project the query and create a filter to eliminate duplicates.
+	 * will run the query to find the best element of each value and create a filter to eliminate
+	 * duplicates. The values of the field must be integers, like ids.
 	 * 
 	 * @param field
 	 * @return this
@@ -302,7 +309,8 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	 * Only first elements will be included in the results.
 	 * <p>
 	 * <b>Note:</b> This method must be called as last when constructing a query. When called it
-	 * will project the query and create a filter to eliminate duplicates.
+	 * will run the query to find the best element of each value and create a filter to eliminate
+	 * duplicates. The values of the field must be integers, like ids.
 	 *
 	 * @param field
 	 * @param luceneQuery results of which should be skipped too. It works only for queries, which called skipSame as well.
@@ -311,28 +319,28 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	public LuceneQuery<T> skipSame(String field, LuceneQuery<?> luceneQuery){
 		String idPropertyName = getSession().getSessionFactory().getClassMetadata(getType()).getIdentifierPropertyName();
 
-		FullTextQuery query = buildQuery();
-		query.setProjection(idPropertyName, field);
-		List<Object[]> documents = query.list();
-
-		skipSameValues = new HashSet<>();
+		IdBitmap skipValues = null;
 		if (luceneQuery != null) {
 			if (luceneQuery.skipSameValues == null) {
 				throw new IllegalArgumentException("The skipSame method must be called on the given luceneQuery before calling this method.");
 			}
-			skipSameValues.addAll(luceneQuery.skipSameValues);
+			skipValues = luceneQuery.skipSameValues;
 		}
 
-		termsFilter = null;
-		if (!documents.isEmpty()) {
-			List<Term> terms = new ArrayList<>();
-			for (Object[] row : documents) {
-				if (skipSameValues.add(row[1])) {
-					terms.add(new Term(idPropertyName, row[0].toString()));
-				}
-			}
-			if (!terms.isEmpty()) {
-				termsFilter = new TermsFilter(terms);
+		// the duplicates are found while the query is scored, only the ids of the elements to keep and
+		// the values seen are held
+		SkipSameCollector collector = new SkipSameCollector(idPropertyName, field, skipValues);
+		search(collector);
+
+		IdBitmap values = collector.getValues();
+		skipSameValues = skipValues == null ? values : IdBitmap.union(skipValues, values);
+
+		skipSameFilter = null;
+		noUniqueTerms = false;
+		if (collector.getMatches() > 0) {
+			IdBitmap ids = collector.getIds();
+			if (!ids.isEmpty()) {
+				skipSameFilter = new IdFilter(idPropertyName, ids);
 			} else {
 				noUniqueTerms = true;
 			}
@@ -341,6 +349,38 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		return this;
 	}
 	
+	/**
+	 * Runs the query with its include and exclude filters directly against the index of the type
+	 */
+	private void search(SkipSameCollector collector) {
+		Query query;
+		try {
+			query = prepareQuery();
+		}
+		catch (ParseException e) {
+			throw new IllegalStateException("Invalid query", e);
+		}
+		
+		TermsFilterFactory termsFilterFactory = new TermsFilterFactory();
+		termsFilterFactory.setIncludeTerms(includeTerms);
+		termsFilterFactory.setExcludeTerms(excludeTerms);
+		BooleanQuery.Builder filteredQuery = new BooleanQuery.Builder();
+		filteredQuery.add(query, Occur.MUST);
+		filteredQuery.add(termsFilterFactory.getQuery(), Occur.FILTER);
+		
+		IndexReaderAccessor readerAccessor = getFullTextSession().getSearchFactory().getIndexReaderAccessor();
+		IndexReader reader = readerAccessor.open(getType());
+		try {
+			new IndexSearcher(reader).search(filteredQuery.build(), collector);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Failed to search the index of " + getType().getSimpleName(), e);
+		}
+		finally {
+			readerAccessor.close(reader);
+		}
+	}
+	
 	@Override
 	public T uniqueResult() {
 		if (noUniqueTerms) {
@@ -445,7 +485,7 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		fullTextQuery.enableFullTextFilter("termsFilterFactory").setParameter("includeTerms", includeTerms)
 				.setParameter("excludeTerms", excludeTerms);
 
-		fullTextQuery.setFilter(termsFilter);
+		fullTextQuery.setFilter(skipSameFilter);
 
 		adjustFullTextQuery(fullTextQuery);
 
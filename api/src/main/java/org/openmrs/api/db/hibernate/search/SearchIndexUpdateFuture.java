@@ -0,0 +1,36 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The result of an asynchronous update of the search index, which gives access to its progress.
+ *
+ * @see org.openmrs.api.context.Context#updateSearchIndexAsync()
+ * @since 2.5.0
+ */
+public class SearchIndexUpdateFuture extends FutureTask<Void> {
+	
+	private final SearchIndexUpdateProgress progress;
+	
+	public SearchIndexUpdateFuture(Callable<Void> update, SearchIndexUpdateProgress progress) {
+		super(update);
+		this.progress = progress;
+	}
+	
+	/**
+	 * @return the progress of the update
+	 */
+	public SearchIndexUpdateProgress getProgress() {
+		return progress;
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of a {@link SearchIndexUpdater}, overall and for each indexed type. It is updated
+ * while the index is being updated, so it can be read at any time from another thread.
+ *
+ * @since 2.5.0
+ */
+public class SearchIndexUpdateProgress {
+	
+	private final Map<Class<?>, TypeProgress> types;
+	
+	private final long startTime = System.currentTimeMillis();
+	
+	private volatile long endTime;
+	
+	public SearchIndexUpdateProgress(Iterable<Class<?>> types) {
+		Map<Class<?>, TypeProgress> progress = new LinkedHashMap<>();
+		for (Class<?> type : types) {
+			progress.put(type, new TypeProgress());
+		}
+		this.types = Collections.unmodifiableMap(progress);
+	}
+	
+	/**
+	 * @return the types being indexed
+	 */
+	public Iterable<Class<?>> getTypes() {
+		return types.keySet();
+	}
+	
+	/**
+	 * @param type one of the types being indexed
+	 * @return the number of rows of the given type which have been indexed so far
+	 */
+	public long getIndexedRows(Class<?> type) {
+		return getTypeProgress(type).indexedRows.get();
+	}
+	
+	/**
+	 * @param type one of the types being indexed
+	 * @return the number of rows of the given type to index, or -1 if they have not been counted yet
+	 */
+	public long getTotalRows(Class<?> type) {
+		return getTypeProgress(type).totalRows;
+	}
+	
+	/**
+	 * @param type one of the types being indexed
+	 * @return true if all the rows of the given type have been indexed
+	 */
+	public boolean isDone(Class<?> type) {
+		return getTypeProgress(type).done;
+	}
+	
+	/**
+	 * @return the number of rows which have been indexed so far for all the types
+	 */
+	public long getIndexedRows() {
+		long indexedRows = 0;
+		for (TypeProgress progress : types.values()) {
+			indexedRows += progress.indexedRows.get();
+		}
+		return indexedRows;
+	}
+	
+	/**
+	 * @return the number of rows to index for all the types which have been counted so far
+	 */
+	public long getTotalRows() {
+		long totalRows = 0;
+		for (TypeProgress progress : types.values()) {
+			totalRows += Math.max(progress.totalRows, 0);
+		}
+		return totalRows;
+	}
+	
+	/**
+	 * @return the number of rows indexed per second since the update started
+	 */
+	public double getRowsPerSecond() {
+		long end = endTime > 0 ? endTime : System.currentTimeMillis();
+		long elapsed = Math.max(end - startTime, 1);
+		return getIndexedRows() * 1000.0 / elapsed;
+	}
+	
+	/**
+	 * Estimates the time left from the rate at which rows have been indexed so far. Types which have
+	 * not been counted yet are not taken into account.
+	 *
+	 * @return the estimated number of milliseconds until the rows counted so far are indexed, or -1
+	 *         if nothing has been indexed yet
+	 */
+	public long getEstimatedTimeRemaining() {
+		if (endTime > 0) {
+			return 0;
+		}
+		double rowsPerSecond = getRowsPerSecond();
+		if (rowsPerSecond == 0) {
+			return -1;
+		}
+		long remainingRows = Math.max(getTotalRows() - getIndexedRows(), 0);
+		return (long) (remainingRows * 1000 / rowsPerSecond);
+	}
+	
+	/**
+	 * @return true if the update has finished, whether it succeeded or not
+	 */
+	public boolean isFinished() {
+		return endTime > 0;
+	}
+	
+	void setTotalRows(Class<?> type, long totalRows) {
+		getTypeProgress(type).totalRows = totalRows;
+	}
+	
+	void addIndexedRows(Class<?> type, long rows) {
+		getTypeProgress(type).indexedRows.addAndGet(rows);
+	}
+	
+	void setDone(Class<?> type) {
+		getTypeProgress(type).done = true;
+	}
+	
+	void setFinished() {
+		endTime = System.currentTimeMillis();
+	}
+	
+	private TypeProgress getTypeProgress(Class<?> type) {
+		TypeProgress progress = types.get(type);
+		if (progress == null) {
+			throw new IllegalArgumentException(type + " is not being indexed");
+		}
+		return progress;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(getIndexedRows()).append('/').append(getTotalRows()).append(" rows indexed, ")
+		        .append(String.format("%.1f", getRowsPerSecond())).append(" rows/s");
+		long remaining = getEstimatedTimeRemaining();
+		if (remaining >= 0 && !isFinished()) {
+			result.append(", about ").append(remaining / 1000).append("s left");
+		}
+		return result.toString();
+	}
+	
+	private static final class TypeProgress {
+		
+		private final AtomicLong indexedRows = new AtomicLong();
+		
+		private volatile long totalRows = -1;
+		
+		private volatile boolean done;
+	}
+}
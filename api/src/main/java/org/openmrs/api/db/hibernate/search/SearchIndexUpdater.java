@@ -0,0 +1,486 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.openmrs.api.db.DAOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the search index of the given types. The rows of each type are split into ranges of
+ * consecutive ids which are indexed in parallel, each by a thread with its own session reading the
+ * range in batches ordered by id. The ranges which are done are written to a checkpoint file, so that
+ * an update which did not finish resumes with the remaining ranges the next time it is run rather
+ * than starting over.
+ * <p>
+ * An update can also be limited to the rows created, changed, voided or retired since a given date,
+ * in which case the existing index is kept and only those rows are indexed again. Rows which were
+ * purged and rows which are only indexed because of changes to the objects they embed are not found
+ * this way.
+ * <p>
+ * The sessions used to read the rows are not the one of the current thread, so the rows must have
+ * been committed to be indexed.
+ *
+ * @since 2.5.0
+ */
+public class SearchIndexUpdater {
+	
+	private static final Logger log = LoggerFactory.getLogger(SearchIndexUpdater.class);
+	
+	/**
+	 * The number of consecutive ids indexed by a thread at once and recorded as done in the
+	 * checkpoint
+	 */
+	public static final int DEFAULT_RANGE_SIZE = 10000;
+	
+	private static final int BATCH_SIZE = 1000;
+	
+	private static final List<String> CHANGE_DATE_PROPERTIES = Arrays.asList("dateCreated", "dateChanged", "dateVoided",
+	    "dateRetired");
+	
+	private static final AtomicInteger threadCount = new AtomicInteger();
+	
+	private final SessionFactory sessionFactory;
+	
+	private final File checkpointDirectory;
+	
+	private final ToIntFunction<Class<?>> threadCounts;
+	
+	private int rangeSize = DEFAULT_RANGE_SIZE;
+	
+	/**
+	 * @param sessionFactory the session factory to open the sessions reading the rows from
+	 * @param checkpointDirectory the directory to write the checkpoints to
+	 * @param threadCounts gives the number of threads indexing each type
+	 */
+	public SearchIndexUpdater(SessionFactory sessionFactory, File checkpointDirectory,
+	    ToIntFunction<Class<?>> threadCounts) {
+		this.sessionFactory = sessionFactory;
+		this.checkpointDirectory = checkpointDirectory;
+		this.threadCounts = threadCounts;
+	}
+	
+	/**
+	 * @param rangeSize the number of consecutive ids indexed by a thread at once
+	 */
+	public void setRangeSize(int rangeSize) {
+		if (rangeSize < 1) {
+			throw new IllegalArgumentException("rangeSize must be positive");
+		}
+		this.rangeSize = rangeSize;
+	}
+	
+	/**
+	 * Selects the types to index out of all the indexed types, leaving out the subclasses of other
+	 * indexed types since their rows are indexed with the ones of their superclass.
+	 *
+	 * @param indexedTypes all the indexed types
+	 * @return the types to index, sorted by name
+	 */
+	public static List<Class<?>> getRootTypes(Collection<Class<?>> indexedTypes) {
+		List<Class<?>> rootTypes = new ArrayList<>();
+		for (Class<?> type : indexedTypes) {
+			boolean isRoot = true;
+			for (Class<?> other : indexedTypes) {
+				if (other != type && other.isAssignableFrom(type)) {
+					isRoot = false;
+					break;
+				}
+			}
+			if (isRoot) {
+				rootTypes.add(type);
+			}
+		}
+		rootTypes.sort((type1, type2) -> type1.getName().compareTo(type2.getName()));
+		return rootTypes;
+	}
+	
+	/**
+	 * Updates the search index of the given types in a new thread.
+	 *
+	 * @param types the types to index
+	 * @param changedSince if not null, only the rows changed since then are indexed
+	 * @return the future of the update, giving access to its progress
+	 */
+	public SearchIndexUpdateFuture start(List<Class<?>> types, Date changedSince) {
+		SearchIndexUpdateProgress progress = new SearchIndexUpdateProgress(types);
+		SearchIndexUpdateFuture future = new SearchIndexUpdateFuture(() -> {
+			update(progress, changedSince);
+			return null;
+		}, progress);
+		Thread thread = new Thread(future, "Search index update");
+		thread.setDaemon(true);
+		thread.start();
+		return future;
+	}
+	
+	/**
+	 * Updates the search index of the types of the given progress, one type after the other.
+	 *
+	 * @param progress the progress to report to
+	 * @param changedSince if not null, only the rows changed since then are indexed
+	 * @throws InterruptedException if the thread is interrupted while waiting for the indexing
+	 *             threads
+	 * <strong>Should</strong> index all the rows of a type
+	 * <strong>Should</strong> resume from the ranges left by the checkpoint
+	 * <strong>Should</strong> only index the rows changed since the given date
+	 */
+	public void update(SearchIndexUpdateProgress progress, Date changedSince) throws InterruptedException {
+		try {
+			for (Class<?> type : progress.getTypes()) {
+				updateType(type, changedSince, progress);
+				log.info("Finished updating the search index for {}: {}", type.getSimpleName(), progress);
+			}
+		}
+		finally {
+			progress.setFinished();
+		}
+	}
+	
+	private void updateType(Class<?> type, Date changedSince, SearchIndexUpdateProgress progress)
+	        throws InterruptedException {
+		ClassMetadata metadata = sessionFactory.getClassMetadata(type);
+		if (metadata == null) {
+			throw new DAOException(type + " is not mapped");
+		}
+		Class<?> idClass = metadata.getIdentifierType().getReturnedClass();
+		boolean rangedIds = Integer.class.equals(idClass) || Long.class.equals(idClass);
+		Criterion changed = getChangedSinceRestriction(metadata, changedSince);
+		
+		File checkpointFile = new File(checkpointDirectory,
+		        type.getName() + (changedSince == null ? "" : "-" + changedSince.getTime()) + ".checkpoint");
+		Checkpoint checkpoint = Checkpoint.load(checkpointFile, rangeSize);
+		if (checkpoint == null) {
+			checkpoint = new Checkpoint(checkpointFile, rangeSize);
+			if (changedSince == null) {
+				purge(type);
+			}
+			checkpoint.save();
+		} else {
+			log.info("Resuming the search index update for {} from {}", type.getSimpleName(), checkpointFile);
+		}
+		
+		List<Long> pendingRanges = new ArrayList<>();
+		Session session = sessionFactory.openSession();
+		try {
+			if (rangedIds) {
+				Criteria criteria = session.createCriteria(type).setProjection(
+				    Projections.projectionList().add(Projections.min(metadata.getIdentifierPropertyName()))
+				            .add(Projections.max(metadata.getIdentifierPropertyName())));
+				if (changed != null) {
+					criteria.add(changed);
+				}
+				Object[] minMax = (Object[]) criteria.uniqueResult();
+				if (minMax[0] != null) {
+					for (long range = ((Number) minMax[0]).longValue() / rangeSize; range <= ((Number) minMax[1])
+					        .longValue() / rangeSize; range++) {
+						if (!checkpoint.isCompleted(range)) {
+							pendingRanges.add(range);
+						}
+					}
+				}
+			} else if (!checkpoint.isCompleted(0)) {
+				pendingRanges.add(0L);
+			}
+			progress.setTotalRows(type, countRows(session, type, metadata, changed, rangedIds ? checkpoint : null));
+		}
+		finally {
+			session.close();
+		}
+		
+		int threads = Math.max(Math.min(threadCounts.applyAsInt(type), pendingRanges.size()), 1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Search index update " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			final Checkpoint rangeCheckpoint = checkpoint;
+			List<Future<?>> futures = new ArrayList<>();
+			for (Long range : pendingRanges) {
+				futures.add(executor.submit(() -> {
+					indexRange(type, metadata, rangedIds ? range : null, changed, progress);
+					rangeCheckpoint.complete(range);
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (ExecutionException e) {
+			throw new DAOException("Failed to update the search index for " + type.getName(), e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		session = sessionFactory.openSession();
+		try {
+			Search.getFullTextSession(session).getSearchFactory().optimize(type);
+		}
+		finally {
+			session.close();
+		}
+		checkpoint.delete();
+		progress.setDone(type);
+	}
+	
+	private void purge(Class<?> type) {
+		Session session = sessionFactory.openSession();
+		try {
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			Transaction transaction = fullTextSession.beginTransaction();
+			fullTextSession.purgeAll(type);
+			fullTextSession.flushToIndexes();
+			transaction.commit();
+			AsyncIndexManager.awaitChangesOfCurrentThread(fullTextSession);
+		}
+		finally {
+			session.close();
+		}
+	}
+	
+	private void indexRange(Class<?> type, ClassMetadata metadata, Long range, Criterion changed,
+	        SearchIndexUpdateProgress progress) {
+		String idProperty = metadata.getIdentifierPropertyName();
+		Session session = sessionFactory.openSession();
+		try {
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			fullTextSession.setHibernateFlushMode(FlushMode.MANUAL);
+			fullTextSession.setCacheMode(CacheMode.IGNORE);
+			Transaction transaction = fullTextSession.beginTransaction();
+			
+			Object lastId = null;
+			List<?> batch;
+			do {
+				Criteria criteria = fullTextSession.createCriteria(type).addOrder(Order.asc(idProperty))
+				        .setMaxResults(BATCH_SIZE);
+				if (range != null) {
+					criteria.add(Restrictions.ge(idProperty, toId(metadata, range * rangeSize)));
+					criteria.add(Restrictions.lt(idProperty, toId(metadata, (range + 1) * rangeSize)));
+				}
+				if (lastId != null) {
+					criteria.add(Restrictions.gt(idProperty, lastId));
+				}
+				if (changed != null) {
+					criteria.add(changed);
+				}
+				
+				batch = criteria.list();
+				for (Object entity : batch) {
+					fullTextSession.index(entity);
+				}
+				if (!batch.isEmpty()) {
+					lastId = fullTextSession.getIdentifier(batch.get(batch.size() - 1));
+				}
+				//apply changes to indexes and free memory since the queue is processed
+				fullTextSession.flushToIndexes();
+				fullTextSession.clear();
+				progress.addIndexedRows(type, batch.size());
+			} while (batch.size() == BATCH_SIZE);
+			
+			transaction.commit();
+			// the range is only marked as completed once its rows are in the index
+			AsyncIndexManager.awaitChangesOfCurrentThread(fullTextSession);
+		}
+		finally {
+			session.close();
+		}
+	}
+	
+	private long countRows(Session session, Class<?> type, ClassMetadata metadata, Criterion changed,
+	        Checkpoint checkpoint) {
+		Criteria criteria = session.createCriteria(type).setProjection(Projections.rowCount());
+		if (changed != null) {
+			criteria.add(changed);
+		}
+		if (checkpoint != null) {
+			// leave out the ranges which were indexed before the update was interrupted
+			Disjunction completedRanges = Restrictions.disjunction();
+			boolean hasCompletedRanges = false;
+			for (long[] interval : checkpoint.getCompletedIntervals()) {
+				completedRanges.add(Restrictions.and(
+				    Restrictions.ge(metadata.getIdentifierPropertyName(), toId(metadata, interval[0] * rangeSize)),
+				    Restrictions.lt(metadata.getIdentifierPropertyName(), toId(metadata, interval[1] * rangeSize))));
+				hasCompletedRanges = true;
+			}
+			if (hasCompletedRanges) {
+				criteria.add(Restrictions.not(completedRanges));
+			}
+		}
+		return ((Number) criteria.uniqueResult()).longValue();
+	}
+	
+	private static Criterion getChangedSinceRestriction(ClassMetadata metadata, Date changedSince) {
+		if (changedSince == null) {
+			return null;
+		}
+		
+		Disjunction changed = Restrictions.disjunction();
+		boolean hasChangeDates = false;
+		List<String> properties = Arrays.asList(metadata.getPropertyNames());
+		for (String property : CHANGE_DATE_PROPERTIES) {
+			if (properties.contains(property)) {
+				changed.add(Restrictions.ge(property, changedSince));
+				hasChangeDates = true;
+			}
+		}
+		if (!hasChangeDates) {
+			log.warn("{} has no dates telling when its rows changed, all its rows will be indexed",
+			    metadata.getEntityName());
+			return null;
+		}
+		return changed;
+	}
+	
+	private static Object toId(ClassMetadata metadata, long id) {
+		if (Integer.class.equals(metadata.getIdentifierType().getReturnedClass())) {
+			return (int) Math.min(id, Integer.MAX_VALUE);
+		}
+		return id;
+	}
+	
+	/**
+	 * The ranges of a type which have been indexed, written to a file every time a range is done
+	 */
+	private static final class Checkpoint {
+		
+		private final File file;
+		
+		private final int rangeSize;
+		
+		private final Set<Long> completedRanges = new TreeSet<>();
+		
+		Checkpoint(File file, int rangeSize) {
+			this.file = file;
+			this.rangeSize = rangeSize;
+		}
+		
+		static Checkpoint load(File file, int rangeSize) {
+			if (!file.exists()) {
+				return null;
+			}
+			
+			Properties properties = new Properties();
+			try (InputStream in = Files.newInputStream(file.toPath())) {
+				properties.load(in);
+			}
+			catch (IOException e) {
+				log.warn("Failed to read the search index checkpoint " + file + ", starting over", e);
+				return null;
+			}
+			if (!String.valueOf(rangeSize).equals(properties.getProperty("rangeSize"))) {
+				return null;
+			}
+			
+			Checkpoint checkpoint = new Checkpoint(file, rangeSize);
+			for (String range : properties.getProperty("completedRanges", "").split(",")) {
+				if (!range.trim().isEmpty()) {
+					checkpoint.completedRanges.add(Long.valueOf(range.trim()));
+				}
+			}
+			return checkpoint;
+		}
+		
+		synchronized boolean isCompleted(long range) {
+			return completedRanges.contains(range);
+		}
+		
+		synchronized void complete(long range) {
+			completedRanges.add(range);
+			save();
+		}
+		
+		/**
+		 * @return the completed ranges merged into intervals of consecutive ranges, from the first
+		 *         range included to the last range excluded
+		 */
+		synchronized List<long[]> getCompletedIntervals() {
+			List<long[]> intervals = new ArrayList<>();
+			long[] interval = null;
+			for (Long range : completedRanges) {
+				if (interval != null && interval[1] == range) {
+					interval[1] = range + 1;
+				} else {
+					interval = new long[] { range, range + 1 };
+					intervals.add(interval);
+				}
+			}
+			return intervals;
+		}
+		
+		synchronized void save() {
+			StringBuilder ranges = new StringBuilder();
+			for (Long range : completedRanges) {
+				if (ranges.length() > 0) {
+					ranges.append(',');
+				}
+				ranges.append(range);
+			}
+			Properties properties = new Properties();
+			properties.setProperty("rangeSize", String.valueOf(rangeSize));
+			properties.setProperty("completedRanges", ranges.toString());
+			
+			try {
+				Files.createDirectories(file.getParentFile().toPath());
+				File tmpFile = new File(file.getPath() + ".tmp");
+				try (OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+					properties.store(out, null);
+				}
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				    StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e) {
+				log.warn("Failed to write the search index checkpoint " + file, e);
+			}
+		}
+		
+		void delete() {
+			if (file.exists() && !file.delete()) {
+				log.warn("Failed to delete the search index checkpoint {}", file);
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * The integer values of an indexed field, like an id, for each document of an index segment. They
+ * are read from the terms of the field the first time they are needed and are kept as long as the
+ * segment is, since segments never change. This spares reading the stored fields of each
+ * document which matches a query.
+ *
+ * @since 2.5.0
+ */
+class SegmentIntValues {
+
+	/**
+	 * The value of a document which has no integer value in the field
+	 */
+	static final int MISSING = -1;
+
+	private static final Map<Object, Map<String, int[]>> VALUES = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private SegmentIntValues() {
+	}
+
+	/**
+	 * @param reader the reader of the segment
+	 * @param field the name of the field
+	 * @return the values of the field indexed by document, {@link #MISSING} for documents which
+	 *         have none
+	 * @throws IOException
+	 */
+	static int[] get(LeafReader reader, String field) throws IOException {
+		Map<String, int[]> fields = VALUES.computeIfAbsent(reader.getCoreCacheKey(), key -> new ConcurrentHashMap<>());
+		int[] values = fields.get(field);
+		if (values == null) {
+			values = read(reader, field);
+			fields.put(field, values);
+		}
+		return values;
+	}
+
+	private static int[] read(LeafReader reader, String field) throws IOException {
+		int[] values = new int[reader.maxDoc()];
+		Arrays.fill(values, MISSING);
+		Terms terms = reader.terms(field);
+		if (terms == null) {
+			return values;
+		}
+
+		TermsEnum termsEnum = terms.iterator();
+		PostingsEnum postings = null;
+		BytesRef term;
+		while ((term = termsEnum.next()) != null) {
+			int value;
+			try {
+				value = Integer.parseInt(term.utf8ToString());
+			}
+			catch (NumberFormatException e) {
+				continue;
+			}
+			if (value < 0) {
+				continue;
+			}
+			postings = termsEnum.postings(postings, PostingsEnum.NONE);
+			for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+				values[doc] = value;
+			}
+		}
+		return values;
+	}
+}
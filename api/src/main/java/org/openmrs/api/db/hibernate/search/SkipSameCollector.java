@@ -0,0 +1,176 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
+import org.openmrs.util.IdBitmap;
+
+/**
+ * Collects the documents matching a query and keeps, for each value of a field like
+ * person.personId, the id of the document with the best score, the first one in index order if
+ * several have the same score. This is the document which comes first when the query results are
+ * sorted by relevance. Only the values and the ids of the kept documents are held, not the matching
+ * documents.
+ *
+ * @since 2.5.0
+ */
+class SkipSameCollector extends SimpleCollector {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final String idField;
+
+	private final String valueField;
+
+	private final IdBitmap skipValues;
+
+	private int[] ids;
+
+	private int[] values;
+
+	private Scorer scorer;
+
+	private int matches;
+
+	// an open addressing table from each value to the best score and document id found for it
+	private int[] keys = newKeys(INITIAL_CAPACITY);
+
+	private float[] bestScores = new float[INITIAL_CAPACITY];
+
+	private int[] bestIds = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	/**
+	 * @param idField the field holding the id of the documents
+	 * @param valueField the field holding the values which should not repeat
+	 * @param skipValues values whose documents are skipped, may be null
+	 */
+	SkipSameCollector(String idField, String valueField, IdBitmap skipValues) {
+		this.idField = idField;
+		this.valueField = valueField;
+		this.skipValues = skipValues;
+	}
+
+	@Override
+	protected void doSetNextReader(LeafReaderContext context) throws IOException {
+		ids = SegmentIntValues.get(context.reader(), idField);
+		values = SegmentIntValues.get(context.reader(), valueField);
+	}
+
+	@Override
+	public void setScorer(Scorer scorer) {
+		this.scorer = scorer;
+	}
+
+	@Override
+	public boolean needsScores() {
+		return true;
+	}
+
+	@Override
+	public void collect(int doc) throws IOException {
+		matches++;
+		int id = ids[doc];
+		int value = values[doc];
+		if (id == SegmentIntValues.MISSING || value == SegmentIntValues.MISSING
+		        || (skipValues != null && skipValues.contains(value))) {
+			return;
+		}
+
+		float score = scorer.score();
+		int slot = slot(keys, value);
+		if (keys[slot] == SegmentIntValues.MISSING) {
+			keys[slot] = value;
+			bestScores[slot] = score;
+			bestIds[slot] = id;
+			if (++size * 2 > keys.length) {
+				grow();
+			}
+		} else if (score > bestScores[slot]) {
+			bestScores[slot] = score;
+			bestIds[slot] = id;
+		}
+	}
+
+	/**
+	 * @return the number of documents which matched the query
+	 */
+	int getMatches() {
+		return matches;
+	}
+
+	/**
+	 * @return the values of the kept documents
+	 */
+	IdBitmap getValues() {
+		IdBitmap result = new IdBitmap();
+		for (int key : keys) {
+			if (key != SegmentIntValues.MISSING) {
+				result.add(key);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the ids of the kept documents
+	 */
+	IdBitmap getIds() {
+		IdBitmap result = new IdBitmap();
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != SegmentIntValues.MISSING) {
+				result.add(bestIds[slot]);
+			}
+		}
+		return result;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		float[] oldScores = bestScores;
+		int[] oldIds = bestIds;
+		keys = newKeys(oldKeys.length * 2);
+		bestScores = new float[keys.length];
+		bestIds = new int[keys.length];
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			if (oldKeys[oldSlot] != SegmentIntValues.MISSING) {
+				int slot = slot(keys, oldKeys[oldSlot]);
+				keys[slot] = oldKeys[oldSlot];
+				bestScores[slot] = oldScores[oldSlot];
+				bestIds[slot] = oldIds[oldSlot];
+			}
+		}
+	}
+
+	private static int[] newKeys(int capacity) {
+		int[] keys = new int[capacity];
+		Arrays.fill(keys, SegmentIntValues.MISSING);
+		return keys;
+	}
+
+	/**
+	 * @return the slot holding the given value, or the empty slot where it goes
+	 */
+	private static int slot(int[] keys, int value) {
+		int mask = keys.length - 1;
+		int hash = value * 0x9E3779B9;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (keys[slot] != SegmentIntValues.MISSING && keys[slot] != value) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+}
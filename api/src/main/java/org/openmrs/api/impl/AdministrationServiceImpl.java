@@ -77,6 +77,12 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	
 	private HttpClient implementationIdHttpClient;
 	
+	/**
+	 * In-memory cache of the global property values read by {@link #getGlobalProperty(String)}, kept
+	 * up to date by the methods of this service which change global properties
+	 */
+	private final GlobalPropertyCache globalPropertyCache = new GlobalPropertyCache();
+	
 	/**
 	 * Default empty constructor
 	 */
@@ -151,7 +157,11 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		return dao.getGlobalProperty(propertyName);
+		return getGlobalPropertyEntry(propertyName).getValue();
+	}
+	
+	private GlobalPropertyCache.Entry getGlobalPropertyEntry(String propertyName) {
+		return globalPropertyCache.get(propertyName, dao::getGlobalProperty);
 	}
 	
 	/**
@@ -204,6 +214,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		}
 		gp.setPropertyValue(propertyValue);
 		dao.saveGlobalProperty(gp);
+		globalPropertyCache.evict(propertyName);
 	}
 	
 	/**
@@ -240,6 +251,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	public void purgeGlobalProperty(GlobalProperty globalProperty) throws APIException {
 		notifyGlobalPropertyDelete(globalProperty.getProperty());
 		dao.deleteGlobalProperty(globalProperty);
+		globalPropertyCache.evict(globalProperty.getProperty());
 	}
 	
 	/**
@@ -297,6 +309,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			
 			CustomDatatypeUtil.saveIfDirty(gp);
 			dao.saveGlobalProperty(gp);
+			globalPropertyCache.evict(gp.getProperty());
 			notifyGlobalPropertyChange(gp);
 			return gp;
 		}
@@ -313,7 +326,12 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		return dao.executeSQL(sql, selectOnly);
+		List<List<Object>> result = dao.executeSQL(sql, selectOnly);
+		if (!selectOnly) {
+			// the statement may have changed global properties
+			globalPropertyCache.evictAll();
+		}
+		return result;
 	}
 	
 	/**
@@ -332,6 +350,36 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		eventListeners.getGlobalPropertyListeners().remove(listener);
 	}
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#clearGlobalPropertyCache()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void clearGlobalPropertyCache() {
+		globalPropertyCache.evictAll();
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#clearGlobalPropertyCache(java.lang.String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void clearGlobalPropertyCache(String propertyName) {
+		globalPropertyCache.evict(propertyName);
+	}
+	
+	/**
+	 * Loads all global properties into the cache so that the first requests do not have to read
+	 * them one by one
+	 * 
+	 * @see org.openmrs.api.OpenmrsService#onStartup()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void onStartup() {
+		globalPropertyCache.load(dao::getAllGlobalProperties);
+	}
+	
 	/**
 	 * Calls global property listeners registered for this create/change
 	 * 
@@ -638,25 +686,34 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			throw new IllegalArgumentException("The defaultValue argument cannot be null");
 		}
 		
-		String propVal = Context.getAdministrationService().getGlobalProperty(propertyName);
-		if (StringUtils.isEmpty(propVal)) {
+		if (propertyName == null) {
 			return defaultValue;
 		}
 		
-		try {
-			return (T) defaultValue.getClass().getDeclaredConstructor(String.class).newInstance(propVal);
-		}
-		catch (InstantiationException e) {
-			throw new APIException("is.not.able.instantiated", new Object[] { defaultValue.getClass().getName(), propVal },
-			        e);
-		}
-		catch (NoSuchMethodException e) {
-			throw new APIException("does.not.have.string.constructor", new Object[] { defaultValue.getClass().getName() }, e);
-		}
-		catch (Exception e) {
-			log.error("Unable to turn value '" + propVal + "' into type " + defaultValue.getClass().getName(), e);
+		// the converted value is cached along with the string value
+		GlobalPropertyCache.Entry entry = getGlobalPropertyEntry(propertyName);
+		if (StringUtils.isEmpty(entry.getValue())) {
 			return defaultValue;
 		}
+		
+		T value = entry.getParsedValue(defaultValue.getClass(), propVal -> {
+			try {
+				return (T) defaultValue.getClass().getDeclaredConstructor(String.class).newInstance(propVal);
+			}
+			catch (InstantiationException e) {
+				throw new APIException("is.not.able.instantiated",
+				        new Object[] { defaultValue.getClass().getName(), propVal }, e);
+			}
+			catch (NoSuchMethodException e) {
+				throw new APIException("does.not.have.string.constructor",
+				        new Object[] { defaultValue.getClass().getName() }, e);
+			}
+			catch (Exception e) {
+				log.error("Unable to turn value '" + propVal + "' into type " + defaultValue.getClass().getName(), e);
+				return null;
+			}
+		});
+		return value != null ? value : defaultValue;
 	}
 	
 	/**
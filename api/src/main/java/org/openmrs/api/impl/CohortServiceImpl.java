@@ -15,6 +15,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
 import org.openmrs.Patient;
@@ -23,6 +24,7 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.CohortService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.util.IdBitmap;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
@@ -279,4 +281,20 @@ public class CohortServiceImpl extends BaseOpenmrsService implements CohortServi
 		}
 		return dao.getCohortMemberships(patientId, activeOnDate, includeVoided);
 	}
+	
+	/**
+	 * @see org.openmrs.api.CohortService#getActiveMemberIds(Cohort, Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public IdBitmap getActiveMemberIds(Cohort cohort, Date activeOnDate) {
+		if (activeOnDate == null) {
+			activeOnDate = new Date();
+		}
+		// memberships which are loaded may have changes which are not saved yet
+		if (cohort.getCohortId() == null || Hibernate.isInitialized(cohort.getMemberships())) {
+			return cohort.getActiveMemberIds(activeOnDate);
+		}
+		return new IdBitmap(dao.getActiveMemberIds(cohort, activeOnDate));
+	}
 }
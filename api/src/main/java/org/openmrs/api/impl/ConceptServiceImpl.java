@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.UUID;
 
 import org.apache.commons.beanutils.BeanUtils;
@@ -67,6 +68,8 @@ import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -90,6 +93,8 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 
 	private static final String ERROR_MESSAGE = "Error generated";
 	
+	private final ConceptSetIndex conceptSetIndex = new ConceptSetIndex();
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#setConceptDAO(org.openmrs.api.db.ConceptDAO)
 	 */
@@ -108,6 +113,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
      * <strong>Should</strong> force set flag if set members exist
 	 */
 	@Override
+	@CacheEvict(value = "conceptIdsByMapping", allEntries = true)
 	public Concept saveConcept(Concept concept) throws APIException {
 		ensureConceptMapTypeIsSet(concept);
 
@@ -177,7 +183,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			concept.setSet(true);
 		}
 
-		return dao.saveConcept(concept);
+		Concept savedConcept = dao.saveConcept(concept);
+		conceptSetIndex.update(savedConcept);
+		return savedConcept;
 	}
 
 	private void ensureConceptMapTypeIsSet(Concept concept) {
@@ -251,6 +259,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#saveDrug(org.openmrs.Drug)
 	 */
 	@Override
+	@CacheEvict(value = "drugIdsByMapping", allEntries = true)
 	public Drug saveDrug(Drug drug) throws APIException {
 		checkIfLocked();
 		return dao.saveDrug(drug);
@@ -260,6 +269,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#purgeConcept(Concept)
 	 */
 	@Override
+	@CacheEvict(value = "conceptIdsByMapping", allEntries = true)
 	public void purgeConcept(Concept concept) throws APIException {
 		checkIfLocked();
 		
@@ -274,12 +284,14 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		
 		dao.purgeConcept(concept);
+		conceptSetIndex.remove(concept.getConceptId());
 	}
 	
 	/**
 	 * @see org.openmrs.api.ConceptService#retireConcept(org.openmrs.Concept, java.lang.String)
 	 */
 	@Override
+	@CacheEvict(value = "conceptIdsByMapping", allEntries = true)
 	public Concept retireConcept(Concept concept, String reason) throws APIException {
 		if (!StringUtils.hasText(reason)) {
 			throw new IllegalArgumentException(Context.getMessageSourceService().getMessage("general.voidReason.empty"));
@@ -291,7 +303,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			
 			concept.setRetired(true);
 			concept.setRetireReason(reason);
-			return dao.saveConcept(concept);
+			Concept retiredConcept = dao.saveConcept(concept);
+			conceptSetIndex.update(retiredConcept);
+			return retiredConcept;
 			
 		}
 		
@@ -303,6 +317,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @throws APIException
 	 */
 	@Override
+	@CacheEvict(value = "drugIdsByMapping", allEntries = true)
 	public Drug retireDrug(Drug drug, String reason) throws APIException {
 		return dao.saveDrug(drug);
 	}
@@ -320,6 +335,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @throws APIException
 	 */
 	@Override
+	@CacheEvict(value = "drugIdsByMapping", allEntries = true)
 	public void purgeDrug(Drug drug) throws APIException {
 		dao.purgeDrug(drug);
 	}
@@ -677,9 +693,30 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	@Transactional(readOnly = true)
 	public List<Concept> getConceptsByConceptSet(Concept c) {
-		Set<Integer> alreadySeen = new HashSet<>();
-		List<Concept> ret = new ArrayList<>();
-		explodeConceptSetHelper(c, ret, alreadySeen);
+		if (c.getConceptId() == null || conceptSetIndex.hasPendingChanges()) {
+			Set<Integer> alreadySeen = new HashSet<>();
+			List<Concept> ret = new ArrayList<>();
+			explodeConceptSetHelper(c, ret, alreadySeen);
+			return ret;
+		}
+		
+		List<Integer> conceptIds = conceptSetIndex.getConceptIds(c.getConceptId(), dao::getAllConceptSetMembers);
+		if (conceptIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Map<Integer, Concept> conceptsById = new HashMap<>();
+		for (Concept concept : dao.getConceptsByIds(conceptIds)) {
+			conceptsById.put(concept.getConceptId(), concept);
+		}
+		// the index may still hold a concept which was deleted some other way
+		List<Concept> ret = new ArrayList<>(conceptIds.size());
+		for (Integer conceptId : conceptIds) {
+			Concept concept = conceptsById.get(conceptId);
+			if (concept != null) {
+				ret.add(concept);
+			}
+		}
 		return ret;
 	}
 	
@@ -696,6 +733,29 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.getSetsContainingConcept(concept);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#isConceptInSet(org.openmrs.Concept, org.openmrs.Concept)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public boolean isConceptInSet(Concept concept, Concept conceptSet) {
+		if (concept.getConceptId() == null || conceptSet.getConceptId() == null || conceptSetIndex.hasPendingChanges()) {
+			return getConceptsByConceptSet(conceptSet).contains(concept);
+		}
+		
+		return conceptSetIndex.getDepth(conceptSet.getConceptId(), concept.getConceptId(),
+		    dao::getAllConceptSetMembers) != null;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#refreshConceptSetIndex()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void refreshConceptSetIndex() {
+		conceptSetIndex.refresh();
+	}
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptProposal(java.lang.Integer)
 	 */
@@ -949,6 +1009,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#purgeConceptSource(org.openmrs.ConceptSource)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptSource purgeConceptSource(ConceptSource cs) throws APIException {
 		
 		return dao.deleteConceptSource(cs);
@@ -958,6 +1019,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#retireConceptSource(org.openmrs.ConceptSource, String)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptSource retireConceptSource(ConceptSource cs, String reason) throws APIException {
 		// retireReason is automatically set in BaseRetireHandler
 		return dao.saveConceptSource(cs);
@@ -967,6 +1029,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#saveConceptSource(org.openmrs.ConceptSource)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptSource saveConceptSource(ConceptSource conceptSource) throws APIException {
 		return dao.saveConceptSource(conceptSource);
 	}
@@ -990,6 +1053,15 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.conceptIterator();
 	}
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#conceptSpliterator()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Spliterator<Concept> conceptSpliterator() {
+		return dao.conceptSpliterator();
+	}
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptByUuid(java.lang.String)
 	 */
@@ -1159,7 +1231,36 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	@Transactional(readOnly = true)
 	public List<Concept> getConceptsByMapping(String code, String sourceName, boolean includeRetired) throws APIException {
-		return dao.getConceptsByMapping(code, sourceName, includeRetired);
+		//call it via interface, so cache interceptor is invoked
+		List<Integer> conceptIds = Context.getConceptService().getConceptIdsByMapping(code, sourceName, includeRetired);
+		Map<Integer, Concept> conceptsById = new HashMap<>();
+		for (Concept concept : dao.getConceptsByIds(conceptIds)) {
+			conceptsById.put(concept.getConceptId(), concept);
+		}
+		// in the order of the ids, which puts the non-retired concepts first
+		List<Concept> concepts = new ArrayList<>(conceptIds.size());
+		for (Integer conceptId : conceptIds) {
+			Concept concept = conceptsById.get(conceptId);
+			if (concept != null) {
+				concepts.add(concept);
+			}
+		}
+		return concepts;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#getConceptIdsByMapping(String, String, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "conceptIdsByMapping")
+	public List<Integer> getConceptIdsByMapping(String code, String sourceName, boolean includeRetired)
+	        throws APIException {
+		List<Integer> conceptIds = new ArrayList<>();
+		for (Concept concept : dao.getConceptsByMapping(code, sourceName, includeRetired)) {
+			conceptIds.add(concept.getConceptId());
+		}
+		return Collections.unmodifiableList(conceptIds);
 	}
 	
 	/**
@@ -1719,6 +1820,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#saveConceptReferenceTerm(org.openmrs.ConceptReferenceTerm)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptReferenceTerm saveConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
 		return dao.saveConceptReferenceTerm(conceptReferenceTerm);
 	}
@@ -1727,6 +1829,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#retireConceptReferenceTerm(ConceptReferenceTerm, String)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptReferenceTerm retireConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm, String retireReason)
 	        throws APIException {
 		String tmpRetireReason = retireReason;
@@ -1741,6 +1844,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#unretireConceptReferenceTerm(org.openmrs.ConceptReferenceTerm)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public ConceptReferenceTerm unretireConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
 		return Context.getConceptService().saveConceptReferenceTerm(conceptReferenceTerm);
 	}
@@ -1749,6 +1853,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 * @see org.openmrs.api.ConceptService#purgeConceptReferenceTerm(org.openmrs.ConceptReferenceTerm)
 	 */
 	@Override
+	@CacheEvict(value = { "conceptIdsByMapping", "drugIdsByMapping" }, allEntries = true)
 	public void purgeConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
 		if (dao.isConceptReferenceTermInUse(conceptReferenceTerm)) {
 			throw new APIException("ConceptRefereceTerm.inUse", (Object[]) null);
@@ -1845,7 +1950,43 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			throw new APIException("ConceptSource.is.required", (Object[]) null);
 		}
 
-		return dao.getDrugsByMapping(code, conceptSource, tmpWithAnyOfTheseTypes, includeRetired);
+		//call it via interface, so cache interceptor is invoked
+		List<Integer> drugIds = Context.getConceptService().getDrugIdsByMapping(code, conceptSource, tmpWithAnyOfTheseTypes,
+		    includeRetired);
+		Map<Integer, Drug> drugsById = new HashMap<>();
+		for (Drug drug : dao.getDrugsByIds(drugIds)) {
+			drugsById.put(drug.getDrugId(), drug);
+		}
+		List<Drug> drugs = new ArrayList<>(drugIds.size());
+		for (Integer drugId : drugIds) {
+			Drug drug = drugsById.get(drugId);
+			if (drug != null) {
+				drugs.add(drug);
+			}
+		}
+		return drugs;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#getDrugIdsByMapping(String, ConceptSource, Collection,
+	 *      boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "drugIdsByMapping", key = "{ 'drugs', #code, #conceptSource?.conceptSourceId, #withAnyOfTheseTypes?.![conceptMapTypeId], #includeRetired }")
+	public List<Integer> getDrugIdsByMapping(String code, ConceptSource conceptSource,
+	        Collection<ConceptMapType> withAnyOfTheseTypes, boolean includeRetired) throws APIException {
+		Collection<ConceptMapType> tmpWithAnyOfTheseTypes = withAnyOfTheseTypes == null ? Collections.emptyList() : withAnyOfTheseTypes;
+		
+		if (conceptSource == null) {
+			throw new APIException("ConceptSource.is.required", (Object[]) null);
+		}
+		
+		List<Integer> drugIds = new ArrayList<>();
+		for (Drug drug : dao.getDrugsByMapping(code, conceptSource, tmpWithAnyOfTheseTypes, includeRetired)) {
+			drugIds.add(drug.getDrugId());
+		}
+		return Collections.unmodifiableList(drugIds);
 	}
 	
 	/**
@@ -1862,7 +2003,29 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			throw new APIException("ConceptSource.is.required", (Object[]) null);
 		}
 
-		return dao.getDrugByMapping(code, conceptSource, tmpWithAnyOfTheseTypesOrOrderOfPreference);
+		//call it via interface, so cache interceptor is invoked
+		Integer drugId = Context.getConceptService().getDrugIdByMapping(code, conceptSource,
+		    tmpWithAnyOfTheseTypesOrOrderOfPreference);
+		return drugId == null ? null : dao.getDrug(drugId);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#getDrugIdByMapping(String, ConceptSource, Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "drugIdsByMapping", key = "{ 'drug', #code, #conceptSource?.conceptSourceId, #withAnyOfTheseTypesOrOrderOfPreference?.![conceptMapTypeId] }")
+	public Integer getDrugIdByMapping(String code, ConceptSource conceptSource,
+	        Collection<ConceptMapType> withAnyOfTheseTypesOrOrderOfPreference) throws APIException {
+		Collection<ConceptMapType> tmpWithAnyOfTheseTypesOrOrderOfPreference = withAnyOfTheseTypesOrOrderOfPreference == null
+				? Collections.emptyList() : withAnyOfTheseTypesOrOrderOfPreference;
+		
+		if (conceptSource == null) {
+			throw new APIException("ConceptSource.is.required", (Object[]) null);
+		}
+		
+		Drug drug = dao.getDrugByMapping(code, conceptSource, tmpWithAnyOfTheseTypesOrOrderOfPreference);
+		return drug == null ? null : drug.getDrugId();
 	}
 	
 	/**
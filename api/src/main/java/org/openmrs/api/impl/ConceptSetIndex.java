@@ -0,0 +1,359 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptSet;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+/**
+ * An in-memory index of the members of all concept sets used by {@link ConceptServiceImpl}, so
+ * that nested sets can be expanded without querying the database for every set. The index is
+ * loaded from the concept_set table when it is first used and then kept up to date as concepts are
+ * saved and purged. For each set it also keeps the transitive closure of its members together with
+ * their depth, which is computed when it is first needed.
+ * <p>
+ * The index is loaded with a loader which returns a row for each row of the concept_set table: the
+ * id of the concept representing the set, the id of the member concept and whether the member is
+ * marked as a set, ordered by set and then by sort weight.
+ * <p>
+ * Like a nested set is only expanded if its member concept is marked as a set, the closure only
+ * goes through members which are marked as sets.
+ * <p>
+ * Changes made inside a transaction are only applied once the transaction has committed, so that
+ * other threads never see concept sets which are not committed yet. Until then
+ * {@link #hasPendingChanges()} tells the transaction which made the changes to read the concept sets
+ * from the database so that it sees its own changes.
+ *
+ * @since 2.5.0
+ */
+public class ConceptSetIndex {
+	
+	private volatile Snapshot snapshot;
+	
+	/**
+	 * Changes every time the index is changed so that an index which was read from the database
+	 * before a change is not used after it
+	 */
+	private final AtomicLong generation = new AtomicLong();
+	
+	private final PendingTransactionChanges<PendingChanges> pendingChanges = new PendingTransactionChanges<>(
+	        PendingChanges::new, this::afterCompletion);
+	
+	/**
+	 * @return true if the current transaction changed concept sets which are not in the index yet, in
+	 *         which case the index must not be used by it
+	 */
+	public boolean hasPendingChanges() {
+		return pendingChanges.get() != null;
+	}
+	
+	/**
+	 * Gets the ids of all the concepts in the given set and in the sets nested in it, in the order
+	 * the sets are walked depth first by sort weight. A concept is listed as many times as it is a
+	 * member of one of these sets, while every nested set is only expanded once.
+	 *
+	 * @param conceptSetId the id of the concept representing the set
+	 * @param loader loads all the rows of the concept_set table
+	 * @return the ids of the concepts in the set
+	 * <strong>Should</strong> expand nested sets depth first
+	 * <strong>Should</strong> expand a set only once
+	 * <strong>Should</strong> not expand members which are not marked as sets
+	 */
+	public List<Integer> getConceptIds(Integer conceptSetId, Supplier<List<Object[]>> loader) {
+		Snapshot index = getSnapshot(loader);
+		List<Integer> result = new ArrayList<>();
+		Set<Integer> alreadySeen = new HashSet<>();
+		alreadySeen.add(conceptSetId);
+		
+		Deque<int[]> stack = new ArrayDeque<>();
+		stack.push(new int[] { conceptSetId, 0 });
+		while (!stack.isEmpty()) {
+			int[] position = stack.peek();
+			int[] members = index.members.getOrDefault(position[0], NO_MEMBERS);
+			if (position[1] == members.length) {
+				stack.pop();
+				continue;
+			}
+			
+			int member = members[position[1]++];
+			result.add(member);
+			if (index.sets.contains(member) && alreadySeen.add(member)) {
+				stack.push(new int[] { member, 0 });
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets how deep the given concept is nested in the given set
+	 *
+	 * @param conceptSetId the id of the concept representing the set
+	 * @param conceptId the id of the concept to look for
+	 * @param loader loads all the rows of the concept_set table
+	 * @return 1 if the concept is a member of the set, 2 if it is a member of a member of the set and
+	 *         so on, null if it is not in the set
+	 * <strong>Should</strong> return the shortest depth of a concept in a set
+	 * <strong>Should</strong> return null for a concept which is not in the set
+	 */
+	public Integer getDepth(Integer conceptSetId, Integer conceptId, Supplier<List<Object[]>> loader) {
+		Snapshot index = getSnapshot(loader);
+		return index.closures.computeIfAbsent(conceptSetId, index::computeClosure).get(conceptId);
+	}
+	
+	/**
+	 * Updates the members of the given concept and whether it is a set, after the current
+	 * transaction has committed if there is one
+	 *
+	 * @param concept the saved concept
+	 * <strong>Should</strong> apply the change only after the current transaction has committed
+	 */
+	public void update(Concept concept) {
+		if (concept.getConceptId() == null) {
+			return;
+		}
+		
+		Integer conceptId = concept.getConceptId();
+		boolean isSet = Boolean.TRUE.equals(concept.getSet());
+		List<Integer> memberIds = new ArrayList<>();
+		Map<Integer, Boolean> memberIsSet = new HashMap<>();
+		List<ConceptSet> conceptSets = new ArrayList<>();
+		if (concept.getConceptSets() != null) {
+			conceptSets.addAll(concept.getConceptSets());
+			// the order of the database rather than the one of ConceptSet which puts retired members last
+			conceptSets.sort(Comparator.comparing(ConceptSet::getSortWeight, Comparator.nullsFirst(Comparator.naturalOrder()))
+			        .thenComparing(ConceptSet::getConceptSetId, Comparator.nullsLast(Comparator.naturalOrder())));
+		}
+		for (ConceptSet conceptSet : conceptSets) {
+			Concept member = conceptSet.getConcept();
+			if (member.getConceptId() == null) {
+				continue;
+			}
+			memberIds.add(member.getConceptId());
+			memberIsSet.put(member.getConceptId(), Boolean.TRUE.equals(member.getSet()));
+		}
+		
+		change(index -> {
+			index.setMembers(conceptId, memberIds);
+			index.setSet(conceptId, isSet);
+			memberIsSet.forEach(index::setSet);
+		});
+	}
+	
+	/**
+	 * Removes the given concept from the index, after the current transaction has committed if there
+	 * is one
+	 *
+	 * @param conceptId the id of the purged concept
+	 */
+	public void remove(Integer conceptId) {
+		if (conceptId == null) {
+			return;
+		}
+		
+		change(index -> index.remove(conceptId));
+	}
+	
+	/**
+	 * Discards the index so that it is loaded again from the database when it is next used, after the
+	 * current transaction has completed if there is one
+	 */
+	public void refresh() {
+		PendingChanges changes = pendingChanges.getOrBind();
+		if (changes != null) {
+			changes.refresh = true;
+		} else {
+			discard();
+		}
+	}
+	
+	private void change(Consumer<Snapshot> change) {
+		PendingChanges changes = pendingChanges.getOrBind();
+		if (changes != null) {
+			changes.changes.add(change);
+		} else {
+			apply(Collections.singletonList(change));
+		}
+	}
+	
+	private void afterCompletion(PendingChanges changes, int status) {
+		if (changes.refresh) {
+			discard();
+		} else if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			apply(changes.changes);
+		}
+	}
+	
+	private synchronized void discard() {
+		generation.incrementAndGet();
+		snapshot = null;
+	}
+	
+	/**
+	 * Applies the changes to a copy of the current snapshot which then replaces it, so that readers of
+	 * the current snapshot never see a partly applied change
+	 */
+	private synchronized void apply(List<Consumer<Snapshot>> changes) {
+		generation.incrementAndGet();
+		Snapshot index = snapshot;
+		if (index != null) {
+			// the copy has no closures since the closures of any set may include the changed sets
+			Snapshot copy = new Snapshot(index);
+			for (Consumer<Snapshot> change : changes) {
+				change.accept(copy);
+			}
+			snapshot = copy;
+		}
+	}
+	
+	private Snapshot getSnapshot(Supplier<List<Object[]>> loader) {
+		Snapshot index = snapshot;
+		if (index == null) {
+			long loadGeneration = generation.get();
+			index = load(loader);
+			synchronized (this) {
+				if (loadGeneration == generation.get() && snapshot == null) {
+					snapshot = index;
+				} else if (snapshot != null) {
+					index = snapshot;
+				}
+			}
+		}
+		return index;
+	}
+	
+	private static Snapshot load(Supplier<List<Object[]>> loader) {
+		Snapshot index = new Snapshot();
+		Integer currentSetId = null;
+		List<Integer> currentMembers = new ArrayList<>();
+		for (Object[] row : loader.get()) {
+			Integer setId = (Integer) row[0];
+			if (!setId.equals(currentSetId)) {
+				if (currentSetId != null) {
+					index.setMembers(currentSetId, currentMembers);
+				}
+				currentSetId = setId;
+				currentMembers = new ArrayList<>();
+			}
+			currentMembers.add((Integer) row[1]);
+			index.setSet((Integer) row[1], Boolean.TRUE.equals(row[2]));
+		}
+		if (currentSetId != null) {
+			index.setMembers(currentSetId, currentMembers);
+		}
+		return index;
+	}
+	
+	private static final int[] NO_MEMBERS = new int[0];
+	
+	/**
+	 * The members of all the sets, the concepts which are marked as sets and the closures computed so
+	 * far. The members and sets are only changed before the snapshot is published, afterwards only
+	 * closures are added.
+	 */
+	private static final class Snapshot {
+		
+		private final Map<Integer, int[]> members;
+		
+		private final Set<Integer> sets;
+		
+		private final ConcurrentMap<Integer, Map<Integer, Integer>> closures = new ConcurrentHashMap<>();
+		
+		Snapshot() {
+			members = new HashMap<>();
+			sets = new HashSet<>();
+		}
+		
+		/**
+		 * Copies the members and sets of the given snapshot, but not its closures
+		 */
+		Snapshot(Snapshot snapshot) {
+			members = new HashMap<>(snapshot.members);
+			sets = new HashSet<>(snapshot.sets);
+		}
+		
+		void setMembers(Integer conceptSetId, List<Integer> memberIds) {
+			if (memberIds.isEmpty()) {
+				members.remove(conceptSetId);
+			} else {
+				members.put(conceptSetId, memberIds.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+		
+		void setSet(Integer conceptId, boolean isSet) {
+			if (isSet) {
+				sets.add(conceptId);
+			} else {
+				sets.remove(conceptId);
+			}
+		}
+		
+		void remove(Integer conceptId) {
+			members.remove(conceptId);
+			sets.remove(conceptId);
+			members.replaceAll((setId, memberIds) -> {
+				for (int memberId : memberIds) {
+					if (memberId == conceptId) {
+						return Arrays.stream(memberIds).filter(id -> id != conceptId).toArray();
+					}
+				}
+				return memberIds;
+			});
+		}
+		
+		Map<Integer, Integer> computeClosure(Integer conceptSetId) {
+			// breadth first so that every concept gets its shortest depth
+			Map<Integer, Integer> closure = new HashMap<>();
+			Deque<Integer> queue = new ArrayDeque<>();
+			queue.add(conceptSetId);
+			Map<Integer, Integer> setDepths = new HashMap<>();
+			setDepths.put(conceptSetId, 0);
+			while (!queue.isEmpty()) {
+				Integer setId = queue.poll();
+				int depth = setDepths.get(setId) + 1;
+				for (int member : members.getOrDefault(setId, NO_MEMBERS)) {
+					closure.putIfAbsent(member, depth);
+					if (sets.contains(member) && !setDepths.containsKey(member)) {
+						setDepths.put(member, depth);
+						queue.add(member);
+					}
+				}
+			}
+			return Collections.unmodifiableMap(closure);
+		}
+	}
+	
+	/**
+	 * The changes made by a transaction, bound to it while it runs
+	 */
+	private static final class PendingChanges {
+		
+		private final List<Consumer<Snapshot>> changes = new ArrayList<>();
+		
+		private boolean refresh;
+	}
+}
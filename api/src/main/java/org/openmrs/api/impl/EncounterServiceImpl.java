@@ -16,6 +16,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -63,6 +64,11 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class EncounterServiceImpl extends BaseOpenmrsService implements EncounterService {
 	
+	/**
+	 * The number of patients {@link #streamAllEncounters(Cohort, BiConsumer)} queries at once
+	 */
+	private static final int STREAM_PATIENT_CHUNK_SIZE = 1000;
+	
 	private EncounterDAO dao;
 	
 	/**
@@ -175,24 +181,34 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 			}
 		}
 		
-		// save the Obs
+		// save the Obs, the new ones in one pass since they have been handled with the encounter
 		String changeMessage = Context.getMessageSourceService().getMessage("Obs.void.reason.default");
 		ObsService os = Context.getObsService();
-		List<Obs> obsToRemove = new ArrayList<>();
-		List<Obs> obsToAdd = new ArrayList<>();
+		List<Obs> obsToSave = new ArrayList<>();
+		boolean hasNewObs = false;
 		for (Obs o : encounter.getObsAtTopLevel(true)) {
 			if (o.getId() == null) {
-				os.saveObs(o, null);
-			} else {
-				Obs newObs = os.saveObs(o, changeMessage);
-				//The logic in saveObs evicts the old obs instance, so we need to update the collection
-				//with the newly loaded and voided instance, apparently reloading the encounter
-				//didn't do the tick
-				obsToRemove.add(o);
-				obsToAdd.add(os.getObs(o.getId()));
-				obsToAdd.add(newObs);
+				hasNewObs = true;
+			} else if (o.getVoided() || o.isDirty() || o.isObsGrouping() || o.getComplexData() != null) {
+				// the other obs are unchanged, saving them would do nothing
+				obsToSave.add(o);
 			}
 		}
+		if (hasNewObs) {
+			os.saveNewEncounterObs(encounter);
+		}
+		
+		List<Obs> obsToRemove = new ArrayList<>();
+		List<Obs> obsToAdd = new ArrayList<>();
+		for (Obs o : obsToSave) {
+			Obs newObs = os.saveObs(o, changeMessage);
+			//The logic in saveObs evicts the old obs instance, so we need to update the collection
+			//with the newly loaded and voided instance, apparently reloading the encounter
+			//didn't do the tick
+			obsToRemove.add(o);
+			obsToAdd.add(os.getObs(o.getId()));
+			obsToAdd.add(newObs);
+		}
 
 		removeGivenObsAndTheirGroupMembersFromEncounter(obsToRemove, encounter);
 		addGivenObsAndTheirGroupMembersToEncounter(obsToAdd, encounter);
@@ -638,6 +654,15 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		return dao.getAllEncounters(patients);
 	}
 	
+	/**
+	 * @see org.openmrs.api.EncounterService#streamAllEncounters(Cohort, BiConsumer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllEncounters(Cohort patients, BiConsumer<Integer, List<Encounter>> consumer) {
+		dao.streamAllEncounters(patients, STREAM_PATIENT_CHUNK_SIZE, consumer);
+	}
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#getEncounters(java.lang.String, java.lang.Integer,
 	 *      java.lang.Integer, boolean)
@@ -44,6 +44,7 @@ import org.openmrs.obs.SerializableComplexObsHandler;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.validator.FormValidator;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindException;
 
@@ -139,6 +140,7 @@ public class FormServiceImpl extends BaseOpenmrsService implements FormService {
 	 * @see org.openmrs.api.FormService#retireForm(org.openmrs.Form, java.lang.String)
 	 */
 	@Override
+	@CacheEvict(value = "hl7FormIds", allEntries = true)
 	public void retireForm(Form form, String reason) throws APIException {
 		form.setRetired(true);
 		form.setRetireReason(reason);
@@ -149,6 +151,7 @@ public class FormServiceImpl extends BaseOpenmrsService implements FormService {
 	 * @see org.openmrs.api.FormService#unretireForm(org.openmrs.Form)
 	 */
 	@Override
+	@CacheEvict(value = "hl7FormIds", allEntries = true)
 	public void unretireForm(Form form) throws APIException {
 		form.setRetired(false);
 		Context.getFormService().saveForm(form);
@@ -464,6 +467,7 @@ public class FormServiceImpl extends BaseOpenmrsService implements FormService {
 	 * @see org.openmrs.api.FormService#purgeForm(org.openmrs.Form, boolean)
 	 */
 	@Override
+	@CacheEvict(value = "hl7FormIds", allEntries = true)
 	public void purgeForm(Form form, boolean cascade) throws APIException {
 		if (cascade) {
 			throw new APIException("general.not.yet.implemented", (Object[]) null);
@@ -510,6 +514,7 @@ public class FormServiceImpl extends BaseOpenmrsService implements FormService {
 	 * @see org.openmrs.api.FormService#saveForm(org.openmrs.Form)
 	 */
 	@Override
+	@CacheEvict(value = "hl7FormIds", allEntries = true)
 	public Form saveForm(Form form) throws APIException {
 		checkIfFormsAreLocked();
 		BindException errors = new BindException(form, "form");
@@ -0,0 +1,253 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openmrs.GlobalProperty;
+
+/**
+ * An in-memory cache of the global property values used by {@link AdministrationServiceImpl}.
+ * Property names are matched case insensitively like the database does. Properties which do not
+ * exist are cached too, up to {@link #MAX_ABSENT_ENTRIES} of them so that looking up arbitrary
+ * names cannot grow the cache without bounds.
+ * <p>
+ * Evictions requested inside a transaction are only applied once the transaction has completed, so
+ * that other threads never cache a value which is not committed yet. Until then the transaction
+ * which made the change reads the evicted properties from the database so that it sees its own
+ * changes.
+ *
+ * @since 2.5.0
+ */
+public class GlobalPropertyCache {
+	
+	/**
+	 * The maximum number of properties which do not exist that are cached
+	 */
+	static final int MAX_ABSENT_ENTRIES = 1000;
+	
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	
+	/**
+	 * The properties which do not exist, kept apart from {@link #entries} to bound their number
+	 */
+	private final ConcurrentMap<String, Entry> absentEntries = new ConcurrentHashMap<>();
+	
+	/**
+	 * Changes every time an entry is evicted so that a value which was read from the database before
+	 * an eviction is not put in the cache after it
+	 */
+	private final AtomicLong generation = new AtomicLong();
+	
+	private final PendingTransactionChanges<PendingEvictions> pendingEvictions = new PendingTransactionChanges<>(
+	        PendingEvictions::new, (evictions, status) -> evictions.apply());
+	
+	/**
+	 * Gets the cached entry of the given global property, loading and caching it if needed
+	 *
+	 * @param propertyName the name of the global property
+	 * @param loader loads the value of a global property from the database, returns null if it does
+	 *            not exist
+	 * @return the entry of the global property, never null
+	 * <strong>Should</strong> load a property only once
+	 * <strong>Should</strong> match property names case insensitively
+	 * <strong>Should</strong> cache properties which do not exist
+	 * <strong>Should</strong> cache only a limited number of properties which do not exist
+	 * <strong>Should</strong> not cache a value loaded before a concurrent eviction
+	 */
+	public Entry get(String propertyName, Function<String, String> loader) {
+		String key = toKey(propertyName);
+		PendingEvictions evictions = pendingEvictions.get();
+		if (evictions != null && evictions.contains(key)) {
+			return new Entry(loader.apply(propertyName));
+		}
+		
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = absentEntries.get(key);
+		}
+		if (entry == null) {
+			long loadGeneration = generation.get();
+			entry = new Entry(loader.apply(propertyName));
+			ConcurrentMap<String, Entry> target = entry.getValue() != null ? entries : absentEntries;
+			if (loadGeneration == generation.get() && (target == entries || target.size() < MAX_ABSENT_ENTRIES)) {
+				Entry existing = target.putIfAbsent(key, entry);
+				if (existing != null) {
+					entry = existing;
+				} else if (loadGeneration != generation.get()) {
+					// evicted while being put
+					target.remove(key, entry);
+				}
+			}
+		}
+		return entry;
+	}
+	
+	/**
+	 * Caches all the given global properties at once unless the cache is invalidated in the meantime
+	 *
+	 * @param loader loads all the global properties from the database
+	 * <strong>Should</strong> cache all the loaded properties
+	 */
+	public void load(Supplier<Collection<GlobalProperty>> loader) {
+		if (pendingEvictions.get() != null) {
+			return;
+		}
+		
+		long loadGeneration = generation.get();
+		Collection<GlobalProperty> globalProperties = loader.get();
+		if (loadGeneration != generation.get()) {
+			return;
+		}
+		for (GlobalProperty globalProperty : globalProperties) {
+			entries.putIfAbsent(toKey(globalProperty.getProperty()), new Entry(globalProperty.getPropertyValue()));
+		}
+		if (loadGeneration != generation.get()) {
+			entries.clear();
+			absentEntries.clear();
+		}
+	}
+	
+	/**
+	 * Evicts the given global property, after the current transaction has completed if there is one
+	 *
+	 * @param propertyName the name of the global property
+	 * <strong>Should</strong> evict a property only after the current transaction has completed
+	 */
+	public void evict(String propertyName) {
+		String key = toKey(propertyName);
+		PendingEvictions evictions = pendingEvictions.getOrBind();
+		if (evictions != null) {
+			evictions.add(key);
+		} else {
+			generation.incrementAndGet();
+			entries.remove(key);
+			absentEntries.remove(key);
+		}
+	}
+	
+	/**
+	 * Evicts all global properties, after the current transaction has completed if there is one
+	 */
+	public void evictAll() {
+		PendingEvictions evictions = pendingEvictions.getOrBind();
+		if (evictions != null) {
+			evictions.addAll();
+		} else {
+			generation.incrementAndGet();
+			entries.clear();
+			absentEntries.clear();
+		}
+	}
+	
+	private static String toKey(String propertyName) {
+		return propertyName.toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * The cached value of a global property
+	 */
+	public static final class Entry {
+		
+		private final String value;
+		
+		private volatile ParsedValue parsedValue;
+		
+		private Entry(String value) {
+			this.value = value;
+		}
+		
+		/**
+		 * @return the value of the global property, null if it does not exist
+		 */
+		public String getValue() {
+			return value;
+		}
+		
+		/**
+		 * Gets the value of the global property converted to the given type, the last converted value
+		 * is kept so that the conversion is only done again if a different type is asked for
+		 *
+		 * @param type the type to convert to
+		 * @param parser converts the value to the given type, returns null if it cannot
+		 * @return the converted value, null if it cannot be converted
+		 * <strong>Should</strong> only convert the value again for a different type
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T getParsedValue(Class<?> type, Function<String, T> parser) {
+			ParsedValue parsed = parsedValue;
+			if (parsed != null && parsed.type == type) {
+				return (T) parsed.value;
+			}
+			
+			T result = parser.apply(value);
+			if (result != null) {
+				parsedValue = new ParsedValue(type, result);
+			}
+			return result;
+		}
+	}
+	
+	private static final class ParsedValue {
+		
+		private final Class<?> type;
+		
+		private final Object value;
+		
+		private ParsedValue(Class<?> type, Object value) {
+			this.type = type;
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * The evictions requested by a transaction, bound to it while it runs
+	 */
+	private final class PendingEvictions {
+		
+		private final Set<String> keys = new HashSet<>();
+		
+		private boolean all;
+		
+		boolean contains(String key) {
+			return all || keys.contains(key);
+		}
+		
+		void add(String key) {
+			keys.add(key);
+		}
+		
+		void addAll() {
+			all = true;
+		}
+		
+		void apply() {
+			// evicting after a rollback too is harmless and drops anything read from the rolled back data
+			generation.incrementAndGet();
+			if (all) {
+				entries.clear();
+				absentEntries.clear();
+			} else {
+				for (String key : keys) {
+					entries.remove(key);
+					absentEntries.remove(key);
+				}
+			}
+		}
+	}
+}
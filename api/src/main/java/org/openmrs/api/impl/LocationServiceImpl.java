@@ -27,6 +27,7 @@ import org.openmrs.api.db.LocationDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -57,6 +58,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#saveLocation(org.openmrs.Location)
 	 */
 	@Override
+	@CacheEvict(value = "hl7LocationIds", allEntries = true)
 	public Location saveLocation(Location location) throws APIException {
 		if (location.getName() == null) {
 			throw new APIException("Location.name.required", (Object[]) null);
@@ -247,6 +249,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#retireLocation(Location, String)
 	 */
 	@Override
+	@CacheEvict(value = "hl7LocationIds", allEntries = true)
 	public Location retireLocation(Location location, String reason) throws APIException {
 		location.setRetired(true);
 		location.setRetireReason(reason);
@@ -257,6 +260,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#unretireLocation(org.openmrs.Location)
 	 */
 	@Override
+	@CacheEvict(value = "hl7LocationIds", allEntries = true)
 	public Location unretireLocation(Location location) throws APIException {
 		location.setRetired(false);
 		return Context.getLocationService().saveLocation(location);
@@ -266,6 +270,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#purgeLocation(org.openmrs.Location)
 	 */
 	@Override
+	@CacheEvict(value = "hl7LocationIds", allEntries = true)
 	public void purgeLocation(Location location) throws APIException {
 		dao.deleteLocation(location);
 	}
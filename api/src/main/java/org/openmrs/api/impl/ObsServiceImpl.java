@@ -10,7 +10,10 @@
 package org.openmrs.api.impl;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
@@ -18,6 +21,7 @@ import java.util.Map;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
+import org.openmrs.ConceptNumeric;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
@@ -25,7 +29,9 @@ import org.openmrs.Patient;
 import org.openmrs.Person;
 import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
+import org.openmrs.api.ConceptService;
 import org.openmrs.api.EncounterService;
+import org.openmrs.api.ObsImportResult;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
@@ -38,6 +44,7 @@ import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.openmrs.validator.ValidateUtil;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -59,6 +66,12 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	 */
 	private static Map<String, ComplexObsHandler> handlers = null;
 	
+	/**
+	 * The number of imported obs after which the session is flushed and cleared, the same as the
+	 * hibernate.jdbc.batch_size
+	 */
+	private static final int IMPORT_OBS_BATCH_SIZE = 50;
+	
 	/**
 	 * Default empty constructor for this obs service
 	 */
@@ -114,6 +127,136 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		}
 	}
 
+	/**
+	 * @see org.openmrs.api.ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Override
+	public List<Obs> saveNewEncounterObs(Encounter encounter) throws APIException {
+		// the name of this method does not end with Encounter, so that saving the obs does not run the
+		// save handlers on the whole encounter again
+		List<Obs> saved = new ArrayList<>();
+		for (Obs obs : encounter.getObsAtTopLevel(true)) {
+			if (obs.getObsId() == null) {
+				saveNewObsAndGroupMembers(obs);
+				saved.add(obs);
+			}
+		}
+		return saved;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#importObs(Collection)
+	 */
+	@Override
+	public List<ObsImportResult> importObs(Collection<Obs> obs) throws APIException {
+		return importObs(obs.iterator());
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#importObs(Iterator)
+	 */
+	@Override
+	public List<ObsImportResult> importObs(Iterator<Obs> obs) throws APIException {
+		// the names of these methods do not start with save, so that an obs which is not valid does not
+		// make the whole import fail before it starts
+		List<ObsImportResult> results = new ArrayList<>();
+		Map<Integer, Concept> concepts = new HashMap<>();
+		int pending = 0;
+		for (int index = 0; obs.hasNext(); index++) {
+			Obs next = obs.next();
+			try {
+				importObs(next, concepts);
+				results.add(ObsImportResult.saved(index, next.getUuid(), next.getObsId()));
+				pending++;
+			}
+			catch (APIException e) {
+				// validation failures are thrown before anything of the obs is inserted, while a
+				// failure to insert it is left to roll back the import
+				results.add(ObsImportResult.failed(index, next == null ? null : next.getUuid(), e));
+			}
+			if (pending == IMPORT_OBS_BATCH_SIZE) {
+				Context.flushSession();
+				Context.clearSession();
+				pending = 0;
+			}
+		}
+		return results;
+	}
+	
+	private void importObs(Obs obs, Map<Integer, Concept> concepts) {
+		if (obs == null) {
+			throw new APIException("Obs.error.cannot.be.null", (Object[]) null);
+		}
+		if (obs.getObsId() != null) {
+			throw new APIException("Obs.error.import.notNew", new Object[] { obs.getObsId() });
+		}
+		useLoadedConcepts(obs, concepts);
+		RequiredDataAdvice.recursivelyHandle(SaveHandler.class, obs, null);
+		saveNewObsAndGroupMembers(obs);
+	}
+	
+	/**
+	 * Replaces the concepts of the given obs and its group members with ones loaded once per import,
+	 * so that their datatypes are read once and are still loaded after the session is cleared
+	 */
+	private void useLoadedConcepts(Obs obs, Map<Integer, Concept> concepts) {
+		Concept concept = obs.getConcept();
+		if (concept != null && concept.getConceptId() != null) {
+			Concept loaded = concepts.computeIfAbsent(concept.getConceptId(), this::loadConcept);
+			if (loaded != null && loaded != concept) {
+				obs.setConcept(loaded);
+			}
+		}
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				useLoadedConcepts(member, concepts);
+			}
+		}
+	}
+	
+	private Concept loadConcept(Integer conceptId) {
+		ConceptService cs = Context.getConceptService();
+		Concept concept = cs.getConcept(conceptId);
+		if (concept != null && concept.getDatatype() != null && concept.getDatatype().isNumeric()
+		        && !(concept instanceof ConceptNumeric)) {
+			// the obs validator checks the value against the numeric concept
+			ConceptNumeric conceptNumeric = cs.getConceptNumeric(conceptId);
+			if (conceptNumeric != null) {
+				return conceptNumeric;
+			}
+		}
+		return concept;
+	}
+	
+	private void saveNewObsAndGroupMembers(Obs obs) {
+		validateNewObsAndGroupMembers(obs);
+		saveValidatedObsAndGroupMembers(obs);
+	}
+	
+	private void validateNewObsAndGroupMembers(Obs obs) {
+		ValidateUtil.validate(obs);
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				// saving a member which was already saved would need a change message, so it is
+				// rejected before anything is saved
+				if (member.getObsId() != null) {
+					throw new APIException("Obs.error.ChangeMessage.required", (Object[]) null);
+				}
+				validateNewObsAndGroupMembers(member);
+			}
+		}
+	}
+	
+	private void saveValidatedObsAndGroupMembers(Obs obs) {
+		handleExistingObsWithComplexConcept(obs);
+		dao.saveObs(obs);
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				saveValidatedObsAndGroupMembers(member);
+			}
+		}
+	}
+	
 	private void setPersonFromEncounter(Obs obs) {
 		Encounter encounter = obs.getEncounter();
 		if (encounter != null) {
@@ -40,6 +40,7 @@ import org.openmrs.api.MissingRequiredPropertyException;
 import org.openmrs.api.OrderContext;
 import org.openmrs.api.OrderEntryException;
 import org.openmrs.api.OrderNumberGenerator;
+import org.openmrs.api.OrderNumberSeedAllocator;
 import org.openmrs.api.OrderService;
 import org.openmrs.api.UnchangeableObjectException;
 import org.openmrs.api.context.Context;
@@ -64,6 +65,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.openmrs.Order.Action.DISCONTINUE;
 import static org.openmrs.Order.Action.REVISE;
@@ -86,6 +89,21 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	protected OrderDAO dao;
 	
 	private static OrderNumberGenerator orderNumberGenerator = null;
+	
+	private static OrderNumberSeedAllocator orderNumberSeedAllocator = null;
+	
+	/**
+	 * Orders of the same patient are saved one at a time since the checks against the active orders
+	 * of the patient would otherwise race, orders of different patients are saved concurrently. The
+	 * locks are striped by patient so that their number stays fixed.
+	 */
+	private static final Lock[] patientLocks = new Lock[64];
+	
+	static {
+		for (int i = 0; i < patientLocks.length; i++) {
+			patientLocks[i] = new ReentrantLock();
+		}
+	}
 
 	public OrderServiceImpl() {
 	}
@@ -102,8 +120,8 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
 	 */
 	@Override
-	public synchronized Order saveOrder(Order order, OrderContext orderContext) throws APIException {
-		return saveOrder(order, orderContext, false);
+	public Order saveOrder(Order order, OrderContext orderContext) throws APIException {
+		return saveOrderWithPatientLock(order, orderContext, false);
 	}
 	
 	/**
@@ -139,8 +157,24 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
 	 */
 	@Override
-	public synchronized Order saveRetrospectiveOrder(Order order, OrderContext orderContext) {
-		return saveOrder(order, orderContext, true);
+	public Order saveRetrospectiveOrder(Order order, OrderContext orderContext) {
+		return saveOrderWithPatientLock(order, orderContext, true);
+	}
+	
+	private Order saveOrderWithPatientLock(Order order, OrderContext orderContext, boolean isRetrospective) {
+		Lock lock = getPatientLock(order.getPatient());
+		lock.lock();
+		try {
+			return saveOrder(order, orderContext, isRetrospective);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	private static Lock getPatientLock(Patient patient) {
+		int hash = patient == null ? 0 : patient.hashCode();
+		return patientLocks[Math.floorMod(hash ^ (hash >>> 16), patientLocks.length)];
 	}
 
 	private Order saveOrder(Order order, OrderContext orderContext, boolean isRetrospective) {
@@ -603,7 +637,33 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 */
 	@Override
 	public String getNewOrderNumber(OrderContext orderContext) throws APIException {
-		return ORDER_NUMBER_PREFIX + Context.getOrderService().getNextOrderNumberSeedSequenceValue();
+		return ORDER_NUMBER_PREFIX + getOrderNumberSeedAllocator().nextSeed();
+	}
+	
+	/**
+	 * Gets the allocator the default order number generator gets its seeds from, it is created with
+	 * the block size configured by {@link OpenmrsConstants#GP_ORDER_NUMBER_SEED_BLOCK_SIZE}
+	 * 
+	 * @return the order number seed allocator
+	 */
+	private static synchronized OrderNumberSeedAllocator getOrderNumberSeedAllocator() {
+		if (orderNumberSeedAllocator == null) {
+			String blockSize = Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE);
+			int size = 1;
+			if (StringUtils.hasText(blockSize)) {
+				try {
+					size = Math.max(1, Integer.parseInt(blockSize.trim()));
+				}
+				catch (NumberFormatException e) {
+					log.warn("Invalid value '{}' for global property {}, reserving one order number at a time", blockSize,
+					    OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE);
+				}
+			}
+			orderNumberSeedAllocator = new OrderNumberSeedAllocator(size);
+		}
+		
+		return orderNumberSeedAllocator;
 	}
 	
 	/**
@@ -639,8 +699,39 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 */
 	@Override
 	@Transactional(propagation = Propagation.REQUIRES_NEW)
-	public synchronized Long getNextOrderNumberSeedSequenceValue() {
-		return dao.getNextOrderNumberSeedSequenceValue();
+	public Long getNextOrderNumberSeedSequenceValue() {
+		return reserveOrderNumberSeeds(1);
+	}
+	
+	/**
+	 * @see org.openmrs.api.OrderService#reserveOrderNumberSeedSequenceValues(int)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Long reserveOrderNumberSeedSequenceValues(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("At least one order number seed must be reserved");
+		}
+		return reserveOrderNumberSeeds(count);
+	}
+	
+	/**
+	 * @see org.openmrs.api.OrderService#getNextOrderNumberSeed(org.openmrs.api.OrderNumberSeedAllocator)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Long getNextOrderNumberSeed(OrderNumberSeedAllocator allocator) {
+		return allocator.nextSeed(this::reserveOrderNumberSeeds);
+	}
+	
+	/**
+	 * The DAO updates the seed global property directly under a row lock, so its cached value has to
+	 * be evicted
+	 */
+	private Long reserveOrderNumberSeeds(int count) {
+		Long firstSeed = dao.reserveOrderNumberSeedSequenceValues(count);
+		Context.getAdministrationService().clearGlobalPropertyCache(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED);
+		return firstSeed;
 	}
 	
 	/**
@@ -886,7 +977,8 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 */
 	@Override
 	public boolean supportsPropertyName(String propertyName) {
-		return OpenmrsConstants.GP_ORDER_NUMBER_GENERATOR_BEAN_ID.equals(propertyName);
+		return OpenmrsConstants.GP_ORDER_NUMBER_GENERATOR_BEAN_ID.equals(propertyName)
+		        || OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE.equals(propertyName);
 	}
 	
 	/**
@@ -895,6 +987,7 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	@Override
 	public void globalPropertyChanged(GlobalProperty newValue) {
 		setOrderNumberGenerator(null);
+		setOrderNumberSeedAllocator(null);
 	}
 	
 	/**
@@ -903,6 +996,7 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	@Override
 	public void globalPropertyDeleted(String propertyName) {
 		setOrderNumberGenerator(null);
+		setOrderNumberSeedAllocator(null);
 	}
 	
 	/**
@@ -912,6 +1006,13 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 		OrderServiceImpl.orderNumberGenerator = orderNumberGenerator;
 	}
 	
+	/**
+	 * Helper method to deter instance methods from setting static fields
+	 */
+	private static synchronized void setOrderNumberSeedAllocator(OrderNumberSeedAllocator orderNumberSeedAllocator) {
+		OrderServiceImpl.orderNumberSeedAllocator = orderNumberSeedAllocator;
+	}
+	
 	/**
 	 * @see org.openmrs.api.OrderService#getOrderType(Integer)
 	 */
@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Binds the changes a transaction makes to an in-memory structure, such as a cache or an index, to
+ * the transaction, so that they are only applied once the transaction has completed. Until then
+ * {@link #get()} tells the transaction that it has pending changes, e.g. so that it reads from the
+ * database rather than from the structure. Other threads never see the changes before they are
+ * committed.
+ * <p>
+ * A suspended transaction takes its pending changes with it, so a nested REQUIRES_NEW transaction
+ * starts without any.
+ *
+ * @param <T> the type which collects the changes of a transaction
+ * @since 2.5.0
+ */
+public class PendingTransactionChanges<T> {
+	
+	private final Supplier<T> factory;
+	
+	private final BiConsumer<T, Integer> completion;
+	
+	/**
+	 * @param factory creates the object which collects the changes of a transaction
+	 * @param completion called with the changes and the completion status, one of the
+	 *            {@link TransactionSynchronization} STATUS constants, once the transaction has
+	 *            completed
+	 */
+	public PendingTransactionChanges(Supplier<T> factory, BiConsumer<T, Integer> completion) {
+		this.factory = factory;
+		this.completion = completion;
+	}
+	
+	/**
+	 * @return the changes of the current transaction, null if it has not made any or if there is no
+	 *         transaction
+	 */
+	public T get() {
+		Synchronization synchronization = (Synchronization) TransactionSynchronizationManager.getResource(this);
+		return synchronization == null ? null : synchronization.changes;
+	}
+	
+	/**
+	 * Gets the changes of the current transaction, binding a new object to collect them if it has not
+	 * made any so far
+	 *
+	 * @return the changes of the current transaction, null if there is no transaction and the changes
+	 *         must be applied right away
+	 * <strong>Should</strong> return null without a transaction
+	 * <strong>Should</strong> pass the changes to the completion callback once the transaction has completed
+	 */
+	public T getOrBind() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		
+		Synchronization synchronization = (Synchronization) TransactionSynchronizationManager.getResource(this);
+		if (synchronization == null) {
+			synchronization = new Synchronization(factory.get());
+			TransactionSynchronizationManager.bindResource(this, synchronization);
+			TransactionSynchronizationManager.registerSynchronization(synchronization);
+		}
+		return synchronization.changes;
+	}
+	
+	private final class Synchronization implements TransactionSynchronization {
+		
+		private final T changes;
+		
+		private Synchronization(T changes) {
+			this.changes = changes;
+		}
+		
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(PendingTransactionChanges.this);
+		}
+		
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(PendingTransactionChanges.this, this);
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PendingTransactionChanges.this);
+			completion.accept(changes, status);
+		}
+	}
+}
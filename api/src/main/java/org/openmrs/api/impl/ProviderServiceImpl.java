@@ -24,6 +24,7 @@ import org.openmrs.api.db.ProviderDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -69,6 +70,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 * @see org.openmrs.api.ProviderService#retireProvider(org.openmrs.Provider, java.lang.String)
 	 */
 	@Override
+	@CacheEvict(value = "hl7ProviderIds", allEntries = true)
 	public void retireProvider(Provider provider, String reason) {
 		dao.saveProvider(provider);
 	}
@@ -77,6 +79,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 * @see org.openmrs.api.ProviderService#unretireProvider(org.openmrs.Provider)
 	 */
 	@Override
+	@CacheEvict(value = "hl7ProviderIds", allEntries = true)
 	public Provider unretireProvider(Provider provider) {
 		return Context.getProviderService().saveProvider(provider);
 	}
@@ -85,6 +88,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 * @see org.openmrs.api.ProviderService#purgeProvider(org.openmrs.Provider)
 	 */
 	@Override
+	@CacheEvict(value = "hl7ProviderIds", allEntries = true)
 	public void purgeProvider(Provider provider) {
 		dao.deleteProvider(provider);
 	}
@@ -102,6 +106,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 * @see org.openmrs.api.ProviderService#saveProvider(org.openmrs.Provider)
 	 */
 	@Override
+	@CacheEvict(value = "hl7ProviderIds", allEntries = true)
 	public Provider saveProvider(Provider provider) {
 		CustomDatatypeUtil.saveAttributesIfNecessary(provider);
 		return dao.saveProvider(provider);
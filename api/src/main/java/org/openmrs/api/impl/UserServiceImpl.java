@@ -44,6 +44,7 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.util.RoleConstants;
+import org.openmrs.util.RoleGraph;
 import org.openmrs.util.Security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -173,7 +174,9 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			        + " is already in use.");
 		}
 		
-		return dao.saveUser(user, null);
+		User savedUser = dao.saveUser(user, null);
+		RoleGraph.invalidateAfterCommit();
+		return savedUser;
 	}
 	
 	public User voidUser(User user, String reason) throws APIException {
@@ -247,6 +250,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deletePrivilege(privilege);
+		RoleGraph.invalidateAfterCommit();
 	}
 	
 	/**
@@ -254,7 +258,9 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Privilege savePrivilege(Privilege privilege) throws APIException {
-		return dao.savePrivilege(privilege);
+		Privilege savedPrivilege = dao.savePrivilege(privilege);
+		RoleGraph.invalidateAfterCommit();
+		return savedPrivilege;
 	}
 
 	/**
@@ -293,6 +299,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deleteRole(role);
+		RoleGraph.invalidateAfterCommit();
 	}
 	
 	/**
@@ -300,6 +307,9 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Role saveRole(Role role) throws APIException {
+		// the inherited roles may have been changed in memory, make sure they are not read from a stale closure
+		RoleGraph.invalidateAfterCommit(role);
+		
 		// make sure one of the parents of this role isn't itself...this would
 		// cause an infinite loop
 		if (role.getAllParentRoles().contains(role)) {
@@ -496,6 +506,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	@Override
 	public void purgeUser(User user) throws APIException {
 		dao.deleteUser(user);
+		RoleGraph.invalidateAfterCommit();
 	}
 	
 	/**
@@ -508,6 +519,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deleteUser(user);
+		RoleGraph.invalidateAfterCommit();
 	}
 	
 	/**
@@ -21,6 +21,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.VisitAttribute;
 import org.openmrs.VisitAttributeType;
@@ -33,6 +34,8 @@ import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.ValidateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -44,6 +47,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class VisitServiceImpl extends BaseOpenmrsService implements VisitService {
 	
+	private static final Logger log = LoggerFactory.getLogger(VisitServiceImpl.class);
+	
+	/**
+	 * The number of visits {@link #stopVisits(Date)} stops with one update
+	 */
+	private static final int STOP_VISITS_BATCH_SIZE = 500;
+	
 	private VisitDAO dao;
 	
 	/**
@@ -351,32 +361,49 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 	 */
 	@Override
 	public void stopVisits(Date maximumStartDate) {
+		stopVisits(maximumStartDate, STOP_VISITS_BATCH_SIZE);
+	}
+	
+	/**
+	 * @see org.openmrs.api.VisitService#stopVisits(Date, int)
+	 */
+	@Override
+	public int stopVisits(Date maximumStartDate, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
 		
 		final List<VisitType> visitTypesToStop = getVisitTypesToStop();
 		
 		if (maximumStartDate == null) {
 			maximumStartDate = new Date();
 		}
-			
+		
 		if (visitTypesToStop.isEmpty()) {
-			return;
+			return 0;
 		}
 		
-		int counter = 0;
+		long startTime = System.currentTimeMillis();
+		//the visits are updated behind the back of the session, so pending changes must be persisted first
+		Context.flushSession();
+		
+		int stopped = 0;
 		Date stopDate = new Date();
-		Visit nextVisit = dao.getNextVisit(null, visitTypesToStop, maximumStartDate);
-		while (nextVisit != null) {
-			nextVisit.setStopDatetime(stopDate);
-			dao.saveVisit(nextVisit);
-			if (counter++ > 50) {
-				//ensure changes are persisted to DB before reclaiming memory
-				Context.flushSession();
-				Context.clearSession();
-				counter = 0;
-			}
-					
-		nextVisit = dao.getNextVisit(nextVisit, visitTypesToStop, maximumStartDate);
+		User changedBy = Context.getAuthenticatedUser();
+		List<Integer> visitIds = dao.getActiveVisitIds(null, visitTypesToStop, maximumStartDate, batchSize);
+		while (!visitIds.isEmpty()) {
+			stopped += dao.stopVisits(visitIds, stopDate, changedBy, stopDate);
+			visitIds = dao.getActiveVisitIds(visitIds.get(visitIds.size() - 1), visitTypesToStop, maximumStartDate,
+			    batchSize);
+		}
+		
+		if (stopped > 0) {
+			//the visits loaded in the session are out of date
+			Context.clearSession();
 		}
+		log.info("Stopped {} visits started on or before {} in {} ms", stopped, maximumStartDate,
+		    System.currentTimeMillis() - startTime);
+		return stopped;
 	}
 	
 	private List<VisitType> getVisitTypesToStop() {
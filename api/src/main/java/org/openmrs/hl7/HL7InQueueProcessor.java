@@ -9,7 +9,18 @@
  */
 package org.openmrs.hl7;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +32,16 @@ import ca.uhn.hl7v2.HL7Exception;
  * table depending on success or failure of the processing. You may, however, set a global property
  * that causes the processor to ignore messages regarding unknown patients from a non-local HL7
  * source. (i.e. those messages neither go to the archive or the error table.)
+ * <p>
+ * {@link #processHL7InQueue()} gets the pending messages in batches of
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_HL7_PROCESSOR_BATCH_SIZE} and processes them on
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_HL7_PROCESSOR_WORKER_COUNT} daemon threads. Messages
+ * about the same patient (i.e. with the same PID-3 field) are processed by the same thread in the
+ * order they were received, and the messages processed by a thread out of a batch are claimed,
+ * processed and committed together. Since messages are claimed in the database, processors running
+ * on other servers sharing the same database never process the same messages, and since the claims
+ * are part of the processing transaction, messages of a server which stopped before committing are
+ * pending again.
  *
  * @version 1.0
  */
@@ -35,6 +56,14 @@ public class HL7InQueueProcessor /* implements Runnable */{
 	
 	private static Integer count = 0;
 	
+	private static final AtomicLong processedCount = new AtomicLong();
+	
+	private static final AtomicLong runProcessedCount = new AtomicLong();
+	
+	private static volatile long runStartTime;
+	
+	private static volatile long runEndTime;
+	
 	// processor per JVM
 	
 	/**
@@ -48,6 +77,36 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		HL7InQueueProcessor.count = count;
 	}
 	
+	/**
+	 * @return the number of queue entries processed since startup
+	 * @since 2.5.0
+	 */
+	public static long getProcessedCount() {
+		return processedCount.get();
+	}
+	
+	/**
+	 * @return the number of queue entries processed per second by the current run of
+	 *         {@link #processHL7InQueue()}, or by the last one if none is running
+	 * @since 2.5.0
+	 */
+	public static double getThroughput() {
+		long start = runStartTime;
+		if (start == 0) {
+			return 0;
+		}
+		long end = isRunning ? System.currentTimeMillis() : runEndTime;
+		return runProcessedCount.get() * 1000.0 / Math.max(end - start, 1);
+	}
+	
+	/**
+	 * @return the number of queue entries waiting to be processed
+	 * @since 2.5.0
+	 */
+	public static int getBacklog() {
+		return Context.getHL7Service().countHL7InQueue(HL7Constants.HL7_STATUS_PENDING, null);
+	}
+	
 	/**
 	 * Process a single queue entry from the inbound HL7 queue
 	 *
@@ -64,6 +123,8 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		catch (HL7Exception e) {
 			log.error("Unable to process hl7 in queue", e);
 		}
+		processedCount.incrementAndGet();
+		runProcessedCount.incrementAndGet();
 		setCount(count + 1);
 		if (count > 25) {
 			// clean up memory after processing each queue entry (otherwise, the
@@ -74,6 +135,7 @@ public class HL7InQueueProcessor /* implements Runnable */{
 			catch (Exception e) {
 				log.error("Exception while performing garbagecollect in hl7 inbound processor", e);
 			}
+			setCount(0);
 		}
 		
 	}
@@ -96,7 +158,7 @@ public class HL7InQueueProcessor /* implements Runnable */{
 	}
 	
 	/**
-	 * Starts up a thread to process all existing HL7InQueue entries
+	 * Processes all existing HL7InQueue entries
 	 */
 	public void processHL7InQueue() throws HL7Exception {
 		synchronized (lock) {
@@ -106,16 +168,159 @@ public class HL7InQueueProcessor /* implements Runnable */{
 			}
 			isRunning = true;
 		}
+		ExecutorService workers = null;
 		try {
 			log.debug("Start processing hl7 in queue");
-			while (processNextHL7InQueue()) {
-				// loop until queue is empty
+			runProcessedCount.set(0);
+			runStartTime = System.currentTimeMillis();
+			
+			int workerCount = getPositiveGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_PROCESSOR_WORKER_COUNT, 1);
+			int batchSize = getPositiveGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_PROCESSOR_BATCH_SIZE, 50);
+			if (workerCount > 1 && !Daemon.isDaemonThread()) {
+				log.debug("Processing the hl7 in queue in the calling thread since it is not a daemon thread");
+				workerCount = 1;
+			}
+			if (workerCount > 1) {
+				workers = Daemon.newDaemonThreadPool(workerCount);
+			}
+			
+			// entries which failed stay pending, they are only processed again by the next run
+			List<HL7InQueue> batch = Context.getHL7Service().getNextHL7InQueues(null, batchSize);
+			while (!batch.isEmpty()) {
+				processBatch(batch, workers, workerCount);
+				Integer lastId = batch.get(batch.size() - 1).getHL7InQueueId();
+				batch = Context.getHL7Service().getNextHL7InQueues(lastId, batchSize);
 			}
 			log.debug("Done processing hl7 in queue");
 		}
 		finally {
+			if (workers != null) {
+				workers.shutdown();
+			}
+			runEndTime = System.currentTimeMillis();
 			isRunning = false;
 		}
 	}
 	
+	/**
+	 * Processes a batch of queue entries, waiting until all of them are processed so that entries
+	 * of a later batch are never processed before them. The lanes of the batch are processed by the
+	 * daemon worker threads of the run, each lane in a session of its own.
+	 *
+	 * @param workers the workers of the run, null to process the batch in the calling thread
+	 */
+	private void processBatch(List<HL7InQueue> batch, ExecutorService workers, int workerCount) throws HL7Exception {
+		if (workers == null) {
+			processHL7InQueues(batch);
+			return;
+		}
+		
+		List<Future<?>> lanes = new ArrayList<>(workerCount);
+		for (List<HL7InQueue> lane : splitByPatient(batch, workerCount)) {
+			if (!lane.isEmpty()) {
+				lanes.add(workers.submit(() -> processHL7InQueues(lane)));
+			}
+		}
+		
+		for (Future<?> lane : lanes) {
+			try {
+				lane.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HL7Exception("Interrupted while processing the hl7 in queue", e);
+			}
+			catch (ExecutionException e) {
+				log.error("Unable to process a lane of the hl7 in queue", e.getCause());
+			}
+		}
+	}
+	
+	/**
+	 * Processes the given queue entries in a single transaction, falling back to one transaction
+	 * per entry if that fails
+	 */
+	private void processHL7InQueues(List<HL7InQueue> hl7InQueues) {
+		try {
+			int processed = Context.getHL7Service().processHL7InQueues(hl7InQueues).size();
+			processedCount.addAndGet(processed);
+			runProcessedCount.addAndGet(processed);
+		}
+		catch (Exception e) {
+			log.warn("Unable to process " + hl7InQueues.size() + " hl7 in queue entries at once, processing them one by one",
+			    e);
+			Context.clearSession();
+			for (HL7InQueue hl7InQueue : hl7InQueues) {
+				// the rolled back attempt marked it as processing
+				hl7InQueue.setMessageState(HL7Constants.HL7_STATUS_PENDING);
+				try {
+					int processed = Context.getHL7Service().processHL7InQueues(Collections.singletonList(hl7InQueue))
+					        .size();
+					processedCount.addAndGet(processed);
+					runProcessedCount.addAndGet(processed);
+				}
+				catch (HL7Exception | RuntimeException e2) {
+					log.error("Unable to process hl7 in queue entry " + hl7InQueue.getHL7InQueueId(), e2);
+					Context.clearSession();
+				}
+			}
+		}
+		
+		try {
+			Context.getHL7Service().garbageCollect();
+		}
+		catch (Exception e) {
+			log.error("Exception while performing garbagecollect in hl7 inbound processor", e);
+		}
+	}
+	
+	/**
+	 * Splits the given queue entries into the given number of lanes so that all the entries about
+	 * the same patient are in the same lane, keeping their order
+	 *
+	 * @param hl7InQueues the queue entries to split
+	 * @param laneCount the number of lanes
+	 * @return the lanes, some of them may be empty
+	 */
+	static List<List<HL7InQueue>> splitByPatient(List<HL7InQueue> hl7InQueues, int laneCount) {
+		List<List<HL7InQueue>> lanes = new ArrayList<>(laneCount);
+		for (int i = 0; i < laneCount; i++) {
+			lanes.add(new ArrayList<>());
+		}
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			Object key = getPatientKey(hl7InQueue.getHL7Data());
+			if (key == null) {
+				key = hl7InQueue.getHL7InQueueId();
+			}
+			lanes.get(Math.floorMod(key.hashCode(), laneCount)).add(hl7InQueue);
+		}
+		return lanes;
+	}
+	
+	/**
+	 * Gets the patient identifier list (PID-3) of the given message without parsing it fully
+	 *
+	 * @param hl7Data the message
+	 * @return the PID-3 field, null if the message has none
+	 */
+	static String getPatientKey(String hl7Data) {
+		if (hl7Data == null || hl7Data.length() < 4 || !hl7Data.startsWith("MSH")) {
+			return null;
+		}
+		
+		char fieldSeparator = hl7Data.charAt(3);
+		for (String segment : hl7Data.split("[\\r\\n]+")) {
+			if (segment.startsWith("PID") && segment.length() > 3 && segment.charAt(3) == fieldSeparator) {
+				String[] fields = StringUtils.splitPreserveAllTokens(segment, fieldSeparator);
+				return fields.length > 3 && !fields[3].isEmpty() ? fields[3] : null;
+			}
+		}
+		return null;
+	}
+	
+	private static int getPositiveGlobalProperty(String propertyName, int defaultValue) {
+		Integer value = Context.getAdministrationService().getGlobalPropertyValue(propertyName, defaultValue);
+		return value > 0 ? value : defaultValue;
+	}
+	
 }
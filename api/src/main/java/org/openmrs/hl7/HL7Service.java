@@ -218,6 +218,22 @@ public interface HL7Service extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
 	public HL7InQueue getNextHL7InQueue() throws APIException;
 	
+	/**
+	 * Gets the next pending queue items in the order they were received. The returned items are
+	 * detached from the current session so that they can be handed to other threads and passed to
+	 * {@link #processHL7InQueues(List)}, which claims them.
+	 * 
+	 * @param afterHL7InQueueId only items received after the item with this id are returned, all the
+	 *            pending items if null
+	 * @param count the maximum number of queue items to get
+	 * @return the pending queue items, an empty list if there are none
+	 * @since 2.5.0
+	 * <strong>Should</strong> return pending queue items in the order they were received
+	 * <strong>Should</strong> only return queue items received after the given one
+	 */
+	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
+	public List<HL7InQueue> getNextHL7InQueues(Integer afterHL7InQueueId, int count) throws APIException;
+	
 	/**
 	 * Completely delete the hl7 in queue item from the database.
 	 * 
@@ -377,6 +393,62 @@ public interface HL7Service extends OpenmrsService {
 	 */
 	public Integer resolveLocationId(PL pl) throws HL7Exception;
 	
+	/**
+	 * Resolves a location from the components of a person location, the point of care is treated
+	 * as a location id and the facility as a location name. Resolved ids are cached for a few
+	 * minutes and evicted when a location is saved or purged.
+	 *
+	 * @param pointOfCare the point of care component of the person location
+	 * @param facility the universal id of the facility component of the person location
+	 * @return internal identifier of the specified location, or null if it is not found
+	 * @throws HL7Exception if the point of care is not a location id and there is no facility
+	 * @since 2.5.0
+	 * <strong>Should</strong> cache the resolved location id until a location is saved
+	 */
+	public Integer resolveLocationId(String pointOfCare, String facility) throws HL7Exception;
+	
+	/**
+	 * Resolves a provider from the components of the extended composite id of an attending doctor.
+	 * If the identifier type code is L, the assigning authority tells whether the id is a provider
+	 * id, identifier or uuid, otherwise the id is treated as the person id of the provider. Resolved
+	 * ids are cached for a few minutes and evicted when a provider is saved, retired or purged.
+	 *
+	 * @param id the id number
+	 * @param assigningAuthority the universal id of the assigning authority
+	 * @param idType the universal id type of the assigning authority
+	 * @return internal identifier of the specified provider, or null if it is not found
+	 * @since 2.5.0
+	 * <strong>Should</strong> resolve a provider by provider id identifier or uuid
+	 * <strong>Should</strong> resolve a provider by person id
+	 * <strong>Should</strong> return null if the provider is not found
+	 */
+	public Integer resolveProviderId(String id, String assigningAuthority, String idType);
+	
+	/**
+	 * Resolves the concept mapped to the given code of a coding system like
+	 * {@link org.openmrs.api.ConceptService#getConceptByMapping(String, String)} does, from the ids
+	 * cached by {@link org.openmrs.api.ConceptService#getConceptIdsByMapping(String, String, boolean)}.
+	 *
+	 * @param code the code of the concept in the coding system
+	 * @param sourceName the name or hl7 code of the concept source of the coding system
+	 * @return internal identifier of the mapped concept, or null if there is none
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the id of the mapped concept
+	 * <strong>Should</strong> cache the resolved concept id until a concept is saved
+	 */
+	public Integer resolveConceptIdByMapping(String code, String sourceName);
+	
+	/**
+	 * Resolves a form from its uuid. Resolved ids are cached for a few minutes and evicted when a
+	 * form is saved or purged.
+	 *
+	 * @param uuid the uuid of the form
+	 * @return internal identifier of the form, or null if it is not found
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the id of the form with the given uuid
+	 */
+	public Integer resolveFormIdByUuid(String uuid);
+	
 	/**
 	 * @param pid A PID segment of an hl7 message
 	 * @return The internal id number of the Patient described by the PID segment, or null if the
@@ -421,6 +493,24 @@ public interface HL7Service extends OpenmrsService {
 	 */
 	public HL7InQueue processHL7InQueue(HL7InQueue inQueue) throws HL7Exception;
 	
+	/**
+	 * Processes the given {@link HL7InQueue} items one after the other like
+	 * {@link #processHL7InQueue(HL7InQueue)} does, but in a single transaction so that the
+	 * resulting archives and errors are committed together. The items are first claimed in that
+	 * transaction by marking the ones which are still pending as processing, so that a processor on
+	 * this server or any other server sharing the database skips the items which are processed
+	 * already or waits for the transaction processing them. The claims are rolled back with the
+	 * transaction if it fails.
+	 * 
+	 * @param inQueues the {@link HL7InQueue} items to process
+	 * @return the processed {@link HL7InQueue} items
+	 * @throws HL7Exception
+	 * @since 2.5.0
+	 * <strong>Should</strong> create HL7InArchive for each successfully parsed item
+	 * <strong>Should</strong> skip queue items which are not pending anymore
+	 */
+	public List<HL7InQueue> processHL7InQueues(List<HL7InQueue> inQueues) throws HL7Exception;
+	
 	/**
 	 * Parses the given string and returns the resulting {@link Message}
 	 * 
@@ -80,6 +80,20 @@ public interface HL7DAO {
 	 */
 	public HL7InQueue getNextHL7InQueue() throws DAOException;
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueues(Integer, int)
+	 */
+	public List<HL7InQueue> getNextHL7InQueues(Integer afterHL7InQueueId, int maxResults) throws DAOException;
+	
+	/**
+	 * Marks the given queue items which are still pending as processing
+	 * 
+	 * @param hl7InQueueIds the ids of the queue items to claim
+	 * @return the ids of the claimed queue items
+	 * @since 2.5.0
+	 */
+	public List<Integer> claimHL7InQueues(List<Integer> hl7InQueueIds) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#purgeHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -9,10 +9,12 @@
  */
 package org.openmrs.hl7.db.hibernate;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 import org.hibernate.Criteria;
+import org.hibernate.LockMode;
 import org.hibernate.Query;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.MatchMode;
@@ -205,6 +207,54 @@ public class HibernateHL7DAO implements HL7DAO {
 		return (HL7InQueue) query.uniqueResult();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getNextHL7InQueues(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<HL7InQueue> getNextHL7InQueues(Integer afterHL7InQueueId, int maxResults) throws DAOException {
+		Query query = sessionFactory.getCurrentSession().createQuery(
+		    "from HL7InQueue as hiq left join fetch hiq.HL7Source where hiq.messageState = :pending"
+		            + " and hiq.HL7InQueueId > :afterId order by hiq.HL7InQueueId");
+		query.setParameter("pending", HL7Constants.HL7_STATUS_PENDING, StandardBasicTypes.INTEGER);
+		query.setParameter("afterId", afterHL7InQueueId == null ? 0 : afterHL7InQueueId, StandardBasicTypes.INTEGER);
+		List<HL7InQueue> pending = query.setMaxResults(maxResults).list();
+		
+		// the entries are handed over to other threads
+		for (HL7InQueue hl7InQueue : pending) {
+			sessionFactory.getCurrentSession().evict(hl7InQueue);
+		}
+		return pending;
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#claimHL7InQueues(List)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> claimHL7InQueues(List<Integer> hl7InQueueIds) throws DAOException {
+		if (hl7InQueueIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		// the pending rows stay locked until the transaction ends, a concurrent processor claiming them
+		// waits until then and finds them no longer pending
+		List<Integer> pendingIds = sessionFactory.getCurrentSession().createQuery(
+		    "select hiq.HL7InQueueId from HL7InQueue hiq where hiq.HL7InQueueId in (:ids) and hiq.messageState = :pending")
+		        .setParameter("pending", HL7Constants.HL7_STATUS_PENDING, StandardBasicTypes.INTEGER)
+		        .setParameterList("ids", hl7InQueueIds).setLockMode("hiq", LockMode.PESSIMISTIC_WRITE).list();
+		if (pendingIds.isEmpty()) {
+			return pendingIds;
+		}
+		
+		sessionFactory.getCurrentSession().createQuery(
+		    "update HL7InQueue set messageState = :processing where HL7InQueueId in (:ids) and messageState = :pending")
+		        .setParameter("processing", HL7Constants.HL7_STATUS_PROCESSING, StandardBasicTypes.INTEGER)
+		        .setParameter("pending", HL7Constants.HL7_STATUS_PENDING, StandardBasicTypes.INTEGER)
+		        .setParameterList("ids", pendingIds).executeUpdate();
+		return pendingIds;
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#deleteHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -964,7 +964,8 @@ public class ORUR01Handler implements Application {
 			}
 		} else {
 			// the concept is not local, look it up in our mapping
-			return Context.getConceptService().getConceptByMapping(hl7ConceptId, codingSystem);
+			Integer conceptId = Context.getHL7Service().resolveConceptIdByMapping(hl7ConceptId, codingSystem);
+			return conceptId == null ? null : Context.getConceptService().getConcept(conceptId);
 		}
 	}
 	
@@ -1032,34 +1033,21 @@ public class ORUR01Handler implements Application {
 		String type = hl7Provider.getAssigningAuthority().getUniversalIDType().getValue();
 		String errorMessage;
 		if (StringUtils.hasText(id)) {
+			Integer providerId = Context.getHL7Service().resolveProviderId(id, assignAuth, type);
+			if (providerId != null) {
+				provider = Context.getProviderService().getProvider(providerId);
+			}
+			
 			String specificErrorMsg = "";
 			if (OpenmrsUtil.nullSafeEquals("L", type)) {
 				if (HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_ID.equalsIgnoreCase(assignAuth)) {
-					try {
-						provider = Context.getProviderService().getProvider(Integer.valueOf(id));
-					}
-					catch (NumberFormatException e) {
-						// ignore
-					}
 					specificErrorMsg = "with provider Id";
 				} else if (HL7Constants.PROVIDER_ASSIGNING_AUTH_IDENTIFIER.equalsIgnoreCase(assignAuth)) {
-					provider = Context.getProviderService().getProviderByIdentifier(id);
 					specificErrorMsg = "with provider identifier";
 				} else if (HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_UUID.equalsIgnoreCase(assignAuth)) {
-					provider = Context.getProviderService().getProviderByUuid(id);
 					specificErrorMsg = "with provider uuid";
 				}
 			} else {
-				try {
-					Person person = Context.getPersonService().getPerson(Integer.valueOf(id));
-					Collection<Provider> providers = Context.getProviderService().getProvidersByPerson(person);
-					if (!providers.isEmpty()) {
-						provider = providers.iterator().next();
-					}
-				}
-				catch (NumberFormatException e) {
-					// ignore
-				}
 				specificErrorMsg = "associated to a person with person id";
 			}
 			
@@ -1144,7 +1132,10 @@ public class ORUR01Handler implements Application {
 
 		// prefer uuid over id
 		if (uuid != null) {
-			form = Context.getFormService().getFormByUuid(uuid);
+			Integer formId = Context.getHL7Service().resolveFormIdByUuid(uuid);
+			if (formId != null) {
+				form = Context.getFormService().getForm(formId);
+			}
 		}
 
 		// if uuid did not work ...
@@ -21,22 +21,28 @@ import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.openmrs.Form;
 import org.openmrs.Location;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.Person;
 import org.openmrs.PersonName;
+import org.openmrs.Provider;
 import org.openmrs.User;
 import org.openmrs.api.APIException;
+import org.openmrs.api.ConceptService;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
@@ -58,6 +64,7 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -311,6 +318,18 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getNextHL7InQueue();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueues(Integer, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<HL7InQueue> getNextHL7InQueues(Integer afterHL7InQueueId, int count) throws APIException {
+		if (count < 1) {
+			return new ArrayList<>();
+		}
+		return dao.getNextHL7InQueues(afterHL7InQueueId, count);
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InArchiveByState(java.lang.Integer)
 	 */
@@ -532,10 +551,20 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	@Override
 	@Transactional(readOnly = true)
 	public Integer resolveLocationId(PL pl) throws HL7Exception {
-		// TODO: Get rid of hack that allows first component to be an integer
-		// location.location_id
 		String pointOfCare = pl.getPointOfCare().getValue();
 		String facility = pl.getFacility().getUniversalID().getValue();
+		return Context.getHL7Service().resolveLocationId(pointOfCare, facility);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#resolveLocationId(String, String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "hl7LocationIds", unless = "#result == null")
+	public Integer resolveLocationId(String pointOfCare, String facility) throws HL7Exception {
+		// TODO: Get rid of hack that allows first component to be an integer
+		// location.location_id
 		// HACK: try to treat the first component (which should be "Point of
 		// Care" as an internal openmrs location_id
 		try {
@@ -567,6 +596,75 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#resolveProviderId(String, String, String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "hl7ProviderIds", unless = "#result == null")
+	public Integer resolveProviderId(String id, String assigningAuthority, String idType) {
+		if (StringUtils.isBlank(id)) {
+			return null;
+		}
+		
+		Provider provider = null;
+		if (OpenmrsUtil.nullSafeEquals("L", idType)) {
+			if (HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_ID.equalsIgnoreCase(assigningAuthority)) {
+				try {
+					provider = Context.getProviderService().getProvider(Integer.valueOf(id));
+				}
+				catch (NumberFormatException e) {
+					// ignore
+				}
+			} else if (HL7Constants.PROVIDER_ASSIGNING_AUTH_IDENTIFIER.equalsIgnoreCase(assigningAuthority)) {
+				provider = Context.getProviderService().getProviderByIdentifier(id);
+			} else if (HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_UUID.equalsIgnoreCase(assigningAuthority)) {
+				provider = Context.getProviderService().getProviderByUuid(id);
+			}
+		} else {
+			try {
+				Person person = Context.getPersonService().getPerson(Integer.valueOf(id));
+				Collection<Provider> providers = Context.getProviderService().getProvidersByPerson(person);
+				if (!providers.isEmpty()) {
+					provider = providers.iterator().next();
+				}
+			}
+			catch (NumberFormatException e) {
+				// ignore
+			}
+		}
+		return provider == null ? null : provider.getProviderId();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#resolveConceptIdByMapping(String, String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Integer resolveConceptIdByMapping(String code, String sourceName) {
+		// the same choice as ConceptService#getConceptByMapping, made on the cached ids of the mapped concepts
+		ConceptService conceptService = Context.getConceptService();
+		List<Integer> conceptIds = conceptService.getConceptIdsByMapping(code, sourceName, false);
+		if (conceptIds.size() > 1) {
+			throw new APIException("Concept.error.multiple.non.retired", new Object[] { code, sourceName });
+		}
+		if (conceptIds.isEmpty()) {
+			conceptIds = conceptService.getConceptIdsByMapping(code, sourceName, true);
+		}
+		return conceptIds.isEmpty() ? null : conceptIds.get(0);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#resolveFormIdByUuid(String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = "hl7FormIds", unless = "#result == null")
+	public Integer resolveFormIdByUuid(String uuid) {
+		Form form = Context.getFormService().getFormByUuid(uuid);
+		return form == null ? null : form.getFormId();
+	}
+	
 	/**
 	 * @param pid A PID segment of an hl7 message
 	 * @return The internal id number of the Patient described by the PID segment, or null of the
@@ -765,6 +863,28 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return hl7InQueue;
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#processHL7InQueues(java.util.List)
+	 */
+	@Override
+	public List<HL7InQueue> processHL7InQueues(List<HL7InQueue> hl7InQueues) throws HL7Exception {
+		List<Integer> ids = new ArrayList<>(hl7InQueues.size());
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			ids.add(hl7InQueue.getHL7InQueueId());
+		}
+		Set<Integer> claimedIds = new HashSet<>(dao.claimHL7InQueues(ids));
+		
+		List<HL7InQueue> processed = new ArrayList<>(claimedIds.size());
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			if (claimedIds.contains(hl7InQueue.getHL7InQueueId())) {
+				// NOT making a direct call here so that AOP can happen around this method
+				Context.getHL7Service().processHL7InQueue(hl7InQueue);
+				processed.add(hl7InQueue);
+			}
+		}
+		return processed;
+	}
+	
 	/**
 	 * Convenience method to respond to fatal errors by moving the queue entry into an error bin
 	 * prior to aborting
@@ -56,17 +56,28 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	private static final Logger log = LoggerFactory.getLogger(ModuleClassLoader.class);
 	
+	static {
+		// classes are loaded under a lock per class name instead of a lock on the whole class loader
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	private final Module module;
 	
 	private Module[] requiredModules;
 	
 	private Module[] awareOfModules;
 	
+	/**
+	 * The required modules followed by the aware of modules, which are searched for the classes that
+	 * this module does not have itself
+	 */
+	private volatile Module[] importedModules;
+	
 	private Map<URI, File> libraryCache;
 	
 	private boolean probeParentLoaderLast = true;
 	
-	private Set<String> providedPackages = new LinkedHashSet<>();
+	private final Set<String> providedPackages = new LinkedHashSet<>();
 	
 	private boolean disposed = false;
 
@@ -93,6 +104,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		this.module = module;
 		requiredModules = collectRequiredModuleImports(module);
 		awareOfModules = collectAwareOfModuleImports(module);
+		importedModules = collectImportedModules();
 		libraryCache = new WeakHashMap<>();
 	}
 	
@@ -108,23 +120,24 @@ public class ModuleClassLoader extends URLClassLoader {
 		File devDir = ModuleUtil.getDevelopmentDirectory(module.getModuleId());
 		if (devDir != null) {
 			File[] fileList = devDir.listFiles();
-			if (fileList == null) {
-				return;
-			}
-			for (File file : fileList) {
-				if (!file.isDirectory()) {
-					continue;
-				}
-				File dir = new File(devDir, file.getName() + File.separator + "target" + File.separator + "classes" + File.separator);
-				if (dir.exists()) {
-					Collection<File> files = FileUtils.listFiles(dir, new String[] { "class" }, true);
-					addClassFilePackages(files, dir.getAbsolutePath().length() + 1);
+			if (fileList != null) {
+				for (File file : fileList) {
+					if (!file.isDirectory()) {
+						continue;
+					}
+					File dir = new File(devDir,
+					        file.getName() + File.separator + "target" + File.separator + "classes" + File.separator);
+					if (dir.exists()) {
+						Collection<File> files = FileUtils.listFiles(dir, new String[] { "class" }, true);
+						addClassFilePackages(files, dir.getAbsolutePath().length() + 1);
+					}
 				}
 			}
-		} else {
-			for (URL url : urls) {
-				providedPackages.addAll(ModuleUtil.getPackagesFromFile(OpenmrsUtil.url2file(url)));
-			}
+		}
+		
+		// the packages of the jars, which in development mode are only the ones in the lib folder
+		for (URL url : urls) {
+			providedPackages.addAll(ModuleUtil.getPackagesFromFile(OpenmrsUtil.url2file(url)));
 		}
 	}
 	
@@ -493,6 +506,17 @@ public class ModuleClassLoader extends URLClassLoader {
 		
 	}
 	
+	private Module[] collectImportedModules() {
+		List<Module> result = new ArrayList<>();
+		if (requiredModules != null) {
+			Collections.addAll(result, requiredModules);
+		}
+		if (awareOfModules != null) {
+			Collections.addAll(result, awareOfModules);
+		}
+		return result.toArray(new Module[0]);
+	}
+	
 	/**
 	 * @see org.openmrs.module.ModuleClassLoader#modulesSetChanged()
 	 */
@@ -514,6 +538,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		}
 		requiredModules = collectRequiredModuleImports(getModule());
 		awareOfModules = collectAwareOfModuleImports(getModule());
+		importedModules = collectImportedModules();
 		libraryCache.entrySet().removeIf(uriFileEntry -> uriFileEntry.getValue() == null);
 	}
 	
@@ -529,6 +554,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		libraryCache.clear();
 		requiredModules = null;
 		awareOfModules = null;
+		importedModules = null;
 		disposed = true;
 	}
 	
@@ -595,7 +621,7 @@ public class ModuleClassLoader extends URLClassLoader {
 	 * @return Class that has been loaded
 	 * @throws ClassNotFoundException if no class found
 	 */
-	protected synchronized Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
+	protected Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
 	        Set<String> seenModules) throws ClassNotFoundException {
 		
 		if (log.isTraceEnabled()) {
@@ -627,16 +653,24 @@ public class ModuleClassLoader extends URLClassLoader {
 			throw new ClassNotFoundException(msg);
 		}
 		
-		// Check if the class has already been loaded by this class loader
-		Class<?> result = findLoadedClass(name);
+		String packageName = getPackageName(name);
 		
-		// Try loading the class with this class loader 
-		if (result == null) {
-			try {
-				result = findClass(name);
-			}
-			catch (ClassNotFoundException e) {
-				// Continue trying...
+		Class<?> result;
+		// Only the class itself is locked while this class loader defines it, the imported modules are
+		// searched without holding it so that two modules importing each other can not deadlock
+		synchronized (getClassLoadingLock(name)) {
+			// Check if the class has already been loaded by this class loader
+			result = findLoadedClass(name);
+			
+			// Try loading the class with this class loader, the imported modules are only searched
+			// if they provide the package of the class
+			if (result == null && (this == requestor || packageName == null || providedPackages.contains(packageName))) {
+				try {
+					result = findClass(name);
+				}
+				catch (ClassNotFoundException e) {
+					// Continue trying...
+				}
 			}
 		}
 		
@@ -650,6 +684,16 @@ public class ModuleClassLoader extends URLClassLoader {
 		// Look through this module's imports to see if the class
 		// can be loaded from them.
 		
+		Module[] modules = importedModules;
+		if (modules == null || modules.length == 0) {
+			throw new ClassNotFoundException(name);
+		}
+		
+		// No need to go through the imports if no module at all provides the package of the class
+		if (packageName != null && ModuleFactory.getModuleClassLoadersForPackage(packageName).isEmpty()) {
+			throw new ClassNotFoundException(name);
+		}
+		
 		if (seenModules == null) {
 			seenModules = new HashSet<>();
 		}
@@ -657,15 +701,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		// Add this module to the list of modules we've tried already
 		seenModules.add(getModule().getModuleId());
 		
-		List<Module> importedModules = new ArrayList<>();
-		if (requiredModules != null) {
-			Collections.addAll(importedModules, requiredModules);
-		}
-		if (awareOfModules != null) {
-			Collections.addAll(importedModules, awareOfModules);
-		}
-		
-		for (Module importedModule : importedModules) {
+		for (Module importedModule : modules) {
 			if (seenModules.contains(importedModule.getModuleId())) {
 				continue;
 			}
@@ -688,6 +724,15 @@ public class ModuleClassLoader extends URLClassLoader {
 		throw new ClassNotFoundException(name);
 	}
 	
+	/**
+	 * @param className the fully qualified name of a class
+	 * @return the package of the class, null if it is in the default package
+	 */
+	private static String getPackageName(String className) {
+		int lastDot = className.lastIndexOf('.');
+		return lastDot > 0 ? className.substring(0, lastDot) : null;
+	}
+	
 	/**
 	 * Checking the given class's visibility in this module
 	 *
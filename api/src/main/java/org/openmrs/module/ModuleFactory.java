@@ -14,7 +14,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.rmi.activation.Activator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -811,38 +810,42 @@ public class ModuleFactory {
 	
 	private static void registerProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
-			
-			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
-			if (set != null) {
-				newSet.addAll(set);
-			}
-			
-			newSet.add(moduleClassLoader);
-			providedPackages.put(providedPackage, newSet);
+			providedPackages.compute(providedPackage, (packageName, set) -> {
+				Set<ModuleClassLoader> newSet = new LinkedHashSet<>();
+				if (set != null) {
+					newSet.addAll(set);
+				}
+				newSet.add(moduleClassLoader);
+				return Collections.unmodifiableSet(newSet);
+			});
 		}
+		OpenmrsClassLoader.clearMissingClasses();
 	}
 	
 	private static void unregisterProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
-			
-			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
-			if (set != null) {
-				newSet.addAll(set);
-			}
-			newSet.remove(moduleClassLoader);
-			
-			providedPackages.put(providedPackage, newSet);
+			providedPackages.computeIfPresent(providedPackage, (packageName, set) -> {
+				Set<ModuleClassLoader> newSet = new LinkedHashSet<>(set);
+				newSet.remove(moduleClassLoader);
+				return newSet.isEmpty() ? null : Collections.unmodifiableSet(newSet);
+			});
 		}
+		OpenmrsClassLoader.clearMissingClasses();
 	}
 	
+	/**
+	 * Gets the class loaders of the started modules which provide the given package
+	 * 
+	 * @param packageName the name of the package
+	 * @return an unmodifiable set of the module class loaders in the order the modules were started,
+	 *         empty if no module provides the package
+	 */
 	public static Set<ModuleClassLoader> getModuleClassLoadersForPackage(String packageName) {
 		Set<ModuleClassLoader> set = providedPackages.get(packageName);
 		if (set == null) {
 			return Collections.emptySet();
 		} else {
-			return new HashSet<>(set);
+			return set;
 		}
 	}
 	
@@ -0,0 +1,257 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A compact set of non-negative ids, like patient ids, stored as a bitmap. The ids are split into
+ * chunks of 65536 by their high bits (like roaring bitmaps do) and each chunk which holds ids is a
+ * {@link BitSet}, so that sparse ids do not take the memory of the whole range. Checking whether an
+ * id is in the set and getting the size take constant time, and set operations work a chunk at a
+ * time on whole words. This class is not thread safe.
+ *
+ * @since 2.5.0
+ */
+public class IdBitmap implements Iterable<Integer>, Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final int CHUNK_BITS = 16;
+	
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+	
+	private final TreeMap<Integer, BitSet> chunks = new TreeMap<>();
+	
+	private int size;
+	
+	public IdBitmap() {
+	}
+	
+	/**
+	 * @param ids the ids to put in the set, null ones are left out
+	 */
+	public IdBitmap(Iterable<Integer> ids) {
+		for (Integer id : ids) {
+			if (id != null) {
+				add(id);
+			}
+		}
+	}
+	
+	/**
+	 * @param id the id to add
+	 * @return true if the id was not in the set yet
+	 * <strong>Should</strong> add ids across chunks
+	 * <strong>Should</strong> fail for negative ids
+	 */
+	public boolean add(int id) {
+		if (id < 0) {
+			throw new IllegalArgumentException("Only non-negative ids can be added: " + id);
+		}
+		BitSet chunk = chunks.computeIfAbsent(id >>> CHUNK_BITS, key -> new BitSet());
+		int bit = id & CHUNK_MASK;
+		if (chunk.get(bit)) {
+			return false;
+		}
+		chunk.set(bit);
+		size++;
+		return true;
+	}
+	
+	/**
+	 * @param id the id to remove
+	 * @return true if the id was in the set
+	 * <strong>Should</strong> remove the chunk of the last id removed from it
+	 */
+	public boolean remove(int id) {
+		if (!contains(id)) {
+			return false;
+		}
+		Integer key = id >>> CHUNK_BITS;
+		BitSet chunk = chunks.get(key);
+		chunk.clear(id & CHUNK_MASK);
+		if (chunk.isEmpty()) {
+			chunks.remove(key);
+		}
+		size--;
+		return true;
+	}
+	
+	/**
+	 * @param id the id to look for
+	 * @return true if the id is in the set
+	 */
+	public boolean contains(int id) {
+		if (id < 0) {
+			return false;
+		}
+		BitSet chunk = chunks.get(id >>> CHUNK_BITS);
+		return chunk != null && chunk.get(id & CHUNK_MASK);
+	}
+	
+	/**
+	 * @return the number of ids in the set
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * @return the ids in the set, in ascending order
+	 */
+	public IntStream stream() {
+		return chunks.entrySet().stream().flatMapToInt(
+		    entry -> entry.getValue().stream().map(bit -> (entry.getKey() << CHUNK_BITS) | bit));
+	}
+	
+	/**
+	 * @return the ids in the set, in ascending order
+	 */
+	@Override
+	public Iterator<Integer> iterator() {
+		return stream().iterator();
+	}
+	
+	/**
+	 * @return a sorted set of the ids in this set
+	 */
+	public Set<Integer> toSet() {
+		return stream().boxed().collect(Collectors.toCollection(TreeSet::new));
+	}
+	
+	/**
+	 * Returns the ids which are in either set, treating null as an empty set
+	 *
+	 * @param a the first set
+	 * @param b the second set
+	 * @return a new set
+	 * <strong>Should</strong> return the ids which are in either set
+	 */
+	public static IdBitmap union(IdBitmap a, IdBitmap b) {
+		IdBitmap result = copy(a);
+		if (b != null) {
+			for (Map.Entry<Integer, BitSet> entry : b.chunks.entrySet()) {
+				BitSet chunk = result.chunks.get(entry.getKey());
+				if (chunk == null) {
+					result.chunks.put(entry.getKey(), (BitSet) entry.getValue().clone());
+				} else {
+					chunk.or(entry.getValue());
+				}
+			}
+			result.updateSize();
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the ids which are in both sets, treating null as an empty set
+	 *
+	 * @param a the first set
+	 * @param b the second set
+	 * @return a new set
+	 * <strong>Should</strong> return the ids which are in both sets
+	 */
+	public static IdBitmap intersect(IdBitmap a, IdBitmap b) {
+		IdBitmap result = new IdBitmap();
+		if (a != null && b != null) {
+			for (Map.Entry<Integer, BitSet> entry : a.chunks.entrySet()) {
+				BitSet other = b.chunks.get(entry.getKey());
+				if (other != null) {
+					BitSet chunk = (BitSet) entry.getValue().clone();
+					chunk.and(other);
+					if (!chunk.isEmpty()) {
+						result.chunks.put(entry.getKey(), chunk);
+					}
+				}
+			}
+			result.updateSize();
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the ids of the first set which are not in the second one, treating null as an empty set
+	 *
+	 * @param a the original set
+	 * @param b the set to subtract
+	 * @return a new set
+	 * <strong>Should</strong> return the ids of the first set which are not in the second one
+	 */
+	public static IdBitmap subtract(IdBitmap a, IdBitmap b) {
+		IdBitmap result = copy(a);
+		if (b != null) {
+			for (Map.Entry<Integer, BitSet> entry : b.chunks.entrySet()) {
+				BitSet chunk = result.chunks.get(entry.getKey());
+				if (chunk != null) {
+					chunk.andNot(entry.getValue());
+					if (chunk.isEmpty()) {
+						result.chunks.remove(entry.getKey());
+					}
+				}
+			}
+			result.updateSize();
+		}
+		return result;
+	}
+	
+	private static IdBitmap copy(IdBitmap bitmap) {
+		IdBitmap copy = new IdBitmap();
+		if (bitmap != null) {
+			for (Map.Entry<Integer, BitSet> entry : bitmap.chunks.entrySet()) {
+				copy.chunks.put(entry.getKey(), (BitSet) entry.getValue().clone());
+			}
+			copy.size = bitmap.size;
+		}
+		return copy;
+	}
+	
+	private void updateSize() {
+		size = 0;
+		for (BitSet chunk : chunks.values()) {
+			size += chunk.cardinality();
+		}
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IdBitmap)) {
+			return false;
+		}
+		IdBitmap other = (IdBitmap) obj;
+		return size == other.size && chunks.equals(other.chunks);
+	}
+	
+	@Override
+	public int hashCode() {
+		return chunks.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return stream().limit(100).mapToObj(String::valueOf).collect(
+		    Collectors.joining(",", "IdBitmap size=" + size + " [", size > 100 ? ",...]" : "]"));
+	}
+}
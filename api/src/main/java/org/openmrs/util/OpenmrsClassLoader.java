@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.APIException;
@@ -54,6 +55,11 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	
 	private static Logger log = LoggerFactory.getLogger(OpenmrsClassLoader.class);
 	
+	static {
+		// classes are loaded under a lock per class name instead of a lock on the whole class loader
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	private static File libCacheFolder;
 	
 	private static boolean libCacheFolderInitialized = false;
@@ -67,6 +73,22 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 */
 	private Map<String, WeakReference<Class<?>>> cachedClasses = new ConcurrentHashMap<>();
 	
+	/**
+	 * Holds the names of the classes which could neither be loaded from the modules nor from the
+	 * parent class loader, frameworks often look for optional classes which are not there. It is
+	 * cleared whenever a module is started or stopped.
+	 */
+	private final Set<String> missingClasses = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * Changes every time the missing classes are cleared so that a class which was looked up before
+	 * is not remembered as missing after it
+	 */
+	private final AtomicLong missingClassesGeneration = new AtomicLong();
+	
+	// the most class names remembered as missing, they are all forgotten when it is reached
+	private static final int MAX_MISSING_CLASSES = 10000;
+	
 	// suffix of the OpenMRS required library cache folder
 	private static final String LIBCACHESUFFIX = ".openmrs-lib-cache";
 	
@@ -137,37 +159,32 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 * <strong>Should</strong> not load class from cache if class loader has been disposed
 	 * <strong>Should</strong> load class from parent first
 	 * <strong>Should</strong> load class if two module class loaders have same packages
+	 * <strong>Should</strong> remember classes which could not be found
 	 */
 	@Override
-	public synchronized Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
+	public Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
 		// Check if the class has already been requested from this class loader
 		Class<?> c = getCachedClass(name);
 		if (c == null) {
-			// We do not try to load classes using this.findClass on purpose.
-			// All classes are loaded by web container or by module class loaders.
-			
-			// First try loading from modules such that we allow modules to load
-			// different versions of the same libraries that may already be used
-			// by core or the web container. An example is the chartsearch module
-			// which uses different versions of lucene and solr from core
-			String packageName = StringUtils.substringBeforeLast(name, ".");
-			Set<ModuleClassLoader> moduleClassLoaders = ModuleFactory.getModuleClassLoadersForPackage(packageName);
-			for (ModuleClassLoader moduleClassLoader : moduleClassLoaders) {
-				try {
-					c = moduleClassLoader.loadClass(name);
-					break;
-				}
-				catch (ClassNotFoundException e) {
-					// Continue trying...
-				}
+			if (missingClasses.contains(name)) {
+				throw new ClassNotFoundException(name);
 			}
 			
-			if (c == null) {
-				// Finally try loading from web container
-				c = getParent().loadClass(name);
+			synchronized (getClassLoadingLock(name)) {
+				c = getCachedClass(name);
+				if (c == null) {
+					long generation = missingClassesGeneration.get();
+					try {
+						c = loadClassFromModulesOrParent(name);
+					}
+					catch (ClassNotFoundException e) {
+						addMissingClass(name, generation);
+						throw e;
+					}
+					
+					cacheClass(name, c);
+				}
 			}
-			
-			cacheClass(name, c);
 		}
 		
 		if (resolve) {
@@ -177,6 +194,55 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		return c;
 	}
 	
+	private Class<?> loadClassFromModulesOrParent(String name) throws ClassNotFoundException {
+		// We do not try to load classes using this.findClass on purpose.
+		// All classes are loaded by web container or by module class loaders.
+		
+		// First try loading from modules such that we allow modules to load
+		// different versions of the same libraries that may already be used
+		// by core or the web container. An example is the chartsearch module
+		// which uses different versions of lucene and solr from core
+		String packageName = StringUtils.substringBeforeLast(name, ".");
+		Set<ModuleClassLoader> moduleClassLoaders = ModuleFactory.getModuleClassLoadersForPackage(packageName);
+		for (ModuleClassLoader moduleClassLoader : moduleClassLoaders) {
+			try {
+				return moduleClassLoader.loadClass(name);
+			}
+			catch (ClassNotFoundException e) {
+				// Continue trying...
+			}
+		}
+		
+		// Finally try loading from web container
+		return getParent().loadClass(name);
+	}
+	
+	private void addMissingClass(String name, long generation) {
+		if (missingClasses.size() >= MAX_MISSING_CLASSES) {
+			missingClasses.clear();
+		}
+		missingClasses.add(name);
+		if (generation != missingClassesGeneration.get()) {
+			// cleared while being looked up
+			missingClasses.remove(name);
+		}
+	}
+	
+	/**
+	 * Forgets the classes which could not be found so far, this must be called whenever the classes
+	 * provided by the modules change
+	 *
+	 * @since 2.5.0
+	 * <strong>Should</strong> load a class again after it has been missing
+	 */
+	public static void clearMissingClasses() {
+		OpenmrsClassLoader instance = OpenmrsClassLoaderHolder.INSTANCE;
+		if (instance != null) {
+			instance.missingClassesGeneration.incrementAndGet();
+			instance.missingClasses.clear();
+		}
+	}
+	
 	private Class<?> getCachedClass(String name) {
 		WeakReference<Class<?>> ref = cachedClasses.get(name);
 		if (ref != null) {
@@ -559,6 +625,7 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		OpenmrsClassLoader.log = null;
 		
 		getInstance().cachedClasses.clear();
+		getInstance().missingClasses.clear();
 	}
 	
 	/**
@@ -348,6 +348,20 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS = "hl7_processor.ignore_missing_patient_non_local";
 	
+	/**
+	 * Global property name for the number of threads processing the hl7 inbound queue
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GLOBAL_PROPERTY_HL7_PROCESSOR_WORKER_COUNT = "hl7_processor.worker_count";
+	
+	/**
+	 * Global property name for the number of hl7 inbound queue entries claimed and committed at once
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GLOBAL_PROPERTY_HL7_PROCESSOR_BATCH_SIZE = "hl7_processor.batch_size";
+	
 	public static final String GLOBAL_PROPERTY_TRUE_CONCEPT = "concept.true";
 	
 	public static final String GLOBAL_PROPERTY_FALSE_CONCEPT = "concept.false";
@@ -581,6 +595,14 @@ public final class OpenmrsConstants {
 	
 	public static final String GP_ORDER_NUMBER_GENERATOR_BEAN_ID = "order.orderNumberGeneratorBeanId";
 	
+	/**
+	 * Specifies how many order number seeds each node reserves at once, see
+	 * {@link org.openmrs.api.OrderNumberSeedAllocator}
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_ORDER_NUMBER_SEED_BLOCK_SIZE = "order.orderNumberSeedBlockSize";
+	
 	/**
 	 * Specifies the uuid of the concept set where its members represent the possible drug routes
 	 */
@@ -607,6 +629,15 @@ public final class OpenmrsConstants {
 	 * @since 1.11
 	 */
 	public static final Integer SEARCH_INDEX_VERSION = 7;
+	
+	/**
+	 * Global property name for the number of threads rebuilding the search index of each type. The
+	 * number of threads of a type can be set apart with a global property named after it, like
+	 * search.indexer.threads.PersonName
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_SEARCH_INDEXER_THREADS = "search.indexer.threads";
 
 	/**
 	 * @since 1.12
@@ -881,6 +912,14 @@ public final class OpenmrsConstants {
 		        "If true, hl7 messages for patients that are not found and are non-local will silently be dropped/ignored",
 		        BooleanDatatype.class, null));
 		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_HL7_PROCESSOR_WORKER_COUNT, "1",
+		        "The number of threads processing the hl7 inbound queue, messages about the same patient are always "
+		                + "processed by the same thread in the order they were received"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_HL7_PROCESSOR_BATCH_SIZE, "50",
+		        "The number of hl7 inbound queue entries the hl7 processor gets at once, the entries processed by a "
+		                + "thread out of each batch are claimed and committed together"));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_SHOW_PATIENT_NAME,
@@ -1011,6 +1050,10 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_SEARCH_INDEX_VERSION, "",
 		        "Indicates the index version. If it is blank, the index needs to be rebuilt."));
 		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_THREADS, "2",
+		        "The number of threads rebuilding the search index of each type, it can be set for a type with a "
+		                + "global property named after it like search.indexer.threads.PersonName"));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_ALLOW_OVERLAPPING_VISITS, "true",
 		        "true/false whether or not to allow visits of a given patient to overlap", BooleanDatatype.class, null));
 		
@@ -1034,6 +1077,10 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_ORDER_NUMBER_GENERATOR_BEAN_ID, "",
 		        "Specifies spring bean id of the order generator to use when assigning order numbers"));
 		
+		props.add(new GlobalProperty(GP_ORDER_NUMBER_SEED_BLOCK_SIZE, "1",
+		        "Specifies how many order numbers are reserved at once by each server, larger values reduce contention "
+		                + "on the next order number seed at the cost of gaps in the order numbers after a restart"));
+		
 		props.add(new GlobalProperty(GP_DRUG_ROUTES_CONCEPT_UUID, "",
 		        "Specifies the uuid of the concept set where its members represent the possible drug routes"));
 		
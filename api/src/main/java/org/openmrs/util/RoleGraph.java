@@ -0,0 +1,204 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.api.impl.PendingTransactionChanges;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+/**
+ * Computes the transitive closure of the role inheritance graph, i.e. all the roles reachable from
+ * a set of roles through {@link Role#getInheritedRoles()} together with the privileges they grant.
+ * <p>
+ * {@link Role} and {@link org.openmrs.User} keep the {@link Closure} computed for them and only
+ * compute it again once the graph has been {@link #invalidate() invalidated}, which happens once a
+ * transaction saving or deleting a role, privilege or user through
+ * {@link org.openmrs.api.UserService} has committed.
+ *
+ * @since 2.5.0
+ */
+public final class RoleGraph {
+	
+	private static final AtomicLong version = new AtomicLong();
+	
+	private static final PendingTransactionChanges<Boolean> pendingInvalidation = new PendingTransactionChanges<>(
+	        () -> Boolean.TRUE, (invalidation, status) -> {
+		        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			        invalidate();
+		        }
+	        });
+	
+	private RoleGraph() {
+	}
+	
+	/**
+	 * @return the current version of the role graph, it changes every time the graph is invalidated
+	 */
+	public static long getVersion() {
+		return version.get();
+	}
+	
+	/**
+	 * Marks every closure computed so far as out of date so that it is computed again the next time
+	 * it is needed
+	 */
+	public static void invalidate() {
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * Invalidates the graph once the current transaction has committed, or right away without a
+	 * transaction. Invalidating before the commit would let another thread compute a closure from
+	 * the roles as they still are in the database and keep it after the commit.
+	 * <strong>Should</strong> invalidate the graph only once the transaction has committed
+	 * <strong>Should</strong> not invalidate the graph if the transaction is rolled back
+	 * <strong>Should</strong> invalidate the graph right away without a transaction
+	 */
+	public static void invalidateAfterCommit() {
+		if (pendingInvalidation.getOrBind() == null) {
+			invalidate();
+		}
+	}
+	
+	/**
+	 * Discards the closures of the given role and of the roles inheriting from it right away, so that
+	 * changes made to the role in memory are seen by the current thread, and invalidates the graph
+	 * once the current transaction has committed
+	 *
+	 * @param role the role which is changed
+	 * <strong>Should</strong> make the role and its descendants see its changes right away
+	 */
+	public static void invalidateAfterCommit(Role role) {
+		Set<Role> visited = new HashSet<>();
+		Deque<Role> toVisit = new ArrayDeque<>();
+		toVisit.add(role);
+		while (!toVisit.isEmpty()) {
+			Role next = toVisit.poll();
+			if (visited.add(next)) {
+				next.resetParentClosure();
+				if (next.getChildRoles() != null) {
+					toVisit.addAll(next.getChildRoles());
+				}
+			}
+		}
+		invalidateAfterCommit();
+	}
+	
+	/**
+	 * Computes the closure of the given roles, the given roles themselves are part of the closure
+	 *
+	 * @param roles the roles to start from, may be null
+	 * @return the closure of the given roles
+	 * <strong>Should</strong> include the given roles and all their ancestors
+	 * <strong>Should</strong> not fail if the inheritance graph contains a cycle
+	 * <strong>Should</strong> include the privileges of all roles in the closure
+	 */
+	public static Closure closureOf(Collection<Role> roles) {
+		// read the version first so that a concurrent invalidation makes this closure out of date
+		long closureVersion = version.get();
+		
+		Set<Role> allRoles = new HashSet<>();
+		if (roles != null) {
+			Deque<Role> toVisit = new ArrayDeque<>();
+			for (Role role : roles) {
+				if (role != null && allRoles.add(role)) {
+					toVisit.add(role);
+				}
+			}
+			
+			while (!toVisit.isEmpty()) {
+				Role role = toVisit.poll();
+				if (role.getInheritedRoles() != null) {
+					for (Role parent : role.getInheritedRoles()) {
+						// a role inheriting from itself is ignored like Role#recurseOverParents does
+						if (parent != null && !parent.equals(role) && allRoles.add(parent)) {
+							toVisit.add(parent);
+						}
+					}
+				}
+			}
+		}
+		
+		return new Closure(closureVersion, allRoles);
+	}
+	
+	/**
+	 * An immutable snapshot of a set of roles, all their ancestors and the privileges granted by
+	 * them. Role and privilege names are matched case insensitively.
+	 */
+	public static final class Closure {
+		
+		private final long version;
+		
+		private final Set<Role> roles;
+		
+		private final Set<String> roleNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		
+		private final Set<String> privileges = new HashSet<>();
+		
+		private final Set<String> privilegesIgnoreCase = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		
+		private Closure(long version, Set<Role> roles) {
+			this.version = version;
+			this.roles = Collections.unmodifiableSet(roles);
+			for (Role role : roles) {
+				if (role.getRole() != null) {
+					roleNames.add(role.getRole());
+				}
+				if (role.getPrivileges() != null) {
+					for (Privilege privilege : role.getPrivileges()) {
+						privileges.add(privilege.getPrivilege());
+					}
+				}
+			}
+			privilegesIgnoreCase.addAll(privileges);
+		}
+		
+		/**
+		 * @return true if the role graph has not been invalidated since this closure was computed
+		 */
+		public boolean isCurrent() {
+			return version == RoleGraph.version.get();
+		}
+		
+		/**
+		 * @return all roles in this closure, the returned set is unmodifiable
+		 */
+		public Set<Role> getRoles() {
+			return roles;
+		}
+		
+		/**
+		 * @param roleName the name of the role to look for
+		 * @return true if a role with the given name is in this closure
+		 */
+		public boolean containsRole(String roleName) {
+			return roleName != null && roleNames.contains(roleName);
+		}
+		
+		/**
+		 * @param privilege the name of the privilege to look for
+		 * @return true if any role in this closure has the given privilege
+		 */
+		public boolean hasPrivilege(String privilege) {
+			return privilege != null && (privileges.contains(privilege) || privilegesIgnoreCase.contains(privilege));
+		}
+	}
+}
@@ -178,7 +178,8 @@ public class ObsValidator implements Validator {
 						errors.rejectValue("groupMembers", "Obs.error.inGroupMember");
 					}
 				} else if (dt.isNumeric()) {
-					ConceptNumeric cn = Context.getConceptService().getConceptNumeric(c.getConceptId());
+					ConceptNumeric cn = c instanceof ConceptNumeric ? (ConceptNumeric) c : Context.getConceptService()
+					        .getConceptNumeric(c.getConceptId());
 					// If the concept numeric is not precise, the value cannot be a float, so raise an error 
 					if (!cn.getAllowDecimal() && Math.ceil(obs.getValueNumeric()) != obs.getValueNumeric()) {
 						if (atRootNode) {
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
+import org.openmrs.util.IdBitmap;
 
 /**
  * Behavior-driven tests of the Cohort class.
@@ -155,6 +156,31 @@ public class CohortTest {
 		});
 	}
 
+	/**
+	 * @see Cohort#getActiveMemberIds(Date)
+	 */
+	@Test
+	public void getActiveMemberIds_shouldGetTheIdsOfTheActiveMembersOnly() throws Exception {
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		Date startDate = dateFormat.parse("2017-01-01 00:00:00");
+		Date endDate = dateFormat.parse("2017-02-01 00:00:00");
+		
+		Cohort cohort = new Cohort(3);
+		cohort.addMembership(new CohortMembership(7, startDate));
+		CohortMembership voided = new CohortMembership(8, startDate);
+		voided.setVoided(true);
+		cohort.addMembership(voided);
+		CohortMembership ended = new CohortMembership(9, startDate);
+		ended.setEndDate(endDate);
+		cohort.addMembership(ended);
+		
+		IdBitmap ids = cohort.getActiveMemberIds(dateFormat.parse("2017-03-01 00:00:00"));
+		
+		assertEquals(1, ids.size());
+		assertTrue(ids.contains(7));
+		assertEquals(2, cohort.getActiveMemberIds(dateFormat.parse("2017-01-15 00:00:00")).size());
+	}
+	
     @Test
     public void setMemberIds_shouldSupportLargeCohorts() {
 	    int cohortSize = 100000;
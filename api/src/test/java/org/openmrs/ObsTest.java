@@ -543,6 +543,20 @@ public class ObsTest {
 		updateImmutableFieldsAndAssert(obs, false);
 	}
 
+	/**
+	 * @see Obs#clearDirty()
+	 */
+	@Test
+	public void clearDirty_shouldMarkTheObsAsNotDirty() throws Exception {
+		Obs obs = createObs(2);
+		obs.setValueNumeric(obs.getValueNumeric() + 1);
+		assertTrue(obs.isDirty());
+
+		obs.clearDirty();
+
+		assertFalse(obs.isDirty());
+	}
+
 	private void updateImmutableFieldsAndAssert(Obs obs, boolean assertion) throws Exception {
 		//Set all fields to some random values via reflection
 		List<Field> fields = Reflect.getAllFields(Obs.class);
@@ -9,6 +9,7 @@
  */
 package org.openmrs.aop;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -25,6 +26,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -42,9 +44,12 @@ import org.openmrs.BaseOpenmrsData;
 import org.openmrs.BaseOpenmrsMetadata;
 import org.openmrs.BaseOpenmrsObject;
 import org.openmrs.Concept;
+import org.openmrs.Encounter;
 import org.openmrs.Location;
+import org.openmrs.Obs;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.Person;
+import org.openmrs.User;
 import org.openmrs.annotation.AllowDirectAccess;
 import org.openmrs.annotation.DisableHandlers;
 import org.openmrs.api.APIException;
@@ -637,6 +642,29 @@ public class RequiredDataAdviceTest extends BaseContextMockTest {
 		
 	}
 	
+	/**
+	 * @see RequiredDataAdvice#recursivelyHandle(Class, OpenmrsObject, User, Date, String, List)
+	 */
+	@Test
+	public void recursivelyHandle_shouldHandleEachObjectOfTheGraphOnlyOnce() {
+		Map<String, SaveHandler> saveHandlers = new HashMap<>();
+		saveHandlers.put("saveHandler", saveHandler);
+		when(applicationContext.getBeansOfType(SaveHandler.class)).thenReturn(saveHandlers);
+		
+		Encounter encounter = new Encounter();
+		for (int i = 0; i < 500; i++) {
+			encounter.addObs(new Obs());
+		}
+		List<OpenmrsObject> alreadyHandled = new ArrayList<>();
+		
+		RequiredDataAdvice.recursivelyHandle(SaveHandler.class, encounter, new User(), new Date(), null, alreadyHandled);
+		
+		verify(saveHandler, times(1)).handle(eq(encounter), Matchers.anyObject(), Matchers.anyObject(), Matchers.any());
+		verify(saveHandler, times(501)).handle(Matchers.anyObject(), Matchers.anyObject(), Matchers.anyObject(),
+		    Matchers.any());
+		assertEquals(501, alreadyHandled.size());
+	}
+	
 	class SomeOpenmrsData extends BaseOpenmrsData {
 		
 		@Override
@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -488,6 +489,31 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(orig, noprop);
 	}
 	
+	@Test
+	public void getGlobalPropertyValue_shouldReturnTheNewValueOnceTheGlobalPropertyIsSaved() {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals(1234, adminService.getGlobalPropertyValue("valid.integer", 4));
+		
+		adminService.saveGlobalProperty(new GlobalProperty("valid.integer", "5678"));
+		
+		assertEquals(5678, adminService.getGlobalPropertyValue("valid.integer", 4));
+		assertEquals("5678", adminService.getGlobalProperty("VALID.integer"));
+	}
+	
+	@Test
+	public void clearGlobalPropertyCache_shouldMakeChangesMadeDirectlyInTheDatabaseVisible() throws Exception {
+		assertEquals("same-as", adminService.getGlobalProperty("concept.defaultConceptMapType"));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate(
+			    "update global_property set property_value = 'narrower-than' where property = 'concept.defaultConceptMapType'");
+		}
+		Context.clearSession();
+		adminService.clearGlobalPropertyCache();
+		
+		assertEquals("narrower-than", adminService.getGlobalProperty("concept.defaultConceptMapType"));
+	}
+	
 	@Test
 	public void saveGlobalProperty_shouldNotAllowDifferentPropertiesToHaveTheSameStringWithDifferentCase() {
 		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
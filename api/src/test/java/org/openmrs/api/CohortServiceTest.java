@@ -21,11 +21,14 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.lang3.time.DateUtils;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Cohort;
@@ -34,6 +37,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.IdBitmap;
 
 /**
  * Tests methods in the CohortService class TODO add all the rest of the tests
@@ -729,4 +733,33 @@ public class CohortServiceTest extends BaseContextSensitiveTest {
 		List<CohortMembership> memberships = service.getCohortMemberships(6, longAgo, false);
 		assertThat(memberships.size(), is(0));
 	}
+	
+	/**
+	 * @see CohortService#getActiveMemberIds(Cohort,Date)
+	 */
+	@Test
+	public void getActiveMemberIds_shouldGetTheIdsOfTheActiveMembersWithoutLoadingTheMemberships() throws Exception {
+		executeDataSet(COHORT_XML);
+		Context.flushSession();
+		Context.clearSession();
+		Cohort cohort = service.getCohort(2);
+		
+		IdBitmap ids = service.getActiveMemberIds(cohort, null);
+		
+		assertEquals(new IdBitmap(Collections.singleton(6)), ids);
+		assertFalse(Hibernate.isInitialized(cohort.getMemberships()));
+		assertTrue(service.getActiveMemberIds(cohort, DateUtils.parseDate("1999-12-31", "yyyy-MM-dd")).isEmpty());
+	}
+	
+	/**
+	 * @see CohortService#getActiveMemberIds(Cohort,Date)
+	 */
+	@Test
+	public void getActiveMemberIds_shouldGetTheIdsOfTheActiveMembersOfAnUnsavedCohort() {
+		Cohort cohort = new Cohort(Arrays.asList(2, 7));
+		
+		IdBitmap ids = service.getActiveMemberIds(cohort, null);
+		
+		assertEquals(new IdBitmap(Arrays.asList(2, 7)), ids);
+	}
 }
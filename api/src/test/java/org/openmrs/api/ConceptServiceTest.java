@@ -30,6 +30,7 @@ import static org.openmrs.test.OpenmrsMatchers.hasConcept;
 import static org.openmrs.test.OpenmrsMatchers.hasId;
 import static org.openmrs.test.TestUtil.containsId;
 
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -40,9 +41,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import net.sf.ehcache.Ehcache;
 import org.apache.commons.collections.CollectionUtils;
 import org.dbunit.dataset.IDataSet;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -75,6 +86,7 @@ import org.openmrs.Patient;
 import org.openmrs.Person;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
@@ -82,6 +94,9 @@ import org.openmrs.util.ConceptMapTypeComparator;
 import org.openmrs.util.DateUtil;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.validation.Errors;
 
 /**
@@ -94,6 +109,9 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 	
 	protected ConceptService conceptService = null;
 	
+	@Autowired
+	private CacheManager cacheManager;
+	
 	protected static final String INITIAL_CONCEPTS_XML = "org/openmrs/api/include/ConceptServiceTest-initialConcepts.xml";
 	
 	protected static final String GET_CONCEPTS_BY_SET_XML = "org/openmrs/api/include/ConceptServiceTest-getConceptsBySet.xml";
@@ -435,6 +453,89 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertEquals(numberofconcepts, iteratorCount);
 	}
 	
+	/**
+	 * @see ConceptService#conceptIterator()
+	 */
+	@Test
+	public void conceptIterator_shouldFetchTheNamesMappingsAndSetMembersOfTheConcepts() {
+		Iterator<Concept> iterator = Context.getConceptService().conceptIterator();
+		
+		while (iterator.hasNext()) {
+			Concept concept = iterator.next();
+			assertTrue(Hibernate.isInitialized(ReflectionTestUtils.getField(concept, "names")));
+			assertTrue(Hibernate.isInitialized(concept.getConceptMappings()));
+			assertTrue(Hibernate.isInitialized(concept.getConceptSets()));
+		}
+	}
+	
+	/**
+	 * @see ConceptService#conceptIterator()
+	 */
+	@Test
+	public void conceptIterator_shouldNotDetachObjectsWhichTheCallerLoaded() throws Exception {
+		// enough concepts for more than one page
+		try (Statement statement = getConnection().createStatement()) {
+			for (int conceptId = 10001; conceptId <= 10150; conceptId++) {
+				statement.executeUpdate("insert into concept (concept_id, retired, datatype_id, class_id, is_set, creator, "
+				        + "date_created, uuid) values (" + conceptId + ", false, 4, 3, false, 1, '2008-08-15 15:27:51.0', '"
+				        + UUID.randomUUID() + "')");
+			}
+		}
+		Session session = ((SessionFactory) applicationContext.getBean("sessionFactory")).getCurrentSession();
+		Location location = Context.getLocationService().getLocation(1);
+		
+		Iterator<Concept> iterator = Context.getConceptService().conceptIterator();
+		Concept firstConcept = iterator.next();
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+		
+		assertFalse(session.contains(firstConcept));
+		assertTrue(session.contains(location));
+	}
+	
+	/**
+	 * @see ConceptService#conceptSpliterator()
+	 */
+	@Test
+	public void conceptSpliterator_shouldReturnAllConceptsWhenProcessedInParallel() {
+		Set<Integer> expectedIds = new HashSet<>();
+		for (Concept concept : Context.getConceptService().getAllConcepts()) {
+			expectedIds.add(concept.getConceptId());
+		}
+		
+		Set<Integer> conceptIds = StreamSupport.stream(Context.getConceptService().conceptSpliterator(), true)
+		        .map(Concept::getConceptId).collect(Collectors.toSet());
+		
+		assertEquals(expectedIds, conceptIds);
+	}
+	
+	/**
+	 * @see ConceptService#conceptSpliterator()
+	 */
+	@Test
+	public void conceptSpliterator_shouldGiveWorkerThreadsTheirOwnUserContext() throws Exception {
+		UserContext userContext = Context.getUserContext();
+		Set<UserContext> workerContexts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		Set<User> workerUsers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		Spliterator<Concept> spliterator = Context.getConceptService().conceptSpliterator();
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			pool.submit(() -> StreamSupport.stream(spliterator, true).forEach(concept -> {
+				workerContexts.add(Context.getUserContext());
+				workerUsers.add(Context.getAuthenticatedUser());
+			})).get();
+		}
+		finally {
+			pool.shutdown();
+		}
+		
+		assertFalse(workerContexts.isEmpty());
+		assertFalse(workerContexts.contains(userContext));
+		assertEquals(Collections.singleton(userContext.getAuthenticatedUser()), workerUsers);
+	}
+	
 	/**
 	 * @see ConceptService#saveConcept(Concept)
 	 */
@@ -710,6 +811,53 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertEquals(5089, concept.getId().intValue());
 	}
 	
+	/**
+	 * @see ConceptService#getConceptIdsByMapping(String,String,boolean)
+	 */
+	@Test
+	public void getConceptIdsByMapping_shouldGetTheIdsOfTheConceptsWithTheGivenMapping() {
+		assertEquals(Arrays.asList(16, 24), conceptService.getConceptIdsByMapping("766554", "SSTRM", true));
+		assertEquals(Collections.singletonList(16), conceptService.getConceptIdsByMapping("766554", "SSTRM", false));
+		assertThat(conceptService.getConceptIdsByMapping("A random concept code", "SSTRM", true), is(empty()));
+	}
+	
+	/**
+	 * @see ConceptService#getConceptIdsByMapping(String,String,boolean)
+	 */
+	@Test
+	public void getConceptIdsByMapping_shouldCacheTheIdsUntilAConceptReferenceTermIsSaved() throws Exception {
+		Ehcache cache = (Ehcache) cacheManager.getCache("conceptIdsByMapping").getNativeCache();
+		long hits = cache.getStatistics().cacheHitCount();
+		assertEquals(5089, conceptService.getConceptByMapping("WGT234", "SSTRM").getId().intValue());
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update concept_reference_map set concept_id = 5497 where concept_map_id = 1");
+		}
+		Context.clearSession();
+		assertEquals(5089, conceptService.getConceptByMapping("WGT234", "SSTRM").getId().intValue());
+		assertEquals(hits + 1, cache.getStatistics().cacheHitCount());
+		
+		conceptService.saveConceptReferenceTerm(conceptService.getConceptReferenceTerm(1));
+		assertEquals(5497, conceptService.getConceptByMapping("WGT234", "SSTRM").getId().intValue());
+	}
+	
+	/**
+	 * @see ConceptService#getConceptIdsByMapping(String,String,boolean)
+	 */
+	@Test
+	public void getConceptIdsByMapping_shouldCacheTheIdsUntilAConceptSourceIsSaved() throws Exception {
+		assertEquals(Collections.singletonList(5089), conceptService.getConceptIdsByMapping("WGT234", "SSTRM", true));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update concept_reference_term set concept_source_id = 2 where concept_reference_term_id = 1");
+		}
+		Context.clearSession();
+		assertEquals(Collections.singletonList(5089), conceptService.getConceptIdsByMapping("WGT234", "SSTRM", true));
+		
+		conceptService.saveConceptSource(conceptService.getConceptSource(1));
+		assertThat(conceptService.getConceptIdsByMapping("WGT234", "SSTRM", true), is(empty()));
+	}
+	
 	/**
 	 * @see ConceptService#getConceptAnswerByUuid(String)
 	 */
@@ -1534,6 +1682,102 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertThat(conceptSet, containsInAnyOrder(hasId(2), hasId(3), hasId(4), hasId(5), hasId(6)));
 	}
 	
+	/**
+	 * @see ConceptService#getConceptsByConceptSet(Concept)
+	 */
+	@Test
+	public void getConceptsByConceptSet_shouldSeeTheConceptSetChangesOfTheCurrentTransaction() {
+		Concept conceptSet = conceptService.getConcept(23);
+		assertThat(conceptService.getConceptsByConceptSet(conceptSet), contains(hasId(18), hasId(20), hasId(19)));
+		
+		conceptSet.addSetMember(conceptService.getConcept(27));
+		conceptService.saveConcept(conceptSet);
+		
+		assertThat(conceptService.getConceptsByConceptSet(conceptSet),
+		    contains(hasId(18), hasId(20), hasId(19), hasId(27), hasId(28)));
+	}
+	
+	/**
+	 * @see ConceptService#getConceptsByConceptSet(Concept)
+	 */
+	@Test
+	public void getConceptsByConceptSet_shouldSkipTheMembersWhichNoLongerExist() throws Exception {
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("insert into concept (concept_id, retired, datatype_id, class_id, is_set, creator,"
+			        + " date_created, uuid) values (1000, false, 4, 1, false, 1, '2021-01-01', 'b1e7c3a2-5d8f-4c6e-9a0b-2f4d6e8a1c3b')");
+			statement.executeUpdate("insert into concept_set (concept_set_id, concept_id, concept_set, sort_weight, creator,"
+			        + " date_created, uuid) values (1000, 1000, 23, 5.0, 1, '2021-01-01', 'c4a9e2f1-7b3d-4e5a-8c6f-1d2e3f4a5b6c')");
+		}
+		conceptService.refreshConceptSetIndex();
+		Concept conceptSet = conceptService.getConcept(23);
+		assertThat(conceptService.getConceptsByConceptSet(conceptSet),
+		    contains(hasId(18), hasId(20), hasId(19), hasId(1000)));
+		
+		// deleted directly in the database, which the concept set index does not notice
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("delete from concept_set where concept_set_id = 1000");
+			statement.executeUpdate("delete from concept where concept_id = 1000");
+		}
+		Context.clearSession();
+		
+		assertThat(conceptService.getConceptsByConceptSet(conceptService.getConcept(23)),
+		    contains(hasId(18), hasId(20), hasId(19)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptInSet(Concept, Concept)
+	 */
+	@Test
+	public void isConceptInSet_shouldReturnTrueForAMemberOfANestedSet() {
+		executeDataSet(GET_CONCEPTS_BY_SET_XML);
+		
+		assertTrue(conceptService.isConceptInSet(conceptService.getConcept(6), conceptService.getConcept(1)));
+		assertTrue(conceptService.isConceptInSet(conceptService.getConcept(2), conceptService.getConcept(1)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptInSet(Concept, Concept)
+	 */
+	@Test
+	public void isConceptInSet_shouldReturnFalseForAConceptWhichIsNotInTheSet() {
+		assertTrue(conceptService.isConceptInSet(conceptService.getConcept(18), conceptService.getConcept(23)));
+		assertFalse(conceptService.isConceptInSet(conceptService.getConcept(28), conceptService.getConcept(23)));
+		assertFalse(conceptService.isConceptInSet(conceptService.getConcept(23), conceptService.getConcept(23)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptInSet(Concept, Concept)
+	 */
+	@Test
+	public void isConceptInSet_shouldSeeTheConceptSetChangesOfTheCurrentTransaction() {
+		Concept conceptSet = conceptService.getConcept(23);
+		Concept concept = conceptService.getConcept(28);
+		assertFalse(conceptService.isConceptInSet(concept, conceptSet));
+		
+		conceptSet.addSetMember(conceptService.getConcept(27));
+		conceptService.saveConcept(conceptSet);
+		
+		assertTrue(conceptService.isConceptInSet(concept, conceptSet));
+	}
+	
+	/**
+	 * @see ConceptService#refreshConceptSetIndex()
+	 */
+	@Test
+	public void refreshConceptSetIndex_shouldMakeChangesMadeDirectlyInTheDatabaseVisible() throws Exception {
+		Concept conceptSet = conceptService.getConcept(23);
+		Concept concept = conceptService.getConcept(28);
+		assertFalse(conceptService.isConceptInSet(concept, conceptSet));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("insert into concept_set (concept_set_id, concept_id, concept_set, sort_weight, creator,"
+			        + " date_created, uuid) values (1000, 28, 23, 5.0, 1, '2021-01-01', 'b2d0e59c-4f43-4e6b-a5c6-0b4c56f7a8c1')");
+		}
+		conceptService.refreshConceptSetIndex();
+		
+		assertTrue(conceptService.isConceptInSet(concept, conceptSet));
+	}
+	
 	/**
 	 * @see ConceptService#saveConceptStopWord(org.openmrs.ConceptStopWord)
 	 */
@@ -3155,6 +3399,59 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertThat(exception.getMessage(), is(Context.getMessageSourceService().getMessage("ConceptSource.is.required")));
 	}
 	
+	/**
+	 * @see ConceptService#getDrugIdsByMapping(String, ConceptSource, Collection, boolean)
+	 */
+	@Test
+	public void getDrugIdsByMapping_shouldGetTheIdsOfTheDrugsWithTheGivenMapping() {
+		executeDataSet(GET_DRUG_MAPPINGS);
+		ConceptSource source = conceptService.getConceptSource(1);
+		List<ConceptMapType> conceptMapTypeList = conceptService.getConceptMapTypes(false, true);
+		
+		assertEquals(Collections.singletonList(2), conceptService.getDrugIdsByMapping("WGT234", source, null, false));
+		assertThat(conceptService.getDrugIdsByMapping("WGT234", source, conceptMapTypeList, true), containsInAnyOrder(2, 11));
+		assertThat(conceptService.getDrugIdsByMapping("some random code", source, conceptMapTypeList, true), is(empty()));
+	}
+	
+	/**
+	 * @see ConceptService#getDrugIdsByMapping(String, ConceptSource, Collection, boolean)
+	 */
+	@Test
+	public void getDrugIdsByMapping_shouldCacheTheIdsUntilADrugIsSaved() throws Exception {
+		executeDataSet(GET_DRUG_MAPPINGS);
+		ConceptSource source = conceptService.getConceptSource(1);
+		List<ConceptMapType> conceptMapTypeList = Collections.singletonList(conceptService.getConceptMapType(1));
+		assertTrue(containsId(conceptService.getDrugsByMapping("WGT234", source, conceptMapTypeList, false), 2));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update drug_reference_map set drug_id = 3 where drug_reference_map_id = 1");
+		}
+		Context.clearSession();
+		source = conceptService.getConceptSource(1);
+		conceptMapTypeList = Collections.singletonList(conceptService.getConceptMapType(1));
+		assertTrue(containsId(conceptService.getDrugsByMapping("WGT234", source, conceptMapTypeList, false), 2));
+		
+		conceptService.saveDrug(conceptService.getDrug(3));
+		List<Drug> drugs = conceptService.getDrugsByMapping("WGT234", source, conceptMapTypeList, false);
+		assertEquals(1, drugs.size());
+		assertTrue(containsId(drugs, 3));
+	}
+	
+	/**
+	 * @see ConceptService#getDrugIdByMapping(String, ConceptSource, Collection)
+	 */
+	@Test
+	public void getDrugIdByMapping_shouldGetTheIdOfTheDrugThatMatchesTheBestMapType() {
+		executeDataSet(GET_DRUG_MAPPINGS);
+		ConceptSource source = conceptService.getConceptSource(2);
+		List<ConceptMapType> conceptMapTypeList = Arrays.asList(conceptService.getConceptMapType(2),
+		    conceptService.getConceptMapType(1));
+		
+		assertEquals(Integer.valueOf(2), conceptService.getDrugIdByMapping("WGT234", source, conceptMapTypeList));
+		assertNull(conceptService.getDrugIdByMapping("WGT234", source,
+		    Collections.singletonList(conceptService.getConceptMapType(2))));
+	}
+	
 	/**
 	 * @see ConceptService#getDrugByMapping(String, org.openmrs.ConceptSource, java.util.Collection
 	 */
@@ -29,6 +29,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +37,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -340,6 +343,30 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		
 	}
 	
+	/**
+	 * @see EncounterService#saveEncounter(Encounter)
+	 */
+	@Test
+	public void saveEncounter_shouldSaveNewObsWithoutReplacingTheUnchangedObs() {
+		EncounterService es = Context.getEncounterService();
+		Encounter encounter = es.getEncounter(3);
+		Set<Obs> existingObs = encounter.getAllObs();
+		Obs obs = new Obs();
+		obs.setConcept(Context.getConceptService().getConcept(5089));
+		obs.setValueNumeric(60.0);
+		encounter.addObs(obs);
+		
+		es.saveEncounter(encounter);
+		Context.flushSession();
+		
+		assertNotNull(obs.getObsId());
+		assertEquals(existingObs.size() + 1, encounter.getAllObs().size());
+		for (Obs existing : existingObs) {
+			assertFalse(existing.getVoided());
+			assertTrue(encounter.getAllObs().contains(existing));
+		}
+	}
+	
 	/**
 	 * When you save the encounter with a changed location, the location change should be cascaded
 	 * to all the obs associated with the encounter that had the same location as the encounter.
@@ -1696,6 +1723,48 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(3, allEncounters.get(7).size());
 	}
 	
+	/**
+	 * @see EncounterService#streamAllEncounters(Cohort,java.util.function.BiConsumer)
+	 */
+	@Test
+	public void streamAllEncounters_shouldPassTheEncountersOfEachPatientOfTheCohortInPatientOrder() {
+		Cohort cohort = new Cohort();
+		cohort.addMember(7);
+		cohort.addMember(3);
+		Map<Integer, List<Encounter>> expected = Context.getEncounterService().getAllEncounters(cohort);
+		
+		List<Integer> patientIds = new ArrayList<>();
+		List<Integer> encounterCounts = new ArrayList<>();
+		Context.getEncounterService().streamAllEncounters(cohort, (patientId, encounters) -> {
+			patientIds.add(patientId);
+			encounterCounts.add(encounters.size());
+		});
+		
+		List<Integer> expectedPatientIds = new ArrayList<>(expected.keySet());
+		Collections.sort(expectedPatientIds);
+		assertEquals(expectedPatientIds, patientIds);
+		assertEquals(3, encounterCounts.get(patientIds.indexOf(7)).intValue());
+	}
+	
+	/**
+	 * @see EncounterService#streamAllEncounters(Cohort, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void streamAllEncounters_shouldLeaveTheEncountersAlreadyInTheSessionInIt() {
+		Encounter loaded = Context.getEncounterService().getEncounter(3);
+		Cohort cohort = new Cohort();
+		cohort.addMember(7);
+		List<Encounter> streamed = new ArrayList<>();
+		Session session = ((SessionFactory) applicationContext.getBean("sessionFactory")).getCurrentSession();
+		
+		Context.getEncounterService().streamAllEncounters(cohort, (patientId, encounters) -> streamed.addAll(encounters));
+		
+		assertTrue(streamed.contains(loaded));
+		for (Encounter encounter : streamed) {
+			assertEquals(encounter == loaded, session.contains(encounter));
+		}
+	}
+	
 	/**
 	 * @see EncounterService#getEncounters(Patient, Location, Date, Date, java.util.Collection,
 	 *      java.util.Collection, java.util.Collection, java.util.Collection, java.util.Collection,
@@ -11,6 +11,7 @@ package org.openmrs.api;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -20,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import javax.imageio.ImageIO;
+import javax.persistence.PersistenceException;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
 import java.io.CharArrayReader;
@@ -64,6 +66,8 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.OpenmrsUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.hibernate5.SessionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * TODO clean up and add tests for all methods in ObsService
@@ -1969,4 +1973,178 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertThat(existing.getVoided(), is(true));
 		assertThat(newObs.getStatus(), is(Obs.Status.FINAL));
 	}
+	
+	/**
+	 * @see ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Test
+	public void saveNewEncounterObs_shouldSaveTheNewObsAndTheirGroupMembers() {
+		Encounter encounter = Context.getEncounterService().getEncounter(3);
+		Obs parentObs = new Obs();
+		parentObs.setConcept(Context.getConceptService().getConcept(3));
+		Obs groupMember = new Obs();
+		groupMember.setConcept(Context.getConceptService().getConcept(3));
+		groupMember.setValueNumeric(1.0);
+		parentObs.addGroupMember(groupMember);
+		encounter.addObs(parentObs);
+		
+		List<Obs> saved = Context.getObsService().saveNewEncounterObs(encounter);
+		
+		assertEquals(Collections.singletonList(parentObs), saved);
+		assertNotNull(parentObs.getObsId());
+		assertNotNull(groupMember.getObsId());
+		assertNotNull(groupMember.getCreator());
+	}
+	
+	/**
+	 * @see ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Test
+	public void saveNewEncounterObs_shouldNotSaveTheObsWhichWereAlreadySaved() {
+		Encounter encounter = Context.getEncounterService().getEncounter(3);
+		Obs obs = Context.getObsService().getObs(7);
+		obs.setValueNumeric(60.0);
+		
+		assertTrue(Context.getObsService().saveNewEncounterObs(encounter).isEmpty());
+		
+		assertFalse(obs.getVoided());
+		assertEquals(7, obs.getObsId().intValue());
+	}
+	
+	/**
+	 * @see ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Test
+	public void saveNewEncounterObs_shouldFailIfANewObsIsNotValid() {
+		Encounter encounter = Context.getEncounterService().getEncounter(3);
+		Obs obs = new Obs();
+		obs.setConcept(Context.getConceptService().getConcept(5089));
+		encounter.addObs(obs);
+		
+		assertThrows(ValidationException.class, () -> Context.getObsService().saveNewEncounterObs(encounter));
+		assertNull(obs.getObsId());
+	}
+	
+	private Obs newWeightObs(Double weight) {
+		Obs obs = new Obs(new Person(7), Context.getConceptService().getConcept(5089), new Date(), null);
+		obs.setValueNumeric(weight);
+		return obs;
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Collection)
+	 */
+	@Test
+	public void importObs_shouldSaveTheNewObs() {
+		List<Obs> obs = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			obs.add(newWeightObs(50.0 + i));
+		}
+		
+		List<ObsImportResult> results = Context.getObsService().importObs(obs);
+		
+		assertEquals(120, results.size());
+		for (int i = 0; i < 120; i++) {
+			ObsImportResult result = results.get(i);
+			assertTrue(result.isSaved());
+			assertEquals(i, result.getIndex());
+			assertEquals(obs.get(i).getUuid(), result.getUuid());
+			assertNotNull(result.getObsId());
+		}
+		Obs saved = Context.getObsService().getObsByUuid(obs.get(119).getUuid());
+		assertEquals(169.0, saved.getValueNumeric());
+		assertNotNull(saved.getCreator());
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Collection)
+	 */
+	@Test
+	public void importObs_shouldReportTheObsWhichAreNotValidAndSaveTheOthers() {
+		Obs valid = newWeightObs(60.0);
+		Obs noValue = newWeightObs(null);
+		Obs noDatetime = newWeightObs(70.0);
+		noDatetime.setObsDatetime(null);
+		
+		List<ObsImportResult> results = Context.getObsService().importObs(Arrays.asList(noValue, valid, noDatetime));
+		
+		assertFalse(results.get(0).isSaved());
+		assertThat(results.get(0).getError(), is(instanceOf(ValidationException.class)));
+		assertNull(results.get(0).getObsId());
+		assertTrue(results.get(1).isSaved());
+		assertFalse(results.get(2).isSaved());
+		assertNotNull(Context.getObsService().getObsByUuid(valid.getUuid()));
+		assertNull(Context.getObsService().getObsByUuid(noValue.getUuid()));
+		assertNull(Context.getObsService().getObsByUuid(noDatetime.getUuid()));
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Collection)
+	 */
+	@Test
+	public void importObs_shouldReportTheObsWhichAreNotNew() {
+		Obs existing = Context.getObsService().getObs(7);
+		
+		List<ObsImportResult> results = Context.getObsService().importObs(Collections.singletonList(existing));
+		
+		assertFalse(results.get(0).isSaved());
+		assertThat(results.get(0).getError(), is(instanceOf(APIException.class)));
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Collection)
+	 */
+	@Test
+	public void importObs_shouldReportTheObsGroupsWithMembersWhichAreNotNewWithoutSavingThem() {
+		Obs group = new Obs(new Person(7), Context.getConceptService().getConcept(23), new Date(), null);
+		Obs existing = Context.getObsService().getObs(7);
+		// detached, so that adding it to the group does not change it in the session
+		assertFalse(existing.hasGroupMembers());
+		Context.evictFromSession(existing);
+		group.addGroupMember(existing);
+		
+		List<ObsImportResult> results = Context.getObsService().importObs(Collections.singletonList(group));
+		
+		assertFalse(results.get(0).isSaved());
+		assertThat(results.get(0).getError(), is(instanceOf(APIException.class)));
+		assertNull(group.getObsId());
+		assertNull(Context.getObsService().getObsByUuid(group.getUuid()));
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Collection)
+	 */
+	@Test
+	public void importObs_shouldThrowADatabaseFailureAndNotReportTheObsGroupAsSaved() {
+		Obs group = new Obs(new Person(7), Context.getConceptService().getConcept(23), new Date(), null);
+		Obs member = newWeightObs(63.0);
+		// valid, but its insert fails after the one of its group
+		member.setLocation(new Location(9999));
+		group.addGroupMember(member);
+		List<ObsImportResult> results = new ArrayList<>();
+		
+		assertThrows(PersistenceException.class,
+		    () -> results.addAll(Context.getObsService().importObs(Arrays.asList(newWeightObs(62.0), group))));
+		
+		assertTrue(results.isEmpty());
+		assertNotNull(group.getObsId());
+		// the import does not swallow the failure, so the transaction is rolled back with the group
+		assertTrue(((SessionHolder) TransactionSynchronizationManager.getResource(applicationContext
+		        .getBean("sessionFactory"))).isRollbackOnly());
+	}
+	
+	/**
+	 * @see ObsService#importObs(java.util.Iterator)
+	 */
+	@Test
+	public void importObs_shouldSaveTheObsReturnedByTheIterator() {
+		List<Obs> obs = Arrays.asList(newWeightObs(61.0), newWeightObs(62.0));
+		
+		List<ObsImportResult> results = Context.getObsService().importObs(obs.iterator());
+		
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).isSaved());
+		assertTrue(results.get(1).isSaved());
+		assertEquals(62.0, Context.getObsService().getObs(results.get(1).getObsId()).getValueNumeric());
+	}
 }
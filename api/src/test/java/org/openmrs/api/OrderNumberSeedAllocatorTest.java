@@ -0,0 +1,117 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link OrderNumberSeedAllocator} class
+ */
+public class OrderNumberSeedAllocatorTest {
+	
+	/**
+	 * Allocator reserving its blocks from an in memory counter instead of the database
+	 */
+	private static class InMemoryOrderNumberSeedAllocator extends OrderNumberSeedAllocator {
+		
+		private final AtomicLong nextFreeSeed = new AtomicLong(1);
+		
+		private final AtomicInteger reservedBlocks = new AtomicInteger();
+		
+		InMemoryOrderNumberSeedAllocator(int blockSize) {
+			super(blockSize);
+		}
+		
+		@Override
+		protected long nextSeedInNewTransaction() {
+			return nextSeed(count -> {
+				reservedBlocks.incrementAndGet();
+				return nextFreeSeed.getAndAdd(count);
+			});
+		}
+	}
+	
+	/**
+	 * @see OrderNumberSeedAllocator#nextSeed()
+	 */
+	@Test
+	public void nextSeed_shouldReserveANewBlockOnlyWhenTheCurrentOneIsUsedUp() {
+		InMemoryOrderNumberSeedAllocator allocator = new InMemoryOrderNumberSeedAllocator(5);
+		
+		for (long expected = 1; expected <= 11; expected++) {
+			assertEquals(expected, allocator.nextSeed());
+		}
+		assertEquals(3, allocator.reservedBlocks.get());
+	}
+	
+	/**
+	 * @see OrderNumberSeedAllocator#nextSeed()
+	 */
+	@Test
+	public void nextSeed_shouldAlwaysReturnUniqueSeedsWhenCalledConcurrently() throws InterruptedException {
+		final int threadCount = 8;
+		final int seedsPerThread = 1000;
+		InMemoryOrderNumberSeedAllocator allocator = new InMemoryOrderNumberSeedAllocator(50);
+		Set<Long> seeds = ConcurrentHashMap.newKeySet();
+		
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < threadCount; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < seedsPerThread; j++) {
+					seeds.add(allocator.nextSeed());
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertEquals(threadCount * seedsPerThread, seeds.size());
+	}
+	
+	/**
+	 * @see OrderNumberSeedAllocator#nextSeed()
+	 */
+	@Test
+	public void nextSeed_shouldReserveOneBlockPerBlockSizeSeedsWhenCalledConcurrently() throws InterruptedException {
+		final int threadCount = 8;
+		final int seedsPerThread = 1000;
+		InMemoryOrderNumberSeedAllocator allocator = new InMemoryOrderNumberSeedAllocator(50);
+		
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < threadCount; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < seedsPerThread; j++) {
+					allocator.nextSeed();
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertEquals(threadCount * seedsPerThread / 50, allocator.reservedBlocks.get());
+	}
+}
@@ -298,6 +298,47 @@ public class OrderServiceTest extends BaseContextSensitiveTest {
 		assertEquals(N, uniqueOrderNumbers.size());
 	}
 
+	/**
+	 * @see OrderService#reserveOrderNumberSeedSequenceValues(int)
+	 */
+	@Test
+	public void reserveOrderNumberSeedSequenceValues_shouldReserveTheGivenNumberOfConsecutiveSeeds() {
+		Long firstSeed = orderService.reserveOrderNumberSeedSequenceValues(10);
+		
+		assertEquals(firstSeed + 10, orderService.getNextOrderNumberSeedSequenceValue().longValue());
+	}
+	
+	/**
+	 * @see OrderService#reserveOrderNumberSeedSequenceValues(int)
+	 */
+	@Test
+	public void reserveOrderNumberSeedSequenceValues_shouldMakeTheNewSeedVisibleThroughTheAdministrationService() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		String seedBefore = administrationService.getGlobalProperty(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED);
+		
+		Long firstSeed = orderService.reserveOrderNumberSeedSequenceValues(10);
+		// the seeds were reserved in a transaction of their own
+		Context.clearSession();
+		
+		assertEquals(seedBefore, firstSeed.toString());
+		assertEquals(String.valueOf(firstSeed + 10),
+		    administrationService.getGlobalProperty(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED));
+	}
+	
+	/**
+	 * @see OrderService#getNextOrderNumberSeed(OrderNumberSeedAllocator)
+	 */
+	@Test
+	public void getNextOrderNumberSeed_shouldReserveANewBlockOnlyWhenTheBlockOfTheAllocatorIsUsedUp() {
+		OrderNumberSeedAllocator allocator = new OrderNumberSeedAllocator(5);
+		
+		Long firstSeed = orderService.getNextOrderNumberSeed(allocator);
+		
+		assertEquals(firstSeed + 1, orderService.getNextOrderNumberSeed(allocator).longValue());
+		assertEquals(firstSeed + 2, allocator.nextSeed());
+		assertEquals(firstSeed + 5, orderService.getNextOrderNumberSeedSequenceValue().longValue());
+	}
+	
 	/**
 	 * @see OrderService#getOrderByOrderNumber(String)
 	 */
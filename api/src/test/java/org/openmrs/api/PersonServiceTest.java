@@ -449,6 +449,8 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 	@Test
 	public void getSimilarPeople_shouldAcceptGreaterThanThreeNames() throws Exception {
 		executeDataSet("org/openmrs/api/include/PersonServiceTest-names.xml");
+		updateSearchIndex();
+		
 		Set<Person> matches = Context.getPersonService().getSimilarPeople("Darius Graham Jazayeri Junior", 1979, "M");
 		assertEquals(3, matches.size());
 		assertTrue(containsId(matches, 1006));
@@ -456,6 +458,19 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 		assertTrue(containsId(matches, 1009));
 	}
 	
+	/**
+	 * @see PersonService#getSimilarPeople(String,Integer,String)
+	 */
+	@Test
+	public void getSimilarPeople_shouldReturnNoOneIfMoreNamesMustMatchThanAPersonNameHas() throws Exception {
+		executeDataSet("org/openmrs/api/include/PersonServiceTest-names.xml");
+		updateSearchIndex();
+		
+		Set<Person> matches = Context.getPersonService().getSimilarPeople(
+		    "Darius Graham Jazayeri Junior Darius Graham Jazayeri", 1979, "M");
+		assertTrue(matches.isEmpty());
+	}
+	
 	/**
 	 * @see PersonService#getSimilarPeople(String,Integer,String)
 	 */
@@ -55,6 +55,8 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.util.RoleConstants;
 import org.openmrs.util.Security;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * TODO add more tests to cover the methods in <code>UserService</code>
@@ -1191,6 +1193,31 @@ public class UserServiceTest extends BaseContextSensitiveTest {
 		assertThat(exception.getMessage(), is("You must have the following privileges in order to assign them: another privilege"));
 	}
 	
+	@Test
+	public void saveRole_shouldRefreshThePrivilegesOfAuthenticatedUsersOnceTheTransactionHasCommitted()
+	        throws IllegalAccessException {
+		Role adminRole = new Role("my role");
+		adminRole.addPrivilege(new Privilege(PrivilegeConstants.MANAGE_ROLES));
+		Role inheritedRole = new Role("inherited role");
+		inheritedRole.addPrivilege(new Privilege("custom privilege"));
+		
+		User currentUser = new User();
+		currentUser.addRole(adminRole);
+		
+		withCurrentUserAs(currentUser, () -> {
+			assertFalse(Context.hasPrivilege("custom privilege"));
+			
+			adminRole.setInheritedRoles(Collections.singleton(inheritedRole));
+			userService.saveRole(adminRole);
+			assertFalse(Context.hasPrivilege("custom privilege"));
+			
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+			assertTrue(Context.hasPrivilege("custom privilege"));
+		});
+	}
+	
 	/**
 	 * @see UserService#getUsersByPerson(Person,null)
 	 */
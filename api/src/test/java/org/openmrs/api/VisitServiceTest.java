@@ -874,6 +874,41 @@ public class VisitServiceTest extends BaseContextSensitiveTest {
 		assertTrue(activeVisitCount == 0, "Not all active unvoided vists were closed");
 	}
 	
+	/**
+	 * @see VisitService#stopVisits(Date,int)
+	 */
+	@Test
+	public void stopVisits_shouldReturnTheNumberOfVisitsWhichWereStopped() {
+		executeDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
+		String[] visitTypeNames = StringUtils.stripAll(StringUtils.split(Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GP_VISIT_TYPES_TO_AUTO_CLOSE), ","));
+		String openVisitsQuery = "SELECT visit_id FROM visit WHERE voided = 0 AND date_stopped IS NULL AND visit_type_id IN (SELECT visit_type_id FROM visit_type WHERE NAME IN ('"
+		        + StringUtils.join(visitTypeNames, "','") + "'))";
+		int activeVisitCount = Context.getAdministrationService().executeSQL(openVisitsQuery, true).size();
+		assertTrue(activeVisitCount > 2, "There should be more active visits than the batch size for this test to be valid");
+		
+		assertEquals(activeVisitCount, visitService.stopVisits(null, 2));
+		
+		assertEquals(0, Context.getAdministrationService().executeSQL(openVisitsQuery, true).size());
+		assertEquals(0, visitService.stopVisits(null, 2));
+	}
+	
+	/**
+	 * @see VisitService#stopVisits(Date,int)
+	 */
+	@Test
+	public void stopVisits_shouldSetTheAuditFieldsOfTheStoppedVisits() {
+		executeDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
+		assertNull(visitService.getVisit(104).getStopDatetime());
+		
+		visitService.stopVisits(null, 2);
+		
+		Visit visit = visitService.getVisit(104);
+		assertNotNull(visit.getStopDatetime());
+		assertEquals(Context.getAuthenticatedUser(), visit.getChangedBy());
+		assertNotNull(visit.getDateChanged());
+	}
+	
 	/**
 	 * @see VisitService#saveVisit(Visit)
 	 */
@@ -0,0 +1,87 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods on the {@link EvictAfterCompletionCacheDecorator} class
+ */
+public class EvictAfterCompletionCacheDecoratorTest {
+
+	private final Cache cache = new EvictAfterCompletionCacheDecorator(new ConcurrentMapCache("ids"));
+
+	@AfterEach
+	public void clearTransactionSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * @see EvictAfterCompletionCacheDecorator#put(Object, Object)
+	 */
+	@Test
+	public void put_shouldPutValuesRightAway() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.put("key", 1);
+
+		assertEquals(Integer.valueOf(1), cache.get("key", Integer.class));
+	}
+
+	/**
+	 * @see EvictAfterCompletionCacheDecorator#evict(Object)
+	 */
+	@Test
+	public void evict_shouldEvictTheEntryRightAwayAndAgainOnceTheTransactionHasCompleted() {
+		cache.put("key", 1);
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.evict("key");
+		assertNull(cache.get("key"));
+
+		// another transaction caches the value it reads before the eviction is committed
+		cache.put("key", 1);
+		completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+		assertNull(cache.get("key"));
+	}
+
+	/**
+	 * @see EvictAfterCompletionCacheDecorator#clear()
+	 */
+	@Test
+	public void clear_shouldClearTheCacheRightAwayAndAgainOnceTheTransactionHasCompleted() {
+		cache.put("key", 1);
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.clear();
+		assertNull(cache.get("key"));
+
+		// the transaction caches the value it has just changed, then it is rolled back
+		cache.put("key", 2);
+		completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertNull(cache.get("key"));
+	}
+
+	private void completeTransaction(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+	}
+}
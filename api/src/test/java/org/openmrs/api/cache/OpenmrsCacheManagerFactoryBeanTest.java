@@ -10,8 +10,7 @@
 package org.openmrs.api.cache;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.anyOf;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 
 import java.util.Collection;
 
@@ -26,10 +25,10 @@ public class OpenmrsCacheManagerFactoryBeanTest extends BaseContextSensitiveTest
     CacheManager cacheManager;
     
     @Test
-    public void shouldContainsThreeCacheConfigurations(){
+    public void shouldContainTheCoreAndModuleCacheConfigurations(){
         Collection<String> cacheNames = cacheManager.getCacheNames();
-        assertThat(cacheNames.size(), is(3));
-        cacheNames.forEach(cn ->
-                assertThat(cn, anyOf(is("conceptDatatype"), is("subscription"), is("userSearchLocales"))));
+        assertThat(cacheNames, containsInAnyOrder("conceptDatatype", "subscription", "userSearchLocales",
+                "hl7LocationIds", "hl7ProviderIds", "hl7FormIds", "conceptIdsByMapping",
+                "drugIdsByMapping"));
     }
 }
@@ -16,8 +16,10 @@ import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,8 @@ import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.UserService;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdateFuture;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdateProgress;
 import org.openmrs.api.handler.EncounterVisitHandler;
 import org.openmrs.api.handler.ExistingOrNewVisitAssignmentHandler;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
@@ -238,4 +242,36 @@ public class ContextTest extends BaseContextSensitiveTest {
 		
 		Context.logout();
 	}
+	
+	/**
+	 * @see Context#updateSearchIndexAsync(Date)
+	 */
+	@Test
+	public void updateSearchIndexAsync_shouldReportTheProgressOfTheUpdateThroughTheFuture() throws Exception {
+		Future<?> future = Context.updateSearchIndexAsync(new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000));
+		future.get();
+		
+		SearchIndexUpdateProgress progress = ((SearchIndexUpdateFuture) future).getProgress();
+		assertTrue(progress.isFinished());
+		assertTrue(progress.isDone(PersonName.class));
+		assertEquals(0, progress.getIndexedRows());
+	}
+	
+	/**
+	 * @see Context#awaitSearchIndexUpdates()
+	 */
+	@Test
+	public void awaitSearchIndexUpdates_shouldMakeTheObjectsTheCurrentThreadHasJustIndexedSearchable() {
+		Person person = new Person();
+		person.addName(new PersonName("Awaitedgiven", null, "Awaitedfamily"));
+		person.setGender("F");
+		Context.getPersonService().savePerson(person);
+		Context.updateSearchIndexForObject(person.getPersonName());
+		
+		Context.awaitSearchIndexUpdates();
+		
+		List<Person> people = Context.getPersonService().getPeople("Awaitedgiven Awaitedfamily", null);
+		assertEquals(1, people.size());
+		assertEquals(person, people.get(0));
+	}
 }
@@ -20,6 +20,9 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
@@ -132,6 +135,25 @@ public class DaemonTest extends BaseContextSensitiveTest {
 		assertTrue(new PrivateSchedulerTask(taskThatStartsAnotherThread).runTheTest());
 	}
 	
+	/**
+	 * @see Daemon#newDaemonThreadPool(int)
+	 */
+	@Test
+	public void newDaemonThreadPool_shouldThrowErrorIfCalledFromANonDaemonThread() {
+		APIAuthenticationException exception = assertThrows(APIAuthenticationException.class,
+		    () -> Daemon.newDaemonThreadPool(2));
+		assertEquals("Only daemon threads can spawn new daemon threads", exception.getMessage());
+	}
+	
+	/**
+	 * @see Daemon#newDaemonThreadPool(int)
+	 */
+	@Test
+	public void newDaemonThreadPool_shouldRunTheTasksInDaemonThreads() throws Throwable {
+		Task taskThatUsesAPool = new TaskThatUsesAPool();
+		assertTrue(new PrivateSchedulerTask(taskThatUsesAPool).runTheTest());
+	}
+	
 	/**
 	 * @see Daemon#executeScheduledTask(Task)
 	 */
@@ -206,6 +228,27 @@ public class DaemonTest extends BaseContextSensitiveTest {
 		}
 	}
 	
+	/**
+	 * A task that runs tasks in a pool of Daemon threads and marks *this* thread if all of them
+	 * were run as the daemon.
+	 */
+	private class TaskThatUsesAPool extends PrivateTask {
+		
+		@Override
+		public void execute() {
+			ExecutorService pool = Daemon.newDaemonThreadPool(2);
+			try {
+				Future<Boolean> first = pool.submit(Daemon::isDaemonThread);
+				Future<Boolean> second = pool.submit(() -> Daemon.isDaemonUser(Context.getAuthenticatedUser()));
+				wasRun = first.get() && second.get();
+			}
+			catch (InterruptedException | ExecutionException ex) {}
+			finally {
+				pool.shutdown();
+			}
+		}
+	}
+	
 	/**
 	 * A task for testing to ensure that a daemon user always has an associated person.
 	 */
@@ -11,13 +11,20 @@ package org.openmrs.api.db;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openmrs.Cohort;
 import org.openmrs.Encounter;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.context.Context;
@@ -116,4 +123,49 @@ public class EncounterDAOTest extends BaseContextSensitiveTest {
 		List<Encounter> encountersByPartialIdentifier = dao.getEncounters("123", null, null, null, true);
 		assertEquals(0, encountersByPartialIdentifier.size());
 	}
+	
+	/**
+	 * @see EncounterDAO#streamAllEncounters(Cohort,int,BiConsumer)
+	 */
+	@Test
+	public void streamAllEncounters_shouldPassTheEncountersOfEachPatientInChunksOfPatients() {
+		Map<Integer, List<Encounter>> expected = dao.getAllEncounters(null);
+		assertTrue(expected.size() > 1);
+		Cohort cohort = new Cohort(expected.keySet());
+		
+		List<Integer> patientIds = new ArrayList<>();
+		Map<Integer, List<Integer>> encounterIds = new HashMap<>();
+		dao.streamAllEncounters(cohort, 1, (patientId, encounters) -> {
+			patientIds.add(patientId);
+			encounterIds.put(patientId, encounters.stream().map(Encounter::getEncounterId).collect(Collectors.toList()));
+		});
+		
+		assertEquals(new ArrayList<>(new TreeSet<>(expected.keySet())), patientIds);
+		for (Map.Entry<Integer, List<Encounter>> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().stream().map(Encounter::getEncounterId).collect(Collectors.toList()),
+			    encounterIds.get(entry.getKey()));
+		}
+	}
+	
+	/**
+	 * @see EncounterDAO#streamAllEncounters(Cohort,int,BiConsumer)
+	 */
+	@Test
+	public void streamAllEncounters_shouldPageAllThePatientsByIdWithoutACohort() {
+		Map<Integer, List<Encounter>> expected = dao.getAllEncounters(null);
+		assertTrue(expected.size() > 1);
+		
+		List<Integer> patientIds = new ArrayList<>();
+		Map<Integer, List<Integer>> encounterIds = new HashMap<>();
+		dao.streamAllEncounters(null, 1, (patientId, encounters) -> {
+			patientIds.add(patientId);
+			encounterIds.put(patientId, encounters.stream().map(Encounter::getEncounterId).collect(Collectors.toList()));
+		});
+		
+		assertEquals(new ArrayList<>(new TreeSet<>(expected.keySet())), patientIds);
+		for (Map.Entry<Integer, List<Encounter>> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().stream().map(Encounter::getEncounterId).collect(Collectors.toList()),
+			    encounterIds.get(entry.getKey()));
+		}
+	}
 }
@@ -10,14 +10,22 @@
 package org.openmrs.api.db;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.openmrs.User;
+import org.openmrs.Visit;
 import org.openmrs.VisitType;
 import org.openmrs.api.VisitService;
+import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 
 /**
@@ -76,4 +84,39 @@ public class VisitDAOTest extends BaseContextSensitiveTest {
 		cal.set(Calendar.MILLISECOND, 999);
 		assertEquals(105, dao.getNextVisit(dao.getVisit(1), visitTypes, cal.getTime()).getVisitId().intValue());
 	}
+	
+	/**
+	 * @see VisitDAO#getActiveVisitIds(Integer,Collection,Date,int)
+	 */
+	@Test
+	public void getActiveVisitIds_shouldReturnTheIdsOfTheUnvoidedActiveVisitsMatchingTheSpecifiedTypesAndStartDate() {
+		executeDataSet(VISITS_INCLUDE_VISITS_TO_AUTO_CLOSE_XML);
+		ArrayList<VisitType> visitTypes = new ArrayList<>();
+		visitTypes.add(dao.getVisitType(4));
+		Calendar cal = Calendar.getInstance();
+		cal.set(2005, 0, 4, 23, 59, 59);
+		cal.set(Calendar.MILLISECOND, 999);
+		assertEquals(Arrays.asList(105, 106), dao.getActiveVisitIds(null, visitTypes, cal.getTime(), 10));
+		assertEquals(Collections.singletonList(105), dao.getActiveVisitIds(null, visitTypes, cal.getTime(), 1));
+		assertEquals(Collections.singletonList(106), dao.getActiveVisitIds(105, visitTypes, cal.getTime(), 1));
+	}
+	
+	/**
+	 * @see VisitDAO#stopVisits(Collection,Date,User,Date)
+	 */
+	@Test
+	public void stopVisits_shouldStopOnlyTheVisitsWhichAreStillActive() {
+		executeDataSet(VISITS_INCLUDE_VISITS_TO_AUTO_CLOSE_XML);
+		Date stopDate = new Date();
+		User user = Context.getAuthenticatedUser();
+		
+		assertEquals(1, dao.stopVisits(Arrays.asList(102, 103, 104), stopDate, user, stopDate));
+		
+		Context.clearSession();
+		Visit visit = dao.getVisit(104);
+		assertNotNull(visit.getStopDatetime());
+		assertEquals(user, visit.getChangedBy());
+		assertNotNull(visit.getDateChanged());
+		assertNull(dao.getVisit(103).getStopDatetime());
+	}
 }
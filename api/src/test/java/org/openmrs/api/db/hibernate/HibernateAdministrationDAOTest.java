@@ -9,8 +9,13 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +24,7 @@ import org.openmrs.Location;
 import org.openmrs.Role;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.validation.BindException;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
@@ -148,4 +154,48 @@ public class HibernateAdministrationDAOTest extends BaseContextSensitiveTest {
 		dao.validate(role, errors);
 		assertFalse(errors.hasFieldErrors("role"));
 	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#validate(Object,Errors)
+	 */
+	@Test
+	public void validate_shouldWorkOutTheValidatorsOfAClassOnlyOnce() {
+		HibernateAdministrationDAO spy = spy(newDao());
+		Role role = new Role();
+		role.setRole("Bowling race car driver");
+		Errors errors = new BindException(role, "type");
+		spy.validate(role, errors);
+		assertFalse(errors.hasFieldErrors("role"));
+		
+		Role otherRole = new Role();
+		otherRole.setRole("too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text too long text");
+		errors = new BindException(otherRole, "type");
+		spy.validate(otherRole, errors);
+		assertEquals("error.exceededMaxLengthOfField", errors.getFieldError("role").getCode());
+		
+		verify(spy, times(1)).getValidators(any());
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#onApplicationEvent(ContextRefreshedEvent)
+	 */
+	@Test
+	public void onApplicationEvent_shouldWorkOutTheValidatorsAgainOnceTheContextIsRefreshed() {
+		HibernateAdministrationDAO spy = spy(newDao());
+		Role role = new Role();
+		role.setRole("Bowling race car driver");
+		spy.validate(role, new BindException(role, "type"));
+		
+		spy.onApplicationEvent(new ContextRefreshedEvent(applicationContext));
+		spy.validate(role, new BindException(role, "type"));
+		
+		verify(spy, times(2)).getValidators(any());
+	}
+	
+	private HibernateAdministrationDAO newDao() {
+		HibernateAdministrationDAO newDao = new HibernateAdministrationDAO();
+		newDao.setSessionFactory(sessionFactory);
+		newDao.setApplicationContext(applicationContext);
+		return newDao;
+	}
 }
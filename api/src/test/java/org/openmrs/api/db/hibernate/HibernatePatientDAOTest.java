@@ -12,18 +12,23 @@ package org.openmrs.api.db.hibernate;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
+import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 
 public class HibernatePatientDAOTest extends BaseContextSensitiveTest {
@@ -63,4 +68,29 @@ public class HibernatePatientDAOTest extends BaseContextSensitiveTest {
 		assertThat(identifierIds, hasItems(3, 4));
 	}
 
+	@Test
+	public void getPatients_shouldReturnTheSamePatientsPageByPageAsInOnePage() {
+		List<Patient> allPatients = hibernatePatientDao.getPatients("Test", false, 0, null);
+		assertThat(allPatients.size(), greaterThan(2));
+
+		List<Patient> pagedPatients = new ArrayList<>();
+		for (int start = 0; start < allPatients.size(); start += 2) {
+			pagedPatients.addAll(hibernatePatientDao.getPatients("Test", false, start, 2));
+		}
+
+		assertEquals(allPatients, pagedPatients);
+	}
+
+	@Test
+	public void getPatients_shouldFetchTheNamesAndIdentifiersOfThePatientsFound() {
+		Context.clearSession();
+
+		List<Patient> patients = hibernatePatientDao.getPatients("Test", false, 0, null);
+
+		assertThat(patients.size(), greaterThan(0));
+		for (Patient patient : patients) {
+			assertTrue(Hibernate.isInitialized(patient.getNames()));
+			assertTrue(Hibernate.isInitialized(patient.getIdentifiers()));
+		}
+	}
 }
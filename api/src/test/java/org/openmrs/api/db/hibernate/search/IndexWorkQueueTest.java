@@ -0,0 +1,222 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.search.backend.LuceneWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Patient;
+
+public class IndexWorkQueueTest {
+
+	private final List<List<LuceneWork>> applied = Collections.synchronizedList(new ArrayList<>());
+
+	private IndexWorkQueue queue;
+
+	@AfterEach
+	public void closeQueue() {
+		if (queue != null) {
+			queue.close();
+		}
+	}
+
+	/**
+	 * @see IndexWorkQueue#add(List, org.hibernate.search.backend.IndexingMonitor)
+	 */
+	@Test
+	public void add_shouldApplyTheChangesAddedWithinTheRefreshIntervalTogether() {
+		queue = new IndexWorkQueue("test", 10, 100, 200, (works, monitor) -> applied.add(works));
+		LuceneWork first = mock(LuceneWork.class);
+		LuceneWork second = mock(LuceneWork.class);
+		LuceneWork third = mock(LuceneWork.class);
+
+		queue.add(Collections.singletonList(first), null);
+		queue.add(Arrays.asList(second, third), null);
+		queue.awaitChangesOfCurrentThread();
+
+		assertEquals(1, applied.size());
+		assertEquals(Arrays.asList(first, second, third), applied.get(0));
+	}
+
+	/**
+	 * @see IndexWorkQueue#add(List, org.hibernate.search.backend.IndexingMonitor)
+	 */
+	@Test
+	public void add_shouldApplyTheChangesInTheOrderTheyWereAdded() {
+		queue = new IndexWorkQueue("test", 10, 1, 0, (works, monitor) -> applied.add(works));
+		List<LuceneWork> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			LuceneWork work = mock(LuceneWork.class);
+			expected.add(work);
+			queue.add(Collections.singletonList(work), null);
+		}
+		queue.awaitAllChanges();
+
+		List<LuceneWork> actual = new ArrayList<>();
+		applied.forEach(actual::addAll);
+		assertEquals(expected, actual);
+		assertEquals(0, queue.getQueueDepth());
+		assertEquals(0, queue.getLag());
+	}
+
+	/**
+	 * @see IndexWorkQueue#add(List, org.hibernate.search.backend.IndexingMonitor)
+	 */
+	@Test
+	public void add_shouldWaitForRoomInTheQueueWhenItIsFull() throws Exception {
+		CountDownLatch applying = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		queue = new IndexWorkQueue("test", 1, 1, 0, (works, monitor) -> {
+			applying.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			applied.add(works);
+		});
+		queue.add(Collections.singletonList(mock(LuceneWork.class)), null);
+		assertTrue(applying.await(5, TimeUnit.SECONDS));
+		queue.add(Collections.singletonList(mock(LuceneWork.class)), null);
+
+		Thread producer = new Thread(() -> queue.add(Collections.singletonList(mock(LuceneWork.class)), null));
+		producer.start();
+		producer.join(200);
+
+		assertTrue(producer.isAlive());
+		assertEquals(1, queue.getQueueDepth());
+		assertTrue(queue.getLag() > 0);
+
+		release.countDown();
+		producer.join(5000);
+		queue.awaitAllChanges();
+		assertEquals(3, applied.size());
+	}
+
+	/**
+	 * @see IndexWorkQueue#add(List, org.hibernate.search.backend.IndexingMonitor)
+	 */
+	@Test
+	public void add_shouldApplyTheChangesItselfOnceTheThreadApplyingThemHasDied() throws Exception {
+		CountDownLatch dying = new CountDownLatch(1);
+		queue = new IndexWorkQueue("test", 10, 1, 0, (works, monitor) -> {
+			if (dying.getCount() > 0) {
+				dying.countDown();
+				throw new OutOfMemoryError("test");
+			}
+			applied.add(works);
+		});
+		queue.add(Collections.singletonList(mock(LuceneWork.class)), null);
+		assertTrue(dying.await(5, TimeUnit.SECONDS));
+
+		LuceneWork second = mock(LuceneWork.class);
+		queue.add(Collections.singletonList(second), null);
+		queue.awaitAllChanges();
+		assertEquals(Collections.singletonList(Collections.singletonList(second)), applied);
+
+		LuceneWork third = mock(LuceneWork.class);
+		queue.add(Collections.singletonList(third), null);
+		assertEquals(Collections.singletonList(third), applied.get(1));
+	}
+
+	/**
+	 * @see IndexWorkQueue#getFailedEntityIds()
+	 */
+	@Test
+	public void getFailedEntityIds_shouldRetryTheChangesOfAFailedBatchOneAtATime() {
+		LuceneWork bad = mockWork(Patient.class, 2);
+		queue = new IndexWorkQueue("test", 10, 100, 200, (works, monitor) -> {
+			if (works.contains(bad)) {
+				throw new IllegalStateException("test");
+			}
+			applied.add(works);
+		});
+		LuceneWork first = mockWork(Patient.class, 1);
+		LuceneWork third = mockWork(Patient.class, 3);
+
+		queue.add(Collections.singletonList(first), null);
+		queue.add(Collections.singletonList(bad), null);
+		queue.add(Collections.singletonList(third), null);
+		queue.awaitAllChanges();
+
+		assertEquals(Arrays.asList(Collections.singletonList(first), Collections.singletonList(third)), applied);
+	}
+
+	/**
+	 * @see IndexWorkQueue#getFailedEntityIds()
+	 */
+	@Test
+	public void getFailedEntityIds_shouldKeepTheIdsOfTheEntitiesWhoseChangesFailed() {
+		queue = new IndexWorkQueue("test", 10, 100, 0, (works, monitor) -> {
+			throw new IllegalStateException("test");
+		});
+		queue.add(Arrays.asList(mockWork(Patient.class, 1), mockWork(Patient.class, 2)), null);
+		queue.awaitAllChanges();
+
+		Map<Class<?>, Set<Serializable>> failed = queue.getFailedEntityIds();
+		assertEquals(Collections.singleton(Patient.class), failed.keySet());
+		assertEquals(2, failed.get(Patient.class).size());
+		assertTrue(failed.get(Patient.class).containsAll(Arrays.asList(1, 2)));
+		assertTrue(queue.getFailedEntityIds().isEmpty());
+	}
+
+	private LuceneWork mockWork(Class<?> entityClass, Integer id) {
+		LuceneWork work = mock(LuceneWork.class);
+		doReturn(entityClass).when(work).getEntityClass();
+		doReturn(id).when(work).getId();
+		doReturn(String.valueOf(id)).when(work).getIdInString();
+		return work;
+	}
+
+	/**
+	 * @see IndexWorkQueue#awaitChangesOfCurrentThread()
+	 */
+	@Test
+	public void awaitChangesOfCurrentThread_shouldWaitUntilTheChangesAddedByTheCurrentThreadHaveBeenApplied() {
+		queue = new IndexWorkQueue("test", 10, 100, 300, (works, monitor) -> applied.add(works));
+		queue.add(Collections.singletonList(mock(LuceneWork.class)), null);
+		assertEquals(0, applied.size());
+
+		queue.awaitChangesOfCurrentThread();
+
+		assertEquals(1, applied.size());
+	}
+
+	/**
+	 * @see IndexWorkQueue#awaitChangesOfCurrentThread()
+	 */
+	@Test
+	public void awaitChangesOfCurrentThread_shouldApplyTheChangesWithoutWaitingForTheRefreshInterval() {
+		queue = new IndexWorkQueue("test", 10, 100, 60000, (works, monitor) -> applied.add(works));
+		queue.add(Collections.singletonList(mock(LuceneWork.class)), null);
+		long start = System.currentTimeMillis();
+
+		queue.awaitChangesOfCurrentThread();
+
+		assertEquals(1, applied.size());
+		assertTrue(System.currentTimeMillis() - start < 30000);
+	}
+}
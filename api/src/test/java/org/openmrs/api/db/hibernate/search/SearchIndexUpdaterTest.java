@@ -0,0 +1,132 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Properties;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.Concept;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.PersonName;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class SearchIndexUpdaterTest extends BaseContextSensitiveTest {
+	
+	@Autowired
+	private SessionFactory sessionFactory;
+	
+	@TempDir
+	public Path checkpointDirectory;
+	
+	private SearchIndexUpdater updater;
+	
+	@BeforeEach
+	public void createUpdater() {
+		updater = new SearchIndexUpdater(sessionFactory, checkpointDirectory.toFile(), type -> 2);
+		updater.setRangeSize(2);
+	}
+	
+	/**
+	 * @see SearchIndexUpdater#update(SearchIndexUpdateProgress, Date)
+	 */
+	@Test
+	public void update_shouldIndexAllTheRowsOfAType() throws Exception {
+		SearchIndexUpdateProgress progress = new SearchIndexUpdateProgress(Collections.singletonList(PersonName.class));
+		
+		updater.update(progress, null);
+		
+		long personNames = countPersonNames(0);
+		assertTrue(personNames > 2);
+		assertEquals(personNames, progress.getTotalRows(PersonName.class));
+		assertEquals(personNames, progress.getIndexedRows(PersonName.class));
+		assertTrue(progress.isDone(PersonName.class));
+		assertTrue(progress.isFinished());
+		assertEquals(0, progress.getEstimatedTimeRemaining());
+		assertFalse(getCheckpointFile(PersonName.class).exists());
+	}
+	
+	/**
+	 * @see SearchIndexUpdater#update(SearchIndexUpdateProgress, Date)
+	 */
+	@Test
+	public void update_shouldResumeFromTheRangesLeftByTheCheckpoint() throws Exception {
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("rangeSize", "2");
+		checkpoint.setProperty("completedRanges", "0,1");
+		try (OutputStream out = Files.newOutputStream(getCheckpointFile(PersonName.class).toPath())) {
+			checkpoint.store(out, null);
+		}
+		SearchIndexUpdateProgress progress = new SearchIndexUpdateProgress(Collections.singletonList(PersonName.class));
+		
+		updater.update(progress, null);
+		
+		long personNames = countPersonNames(4);
+		assertTrue(personNames < countPersonNames(0));
+		assertEquals(personNames, progress.getTotalRows(PersonName.class));
+		assertEquals(personNames, progress.getIndexedRows(PersonName.class));
+		assertFalse(getCheckpointFile(PersonName.class).exists());
+	}
+	
+	/**
+	 * @see SearchIndexUpdater#update(SearchIndexUpdateProgress, Date)
+	 */
+	@Test
+	public void update_shouldOnlyIndexTheRowsChangedSinceTheGivenDate() throws Exception {
+		SearchIndexUpdateProgress progress = new SearchIndexUpdateProgress(Collections.singletonList(PersonName.class));
+		updater.update(progress, new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000));
+		assertEquals(0, progress.getIndexedRows(PersonName.class));
+		
+		progress = new SearchIndexUpdateProgress(Collections.singletonList(PersonName.class));
+		updater.update(progress, new Date(0));
+		assertEquals(countPersonNames(0), progress.getIndexedRows(PersonName.class));
+	}
+	
+	/**
+	 * @see SearchIndexUpdater#getRootTypes(java.util.Collection)
+	 */
+	@Test
+	public void getRootTypes_shouldLeaveOutTheSubclassesOfOtherIndexedTypes() {
+		assertEquals(Arrays.asList(Concept.class, PersonName.class),
+		    SearchIndexUpdater.getRootTypes(Arrays.asList(PersonName.class, ConceptNumeric.class, Concept.class)));
+	}
+	
+	private File getCheckpointFile(Class<?> type) {
+		return new File(checkpointDirectory.toFile(), type.getName() + ".checkpoint");
+	}
+	
+	private long countPersonNames(int fromId) {
+		Session session = sessionFactory.openSession();
+		try {
+			return ((Number) session.createCriteria(PersonName.class).add(Restrictions.ge("personNameId", fromId))
+			        .setProjection(Projections.rowCount()).uniqueResult()).longValue();
+		}
+		finally {
+			session.close();
+		}
+	}
+}
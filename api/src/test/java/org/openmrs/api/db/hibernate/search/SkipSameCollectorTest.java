@@ -0,0 +1,143 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.util.IdBitmap;
+
+public class SkipSameCollectorTest {
+
+	private RAMDirectory directory;
+
+	private DirectoryReader reader;
+
+	private IndexSearcher searcher;
+
+	@BeforeEach
+	public void createIndex() throws IOException {
+		directory = new RAMDirectory();
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			writer.addDocument(newDocument(1, 100, "john smith"));
+			writer.addDocument(newDocument(2, 100, "john john"));
+			writer.addDocument(newDocument(3, 200, "john doe"));
+			writer.addDocument(newDocument(4, 300, "john roe"));
+			writer.addDocument(newDocument(5, 400, "jane doe"));
+		}
+		reader = DirectoryReader.open(directory);
+		searcher = new IndexSearcher(reader);
+	}
+
+	@AfterEach
+	public void closeIndex() throws IOException {
+		reader.close();
+		directory.close();
+	}
+
+	private Document newDocument(int id, int personId, String name) {
+		Document document = new Document();
+		document.add(new StringField("id", String.valueOf(id), Field.Store.NO));
+		document.add(new StringField("person.personId", String.valueOf(personId), Field.Store.NO));
+		document.add(new TextField("name", name, Field.Store.NO));
+		return document;
+	}
+
+	/**
+	 * @see SkipSameCollector#collect(int)
+	 */
+	@Test
+	public void collect_shouldKeepTheDocumentWithTheBestScoreForEachValue() throws IOException {
+		SkipSameCollector collector = new SkipSameCollector("id", "person.personId", null);
+
+		searcher.search(new TermQuery(new Term("name", "john")), collector);
+
+		assertEquals(4, collector.getMatches());
+		assertEquals(new IdBitmap(Arrays.asList(100, 200, 300)), collector.getValues());
+		assertEquals(new IdBitmap(Arrays.asList(2, 3, 4)), collector.getIds());
+	}
+
+	/**
+	 * @see SkipSameCollector#collect(int)
+	 */
+	@Test
+	public void collect_shouldSkipTheDocumentsOfTheGivenValues() throws IOException {
+		SkipSameCollector collector = new SkipSameCollector("id", "person.personId", new IdBitmap(Arrays.asList(100,
+		    300)));
+
+		searcher.search(new TermQuery(new Term("name", "john")), collector);
+
+		assertEquals(new IdBitmap(Arrays.asList(200)), collector.getValues());
+		assertEquals(new IdBitmap(Arrays.asList(3)), collector.getIds());
+	}
+
+	/**
+	 * @see SkipSameCollector#collect(int)
+	 */
+	@Test
+	public void collect_shouldKeepAllTheValuesWhenTheTableGrows() throws IOException {
+		reader.close();
+		directory.close();
+		directory = new RAMDirectory();
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			for (int id = 1; id <= 1000; id++) {
+				writer.addDocument(newDocument(id, id % 300, "john"));
+			}
+		}
+		reader = DirectoryReader.open(directory);
+		SkipSameCollector collector = new SkipSameCollector("id", "person.personId", null);
+
+		new IndexSearcher(reader).search(new TermQuery(new Term("name", "john")), collector);
+
+		assertEquals(300, collector.getValues().size());
+		assertEquals(300, collector.getIds().size());
+	}
+
+	/**
+	 * @see IdFilter#getDocIdSet(org.apache.lucene.index.LeafReaderContext, org.apache.lucene.util.Bits)
+	 */
+	@Test
+	public void getDocIdSet_shouldMatchTheDocumentsWithTheGivenIds() throws IOException {
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		query.add(new TermQuery(new Term("name", "john")), Occur.MUST);
+		query.add(new IdFilter("id", new IdBitmap(Arrays.asList(2, 3, 5))), Occur.FILTER);
+
+		TopDocs topDocs = searcher.search(query.build(), 10);
+
+		Set<Integer> ids = new HashSet<>();
+		for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+			ids.add(SegmentIntValues.get(reader.leaves().get(0).reader(), "id")[scoreDoc.doc]);
+		}
+		assertEquals(new HashSet<>(Arrays.asList(2, 3)), ids);
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Concept;
+import org.openmrs.ConceptSet;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods on the {@link ConceptSetIndex} class
+ */
+public class ConceptSetIndexTest {
+	
+	private final ConceptSetIndex index = new ConceptSetIndex();
+	
+	private final List<Object[]> rows = new ArrayList<>();
+	
+	private final AtomicInteger loads = new AtomicInteger();
+	
+	private final Supplier<List<Object[]>> loader = () -> {
+		loads.incrementAndGet();
+		return rows;
+	};
+	
+	@AfterEach
+	public void clearTransactionSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	private void addRow(int conceptSetId, int conceptId, boolean isSet) {
+		rows.add(new Object[] { conceptSetId, conceptId, isSet });
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getConceptIds(Integer, Supplier)
+	 */
+	@Test
+	public void getConceptIds_shouldExpandNestedSetsDepthFirst() {
+		addRow(1, 2, true);
+		addRow(1, 3, false);
+		addRow(2, 4, false);
+		addRow(2, 5, true);
+		addRow(5, 6, false);
+		
+		assertEquals(Arrays.asList(2, 4, 5, 6, 3), index.getConceptIds(1, loader));
+		assertEquals(Arrays.asList(4, 5, 6), index.getConceptIds(2, loader));
+		assertEquals(1, loads.get());
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getConceptIds(Integer, Supplier)
+	 */
+	@Test
+	public void getConceptIds_shouldExpandASetOnlyOnce() {
+		addRow(1, 2, true);
+		addRow(1, 3, true);
+		addRow(2, 4, false);
+		addRow(3, 2, true);
+		addRow(3, 1, true);
+		
+		assertEquals(Arrays.asList(2, 4, 3, 2, 1), index.getConceptIds(1, loader));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getConceptIds(Integer, Supplier)
+	 */
+	@Test
+	public void getConceptIds_shouldNotExpandMembersWhichAreNotMarkedAsSets() {
+		addRow(1, 2, false);
+		addRow(2, 3, false);
+		
+		assertEquals(Arrays.asList(2), index.getConceptIds(1, loader));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getDepth(Integer, Integer, Supplier)
+	 */
+	@Test
+	public void getDepth_shouldReturnTheShortestDepthOfAConceptInASet() {
+		addRow(1, 2, true);
+		addRow(1, 4, false);
+		addRow(2, 3, true);
+		addRow(3, 4, false);
+		addRow(3, 5, false);
+		
+		assertEquals(Integer.valueOf(1), index.getDepth(1, 4, loader));
+		assertEquals(Integer.valueOf(2), index.getDepth(1, 3, loader));
+		assertEquals(Integer.valueOf(3), index.getDepth(1, 5, loader));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getDepth(Integer, Integer, Supplier)
+	 */
+	@Test
+	public void getDepth_shouldReturnNullForAConceptWhichIsNotInTheSet() {
+		addRow(1, 2, false);
+		addRow(3, 4, false);
+		
+		assertNull(index.getDepth(1, 4, loader));
+		assertNull(index.getDepth(1, 1, loader));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#update(Concept)
+	 */
+	@Test
+	public void update_shouldApplyTheChangeOnlyAfterTheCurrentTransactionHasCommitted() {
+		addRow(1, 2, false);
+		assertNull(index.getDepth(1, 3, loader));
+		
+		TransactionSynchronizationManager.initSynchronization();
+		Concept set = new Concept(1);
+		set.setSet(true);
+		Concept member = new Concept(3);
+		ConceptSet conceptSet = new ConceptSet(member, 1.0);
+		set.getConceptSets().add(conceptSet);
+		index.update(set);
+		
+		assertTrue(index.hasPendingChanges());
+		assertNull(index.getDepth(1, 3, loader));
+		
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+		
+		assertFalse(index.hasPendingChanges());
+		assertEquals(Integer.valueOf(1), index.getDepth(1, 3, loader));
+		assertNull(index.getDepth(1, 2, loader));
+		assertEquals(1, loads.get());
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.GlobalProperty;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods on the {@link GlobalPropertyCache} class
+ */
+public class GlobalPropertyCacheTest {
+	
+	private final GlobalPropertyCache cache = new GlobalPropertyCache();
+	
+	private final Map<String, String> database = new HashMap<>();
+	
+	private final AtomicInteger loads = new AtomicInteger();
+	
+	private final Function<String, String> loader = propertyName -> {
+		loads.incrementAndGet();
+		return database.get(propertyName.toLowerCase());
+	};
+	
+	@AfterEach
+	public void clearTransactionSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#get(String, Function)
+	 */
+	@Test
+	public void get_shouldLoadAPropertyOnlyOnce() {
+		database.put("gp", "value");
+		
+		assertEquals("value", cache.get("gp", loader).getValue());
+		assertEquals("value", cache.get("gp", loader).getValue());
+		assertEquals(1, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#get(String, Function)
+	 */
+	@Test
+	public void get_shouldMatchPropertyNamesCaseInsensitively() {
+		database.put("some.gp", "value");
+		
+		assertEquals("value", cache.get("some.gp", loader).getValue());
+		assertEquals("value", cache.get("SOME.Gp", loader).getValue());
+		assertEquals(1, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#get(String, Function)
+	 */
+	@Test
+	public void get_shouldCachePropertiesWhichDoNotExist() {
+		assertNull(cache.get("missing", loader).getValue());
+		assertNull(cache.get("missing", loader).getValue());
+		assertEquals(1, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#get(String, Function)
+	 */
+	@Test
+	public void get_shouldCacheOnlyALimitedNumberOfPropertiesWhichDoNotExist() {
+		for (int i = 0; i < GlobalPropertyCache.MAX_ABSENT_ENTRIES; i++) {
+			cache.get("missing" + i, loader);
+		}
+		loads.set(0);
+		
+		assertNull(cache.get("missing0", loader).getValue());
+		assertEquals(0, loads.get());
+		assertNull(cache.get("one.too.many", loader).getValue());
+		assertNull(cache.get("one.too.many", loader).getValue());
+		assertEquals(2, loads.get());
+		
+		database.put("gp", "value");
+		cache.get("gp", loader);
+		cache.get("gp", loader);
+		assertEquals(3, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#get(String, Function)
+	 */
+	@Test
+	public void get_shouldNotCacheAValueLoadedBeforeAConcurrentEviction() {
+		database.put("gp", "old");
+		
+		assertEquals("old", cache.get("gp", propertyName -> {
+			// another thread saves the property while this one is reading it
+			String value = loader.apply(propertyName);
+			database.put("gp", "new");
+			cache.evict("gp");
+			return value;
+		}).getValue());
+		
+		assertEquals("new", cache.get("gp", loader).getValue());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#load(java.util.function.Supplier)
+	 */
+	@Test
+	public void load_shouldCacheAllTheLoadedProperties() {
+		cache.load(() -> Arrays.asList(new GlobalProperty("first", "1"), new GlobalProperty("second", "2")));
+		
+		assertEquals("1", cache.get("first", loader).getValue());
+		assertEquals("2", cache.get("SECOND", loader).getValue());
+		assertEquals(0, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache#evict(String)
+	 */
+	@Test
+	public void evict_shouldEvictAPropertyOnlyAfterTheCurrentTransactionHasCompleted() {
+		database.put("gp", "old");
+		assertEquals("old", cache.get("gp", loader).getValue());
+		
+		TransactionSynchronizationManager.initSynchronization();
+		database.put("gp", "new");
+		cache.evict("gp");
+		
+		// the transaction sees its own change
+		assertEquals("new", cache.get("gp", loader).getValue());
+		
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+		
+		int loadsBefore = loads.get();
+		assertEquals("new", cache.get("gp", loader).getValue());
+		assertEquals("new", cache.get("gp", loader).getValue());
+		assertEquals(loadsBefore + 1, loads.get());
+	}
+	
+	/**
+	 * @see GlobalPropertyCache.Entry#getParsedValue(Class, Function)
+	 */
+	@Test
+	public void getParsedValue_shouldOnlyConvertTheValueAgainForADifferentType() {
+		database.put("gp", "12");
+		GlobalPropertyCache.Entry entry = cache.get("gp", loader);
+		AtomicInteger conversions = new AtomicInteger();
+		
+		Integer first = entry.getParsedValue(Integer.class, value -> {
+			conversions.incrementAndGet();
+			return Integer.valueOf(value);
+		});
+		Integer second = entry.getParsedValue(Integer.class, value -> {
+			conversions.incrementAndGet();
+			return Integer.valueOf(value);
+		});
+		Long asLong = entry.getParsedValue(Long.class, value -> {
+			conversions.incrementAndGet();
+			return Long.valueOf(value);
+		});
+		
+		assertSame(first, second);
+		assertEquals(Long.valueOf(12), asLong);
+		assertEquals(2, conversions.get());
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods on the {@link PendingTransactionChanges} class
+ */
+public class PendingTransactionChangesTest {
+	
+	private final List<Object> completed = new ArrayList<>();
+	
+	private final PendingTransactionChanges<List<String>> pendingChanges = new PendingTransactionChanges<>(
+	        ArrayList::new, (changes, status) -> {
+		        completed.add(changes);
+		        completed.add(status);
+	        });
+	
+	@AfterEach
+	public void clearTransactionSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	/**
+	 * @see PendingTransactionChanges#getOrBind()
+	 */
+	@Test
+	public void getOrBind_shouldReturnNullWithoutATransaction() {
+		assertNull(pendingChanges.getOrBind());
+		assertNull(pendingChanges.get());
+	}
+	
+	/**
+	 * @see PendingTransactionChanges#getOrBind()
+	 */
+	@Test
+	public void getOrBind_shouldPassTheChangesToTheCompletionCallbackOnceTheTransactionHasCompleted() {
+		TransactionSynchronizationManager.initSynchronization();
+		assertNull(pendingChanges.get());
+		
+		List<String> changes = pendingChanges.getOrBind();
+		changes.add("change");
+		assertSame(changes, pendingChanges.getOrBind());
+		assertSame(changes, pendingChanges.get());
+		assertEquals(0, completed.size());
+		
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		
+		assertNull(pendingChanges.get());
+		assertSame(changes, completed.get(0));
+		assertEquals(TransactionSynchronization.STATUS_COMMITTED, completed.get(1));
+	}
+}
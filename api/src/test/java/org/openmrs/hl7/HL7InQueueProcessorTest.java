@@ -0,0 +1,71 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the methods on the {@link HL7InQueueProcessor} class
+ */
+public class HL7InQueueProcessorTest {
+	
+	private static final String MESSAGE = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1||||||||16^AMRS.ELD.FORMID\r"
+	        + "PID|||%s^^^^||John3^Doe^||\r"
+	        + "OBR|1|||1238^MEDICAL RECORD OBSERVATIONS^99DCT";
+	
+	@Test
+	public void getPatientKey_shouldReturnThePatientIdentifierListOfTheMessage() {
+		assertEquals("7^^^^", HL7InQueueProcessor.getPatientKey(String.format(MESSAGE, "7")));
+	}
+	
+	@Test
+	public void getPatientKey_shouldReturnNullIfTheMessageHasNoPatient() {
+		assertNull(HL7InQueueProcessor.getPatientKey("a malformed hl7 message"));
+		assertNull(HL7InQueueProcessor.getPatientKey(
+		    "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5"));
+	}
+	
+	@Test
+	public void splitByPatient_shouldPutTheMessagesOfAPatientInTheSameLaneInOrder() {
+		List<HL7InQueue> hl7InQueues = new ArrayList<>();
+		for (int i = 1; i <= 20; i++) {
+			HL7InQueue hl7InQueue = new HL7InQueue();
+			hl7InQueue.setHL7InQueueId(i);
+			hl7InQueue.setHL7Data(String.format(MESSAGE, i % 2 == 0 ? "7" : String.valueOf(i)));
+			hl7InQueues.add(hl7InQueue);
+		}
+		
+		List<List<HL7InQueue>> lanes = HL7InQueueProcessor.splitByPatient(hl7InQueues, 4);
+		
+		assertEquals(4, lanes.size());
+		int total = 0;
+		for (List<HL7InQueue> lane : lanes) {
+			total += lane.size();
+			List<Integer> patientSevenIds = new ArrayList<>();
+			for (HL7InQueue hl7InQueue : lane) {
+				if ("7^^^^".equals(HL7InQueueProcessor.getPatientKey(hl7InQueue.getHL7Data()))) {
+					patientSevenIds.add(hl7InQueue.getHL7InQueueId());
+				}
+			}
+			if (!patientSevenIds.isEmpty()) {
+				assertThat(patientSevenIds, contains(2, 4, 6, 7, 8, 10, 12, 14, 16, 18, 20));
+			}
+		}
+		assertEquals(20, total);
+	}
+}
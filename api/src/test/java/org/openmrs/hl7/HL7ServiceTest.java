@@ -21,6 +21,7 @@ import static org.openmrs.util.OpenmrsUtil.deleteDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.Statement;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
@@ -107,6 +108,84 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		assertEquals(1, hl7service.getAllHL7InArchives().size());
 	}
 	
+	/**
+	 * @see HL7Service#getNextHL7InQueues(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueues_shouldReturnPendingQueueItemsInTheOrderTheyWereReceived() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		
+		List<HL7InQueue> pending = hl7service.getNextHL7InQueues(null, 10);
+		
+		assertEquals(2, pending.size());
+		assertEquals(1, pending.get(0).getHL7InQueueId().intValue());
+		assertEquals(2, pending.get(1).getHL7InQueueId().intValue());
+		assertEquals(HL7Constants.HL7_STATUS_PENDING, pending.get(0).getMessageState());
+	}
+	
+	/**
+	 * @see HL7Service#getNextHL7InQueues(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueues_shouldOnlyReturnQueueItemsReceivedAfterTheGivenOne() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		
+		List<HL7InQueue> first = hl7service.getNextHL7InQueues(null, 1);
+		List<HL7InQueue> second = hl7service.getNextHL7InQueues(first.get(0).getHL7InQueueId(), 10);
+		
+		assertEquals(1, first.size());
+		assertEquals(1, first.get(0).getHL7InQueueId().intValue());
+		assertEquals(1, second.size());
+		assertEquals(2, second.get(0).getHL7InQueueId().intValue());
+		assertTrue(hl7service.getNextHL7InQueues(2, 10).isEmpty());
+	}
+	
+	/**
+	 * @see HL7Service#processHL7InQueues(List)
+	 */
+	@Test
+	public void processHL7InQueues_shouldCreateHL7InArchiveForEachSuccessfullyParsedItem() throws HL7Exception, IOException {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), HL7Constants.HL7_ARCHIVE_DIRECTORY_NAME);
+		if (tempDir.exists() && tempDir.isDirectory())
+			assertTrue(deleteDirectory(tempDir));
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, tempDir.getAbsolutePath()));
+		
+		HL7Service hl7service = Context.getHL7Service();
+		hl7service.processHL7InQueues(hl7service.getNextHL7InQueues(null, 10));
+		
+		assertEquals(1, hl7service.getAllHL7InArchives().size());
+		assertEquals(1, hl7service.getAllHL7InErrors().size());
+		assertEquals(0, hl7service.getAllHL7InQueues().size());
+	}
+	
+	/**
+	 * @see HL7Service#processHL7InQueues(List)
+	 */
+	@Test
+	public void processHL7InQueues_shouldSkipQueueItemsWhichAreNotPendingAnymore() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		List<HL7InQueue> pending = hl7service.getNextHL7InQueues(null, 10);
+		
+		HL7InQueue processing = hl7service.getHL7InQueue(1);
+		processing.setMessageState(HL7Constants.HL7_STATUS_PROCESSING);
+		hl7service.saveHL7InQueue(processing);
+		Context.flushSession();
+		Context.evictFromSession(processing);
+		
+		List<HL7InQueue> processed = hl7service.processHL7InQueues(pending);
+		
+		assertEquals(1, processed.size());
+		assertEquals(2, processed.get(0).getHL7InQueueId().intValue());
+		assertEquals(0, hl7service.getAllHL7InArchives().size());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSING, hl7service.getHL7InQueue(1).getMessageState());
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @see HL7Service#processHL7InQueue(HL7InQueue)
@@ -799,4 +878,90 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		Integer userId = hl7service.resolveUserId(xcn);
 		assertThat(userId, is(502));
 	}
+	
+	/**
+	 * @see HL7Service#resolveLocationId(String, String)
+	 */
+	@Test
+	public void resolveLocationId_shouldCacheTheResolvedLocationIdUntilALocationIsSaved() throws Exception {
+		HL7Service hl7service = Context.getHL7Service();
+		assertEquals(Integer.valueOf(2), hl7service.resolveLocationId(null, "Xanadu"));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update location set name = 'Shangri-La' where location_id = 2");
+		}
+		Context.clearSession();
+		assertEquals(Integer.valueOf(2), hl7service.resolveLocationId(null, "Xanadu"));
+		
+		Context.getLocationService().saveLocation(Context.getLocationService().getLocation(1));
+		assertNull(hl7service.resolveLocationId(null, "Xanadu"));
+	}
+	
+	/**
+	 * @see HL7Service#resolveProviderId(String, String, String)
+	 */
+	@Test
+	public void resolveProviderId_shouldResolveAProviderByProviderIdIdentifierOrUuid() {
+		HL7Service hl7service = Context.getHL7Service();
+		assertEquals(Integer.valueOf(1), hl7service.resolveProviderId("1", HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_ID, "L"));
+		assertEquals(Integer.valueOf(1), hl7service.resolveProviderId("Test", HL7Constants.PROVIDER_ASSIGNING_AUTH_IDENTIFIER,
+		    "L"));
+		assertEquals(Integer.valueOf(1), hl7service.resolveProviderId("c2299800-cca9-11e0-9572-0800200c9a66",
+		    HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_UUID, "L"));
+	}
+	
+	/**
+	 * @see HL7Service#resolveProviderId(String, String, String)
+	 */
+	@Test
+	public void resolveProviderId_shouldResolveAProviderByPersonId() {
+		assertEquals(Integer.valueOf(1), Context.getHL7Service().resolveProviderId("1", null, null));
+	}
+	
+	/**
+	 * @see HL7Service#resolveProviderId(String, String, String)
+	 */
+	@Test
+	public void resolveProviderId_shouldReturnNullIfTheProviderIsNotFound() {
+		HL7Service hl7service = Context.getHL7Service();
+		assertNull(hl7service.resolveProviderId("unknown", HL7Constants.PROVIDER_ASSIGNING_AUTH_IDENTIFIER, "L"));
+		assertNull(hl7service.resolveProviderId("not a number", HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_ID, "L"));
+		assertNull(hl7service.resolveProviderId("1", "unknown authority", "L"));
+	}
+	
+	/**
+	 * @see HL7Service#resolveConceptIdByMapping(String, String)
+	 */
+	@Test
+	public void resolveConceptIdByMapping_shouldReturnTheIdOfTheMappedConcept() {
+		assertEquals(Integer.valueOf(5089), Context.getHL7Service().resolveConceptIdByMapping("WGT234", "SSTRM"));
+		assertNull(Context.getHL7Service().resolveConceptIdByMapping("WGT234", "a nonexistent coding system"));
+	}
+	
+	/**
+	 * @see HL7Service#resolveConceptIdByMapping(String, String)
+	 */
+	@Test
+	public void resolveConceptIdByMapping_shouldCacheTheResolvedConceptIdUntilAConceptIsSaved() throws Exception {
+		HL7Service hl7service = Context.getHL7Service();
+		assertEquals(Integer.valueOf(5089), hl7service.resolveConceptIdByMapping("WGT234", "SSTRM"));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update concept_reference_map set concept_id = 5497 where concept_map_id = 1");
+		}
+		Context.clearSession();
+		assertEquals(Integer.valueOf(5089), hl7service.resolveConceptIdByMapping("WGT234", "SSTRM"));
+		
+		Context.getConceptService().saveConcept(Context.getConceptService().getConcept(5497));
+		assertEquals(Integer.valueOf(5497), hl7service.resolveConceptIdByMapping("WGT234", "SSTRM"));
+	}
+	
+	/**
+	 * @see HL7Service#resolveFormIdByUuid(String)
+	 */
+	@Test
+	public void resolveFormIdByUuid_shouldReturnTheIdOfTheFormWithTheGivenUuid() {
+		assertEquals(Integer.valueOf(1), Context.getHL7Service().resolveFormIdByUuid("d9218f76-6c39-45f4-8efa-4c5c6c199f50"));
+		assertNull(Context.getHL7Service().resolveFormIdByUuid("unknown uuid"));
+	}
 }
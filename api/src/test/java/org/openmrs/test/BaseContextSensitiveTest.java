@@ -823,6 +823,9 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			
+			// the dataset may contain global properties, concept sets and what the api caches hold
+			TestUtil.resetApiCaches();
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
@@ -873,6 +876,8 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			
 			connection.commit();
 			
+			TestUtil.resetApiCaches();
+			
 			updateSearchIndex();
 			
 			isBaseSetup = false;
@@ -890,6 +895,9 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		
+		// the caches may hold data of another test
+		TestUtil.resetApiCaches();
 	}
 	
 	/**
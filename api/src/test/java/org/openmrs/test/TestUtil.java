@@ -28,6 +28,7 @@ import org.openmrs.BaseOpenmrsObject;
 import org.openmrs.GlobalProperty;
 import org.openmrs.api.context.Context;
 import org.openmrs.util.OpenmrsUtil;
+import org.springframework.cache.CacheManager;
 
 /**
  * Methods use by the Openmrs tests
@@ -190,6 +191,21 @@ public class TestUtil {
 		Context.getAdministrationService().saveGlobalProperty(gp);
 	}
 	
+	/**
+	 * Discards what the in-memory caches and indexes of the API hold, i.e. global property values,
+	 * the concept set index and the api caches, so that they are loaded again from the database. Test
+	 * data is written to the database directly, which these caches do not notice.
+	 */
+	public static void resetApiCaches() {
+		Context.getAdministrationService().clearGlobalPropertyCache();
+		Context.getConceptService().refreshConceptSetIndex();
+		
+		CacheManager cacheManager = Context.getRegisteredComponent("apiCacheManager", CacheManager.class);
+		for (String cacheName : cacheManager.getCacheNames()) {
+			cacheManager.getCache(cacheName).invalidate();
+		}
+	}
+	
 	/**
 	 * Utility method to check if a list contains a BaseOpenmrsObject using the id
 	 * @param list
@@ -811,6 +811,9 @@ public abstract class BaseContextSensitiveTest {
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			
+			// the dataset may contain global properties, concept sets and what the api caches hold
+			TestUtil.resetApiCaches();
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
@@ -861,6 +864,8 @@ public abstract class BaseContextSensitiveTest {
 			
 			connection.commit();
 			
+			TestUtil.resetApiCaches();
+			
 			updateSearchIndex();
 			
 			isBaseSetup = false;
@@ -878,6 +883,9 @@ public abstract class BaseContextSensitiveTest {
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		
+		// the caches may hold data of another test
+		TestUtil.resetApiCaches();
 	}
 	
 	/**
@@ -0,0 +1,129 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class IdBitmapTest {
+	
+	/**
+	 * @see IdBitmap#add(int)
+	 */
+	@Test
+	public void add_shouldAddIdsAcrossChunks() {
+		IdBitmap ids = new IdBitmap();
+		
+		assertTrue(ids.add(7));
+		assertTrue(ids.add(65536));
+		assertTrue(ids.add(Integer.MAX_VALUE));
+		assertFalse(ids.add(7));
+		
+		assertEquals(3, ids.size());
+		assertTrue(ids.contains(7));
+		assertTrue(ids.contains(65536));
+		assertTrue(ids.contains(Integer.MAX_VALUE));
+		assertFalse(ids.contains(8));
+		assertFalse(ids.contains(-7));
+		assertEquals(new TreeSet<>(Arrays.asList(7, 65536, Integer.MAX_VALUE)), ids.toSet());
+	}
+	
+	/**
+	 * @see IdBitmap#add(int)
+	 */
+	@Test
+	public void add_shouldFailForNegativeIds() {
+		assertThrows(IllegalArgumentException.class, () -> new IdBitmap().add(-1));
+	}
+	
+	/**
+	 * @see IdBitmap#remove(int)
+	 */
+	@Test
+	public void remove_shouldRemoveTheChunkOfTheLastIdRemovedFromIt() {
+		IdBitmap ids = new IdBitmap(Arrays.asList(1, 70000));
+		
+		assertTrue(ids.remove(70000));
+		assertFalse(ids.remove(70000));
+		
+		assertEquals(1, ids.size());
+		assertEquals(new IdBitmap(Arrays.asList(1)), ids);
+	}
+	
+	/**
+	 * @see IdBitmap#union(IdBitmap,IdBitmap)
+	 */
+	@Test
+	public void union_shouldReturnTheIdsWhichAreInEitherSet() {
+		Set<Integer> a = randomIds(1);
+		Set<Integer> b = randomIds(2);
+		Set<Integer> expected = new TreeSet<>(a);
+		expected.addAll(b);
+		
+		IdBitmap union = IdBitmap.union(new IdBitmap(a), new IdBitmap(b));
+		
+		assertEquals(expected, union.toSet());
+		assertEquals(expected.size(), union.size());
+		assertEquals(a, IdBitmap.union(new IdBitmap(a), null).toSet());
+	}
+	
+	/**
+	 * @see IdBitmap#intersect(IdBitmap,IdBitmap)
+	 */
+	@Test
+	public void intersect_shouldReturnTheIdsWhichAreInBothSets() {
+		Set<Integer> a = randomIds(1);
+		Set<Integer> b = randomIds(2);
+		Set<Integer> expected = new TreeSet<>(a);
+		expected.retainAll(b);
+		
+		IdBitmap intersection = IdBitmap.intersect(new IdBitmap(a), new IdBitmap(b));
+		
+		assertEquals(expected, intersection.toSet());
+		assertEquals(expected.size(), intersection.size());
+		assertTrue(IdBitmap.intersect(new IdBitmap(a), null).isEmpty());
+	}
+	
+	/**
+	 * @see IdBitmap#subtract(IdBitmap,IdBitmap)
+	 */
+	@Test
+	public void subtract_shouldReturnTheIdsOfTheFirstSetWhichAreNotInTheSecondOne() {
+		Set<Integer> a = randomIds(1);
+		Set<Integer> b = randomIds(2);
+		Set<Integer> expected = new TreeSet<>(a);
+		expected.removeAll(b);
+		
+		IdBitmap difference = IdBitmap.subtract(new IdBitmap(a), new IdBitmap(b));
+		
+		assertEquals(expected, difference.toSet());
+		assertEquals(expected.size(), difference.size());
+		assertTrue(IdBitmap.subtract(new IdBitmap(b), new IdBitmap(b)).isEmpty());
+	}
+	
+	private Set<Integer> randomIds(long seed) {
+		Random random = new Random(seed);
+		Set<Integer> ids = new HashSet<>();
+		for (int i = 0; i < 20000; i++) {
+			ids.add(random.nextInt(300000));
+		}
+		return ids;
+	}
+}
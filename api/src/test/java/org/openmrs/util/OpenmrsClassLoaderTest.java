@@ -0,0 +1,107 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.module.ModuleClassLoader;
+import org.openmrs.module.ModuleFactory;
+import org.openmrs.test.StartModule;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@StartModule({ "org/openmrs/module/include/test1-1.0-SNAPSHOT.omod", "org/openmrs/module/include/test2-1.0-SNAPSHOT.omod" })
+public class OpenmrsClassLoaderTest extends BaseContextSensitiveTest {
+	
+	private static final String MISSING_CLASS = "org.openmrs.module.test1.api.MissingService";
+	
+	/**
+	 * @see OpenmrsClassLoader#loadClass(String, boolean)
+	 */
+	@Test
+	public void loadClass_shouldRememberClassesWhichCouldNotBeFound() {
+		OpenmrsClassLoader classLoader = OpenmrsClassLoader.getInstance();
+		
+		assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(MISSING_CLASS));
+		assertTrue(getMissingClasses(classLoader).contains(MISSING_CLASS));
+		assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(MISSING_CLASS));
+	}
+	
+	/**
+	 * @see OpenmrsClassLoader#clearMissingClasses()
+	 */
+	@Test
+	public void clearMissingClasses_shouldLoadAClassAgainAfterItHasBeenMissing() {
+		OpenmrsClassLoader classLoader = OpenmrsClassLoader.getInstance();
+		assertThrows(ClassNotFoundException.class, () -> classLoader.loadClass(MISSING_CLASS));
+		
+		OpenmrsClassLoader.clearMissingClasses();
+		
+		assertFalse(getMissingClasses(classLoader).contains(MISSING_CLASS));
+	}
+	
+	/**
+	 * @see OpenmrsClassLoader#loadClass(String, boolean)
+	 */
+	@Test
+	public void loadClass_shouldLoadModuleClassesFromSeveralThreadsAtOnce() throws Exception {
+		ModuleClassLoader test2ClassLoader = ModuleFactory.getModuleClassLoader("test2");
+		List<Callable<Class<?>>> lookups = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			lookups.add(() -> OpenmrsClassLoader.getInstance().loadClass("org.openmrs.module.test2.api.Test2Service"));
+			// a class of the required module, found through the imports of test2
+			lookups.add(() -> test2ClassLoader.loadClass("org.openmrs.module.test1.api.Test1Service"));
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Class<?>>> results = executor.invokeAll(lookups);
+			for (int i = 0; i < results.size(); i += 2) {
+				assertSame(test2ClassLoader, results.get(i).get().getClassLoader());
+				assertSame(ModuleFactory.getModuleClassLoader("test1"), results.get(i + 1).get().getClassLoader());
+				assertSame(results.get(0).get(), results.get(i).get());
+				assertSame(results.get(1).get(), results.get(i + 1).get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * @see ModuleFactory#getModuleClassLoadersForPackage(String)
+	 */
+	@Test
+	public void getModuleClassLoadersForPackage_shouldReturnTheClassLoadersOfTheModulesProvidingThePackage() {
+		Set<ModuleClassLoader> classLoaders = ModuleFactory.getModuleClassLoadersForPackage("org.openmrs.module.test1.api");
+		
+		assertEquals(1, classLoaders.size());
+		assertSame(ModuleFactory.getModuleClassLoader("test1"), classLoaders.iterator().next());
+		assertTrue(ModuleFactory.getModuleClassLoadersForPackage("org.openmrs.module.missing").isEmpty());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Set<String> getMissingClasses(OpenmrsClassLoader classLoader) {
+		return (Set<String>) ReflectionTestUtils.getField(classLoader, "missingClasses");
+	}
+}
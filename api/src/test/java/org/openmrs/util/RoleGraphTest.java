@@ -0,0 +1,182 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.User;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests the methods on the {@link RoleGraph} class
+ */
+public class RoleGraphTest {
+
+	@AfterEach
+	public void clearTransactionSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * @see RoleGraph#closureOf(java.util.Collection)
+	 */
+	@Test
+	public void closureOf_shouldIncludeTheGivenRolesAndAllTheirAncestors() {
+		Role grandparent = new Role("Grandparent");
+		Role parent = new Role("Parent");
+		Role child = new Role("Child");
+		Role other = new Role("Other");
+		parent.setInheritedRoles(Collections.singleton(grandparent));
+		child.setInheritedRoles(Collections.singleton(parent));
+
+		RoleGraph.Closure closure = RoleGraph.closureOf(Collections.singleton(child));
+
+		assertThat(closure.getRoles(), containsInAnyOrder(child, parent, grandparent));
+		assertTrue(closure.containsRole("grandparent"));
+		assertFalse(closure.containsRole(other.getRole()));
+	}
+
+	/**
+	 * @see RoleGraph#closureOf(java.util.Collection)
+	 */
+	@Test
+	public void closureOf_shouldNotFailIfTheInheritanceGraphContainsACycle() {
+		Role first = new Role("First");
+		Role second = new Role("Second");
+		first.setInheritedRoles(Collections.singleton(second));
+		second.setInheritedRoles(Collections.singleton(first));
+
+		assertThat(RoleGraph.closureOf(Collections.singleton(first)).getRoles(), containsInAnyOrder(first, second));
+		assertThat(first.getAllParentRoles(), containsInAnyOrder(first, second));
+	}
+
+	/**
+	 * @see RoleGraph#closureOf(java.util.Collection)
+	 */
+	@Test
+	public void closureOf_shouldIncludeThePrivilegesOfAllRolesInTheClosure() {
+		Role parent = new Role("Parent");
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+		Role child = new Role("Child");
+		child.addPrivilege(new Privilege("Child Privilege"));
+		child.setInheritedRoles(Collections.singleton(parent));
+
+		RoleGraph.Closure closure = RoleGraph.closureOf(Collections.singleton(child));
+
+		assertTrue(closure.hasPrivilege("Child Privilege"));
+		assertTrue(closure.hasPrivilege("parent privilege"));
+		assertFalse(closure.hasPrivilege("Other Privilege"));
+		assertFalse(closure.hasPrivilege(null));
+	}
+
+	/**
+	 * @see RoleGraph#invalidate()
+	 */
+	@Test
+	public void invalidate_shouldMakeUsersSeeChangedPrivilegesOfTheirRoles() {
+		Role parent = new Role("Parent");
+		Role child = new Role("Child");
+		child.setInheritedRoles(Collections.singleton(parent));
+		User user = new User();
+		user.addRole(child);
+
+		RoleGraph.Closure closure = user.getRoleClosure();
+		assertFalse(user.hasPrivilege("Parent Privilege"));
+
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+
+		assertFalse(closure.isCurrent());
+		assertTrue(user.hasPrivilege("Parent Privilege"));
+	}
+
+	/**
+	 * @see RoleGraph#invalidateAfterCommit()
+	 */
+	@Test
+	public void invalidateAfterCommit_shouldInvalidateTheGraphOnlyOnceTheTransactionHasCommitted() {
+		RoleGraph.Closure closure = RoleGraph.closureOf(Collections.singleton(new Role("Role")));
+		TransactionSynchronizationManager.initSynchronization();
+
+		RoleGraph.invalidateAfterCommit();
+		RoleGraph.invalidateAfterCommit();
+
+		assertTrue(closure.isCurrent());
+		completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+		assertFalse(closure.isCurrent());
+	}
+
+	/**
+	 * @see RoleGraph#invalidateAfterCommit()
+	 */
+	@Test
+	public void invalidateAfterCommit_shouldNotInvalidateTheGraphIfTheTransactionIsRolledBack() {
+		RoleGraph.Closure closure = RoleGraph.closureOf(Collections.singleton(new Role("Role")));
+		TransactionSynchronizationManager.initSynchronization();
+
+		RoleGraph.invalidateAfterCommit();
+		completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertTrue(closure.isCurrent());
+	}
+
+	/**
+	 * @see RoleGraph#invalidateAfterCommit()
+	 */
+	@Test
+	public void invalidateAfterCommit_shouldInvalidateTheGraphRightAwayWithoutATransaction() {
+		RoleGraph.Closure closure = RoleGraph.closureOf(Collections.singleton(new Role("Role")));
+
+		RoleGraph.invalidateAfterCommit();
+
+		assertFalse(closure.isCurrent());
+	}
+
+	/**
+	 * @see RoleGraph#invalidateAfterCommit(Role)
+	 */
+	@Test
+	public void invalidateAfterCommit_shouldMakeTheRoleAndItsDescendantsSeeItsChangesRightAway() {
+		Role grandparent = new Role("Grandparent");
+		Role parent = new Role("Parent");
+		Role child = new Role("Child");
+		child.getInheritedRoles().add(parent);
+		parent.getChildRoles().add(child);
+		assertThat(child.getAllParentRoles(), containsInAnyOrder(parent));
+		RoleGraph.Closure other = RoleGraph.closureOf(Collections.singleton(new Role("Other")));
+		TransactionSynchronizationManager.initSynchronization();
+
+		parent.getInheritedRoles().add(grandparent);
+		RoleGraph.invalidateAfterCommit(parent);
+
+		assertThat(parent.getAllParentRoles(), containsInAnyOrder(grandparent));
+		assertThat(child.getAllParentRoles(), containsInAnyOrder(parent, grandparent));
+		assertTrue(other.isCurrent());
+		completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+		assertFalse(other.isCurrent());
+	}
+
+	private void completeTransaction(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the module resources served by {@link ModuleResourcesServlet} in memory, together with
+ * their ETags and gzipped content, so that serving them again does not touch the file system.
+ * Resources larger than the maximum file size are served from their files, but what is known
+ * about them is kept as well. The least recently used resources are dropped once the cached
+ * content takes more than the maximum size. The cache is cleared whenever a module is started or
+ * stopped, since that replaces the module's resources.
+ *
+ * @since 2.5.0
+ */
+public class ModuleResourceCache {
+	
+	public static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+	
+	public static final long DEFAULT_MAX_FILE_SIZE = 1024 * 1024;
+	
+	private final long maxSize;
+	
+	private final long maxFileSize;
+	
+	private final LinkedHashMap<String, Resource> resources = new LinkedHashMap<>(16, 0.75f, true);
+	
+	private long size = 0;
+	
+	/**
+	 * @param maxSize the maximum number of bytes of content to keep in memory
+	 * @param maxFileSize the size of the largest file whose content is kept in memory
+	 */
+	public ModuleResourceCache(long maxSize, long maxFileSize) {
+		this.maxSize = maxSize;
+		this.maxFileSize = maxFileSize;
+	}
+	
+	/**
+	 * Gets the resource cached for the given path, if its file has not changed since or if it is
+	 * not checked for changes
+	 *
+	 * @param path the path of the resource
+	 * @return the cached resource or null
+	 * <strong>Should</strong> return null once the file of a resource checked for changes has changed
+	 */
+	public synchronized Resource get(String path) {
+		Resource resource = resources.get(path);
+		if (resource != null && resource.checkModified
+		        && (resource.file.lastModified() != resource.lastModified || resource.file.length() != resource.length)) {
+			remove(path);
+			return null;
+		}
+		return resource;
+	}
+	
+	/**
+	 * Reads the given file and caches it as the resource of the given path
+	 *
+	 * @param path the path of the resource
+	 * @param file the file of the resource
+	 * @param contentType the content type of the resource
+	 * @param checkModified whether to check the file for changes whenever the resource is served
+	 * @return the cached resource
+	 * @throws IOException if the file cannot be read
+	 * <strong>Should</strong> keep the gzipped content of compressible resources
+	 * <strong>Should</strong> not keep the content of files larger than the maximum file size
+	 * <strong>Should</strong> drop the least recently used resources when full
+	 */
+	public Resource put(String path, File file, String contentType, boolean checkModified) throws IOException {
+		long lastModified = file.lastModified();
+		long length = file.length();
+		byte[] content = null;
+		byte[] gzipped = null;
+		String etag;
+		if (length <= maxFileSize) {
+			content = Files.readAllBytes(file.toPath());
+			length = content.length;
+			etag = "\"" + digest(content) + "\"";
+			if (isCompressible(contentType)) {
+				gzipped = gzip(content);
+				if (gzipped.length >= content.length) {
+					gzipped = null;
+				}
+			}
+		} else {
+			etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+		}
+		
+		Resource resource = new Resource(file, contentType, lastModified, length, etag, content, gzipped, checkModified);
+		synchronized (this) {
+			remove(path);
+			resources.put(path, resource);
+			size += resource.getSize();
+			Iterator<Resource> eldest = resources.values().iterator();
+			while (size > maxSize && eldest.hasNext()) {
+				Resource removed = eldest.next();
+				if (removed != resource) {
+					eldest.remove();
+					size -= removed.getSize();
+				}
+			}
+		}
+		return resource;
+	}
+	
+	/**
+	 * Drops all the cached resources
+	 */
+	public synchronized void clear() {
+		resources.clear();
+		size = 0;
+	}
+	
+	/**
+	 * @return the number of cached resources
+	 */
+	public synchronized int getResourceCount() {
+		return resources.size();
+	}
+	
+	private void remove(String path) {
+		Resource removed = resources.remove(path);
+		if (removed != null) {
+			size -= removed.getSize();
+		}
+	}
+	
+	private static boolean isCompressible(String contentType) {
+		return contentType != null
+		        && (contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+		                || contentType.contains("xml") || contentType.contains("svg"));
+	}
+	
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream(content.length / 4 + 32);
+		try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+			out.write(content);
+		}
+		return gzipped.toByteArray();
+	}
+	
+	private static String digest(byte[] content) {
+		try {
+			return String.format("%032x", new BigInteger(1, MessageDigest.getInstance("MD5").digest(content)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 is not available", e);
+		}
+	}
+	
+	/**
+	 * A module resource as it is served
+	 */
+	public static class Resource {
+		
+		private final File file;
+		
+		private final String contentType;
+		
+		private final long lastModified;
+		
+		private final long length;
+		
+		private final String etag;
+		
+		private final byte[] content;
+		
+		private final byte[] gzippedContent;
+		
+		private final boolean checkModified;
+		
+		Resource(File file, String contentType, long lastModified, long length, String etag, byte[] content,
+		    byte[] gzippedContent, boolean checkModified) {
+			this.file = file;
+			this.contentType = contentType;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.etag = etag;
+			this.content = content;
+			this.gzippedContent = gzippedContent;
+			this.checkModified = checkModified;
+		}
+		
+		public File getFile() {
+			return file;
+		}
+		
+		public String getContentType() {
+			return contentType;
+		}
+		
+		public long getLastModified() {
+			return lastModified;
+		}
+		
+		public long getLength() {
+			return length;
+		}
+		
+		/**
+		 * @return the strong ETag of the content
+		 */
+		public String getEtag() {
+			return etag;
+		}
+		
+		/**
+		 * @return the strong ETag of the gzipped content
+		 */
+		public String getGzippedEtag() {
+			return etag.substring(0, etag.length() - 1) + "-gzip\"";
+		}
+		
+		/**
+		 * @return the content, or null if it is read from the file when served
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+		
+		/**
+		 * @return the gzipped content, or null if the content is not worth compressing
+		 */
+		public byte[] getGzippedContent() {
+			return gzippedContent;
+		}
+		
+		private long getSize() {
+			return (content == null ? 0 : content.length) + (gzippedContent == null ? 0 : gzippedContent.length);
+		}
+	}
+}
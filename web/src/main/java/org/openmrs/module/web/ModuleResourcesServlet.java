@@ -10,8 +10,9 @@
 package org.openmrs.module.web;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -19,8 +20,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.openmrs.module.Module;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.openmrs.module.ModuleUtil;
-import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.module.web.ModuleResourceCache.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +35,36 @@ public class ModuleResourcesServlet extends HttpServlet {
 	
 	private static final Logger log = LoggerFactory.getLogger(ModuleResourcesServlet.class);
 	
+	/**
+	 * The Cache-Control header sent with the resources, unless set by the cacheControl init parameter.
+	 * Module resources are not versioned, so browsers check with the server that they are still
+	 * current, which costs a 304 response once they have them.
+	 */
+	public static final String DEFAULT_CACHE_CONTROL = "public, max-age=0, must-revalidate";
+	
+	// shared by all the instances, since modules are started and stopped through static methods
+	private static final ModuleResourceCache cache = new ModuleResourceCache(ModuleResourceCache.DEFAULT_MAX_SIZE,
+	        ModuleResourceCache.DEFAULT_MAX_FILE_SIZE);
+	
+	private static final long[] UNSATISFIABLE_RANGE = new long[0];
+	
+	private String cacheControl = DEFAULT_CACHE_CONTROL;
+	
+	/**
+	 * Drops the cached module resources, which is done whenever a module is started or stopped
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+	
+	@Override
+	public void init() throws ServletException {
+		super.init();
+		if (StringUtils.isNotBlank(getInitParameter("cacheControl"))) {
+			cacheControl = getInitParameter("cacheControl");
+		}
+	}
+	
 	/**
 	 * Used for caching purposes
 	 *
@@ -39,38 +72,111 @@ public class ModuleResourcesServlet extends HttpServlet {
 	 */
 	@Override
 	protected long getLastModified(HttpServletRequest req) {
-		File f = getFile(req);
+		Resource resource;
+		try {
+			resource = getResource(req);
+		}
+		catch (IOException e) {
+			resource = null;
+		}
 		
-		if (f == null) {
+		if (resource == null) {
 			return super.getLastModified(req);
 		}
 		
-		return f.lastModified();
+		return resource.getLastModified();
 	}
 	
+	/**
+	 * Serves the requested module resource, from memory when it is small enough. The responses carry
+	 * a strong ETag, answer If-None-Match with 304, honor a single byte range and are gzipped when
+	 * the client accepts it and compressing the resource is worth it.
+	 * <strong>Should</strong> serve the resource with its ETag and Cache-Control headers
+	 * <strong>Should</strong> return not modified if the ETag matches
+	 * <strong>Should</strong> serve the gzipped resource if the client accepts it
+	 * <strong>Should</strong> serve the requested byte range
+	 * <strong>Should</strong> return range not satisfiable for a range past the end
+	 * <strong>Should</strong> return not found if there is no such resource
+	 */
 	@Override
 	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		
 		log.debug("In service method for module servlet: " + request.getPathInfo());
 		
-		File f = getFile(request);
-		if (f == null) {
+		Resource resource = getResource(request);
+		if (resource == null) {
 			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
 			return;
 		}
 		
-		response.setDateHeader("Last-Modified", f.lastModified());
-		response.setContentLength(Long.valueOf(f.length()).intValue());
-		String mimeType = getServletContext().getMimeType(f.getName());
-		response.setContentType(mimeType);
+		String range = request.getHeader("Range");
+		boolean gzip = range == null && resource.getGzippedContent() != null && acceptsGzip(request);
+		String etag = gzip ? resource.getGzippedEtag() : resource.getEtag();
 		
-		FileInputStream is = new FileInputStream(f);
-		try {
-			OpenmrsUtil.copyFile(is, response.getOutputStream());
+		response.setDateHeader("Last-Modified", resource.getLastModified());
+		response.setHeader("ETag", etag);
+		response.setHeader("Cache-Control", cacheControl);
+		response.setHeader("Accept-Ranges", "bytes");
+		if (resource.getGzippedContent() != null) {
+			response.setHeader("Vary", "Accept-Encoding");
+		}
+		response.setContentType(resource.getContentType());
+		
+		if (etagMatches(request.getHeader("If-None-Match"), etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		
+		long length = resource.getLength();
+		if (range != null && ifRangeMatches(request, resource)) {
+			long[] bytes = parseRange(range, length);
+			if (bytes == UNSATISFIABLE_RANGE) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (bytes != null) {
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + bytes[0] + "-" + bytes[1] + "/" + length);
+				write(resource, bytes[0], bytes[1] - bytes[0] + 1, response);
+				return;
+			}
+		}
+		
+		if (gzip) {
+			response.setHeader("Content-Encoding", "gzip");
+			response.setContentLength(resource.getGzippedContent().length);
+			response.getOutputStream().write(resource.getGzippedContent());
+		} else {
+			write(resource, 0, length, response);
+		}
+	}
+	
+	/**
+	 * Gets the requested resource from the cache, caching it first if needed
+	 *
+	 * @param request the current http request
+	 * @return the resource being requested or null if not found
+	 * @throws IOException if the file of the resource cannot be read
+	 */
+	protected Resource getResource(HttpServletRequest request) throws IOException {
+		String path = request.getPathInfo();
+		if (path == null) {
+			return null;
 		}
-		finally {
-			OpenmrsUtil.closeStream(is);
+		
+		Resource resource = cache.get(path);
+		if (resource == null) {
+			File f = getFile(request);
+			if (f == null) {
+				return null;
+			}
+			// resources of modules in development change without the module being restarted
+			Module module = ModuleUtil.getModuleForPath(path);
+			boolean checkModified = module == null || ModuleUtil.getDevelopmentDirectory(module.getModuleId()) != null;
+			resource = cache.put(path, f, getServletContext().getMimeType(f.getName()), checkModified);
 		}
+		return resource;
 	}
 	
 	/**
@@ -110,4 +216,129 @@ public class ModuleResourcesServlet extends HttpServlet {
 		return f;
 	}
 	
+	/**
+	 * Parses a Range header holding a single range of bytes
+	 *
+	 * @param range the Range header
+	 * @param length the length of the resource
+	 * @return the first and last byte of the range, {@link #UNSATISFIABLE_RANGE} if the range starts
+	 *         past the end of the resource or null if the header is invalid or holds several ranges,
+	 *         in which case the whole resource is served
+	 */
+	private static long[] parseRange(String range, long length) {
+		if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+			return null;
+		}
+		String spec = range.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+		try {
+			long first;
+			long last;
+			if (dash == 0) {
+				long suffix = Long.parseLong(spec.substring(1));
+				if (suffix <= 0) {
+					return UNSATISFIABLE_RANGE;
+				}
+				first = Math.max(length - suffix, 0);
+				last = length - 1;
+			} else {
+				first = Long.parseLong(spec.substring(0, dash));
+				last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+				if (first > last && first < length) {
+					return null;
+				}
+			}
+			if (first >= length) {
+				return UNSATISFIABLE_RANGE;
+			}
+			return new long[] { first, last };
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * @return true if there is no If-Range header or it matches the resource, so that the range
+	 *         requested can be served
+	 */
+	private static boolean ifRangeMatches(HttpServletRequest request, Resource resource) {
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"")) {
+			return ifRange.equals(resource.getEtag());
+		}
+		try {
+			return request.getDateHeader("If-Range") / 1000 == resource.getLastModified() / 1000;
+		}
+		catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	private static boolean etagMatches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if ("*".equals(candidate) || etag.equals(candidate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean acceptsGzip(HttpServletRequest request) {
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String encoding : acceptEncoding.split(",")) {
+			String[] parts = encoding.split(";");
+			String name = parts[0].trim();
+			if ("gzip".equalsIgnoreCase(name) || "*".equals(name)) {
+				for (int i = 1; i < parts.length; i++) {
+					String parameter = parts[i].trim();
+					if (parameter.startsWith("q=") && NumberUtils.toDouble(parameter.substring(2).trim(), 1) == 0) {
+						return false;
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void write(Resource resource, long offset, long count, HttpServletResponse response)
+	        throws IOException {
+		response.setContentLengthLong(count);
+		OutputStream out = response.getOutputStream();
+		if (resource.getContent() != null) {
+			out.write(resource.getContent(), (int) offset, (int) count);
+			return;
+		}
+		
+		try (RandomAccessFile file = new RandomAccessFile(resource.getFile(), "r")) {
+			file.seek(offset);
+			byte[] buffer = new byte[8192];
+			long remaining = count;
+			while (remaining > 0) {
+				int read = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (read < 0) {
+					break;
+				}
+				out.write(buffer, 0, read);
+				remaining -= read;
+			}
+		}
+	}
 }
@@ -17,7 +17,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -55,6 +54,7 @@ import org.openmrs.module.ModuleUtil;
 import org.openmrs.module.web.filter.ModuleFilterConfig;
 import org.openmrs.module.web.filter.ModuleFilterDefinition;
 import org.openmrs.module.web.filter.ModuleFilterMapping;
+import org.openmrs.module.web.filter.ModuleFilterMatcher;
 import org.openmrs.scheduler.SchedulerException;
 import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.TaskDefinition;
@@ -96,6 +96,10 @@ public class WebModuleUtil {
 	private static List<ModuleFilterMapping> moduleFilterMappings = Collections
 	        .synchronizedList(new Vector<>());
 	
+	// compiled from the filter-mappings whenever the module filters change
+	private static volatile ModuleFilterMatcher moduleFilterMatcher = new ModuleFilterMatcher(Collections.emptyList(),
+	        Collections.emptyMap(), ModuleFilterMatcher.DEFAULT_CACHE_SIZE);
+	
 	/**
 	 * Performs the webapp specific startup needs for modules Normal startup is done in
 	 * {@link ModuleFactory#startModule(Module)} If delayContextRefresh is true, the spring context
@@ -227,6 +231,9 @@ public class WebModuleUtil {
 				}
 			}
 			
+			// the module's resources have just been copied over, drop those served so far
+			ModuleResourcesServlet.clearCache();
+			
 			// find and add the dwr code to the dwr-modules.xml file (if defined)
 			InputStream inputStream = null;
 			try {
@@ -550,6 +557,7 @@ public class WebModuleUtil {
 		// Load Filter Mappings
 		List<ModuleFilterMapping> modMappings = ModuleFilterMapping.retrieveFilterMappings(module);
 		moduleFilterMappings.addAll(modMappings);
+		compileFilterMatcher();
 		log.debug("Module: " + module.getModuleId() + " successfully loaded " + modMappings.size() + " filter mappings.");
 	}
 	
@@ -569,6 +577,8 @@ public class WebModuleUtil {
 				log.debug("Removed ModuleFilterMapping: " + mapping);
 			}
 		}
+		// stop handing out the filters before destroying them
+		compileFilterMatcher();
 		
 		// unload Filters
 		Collection<Filter> filters = moduleFilters.get(module);
@@ -586,6 +596,7 @@ public class WebModuleUtil {
 
 			moduleFiltersByName.values().removeIf(filters::contains);
 		}
+		compileFilterMatcher();
 	}
 	
 	/**
@@ -616,7 +627,6 @@ public class WebModuleUtil {
 	 */
 	public static List<Filter> getFiltersForRequest(ServletRequest request) {
 		
-		List<Filter> filters = new ArrayList<>();
 		if (request != null) {
 			HttpServletRequest httpRequest = (HttpServletRequest) request;
 			String requestPath = httpRequest.getRequestURI();
@@ -625,20 +635,24 @@ public class WebModuleUtil {
 				if (requestPath.startsWith(httpRequest.getContextPath())) {
 					requestPath = requestPath.substring(httpRequest.getContextPath().length());
 				}
-				for (ModuleFilterMapping filterMapping : WebModuleUtil.getFilterMappings()) {
-					if (ModuleFilterMapping.filterMappingPasses(filterMapping, requestPath)) {
-						Filter passedFilter = moduleFiltersByName.get(filterMapping.getFilterName());
-						if (passedFilter != null) {
-							filters.add(passedFilter);
-						} else {
-							log.warn("Unable to retrieve filter that has a name of " + filterMapping.getFilterName()
-							        + " in filter mapping.");
-						}
-					}
-				}
+				return moduleFilterMatcher.getFilters(requestPath);
+			}
+		}
+		return Collections.emptyList();
+	}
+	
+	/**
+	 * Compiles the current filter mappings into the matcher used by
+	 * {@link #getFiltersForRequest(ServletRequest)}, which also drops the filters cached for request
+	 * paths
+	 */
+	private static void compileFilterMatcher() {
+		synchronized (moduleFilterMappings) {
+			synchronized (moduleFiltersByName) {
+				moduleFilterMatcher = new ModuleFilterMatcher(moduleFilterMappings, moduleFiltersByName,
+				        ModuleFilterMatcher.DEFAULT_CACHE_SIZE);
 			}
 		}
-		return filters;
 	}
 	
 	/**
@@ -744,6 +758,9 @@ public class WebModuleUtil {
 		// remove the module's filters and filter mappings
 		unloadFilters(mod);
 		
+		// drop the module's resources served so far
+		ModuleResourcesServlet.clearCache();
+		
 		// stop all tasks associated with mod
 		stopTasks(mod);
 		
@@ -0,0 +1,181 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web.filter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.Filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the module filters whose mappings match a request path without checking the path against
+ * every url pattern. The patterns of the mappings are compiled once into an index of exact paths, a
+ * trie of path prefixes and a map of extensions, which give the mappings matching a path in the
+ * order they were registered, like {@link ModuleFilterMapping#filterMappingPasses(ModuleFilterMapping, String)}
+ * does one mapping at a time. The filters found for a path are cached, up to the given number of
+ * paths, so that the filters of the paths requested again are found without any matching. The cache
+ * is emptied whenever it is full, which keeps it small when requests carry many distinct paths.
+ * <p>
+ * A matcher does not change once created, apart from its cache, and is safe to use from many
+ * threads. It is created again whenever the module filters change.
+ *
+ * @since 2.5.0
+ */
+public class ModuleFilterMatcher {
+	
+	private static final Logger log = LoggerFactory.getLogger(ModuleFilterMatcher.class);
+	
+	public static final int DEFAULT_CACHE_SIZE = 1000;
+	
+	private final List<ModuleFilterMapping> mappings;
+	
+	private final Map<String, Filter> filtersByName;
+	
+	private final BitSet matchingAll = new BitSet();
+	
+	private final Map<String, BitSet> matchingPath = new HashMap<>();
+	
+	private final PrefixNode matchingPrefix = new PrefixNode();
+	
+	private final Map<String, BitSet> matchingExtension = new HashMap<>();
+	
+	private final Map<String, List<Filter>> cache = new ConcurrentHashMap<>();
+	
+	private final int cacheSize;
+	
+	/**
+	 * @param mappings the filter mappings, in the order they were registered
+	 * @param filtersByName the filters the mappings refer to
+	 * @param cacheSize the number of request paths to cache the filters of
+	 */
+	public ModuleFilterMatcher(List<ModuleFilterMapping> mappings, Map<String, Filter> filtersByName, int cacheSize) {
+		this.mappings = new ArrayList<>(mappings);
+		this.filtersByName = new HashMap<>(filtersByName);
+		this.cacheSize = cacheSize;
+		
+		for (int i = 0; i < this.mappings.size(); i++) {
+			ModuleFilterMapping mapping = this.mappings.get(i);
+			for (String pattern : mapping.getUrlPatterns()) {
+				addUrlPattern(pattern, i);
+			}
+			for (String servletName : mapping.getServletNames()) {
+				// see ModuleFilterMapping#servletNameMatches(String, String)
+				if ("*".equals(servletName)) {
+					matchingAll.set(i);
+				} else if (servletName != null) {
+					matchingPath.computeIfAbsent(servletName, key -> new BitSet()).set(i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gets the filters whose mappings match the given path, in the order of the mappings
+	 *
+	 * @param requestPath the request path, relative to the context path
+	 * @return the matching filters, which cannot be modified
+	 * <strong>Should</strong> match the same filters as the filter mappings
+	 * <strong>Should</strong> return the filters in the order of their mappings
+	 * <strong>Should</strong> return an empty list if the requestPath is null
+	 * <strong>Should</strong> not cache more than the given number of paths
+	 */
+	public List<Filter> getFilters(String requestPath) {
+		if (requestPath == null) {
+			return Collections.emptyList();
+		}
+		List<Filter> filters = cache.get(requestPath);
+		if (filters == null) {
+			filters = findFilters(requestPath);
+			if (cache.size() >= cacheSize) {
+				cache.clear();
+			}
+			cache.put(requestPath, filters);
+		}
+		return filters;
+	}
+	
+	private void addUrlPattern(String pattern, int mapping) {
+		// see ModuleFilterMapping#urlPatternMatches(String, String)
+		if (pattern == null) {
+			return;
+		}
+		if ("*".equals(pattern) || "/*".equals(pattern)) {
+			matchingAll.set(mapping);
+			return;
+		}
+		matchingPath.computeIfAbsent(pattern, key -> new BitSet()).set(mapping);
+		if (pattern.endsWith("/*")) {
+			PrefixNode node = matchingPrefix;
+			for (String segment : pattern.substring(0, pattern.length() - 2).split("/", -1)) {
+				node = node.children.computeIfAbsent(segment, key -> new PrefixNode());
+			}
+			node.mappings.set(mapping);
+		} else if (pattern.startsWith("*.") && pattern.length() > 2) {
+			matchingExtension.computeIfAbsent(pattern.substring(2), key -> new BitSet()).set(mapping);
+		}
+	}
+	
+	private List<Filter> findFilters(String requestPath) {
+		BitSet matching = (BitSet) matchingAll.clone();
+		
+		BitSet exact = matchingPath.get(requestPath);
+		if (exact != null) {
+			matching.or(exact);
+		}
+		
+		PrefixNode node = matchingPrefix;
+		for (String segment : requestPath.split("/", -1)) {
+			node = node.children.get(segment);
+			if (node == null) {
+				break;
+			}
+			matching.or(node.mappings);
+		}
+		
+		int slash = requestPath.lastIndexOf('/');
+		int period = requestPath.lastIndexOf('.');
+		if (slash >= 0 && period > slash) {
+			BitSet extension = matchingExtension.get(requestPath.substring(period + 1));
+			if (extension != null) {
+				matching.or(extension);
+			}
+		}
+		
+		if (matching.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Filter> filters = new ArrayList<>(matching.cardinality());
+		for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+			String filterName = mappings.get(i).getFilterName();
+			Filter filter = filtersByName.get(filterName);
+			if (filter != null) {
+				filters.add(filter);
+			} else {
+				log.warn("Unable to retrieve filter that has a name of " + filterName + " in filter mapping.");
+			}
+		}
+		return Collections.unmodifiableList(filters);
+	}
+	
+	private static final class PrefixNode {
+		
+		private final Map<String, PrefixNode> children = new HashMap<>();
+		
+		private final BitSet mappings = new BitSet();
+	}
+}
@@ -37,6 +37,9 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	
 	protected int error = 0;
 	
+	// set once the response is already encoded or holds partial content, it is then sent as it is
+	protected boolean passThrough = false;
+	
 	public GZIPResponseWrapper(HttpServletResponse response) {
 		super(response);
 		origResponse = response;
@@ -70,6 +73,9 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 	
 	@Override
 	public ServletOutputStream getOutputStream() throws IOException {
+		if (passThrough && stream == null && writer == null) {
+			return super.getOutputStream();
+		}
 		if (writer != null) {
 			throw new IllegalStateException("getWriter() has already been called!");
 		}
@@ -89,6 +95,10 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 			return super.getWriter();
 		}
 		
+		if (passThrough && stream == null) {
+			return super.getWriter();
+		}
+		
 		if (writer != null) {
 			return writer;
 		}
@@ -120,5 +130,45 @@ public class GZIPResponseWrapper extends HttpServletResponseWrapper {
 		//Without this empty method, the base class's setContentLength() method will be
 		//called, leading to the browser's waiting for more data than what we actually
 		//have for the compressed output, hence slowing down the response. TRUNK-5978
+		if (passThrough) {
+			super.setContentLength(length);
+		}
+	}
+	
+	@Override
+	public void setContentLengthLong(long length) {
+		// ignored for the same reason as setContentLength(int)
+		if (passThrough) {
+			super.setContentLengthLong(length);
+		}
+	}
+	
+	@Override
+	public void setHeader(String name, String value) {
+		super.setHeader(name, value);
+		checkPassThrough(name);
+	}
+	
+	@Override
+	public void addHeader(String name, String value) {
+		super.addHeader(name, value);
+		checkPassThrough(name);
+	}
+	
+	@Override
+	public void setStatus(int sc) {
+		super.setStatus(sc);
+		if (sc == SC_PARTIAL_CONTENT) {
+			passThrough = true;
+		}
+	}
+	
+	/**
+	 * Content which is already encoded, like gzipped module resources, is not compressed again
+	 */
+	private void checkPassThrough(String headerName) {
+		if ("Content-Encoding".equalsIgnoreCase(headerName) && stream == null && writer == null) {
+			passThrough = true;
+		}
 	}
 }
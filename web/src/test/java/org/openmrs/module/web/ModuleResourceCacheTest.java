@@ -0,0 +1,103 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.module.web.ModuleResourceCache.Resource;
+
+public class ModuleResourceCacheTest {
+	
+	@TempDir
+	Path tempDir;
+	
+	private File createFile(String name, String content) throws Exception {
+		File file = tempDir.resolve(name).toFile();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+	
+	/**
+	 * @see ModuleResourceCache#put(String,File,String,boolean)
+	 */
+	@Test
+	public void put_shouldKeepTheGzippedContentOfCompressibleResources() throws Exception {
+		ModuleResourceCache cache = new ModuleResourceCache(100000, 10000);
+		File file = createFile("style.css", StringUtils.repeat("body { color: red; }\n", 50));
+		
+		Resource css = cache.put("/mymodule/style.css", file, "text/css", false);
+		Resource image = cache.put("/mymodule/image.png", file, "image/png", false);
+		
+		assertNotNull(css.getContent());
+		assertNotNull(css.getGzippedContent());
+		assertNull(image.getGzippedContent());
+		assertSame(css, cache.get("/mymodule/style.css"));
+	}
+	
+	/**
+	 * @see ModuleResourceCache#put(String,File,String,boolean)
+	 */
+	@Test
+	public void put_shouldNotKeepTheContentOfFilesLargerThanTheMaximumFileSize() throws Exception {
+		ModuleResourceCache cache = new ModuleResourceCache(100000, 10);
+		File file = createFile("app.js", "var large = true;");
+		
+		Resource resource = cache.put("/mymodule/app.js", file, "application/javascript", false);
+		
+		assertNull(resource.getContent());
+		assertNull(resource.getGzippedContent());
+		assertEquals(file.length(), resource.getLength());
+		assertSame(resource, cache.get("/mymodule/app.js"));
+	}
+	
+	/**
+	 * @see ModuleResourceCache#put(String,File,String,boolean)
+	 */
+	@Test
+	public void put_shouldDropTheLeastRecentlyUsedResourcesWhenFull() throws Exception {
+		ModuleResourceCache cache = new ModuleResourceCache(25, 100);
+		File file = createFile("a.png", "0123456789");
+		
+		cache.put("/mymodule/a.png", file, "image/png", false);
+		cache.put("/mymodule/b.png", file, "image/png", false);
+		cache.get("/mymodule/a.png");
+		cache.put("/mymodule/c.png", file, "image/png", false);
+		
+		assertEquals(2, cache.getResourceCount());
+		assertNotNull(cache.get("/mymodule/a.png"));
+		assertNull(cache.get("/mymodule/b.png"));
+		assertNotNull(cache.get("/mymodule/c.png"));
+	}
+	
+	/**
+	 * @see ModuleResourceCache#get(String)
+	 */
+	@Test
+	public void get_shouldReturnNullOnceTheFileOfAResourceCheckedForChangesHasChanged() throws Exception {
+		ModuleResourceCache cache = new ModuleResourceCache(100000, 10000);
+		File file = createFile("app.js", "var a = 1;");
+		cache.put("/mymodule/app.js", file, "application/javascript", true);
+		
+		Files.write(file.toPath(), "var a = 12;".getBytes(StandardCharsets.UTF_8));
+		
+		assertNull(cache.get("/mymodule/app.js"));
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+
+public class ModuleResourcesServletTest {
+	
+	private static final String CONTENT = StringUtils.repeat("function hello() { return 'hello'; }\n", 100);
+	
+	@TempDir
+	Path tempDir;
+	
+	private File resource;
+	
+	private ModuleResourcesServlet servlet;
+	
+	@BeforeEach
+	public void setUp() throws Exception {
+		resource = tempDir.resolve("app.js").toFile();
+		Files.write(resource.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		servlet = new ModuleResourcesServlet() {
+			
+			@Override
+			protected File getFile(HttpServletRequest request) {
+				return "/mymodule/app.js".equals(request.getPathInfo()) ? resource : null;
+			}
+		};
+		servlet.init(new MockServletConfig());
+	}
+	
+	@AfterEach
+	public void clearCache() {
+		ModuleResourcesServlet.clearCache();
+	}
+	
+	private MockHttpServletResponse get(String path, String... headers) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/moduleResources" + path);
+		request.setPathInfo(path);
+		for (int i = 0; i < headers.length; i += 2) {
+			request.addHeader(headers[i], headers[i + 1]);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		servlet.service(request, response);
+		return response;
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldServeTheResourceWithItsETagAndCacheControlHeaders() throws Exception {
+		MockHttpServletResponse response = get("/mymodule/app.js");
+		
+		assertEquals(200, response.getStatus());
+		assertEquals(CONTENT, response.getContentAsString());
+		assertEquals(CONTENT.length(), response.getContentLength());
+		assertNotNull(response.getHeader("ETag"));
+		assertEquals(ModuleResourcesServlet.DEFAULT_CACHE_CONTROL, response.getHeader("Cache-Control"));
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertNull(response.getHeader("Content-Encoding"));
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldReturnNotModifiedIfTheETagMatches() throws Exception {
+		String etag = get("/mymodule/app.js").getHeader("ETag");
+		
+		MockHttpServletResponse response = get("/mymodule/app.js", "If-None-Match", "\"other\", " + etag);
+		
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldServeTheGzippedResourceIfTheClientAcceptsIt() throws Exception {
+		MockHttpServletResponse plain = get("/mymodule/app.js");
+		MockHttpServletResponse response = get("/mymodule/app.js", "Accept-Encoding", "deflate, gzip");
+		
+		assertEquals(200, response.getStatus());
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+		assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+		byte[] unzipped = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+		assertEquals(CONTENT, new String(unzipped, StandardCharsets.UTF_8));
+		assertEquals(false, plain.getHeader("ETag").equals(response.getHeader("ETag")));
+		assertEquals(200, get("/mymodule/app.js", "Accept-Encoding", "gzip;q=0").getStatus());
+		assertNull(get("/mymodule/app.js", "Accept-Encoding", "gzip;q=0").getHeader("Content-Encoding"));
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldServeTheRequestedByteRange() throws Exception {
+		byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+		
+		MockHttpServletResponse response = get("/mymodule/app.js", "Range", "bytes=10-19", "Accept-Encoding", "gzip");
+		
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 10-19/" + content.length, response.getHeader("Content-Range"));
+		assertNull(response.getHeader("Content-Encoding"));
+		assertArrayEquals(CONTENT.substring(10, 20).getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+		
+		response = get("/mymodule/app.js", "Range", "bytes=-5");
+		assertEquals("bytes " + (content.length - 5) + "-" + (content.length - 1) + "/" + content.length,
+		    response.getHeader("Content-Range"));
+		assertEquals(CONTENT.substring(content.length - 5), response.getContentAsString());
+		
+		response = get("/mymodule/app.js", "Range", "bytes=0-4", "If-Range", "\"changed\"");
+		assertEquals(200, response.getStatus());
+		assertEquals(CONTENT, response.getContentAsString());
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldReturnRangeNotSatisfiableForARangePastTheEnd() throws Exception {
+		MockHttpServletResponse response = get("/mymodule/app.js", "Range", "bytes=100000-");
+		
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */" + CONTENT.length(), response.getHeader("Content-Range"));
+	}
+	
+	/**
+	 * @see ModuleResourcesServlet#doGet(HttpServletRequest,javax.servlet.http.HttpServletResponse)
+	 */
+	@Test
+	public void doGet_shouldReturnNotFoundIfThereIsNoSuchResource() throws Exception {
+		assertEquals(404, get("/mymodule/missing.js").getStatus());
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Filter;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.module.Module;
+
+public class ModuleFilterMatcherTest {
+	
+	private static final List<String> PATTERNS = Arrays.asList("/*", "*", "/ws/rest/*", "/ws/*", "/ws/rest/v1/patient",
+	    "*.form", "*.htm", "/module/*", "/ws", "/module/reporting/*", "*.tar.gz", "foo/*", "//*", "/ws/rest/*.form");
+	
+	private static final List<String> PATHS = Arrays.asList("", "/", "/ws", "/ws/", "/wsx", "/ws/rest", "/ws/rest/v1/patient",
+	    "/ws/rest/v1/patient/abc", "/ws/restful", "/index.htm", "/admin/index.form", "/admin/index.form/", "/admin/index.",
+	    "/module/reporting/run.form", "/module", "/modules/x.htm", "/file.tar.gz", "foo", "foo/bar", "//x", "/ws/rest/*.form",
+	    "index.htm", "/a.b/c");
+	
+	private final Map<String, Filter> filtersByName = new HashMap<>();
+	
+	private final List<ModuleFilterMapping> mappings = new ArrayList<>();
+	
+	private ModuleFilterMapping addMapping(String filterName, List<String> urlPatterns, List<String> servletNames) {
+		filtersByName.put(filterName, mock(Filter.class));
+		ModuleFilterMapping mapping = new ModuleFilterMapping(new Module(filterName));
+		mapping.setFilterName(filterName);
+		mapping.setUrlPatterns(new ArrayList<>(urlPatterns));
+		mapping.setServletNames(new ArrayList<>(servletNames));
+		mappings.add(mapping);
+		return mapping;
+	}
+	
+	/**
+	 * @see ModuleFilterMatcher#getFilters(String)
+	 */
+	@Test
+	public void getFilters_shouldMatchTheSameFiltersAsTheFilterMappings() {
+		for (String pattern : PATTERNS) {
+			addMapping("filter for " + pattern, Arrays.asList(pattern), Arrays.asList());
+		}
+		addMapping("filter for servlets", Arrays.asList(), Arrays.asList("/ws", "dispatcher"));
+		addMapping("filter for all servlets", Arrays.asList(), Arrays.asList("*"));
+		ModuleFilterMatcher matcher = new ModuleFilterMatcher(mappings, filtersByName, 10);
+		
+		for (String path : PATHS) {
+			List<Filter> expected = new ArrayList<>();
+			for (ModuleFilterMapping mapping : mappings) {
+				if (ModuleFilterMapping.filterMappingPasses(mapping, path)) {
+					expected.add(filtersByName.get(mapping.getFilterName()));
+				}
+			}
+			assertEquals(expected, matcher.getFilters(path), path);
+			assertEquals(expected, matcher.getFilters(path), path);
+		}
+	}
+	
+	/**
+	 * @see ModuleFilterMatcher#getFilters(String)
+	 */
+	@Test
+	public void getFilters_shouldReturnTheFiltersInTheOrderOfTheirMappings() {
+		ModuleFilterMapping second = addMapping("second", Arrays.asList("*.form"), Arrays.asList());
+		ModuleFilterMapping first = addMapping("first", Arrays.asList("/module/*"), Arrays.asList());
+		ModuleFilterMatcher matcher = new ModuleFilterMatcher(mappings, filtersByName, 10);
+		
+		List<Filter> filters = matcher.getFilters("/module/edit.form");
+		
+		assertEquals(2, filters.size());
+		assertSame(filtersByName.get(second.getFilterName()), filters.get(0));
+		assertSame(filtersByName.get(first.getFilterName()), filters.get(1));
+	}
+	
+	/**
+	 * @see ModuleFilterMatcher#getFilters(String)
+	 */
+	@Test
+	public void getFilters_shouldReturnAnEmptyListIfTheRequestPathIsNull() {
+		addMapping("all", Arrays.asList("*"), Arrays.asList());
+		
+		assertTrue(new ModuleFilterMatcher(mappings, filtersByName, 10).getFilters(null).isEmpty());
+	}
+	
+	/**
+	 * @see ModuleFilterMatcher#getFilters(String)
+	 */
+	@Test
+	public void getFilters_shouldNotCacheMoreThanTheGivenNumberOfPaths() {
+		addMapping("all", Arrays.asList("*"), Arrays.asList());
+		ModuleFilterMatcher matcher = new ModuleFilterMatcher(mappings, filtersByName, 2);
+		
+		List<Filter> filters = matcher.getFilters("/first");
+		assertSame(filters, matcher.getFilters("/first"));
+		matcher.getFilters("/second");
+		matcher.getFilters("/third");
+		
+		assertNotSame(filters, matcher.getFilters("/first"));
+		assertEquals(filters, matcher.getFilters("/first"));
+	}
+}